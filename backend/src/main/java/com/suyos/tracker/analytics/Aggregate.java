@@ -0,0 +1,30 @@
+package com.suyos.tracker.analytics;
+
+import lombok.Value;
+
+/**
+ * Sum, count, minimum and maximum of a set of amounts in cents.
+ *
+ * The minimum and maximum are {@code Long.MAX_VALUE} and {@code Long.MIN_VALUE}
+ * when the count is zero.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Value
+public class Aggregate {
+
+    /** Sum of the amounts */
+    long sum;
+
+    /** Number of amounts */
+    long count;
+
+    /** Smallest amount */
+    long min;
+
+    /** Largest amount */
+    long max;
+
+}
@@ -0,0 +1,64 @@
+package com.suyos.tracker.analytics;
+
+/**
+ * Aggregation kernels over a user's expense columns.
+ *
+ * Kernels scan the parallel primitive arrays held by the columnar store
+ * (amount in cents, epoch day, category ordinal) and aggregate the rows
+ * whose day falls within an inclusive window. Only the first {@code size}
+ * entries of each array are read.
+ *
+ * Sums are not overflow-checked: validated amounts are below 10^9 cents,
+ * so a sum cannot overflow for fewer than 9.2 billion rows.
+ *
+ * {@link VectorAggregationKernels} is the only class that depends on the
+ * incubating {@code jdk.incubator.vector} module; {@link ScalarAggregationKernels}
+ * is the fallback when the module is not available.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public interface AggregationKernels {
+
+    /** Category argument selecting every category */
+    int ALL_CATEGORIES = -1;
+
+    /**
+     * Returns whether this implementation uses SIMD instructions.
+     *
+     * @return true if vectorized
+     */
+    boolean isVectorized();
+
+    /**
+     * Aggregates the rows within a day window, optionally of one category.
+     *
+     * @param cents amounts in cents
+     * @param epochDays dates as days since 1970-01-01
+     * @param categories category ordinals
+     * @param size number of valid entries in each array
+     * @param fromDay first epoch day (inclusive)
+     * @param toDay last epoch day (inclusive)
+     * @param category category ordinal to include, or {@link #ALL_CATEGORIES}
+     * @return the sum, count, minimum and maximum of the matching amounts
+     */
+    Aggregate aggregate(long[] cents, int[] epochDays, byte[] categories, int size,
+            int fromDay, int toDay, int category);
+
+    /**
+     * Sums and counts the rows within a day window per category.
+     *
+     * @param cents amounts in cents
+     * @param epochDays dates as days since 1970-01-01
+     * @param categories category ordinals
+     * @param size number of valid entries in each array
+     * @param fromDay first epoch day (inclusive)
+     * @param toDay last epoch day (inclusive)
+     * @param sums receives the sum per category ordinal; must be zeroed
+     * @param counts receives the count per category ordinal; must be zeroed
+     */
+    void sumByCategory(long[] cents, int[] epochDays, byte[] categories, int size,
+            int fromDay, int toDay, long[] sums, long[] counts);
+
+}
@@ -0,0 +1,283 @@
+package com.suyos.tracker.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Streaming distribution of positive amounts for outlier scoring.
+ *
+ * Tracks the count, mean and variance (Welford's algorithm) together with a
+ * log-linear histogram from which the median and the median absolute
+ * deviation (MAD) are estimated. Values below 16 get exact buckets; above,
+ * every power of two is split into 8 equal buckets, so a bucket's midpoint
+ * is within about 6% of any value in it. The histogram has at most 488
+ * buckets whatever the number of values, so robust statistics cost a
+ * bounded scan and values can be removed exactly when an amount changes.
+ *
+ * Instances are not thread-safe.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class AmountDistribution {
+
+    /** Scale factor making the MAD a consistent estimator of the standard deviation */
+    public static final double MAD_SCALE = 0.6745;
+
+    /** Buckets per power of two above the exact range */
+    private static final int SUB_BUCKETS = 8;
+
+    /** Serialization format version */
+    private static final byte FORMAT = 1;
+
+    /** Number of values */
+    private long count;
+
+    /** Running mean */
+    private double mean;
+
+    /** Sum of squared deviations from the mean */
+    private double m2;
+
+    /** Number of values per bucket index, grown on demand */
+    private long[] buckets = new long[0];
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value, at least 1
+     */
+    public void add(long value) {
+        int index = bucketIndex(value);
+        if (index >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, index + 1);
+        }
+        buckets[index]++;
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Removes a value that was added before.
+     *
+     * A value whose bucket is empty is ignored, so removals replayed against
+     * a distribution that never saw the value leave it unchanged.
+     *
+     * @param value the value
+     * @return whether the value was removed
+     */
+    public boolean remove(long value) {
+        int index = bucketIndex(value);
+        if (index >= buckets.length || buckets[index] == 0) {
+            return false;
+        }
+        buckets[index]--;
+        count--;
+        if (count == 0) {
+            mean = 0;
+            m2 = 0;
+            return true;
+        }
+        double delta = value - mean;
+        mean -= delta / count;
+        m2 = Math.max(m2 - delta * (value - mean), 0);
+        return true;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return value count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean of the values.
+     *
+     * @return the mean, or 0 if empty
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Returns the sample standard deviation of the values.
+     *
+     * @return the standard deviation, or 0 with fewer than two values
+     */
+    public double getStandardDeviation() {
+        return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0;
+    }
+
+    /**
+     * Returns the approximate median.
+     *
+     * @return midpoint of the bucket holding the median, or 0 if empty
+     */
+    public double getMedian() {
+        return count == 0 ? 0 : midpoint(medianBucket());
+    }
+
+    /**
+     * Returns the approximate median absolute deviation.
+     *
+     * Deviations of bucket midpoints from the median grow monotonically
+     * outwards from the median bucket, so they are merged from both sides
+     * until half of the values are covered.
+     *
+     * @return the MAD, or 0 if empty
+     */
+    public double getMedianAbsoluteDeviation() {
+        if (count == 0) {
+            return 0;
+        }
+        int center = medianBucket();
+        double median = midpoint(center);
+        long half = (count + 1) / 2;
+        long covered = buckets[center];
+        double deviation = 0;
+        int lower = center - 1;
+        int upper = center + 1;
+        while (covered < half) {
+            double lowerDeviation = lower >= 0 ? median - midpoint(lower) : Double.MAX_VALUE;
+            double upperDeviation = upper < buckets.length ? midpoint(upper) - median : Double.MAX_VALUE;
+            if (lowerDeviation <= upperDeviation) {
+                covered += buckets[lower--];
+                deviation = lowerDeviation;
+            } else {
+                covered += buckets[upper++];
+                deviation = upperDeviation;
+            }
+        }
+        return deviation;
+    }
+
+    /**
+     * Scores a value by its robust distance above the median.
+     *
+     * Computes the modified z-score {@code 0.6745 * (value - median) / MAD}.
+     * The MAD is floored at the bucket resolution around the median so that
+     * identical recurring amounts, whose MAD is zero, still score finitely.
+     *
+     * @param value the value to score
+     * @return the score, negative below the median, or 0 if empty
+     */
+    public double score(long value) {
+        if (count == 0) {
+            return 0;
+        }
+        double median = getMedian();
+        double mad = Math.max(getMedianAbsoluteDeviation(), Math.max(median / (2 * SUB_BUCKETS), 1));
+        return MAD_SCALE * (value - median) / mad;
+    }
+
+    /**
+     * Returns the number of bytes held by this distribution.
+     *
+     * @return estimated heap bytes
+     */
+    public long estimatedBytes() {
+        return 48 + 16 + (long) buckets.length * Long.BYTES;
+    }
+
+    /**
+     * Encodes this distribution.
+     *
+     * Only the used range of buckets is written.
+     *
+     * @return the encoded bytes
+     */
+    public byte[] toBytes() {
+        int first = 0;
+        while (first < buckets.length && buckets[first] == 0) {
+            first++;
+        }
+        int last = buckets.length - 1;
+        while (last >= first && buckets[last] == 0) {
+            last--;
+        }
+        int length = last - first + 1;
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 8 + 8 + 4 + 4 + length * 8);
+        buffer.put(FORMAT).putLong(count).putDouble(mean).putDouble(m2).putInt(first).putInt(length);
+        for (int i = first; i <= last; i++) {
+            buffer.putLong(buckets[i]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a distribution written by {@link #toBytes()}.
+     *
+     * @param bytes the encoded bytes
+     * @return the distribution
+     * @throws IllegalArgumentException if the bytes are not a known format
+     */
+    public static AmountDistribution fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != FORMAT) {
+            throw new IllegalArgumentException("Unknown amount distribution format");
+        }
+        AmountDistribution distribution = new AmountDistribution();
+        distribution.count = buffer.getLong();
+        distribution.mean = buffer.getDouble();
+        distribution.m2 = buffer.getDouble();
+        int first = buffer.getInt();
+        int length = buffer.getInt();
+        distribution.buckets = new long[first + length];
+        for (int i = 0; i < length; i++) {
+            distribution.buckets[first + i] = buffer.getLong();
+        }
+        return distribution;
+    }
+
+    private int medianBucket() {
+        long rank = (count - 1) / 2;
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen > rank) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Bucket counts do not add up to " + count);
+    }
+
+    /**
+     * Maps a value to its bucket.
+     *
+     * @param value the value, at least 1
+     * @return the bucket index
+     */
+    static int bucketIndex(long value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("Value must be positive: " + value);
+        }
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - 3;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Returns the midpoint of a bucket.
+     *
+     * @param index the bucket index
+     * @return the midpoint of the values mapped to it
+     */
+    static double midpoint(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) - 1) / 2.0;
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.suyos.tracker.analytics;
+
+/**
+ * Fenwick tree (binary indexed tree) over a fixed number of long values.
+ *
+ * Supports point updates and prefix or range sums in O(log n) time and
+ * O(n) space. Indexes are zero-based; sums are overflow-checked and throw
+ * {@link ArithmeticException} instead of wrapping around.
+ *
+ * Not thread-safe; callers must synchronize access.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class FenwickTree {
+
+    /** Partial sums; {@code tree[i]} covers the {@code i & -i} values ending at value {@code i - 1} */
+    private final long[] tree;
+
+    /**
+     * Creates a tree of zeros.
+     *
+     * @param size number of values
+     */
+    public FenwickTree(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative: " + size);
+        }
+        this.tree = new long[size + 1];
+    }
+
+    /**
+     * Builds a tree over the given values in O(n).
+     *
+     * @param values initial values; not retained
+     * @return the tree
+     */
+    public static FenwickTree of(long[] values) {
+        FenwickTree fenwick = new FenwickTree(values.length);
+        long[] tree = fenwick.tree;
+        System.arraycopy(values, 0, tree, 1, values.length);
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] = Math.addExact(tree[parent], tree[i]);
+            }
+        }
+        return fenwick;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return number of values
+     */
+    public int size() {
+        return tree.length - 1;
+    }
+
+    /**
+     * Adds a delta to one value.
+     *
+     * @param index zero-based index of the value
+     * @param delta amount to add
+     */
+    public void add(int index, long delta) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + size());
+        }
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] = Math.addExact(tree[i], delta);
+        }
+    }
+
+    /**
+     * Returns the sum of the values up to and including an index.
+     *
+     * Indexes past the end are clamped to the last value.
+     *
+     * @param index zero-based index of the last value to include
+     * @return the prefix sum, or zero if the index is negative
+     */
+    public long prefixSum(int index) {
+        long sum = 0;
+        for (int i = index >= size() ? size() : index + 1; i > 0; i -= i & -i) {
+            sum = Math.addExact(sum, tree[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the sum of the values in an inclusive index range.
+     *
+     * The range is clamped to the tree bounds.
+     *
+     * @param from zero-based index of the first value to include
+     * @param to zero-based index of the last value to include
+     * @return the range sum, or zero if the range is empty
+     */
+    public long rangeSum(int from, int to) {
+        if (from > to) {
+            return 0;
+        }
+        return Math.subtractExact(prefixSum(to), prefixSum(from - 1));
+    }
+
+    /**
+     * Recovers the individual values in O(n).
+     *
+     * @return a new array holding the values
+     */
+    public long[] toValues() {
+        long[] partial = tree.clone();
+        for (int i = partial.length - 1; i > 0; i--) {
+            int parent = i + (i & -i);
+            if (parent < partial.length) {
+                partial[parent] -= partial[i];
+            }
+        }
+        long[] values = new long[size()];
+        System.arraycopy(partial, 1, values, 0, values.length);
+        return values;
+    }
+
+}
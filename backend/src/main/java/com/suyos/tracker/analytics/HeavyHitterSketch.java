@@ -0,0 +1,428 @@
+package com.suyos.tracker.analytics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded-memory heavy hitters of a stream of keyed counts and weights.
+ *
+ * A Count-Min sketch of {@code depth} rows by {@code width} columns holds
+ * two counters per cell, the number of occurrences and the summed weight of
+ * the keys hashed there. Two candidate sets of at most {@code capacity} keys
+ * track the keys with the highest estimated count and weight; a key that is
+ * not a candidate replaces the weakest one once its estimate exceeds it.
+ * Updates may be negative (a deleted or changed occurrence) as long as every
+ * key's true count and weight stay non-negative.
+ *
+ * Error guarantees, with {@code N} and {@code W} the total count and weight:
+ * an estimate is never below the true value and exceeds it by at most
+ * {@code e/width * N} (or {@code W}) with probability {@code 1 - e^-depth}.
+ * For insert-only streams, every key whose true value exceeds
+ * {@code N/capacity} plus that error is a candidate. A key evicted from the
+ * candidates before a deletion lowered the others is not reconsidered until
+ * it is written again.
+ *
+ * Memory is {@code 16 * depth * width} bytes plus the candidate keys,
+ * independent of the number of distinct keys. Instances are not thread-safe.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class HeavyHitterSketch {
+
+    /** Serialization format version */
+    private static final byte FORMAT = 1;
+
+    /** Number of hash rows */
+    private final int depth;
+
+    /** Number of columns per row */
+    private final int width;
+
+    /** Maximum number of candidate keys per ranking */
+    private final int capacity;
+
+    /** Occurrence counters, row-major */
+    private final long[] counts;
+
+    /** Weight counters, row-major */
+    private final long[] weights;
+
+    /** Total count of all updates */
+    private long totalCount;
+
+    /** Total weight of all updates */
+    private long totalWeight;
+
+    /** Candidates by count, with their estimate when last updated */
+    private final Map<String, Long> countCandidates = new HashMap<>();
+
+    /** Candidates by weight, with their estimate when last updated */
+    private final Map<String, Long> weightCandidates = new HashMap<>();
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param depth number of hash rows, which sets the failure probability e^-depth
+     * @param width number of columns, which sets the relative error e/width
+     * @param capacity candidate keys kept per ranking
+     */
+    public HeavyHitterSketch(int depth, int width, int capacity) {
+        if (depth < 1 || width < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Depth, width and capacity must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.capacity = capacity;
+        this.counts = new long[depth * width];
+        this.weights = new long[depth * width];
+    }
+
+    /**
+     * Applies an occurrence or its removal.
+     *
+     * A null key only changes the totals, so that unkeyed occurrences are
+     * still reflected in the error bounds.
+     *
+     * @param key the key, or null
+     * @param count change of the key's count (1 to add, -1 to remove)
+     * @param weight change of the key's weight
+     */
+    public void update(String key, long count, long weight) {
+        totalCount += count;
+        totalWeight += weight;
+        if (key == null) {
+            return;
+        }
+        long hash = hash(key);
+        long estimatedCount = Long.MAX_VALUE;
+        long estimatedWeight = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(hash, row);
+            counts[cell] += count;
+            weights[cell] += weight;
+            estimatedCount = Math.min(estimatedCount, counts[cell]);
+            estimatedWeight = Math.min(estimatedWeight, weights[cell]);
+        }
+        offer(countCandidates, key, estimatedCount);
+        offer(weightCandidates, key, estimatedWeight);
+    }
+
+    /**
+     * Returns the estimated count of a key.
+     *
+     * @param key the key
+     * @return the estimate, never below the true count
+     */
+    public long estimateCount(String key) {
+        return estimate(counts, hash(key));
+    }
+
+    /**
+     * Returns the estimated weight of a key.
+     *
+     * @param key the key
+     * @return the estimate, never below the true weight
+     */
+    public long estimateWeight(String key) {
+        return estimate(weights, hash(key));
+    }
+
+    /**
+     * Returns the candidates with the highest estimated count.
+     *
+     * @param n maximum number of keys
+     * @return up to n keys with their estimates, highest count first
+     */
+    public List<Estimate> topByCount(int n) {
+        return top(countCandidates, n, Comparator.comparingLong(Estimate::getCount)
+            .thenComparingLong(Estimate::getWeight));
+    }
+
+    /**
+     * Returns the candidates with the highest estimated weight.
+     *
+     * @param n maximum number of keys
+     * @return up to n keys with their estimates, highest weight first
+     */
+    public List<Estimate> topByWeight(int n) {
+        return top(weightCandidates, n, Comparator.comparingLong(Estimate::getWeight)
+            .thenComparingLong(Estimate::getCount));
+    }
+
+    /**
+     * Returns the total count of all updates.
+     *
+     * @return total count
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the total weight of all updates.
+     *
+     * @return total weight
+     */
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Returns the relative error bound e/width of estimates.
+     *
+     * @return the fraction of the total an estimate may exceed the true value by
+     */
+    public double getRelativeError() {
+        return Math.E / width;
+    }
+
+    /**
+     * Returns the probability that an estimate is within the error bound.
+     *
+     * @return 1 - e^-depth
+     */
+    public double getConfidence() {
+        return 1 - Math.exp(-depth);
+    }
+
+    /**
+     * Returns the number of bytes held by this sketch.
+     *
+     * @return estimated heap bytes
+     */
+    public long estimatedBytes() {
+        long bytes = 96 + 2L * (16 + (long) counts.length * Long.BYTES);
+        for (String key : countCandidates.keySet()) {
+            bytes += 48 + 2L * key.length();
+        }
+        for (String key : weightCandidates.keySet()) {
+            bytes += 48 + 2L * key.length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Encodes this sketch with variable-length counters.
+     *
+     * Empty cells take one byte, so a sparse sketch is much smaller than
+     * its in-memory size. Candidate estimates are recomputed on decoding.
+     *
+     * @return the encoded bytes
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(counts.length * 2 + 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            writeVarLong(out, depth);
+            writeVarLong(out, width);
+            writeVarLong(out, capacity);
+            writeVarLong(out, totalCount);
+            writeVarLong(out, totalWeight);
+            for (int cell = 0; cell < counts.length; cell++) {
+                writeVarLong(out, counts[cell]);
+                writeVarLong(out, weights[cell]);
+            }
+            writeKeys(out, countCandidates);
+            writeKeys(out, weightCandidates);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a sketch written by {@link #toBytes()}.
+     *
+     * @param bytes the encoded bytes
+     * @return the sketch
+     * @throws IllegalArgumentException if the bytes are not a valid sketch
+     */
+    public static HeavyHitterSketch fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != FORMAT) {
+                throw new IllegalArgumentException("Unknown heavy hitter sketch format");
+            }
+            HeavyHitterSketch sketch = new HeavyHitterSketch((int) readVarLong(in), (int) readVarLong(in),
+                (int) readVarLong(in));
+            sketch.totalCount = readVarLong(in);
+            sketch.totalWeight = readVarLong(in);
+            for (int cell = 0; cell < sketch.counts.length; cell++) {
+                sketch.counts[cell] = readVarLong(in);
+                sketch.weights[cell] = readVarLong(in);
+            }
+            for (String key : readKeys(in)) {
+                sketch.countCandidates.put(key, sketch.estimateCount(key));
+            }
+            for (String key : readKeys(in)) {
+                sketch.weightCandidates.put(key, sketch.estimateWeight(key));
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Truncated heavy hitter sketch", e);
+        }
+    }
+
+    /**
+     * Keeps a key among the candidates if its estimate beats the weakest one.
+     */
+    private void offer(Map<String, Long> candidates, String key, long estimate) {
+        if (candidates.containsKey(key)) {
+            if (estimate > 0) {
+                candidates.put(key, estimate);
+            } else {
+                candidates.remove(key);
+            }
+            return;
+        }
+        if (estimate <= 0) {
+            return;
+        }
+        if (candidates.size() < capacity) {
+            candidates.put(key, estimate);
+            return;
+        }
+        Map.Entry<String, Long> weakest = null;
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            if (weakest == null || candidate.getValue() < weakest.getValue()) {
+                weakest = candidate;
+            }
+        }
+        if (estimate > weakest.getValue()) {
+            candidates.remove(weakest.getKey());
+            candidates.put(key, estimate);
+        }
+    }
+
+    private List<Estimate> top(Map<String, Long> candidates, int n, Comparator<Estimate> order) {
+        List<Estimate> estimates = new ArrayList<>(candidates.size());
+        for (String key : candidates.keySet()) {
+            long hash = hash(key);
+            estimates.add(new Estimate(key, estimate(counts, hash), estimate(weights, hash)));
+        }
+        estimates.sort(order.reversed().thenComparing(Estimate::getKey));
+        return estimates.subList(0, Math.min(n, estimates.size()));
+    }
+
+    private long estimate(long[] counters, long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[cell(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Derives the cell of a row from two halves of the key hash.
+     */
+    private int cell(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + Math.floorMod(h1 + row * h2, width);
+    }
+
+    /**
+     * Hashes a key with 64-bit FNV-1a and a final avalanche, stable across runs.
+     *
+     * @param key the key
+     * @return the hash
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static void writeKeys(DataOutputStream out, Map<String, Long> candidates) throws IOException {
+        writeVarLong(out, candidates.size());
+        for (String key : candidates.keySet()) {
+            out.writeUTF(key);
+        }
+    }
+
+    private static List<String> readKeys(DataInputStream in) throws IOException {
+        int size = (int) readVarLong(in);
+        List<String> keys = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            keys.add(in.readUTF());
+        }
+        return keys;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length counter");
+    }
+
+    /**
+     * Estimated count and weight of a candidate key.
+     */
+    public static final class Estimate {
+
+        private final String key;
+        private final long count;
+        private final long weight;
+
+        Estimate(String key, long count, long weight) {
+            this.key = key;
+            this.count = count;
+            this.weight = weight;
+        }
+
+        /**
+         * @return the key
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return estimated count, never below the true count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return estimated weight, never below the true weight
+         */
+        public long getWeight() {
+            return weight;
+        }
+
+    }
+
+}
@@ -0,0 +1,383 @@
+package com.suyos.tracker.analytics;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mergeable KLL quantile sketch over long values.
+ *
+ * Retains a bounded sample of the stream in a hierarchy of compactors: items
+ * on level {@code h} stand for {@code 2^h} stream items, and a full level is
+ * sorted and every other item, starting at a random offset, is promoted to
+ * the level above. Level capacities shrink geometrically by 2/3 below the
+ * top level, so the sketch retains O(k log(n / k)) items. Streams of at most
+ * {@code k} items are held exactly.
+ *
+ * With parameter {@code k} the rank of a returned quantile is within
+ * {@link #getNormalizedRankError()} of the requested rank with 99% confidence
+ * (about 1.33% for the default {@code k = 200}). Merging sketches yields the
+ * same guarantee as sketching the concatenated streams. Count, sum, minimum
+ * and maximum are tracked exactly.
+ *
+ * Not thread-safe; callers must synchronize access.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class KllSketch {
+
+    /** Default accuracy parameter */
+    public static final int DEFAULT_K = 200;
+
+    /** Capacity ratio between adjacent levels */
+    private static final double DECAY = 2.0 / 3.0;
+
+    /** Smallest capacity of any level */
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    /** Accuracy parameter: capacity of the top level */
+    private final int k;
+
+    /** Retained items per level; only the first {@code sizes[h]} of level {@code h} are valid */
+    private long[][] levels = new long[1][];
+
+    /** Number of retained items per level */
+    private int[] sizes = new int[1];
+
+    /** Number of items in the stream */
+    private long count;
+
+    /** Sum of items in the stream */
+    private long sum;
+
+    /** Smallest item in the stream */
+    private long min = Long.MAX_VALUE;
+
+    /** Largest item in the stream */
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Creates an empty sketch with the default accuracy.
+     */
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param k accuracy parameter; larger values retain more items and are more accurate
+     */
+    public KllSketch(int k) {
+        if (k < MIN_LEVEL_CAPACITY) {
+            throw new IllegalArgumentException("k must be at least " + MIN_LEVEL_CAPACITY + ": " + k);
+        }
+        this.k = k;
+        this.levels[0] = new long[MIN_LEVEL_CAPACITY];
+    }
+
+    /**
+     * Returns the normalized rank error guaranteed with 99% confidence for a given {@code k}.
+     *
+     * Uses the empirical fit published with the KLL reference implementation.
+     *
+     * @param k accuracy parameter
+     * @return the rank error as a fraction of the stream length
+     */
+    public static double getNormalizedRankError(int k) {
+        return 2.296 / Math.pow(k, 0.9723);
+    }
+
+    /**
+     * Returns the normalized rank error of this sketch.
+     *
+     * @return the rank error as a fraction of the stream length
+     */
+    public double getNormalizedRankError() {
+        return getNormalizedRankError(k);
+    }
+
+    /**
+     * Adds an item.
+     *
+     * @param value the item
+     */
+    public void update(long value) {
+        sum = Math.addExact(sum, value);
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        append(0, value);
+        compress();
+    }
+
+    /**
+     * Merges another sketch into this one.
+     *
+     * @param other the sketch to merge; not modified
+     */
+    public void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        sum = Math.addExact(sum, other.sum);
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        for (int h = 0; h < other.sizes.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        compress();
+    }
+
+    /**
+     * Returns the number of items in the stream.
+     *
+     * @return item count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the items in the stream.
+     *
+     * @return exact sum
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns the smallest item in the stream.
+     *
+     * @return exact minimum
+     * @throws IllegalStateException if the sketch is empty
+     */
+    public long getMin() {
+        requireNotEmpty();
+        return min;
+    }
+
+    /**
+     * Returns the largest item in the stream.
+     *
+     * @return exact maximum
+     * @throws IllegalStateException if the sketch is empty
+     */
+    public long getMax() {
+        requireNotEmpty();
+        return max;
+    }
+
+    /**
+     * Returns whether the sketch has seen no items.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the number of items retained, which bounds the sketch's memory.
+     *
+     * @return retained items
+     */
+    public int getRetainedItems() {
+        int retained = 0;
+        for (int size : sizes) {
+            retained += size;
+        }
+        return retained;
+    }
+
+    /**
+     * Returns the approximate quantile at a normalized rank.
+     *
+     * @param fraction rank in [0, 1]; 0 returns the minimum and 1 the maximum
+     * @return the smallest retained item whose estimated rank reaches the fraction
+     * @throws IllegalStateException if the sketch is empty
+     */
+    public long getQuantile(double fraction) {
+        return getQuantiles(new double[] {fraction})[0];
+    }
+
+    /**
+     * Returns approximate quantiles at several normalized ranks with one sort.
+     *
+     * @param fractions ranks in [0, 1]
+     * @return one quantile per fraction, in order
+     * @throws IllegalStateException if the sketch is empty
+     */
+    public long[] getQuantiles(double[] fractions) {
+        requireNotEmpty();
+        SortedView view = sortedView();
+        long[] quantiles = new long[fractions.length];
+        for (int i = 0; i < fractions.length; i++) {
+            double fraction = fractions[i];
+            if (fraction < 0 || fraction > 1) {
+                throw new IllegalArgumentException("fraction must be in [0, 1]: " + fraction);
+            }
+            if (fraction == 0) {
+                quantiles[i] = min;
+            } else if (fraction == 1) {
+                quantiles[i] = max;
+            } else {
+                quantiles[i] = view.quantile((long) Math.ceil(fraction * count));
+            }
+        }
+        return quantiles;
+    }
+
+    /**
+     * Returns the approximate normalized rank of a value.
+     *
+     * @param value the value
+     * @return estimated fraction of stream items less than or equal to the value
+     * @throws IllegalStateException if the sketch is empty
+     */
+    public double getRank(long value) {
+        requireNotEmpty();
+        long weight = 0;
+        for (int h = 0; h < sizes.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                if (levels[h][i] <= value) {
+                    weight += 1L << h;
+                }
+            }
+        }
+        return (double) weight / count;
+    }
+
+    private void requireNotEmpty() {
+        if (count == 0) {
+            throw new IllegalStateException("sketch is empty");
+        }
+    }
+
+    private void append(int level, long value) {
+        if (level >= levels.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+        }
+        long[] items = levels[level];
+        if (items == null) {
+            items = levels[level] = new long[MIN_LEVEL_CAPACITY];
+        } else if (sizes[level] == items.length) {
+            items = levels[level] = Arrays.copyOf(items, items.length * 2);
+        }
+        items[sizes[level]++] = value;
+    }
+
+    private int capacity(int level) {
+        int depth = sizes.length - 1 - level;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(DECAY, depth)));
+    }
+
+    private int totalCapacity() {
+        int total = 0;
+        for (int h = 0; h < sizes.length; h++) {
+            total += capacity(h);
+        }
+        return total;
+    }
+
+    /**
+     * Compacts the lowest full level until the sketch fits its capacity.
+     */
+    private void compress() {
+        while (getRetainedItems() > totalCapacity()) {
+            for (int h = 0; h < sizes.length; h++) {
+                if (sizes[h] >= capacity(h)) {
+                    compact(h);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Promotes every other item of a sorted level to the level above.
+     *
+     * An odd item out stays on the level, so total weight is preserved exactly.
+     *
+     * @param level the level to compact
+     */
+    private void compact(int level) {
+        long[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+
+        int pairs = size & ~1;
+        int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+        for (int i = offset; i < pairs; i += 2) {
+            append(level + 1, items[i]);
+        }
+        items = levels[level];
+        if ((size & 1) == 1) {
+            items[0] = items[size - 1];
+        }
+        sizes[level] = size & 1;
+    }
+
+    /**
+     * Builds the retained items sorted by value with cumulative weights.
+     *
+     * @return the sorted view
+     */
+    private SortedView sortedView() {
+        int retained = getRetainedItems();
+        long[] values = new long[retained];
+        long[] weights = new long[retained];
+
+        // Merge the sorted levels so weights stay attached to their values
+        int[] positions = new int[sizes.length];
+        long[][] sorted = new long[sizes.length][];
+        for (int h = 0; h < sizes.length; h++) {
+            sorted[h] = Arrays.copyOf(levels[h] != null ? levels[h] : new long[0], sizes[h]);
+            Arrays.sort(sorted[h]);
+        }
+        long cumulative = 0;
+        for (int i = 0; i < retained; i++) {
+            int next = -1;
+            for (int h = 0; h < sorted.length; h++) {
+                if (positions[h] < sorted[h].length
+                        && (next < 0 || sorted[h][positions[h]] < sorted[next][positions[next]])) {
+                    next = h;
+                }
+            }
+            values[i] = sorted[next][positions[next]++];
+            cumulative += 1L << next;
+            weights[i] = cumulative;
+        }
+        return new SortedView(values, weights);
+    }
+
+    /**
+     * Retained items in ascending order with cumulative weights.
+     */
+    private static final class SortedView {
+
+        private final long[] values;
+        private final long[] cumulativeWeights;
+
+        private SortedView(long[] values, long[] cumulativeWeights) {
+            this.values = values;
+            this.cumulativeWeights = cumulativeWeights;
+        }
+
+        private long quantile(long rank) {
+            int index = Arrays.binarySearch(cumulativeWeights, rank);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return values[Math.min(index, values.length - 1)];
+        }
+
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.suyos.tracker.analytics;
+
+/**
+ * Streaming statistics of a series of monthly totals.
+ *
+ * Tracks an exponentially weighted moving average, the mean and variance
+ * (Welford's algorithm) and the mean per calendar month of the totals
+ * appended so far. Every statistic is linear in each total or updated by
+ * Welford's replacement rule, so a total that was already appended can be
+ * corrected in constant time when a late change touches a past month.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MonthlySeriesStatistics {
+
+    /** Months of history needed before seasonal indexes are applied */
+    public static final int SEASONAL_MIN_MONTHS = 12;
+
+    /** Smoothing factor of the moving average */
+    private final double alpha;
+
+    /** Number of appended totals */
+    private int count;
+
+    /** Exponentially weighted moving average */
+    private double ewma;
+
+    /** Running mean */
+    private double mean;
+
+    /** Sum of squared deviations from the mean */
+    private double m2;
+
+    /** Sum of totals per calendar month (index 0 for January) */
+    private final double[] seasonalSums = new double[12];
+
+    /** Number of totals per calendar month */
+    private final int[] seasonalCounts = new int[12];
+
+    /**
+     * Creates empty statistics.
+     *
+     * @param alpha weight of the newest total in the moving average, in (0, 1]
+     */
+    public MonthlySeriesStatistics(double alpha) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("Alpha must be in (0, 1]: " + alpha);
+        }
+        this.alpha = alpha;
+    }
+
+    /**
+     * Appends the total of the next month.
+     *
+     * @param total total of the month
+     * @param calendarMonth calendar month of the total (1-12)
+     */
+    public void append(double total, int calendarMonth) {
+        count++;
+        ewma = count == 1 ? total : alpha * total + (1 - alpha) * ewma;
+        double delta = total - mean;
+        mean += delta / count;
+        m2 += delta * (total - mean);
+        seasonalSums[calendarMonth - 1] += total;
+        seasonalCounts[calendarMonth - 1]++;
+    }
+
+    /**
+     * Corrects a total that was already appended.
+     *
+     * @param index position of the total in append order (0 for the first)
+     * @param oldTotal total that was appended
+     * @param newTotal corrected total
+     * @param calendarMonth calendar month of the total (1-12)
+     */
+    public void replace(int index, double oldTotal, double newTotal, int calendarMonth) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + " outside " + count + " totals");
+        }
+        double delta = newTotal - oldTotal;
+        double weight = (index == 0 ? 1 : alpha) * Math.pow(1 - alpha, count - 1 - index);
+        ewma += weight * delta;
+
+        double oldMean = mean;
+        mean += delta / count;
+        m2 += delta * (newTotal - mean + oldTotal - oldMean);
+        m2 = Math.max(m2, 0);
+        seasonalSums[calendarMonth - 1] += delta;
+    }
+
+    /**
+     * Returns the number of appended totals.
+     *
+     * @return total count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the exponentially weighted moving average.
+     *
+     * @return the average, or 0 if empty
+     */
+    public double getEwma() {
+        return ewma;
+    }
+
+    /**
+     * Returns the mean of the appended totals.
+     *
+     * @return the mean, or 0 if empty
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Returns the sample standard deviation of the appended totals.
+     *
+     * @return the standard deviation, or 0 with fewer than two totals
+     */
+    public double getStandardDeviation() {
+        return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0;
+    }
+
+    /**
+     * Returns how a calendar month's totals compare to the overall mean.
+     *
+     * @param calendarMonth calendar month (1-12)
+     * @return mean of the month over the overall mean, or 1 until a full
+     *         year of history exists or if the month has no totals
+     */
+    public double getSeasonalIndex(int calendarMonth) {
+        int monthCount = seasonalCounts[calendarMonth - 1];
+        if (count < SEASONAL_MIN_MONTHS || monthCount == 0 || mean <= 0) {
+            return 1;
+        }
+        return seasonalSums[calendarMonth - 1] / monthCount / mean;
+    }
+
+    /**
+     * Returns the expected total of a month following the appended ones.
+     *
+     * @param calendarMonth calendar month (1-12)
+     * @return the moving average adjusted by the month's seasonal index
+     */
+    public double getExpected(int calendarMonth) {
+        return ewma * getSeasonalIndex(calendarMonth);
+    }
+
+}
@@ -0,0 +1,389 @@
+package com.suyos.tracker.analytics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed-layout per-user monthly totals in a direct or memory-mapped buffer.
+ *
+ * The region holds a header followed by a fixed number of user slots. Each
+ * slot stores the user ID, a state word, and a cents total and count per
+ * month offset and category, so totals for any number of users live in one
+ * allocation outside the Java heap. Slots are claimed by open addressing on
+ * the user ID and never released; a full region rejects further users.
+ *
+ * Totals are updated with atomic adds through a {@link VarHandle} view of
+ * the buffer, without locks. A slot only accepts adds once it is
+ * {@link #READY}: loads claim it with {@link #beginLoad}, fill it with
+ * {@link #put} and publish it with {@link #completeLoad}, which fails if
+ * any add was attempted meanwhile, because every add rejected by a slot
+ * that is not ready bumps the epoch in its state word.
+ *
+ * The header records the layout and whether the region was closed cleanly.
+ * Reopening a buffer with the same layout that was closed cleanly keeps its
+ * totals; anything else resets every slot.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MonthlyTotalsRegion {
+
+    /** Slot has no loaded totals */
+    public static final int UNLOADED = 0;
+
+    /** Slot is being filled by a load */
+    public static final int LOADING = 1;
+
+    /** Slot totals are complete and accept adds */
+    public static final int READY = 2;
+
+    /** "TRKROLL1" */
+    private static final long MAGIC = 0x54524B524F4C4C31L;
+
+    private static final int HEADER_BYTES = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int SLOTS_OFFSET = 8;
+    private static final int MONTHS_OFFSET = 16;
+    private static final int CATEGORIES_OFFSET = 24;
+    private static final int ORIGIN_OFFSET = 32;
+    private static final int CLEAN_OFFSET = 40;
+
+    /** User ID and state word */
+    private static final int SLOT_HEADER_BYTES = 16;
+
+    /** Cents total and count */
+    private static final int CELL_BYTES = 16;
+
+    private static final long STATUS_MASK = 3;
+    private static final long EPOCH_INCREMENT = 4;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+    private final int slots;
+    private final int months;
+    private final int categories;
+    private final int slotBytes;
+    private final boolean restored;
+
+    /**
+     * Opens a region over a buffer, keeping its totals if it was closed
+     * cleanly with the same layout.
+     *
+     * @param buffer direct or mapped buffer of at least {@link #requiredBytes} bytes
+     * @param slots maximum number of users
+     * @param months number of month offsets per user
+     * @param categories number of categories per month
+     * @param origin caller-defined month of offset 0, recorded in the layout
+     * @throws IllegalArgumentException if the buffer is not direct or too small
+     */
+    public MonthlyTotalsRegion(ByteBuffer buffer, int slots, int months, int categories, long origin) {
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("Buffer must be direct for atomic access");
+        }
+        if (slots <= 0 || months <= 0 || categories <= 0) {
+            throw new IllegalArgumentException("Slots, months and categories must be positive");
+        }
+        long required = requiredBytes(slots, months, categories);
+        if (required > buffer.capacity()) {
+            throw new IllegalArgumentException("Buffer holds " + buffer.capacity() + " bytes, layout needs " + required);
+        }
+        this.buffer = buffer;
+        this.slots = slots;
+        this.months = months;
+        this.categories = categories;
+        this.slotBytes = SLOT_HEADER_BYTES + months * categories * CELL_BYTES;
+
+        restored = getLong(MAGIC_OFFSET) == MAGIC && getLong(SLOTS_OFFSET) == slots
+            && getLong(MONTHS_OFFSET) == months && getLong(CATEGORIES_OFFSET) == categories
+            && getLong(ORIGIN_OFFSET) == origin && getLong(CLEAN_OFFSET) == 1;
+        if (restored) {
+            for (int slot = 0; slot < slots; slot++) {
+                if (status(getLong(stateOffset(slot))) != READY) {
+                    LONGS.setVolatile(buffer, stateOffset(slot), (long) UNLOADED);
+                }
+            }
+        } else {
+            for (int offset = 0; offset < required; offset += Long.BYTES) {
+                LONGS.set(buffer, offset, 0L);
+            }
+            LONGS.set(buffer, MAGIC_OFFSET, MAGIC);
+            LONGS.set(buffer, SLOTS_OFFSET, (long) slots);
+            LONGS.set(buffer, MONTHS_OFFSET, (long) months);
+            LONGS.set(buffer, CATEGORIES_OFFSET, (long) categories);
+            LONGS.set(buffer, ORIGIN_OFFSET, origin);
+        }
+        markClean(false);
+    }
+
+    /**
+     * Returns the buffer size needed for a layout.
+     *
+     * @param slots maximum number of users
+     * @param months number of month offsets per user
+     * @param categories number of categories per month
+     * @return size in bytes
+     */
+    public static long requiredBytes(int slots, int months, int categories) {
+        return HEADER_BYTES + (long) slots * (SLOT_HEADER_BYTES + (long) months * categories * CELL_BYTES);
+    }
+
+    /**
+     * Returns whether the totals of a previous clean close were kept.
+     *
+     * @return true if restored, false if the region was reset
+     */
+    public boolean isRestored() {
+        return restored;
+    }
+
+    /**
+     * Records whether the region is consistent, to be checked by the next open.
+     *
+     * Callers persisting the buffer mark it clean after the last add and
+     * before flushing, and dirty again before accepting adds.
+     *
+     * @param clean whether the totals are complete
+     */
+    public void markClean(boolean clean) {
+        LONGS.setVolatile(buffer, CLEAN_OFFSET, clean ? 1L : 0L);
+    }
+
+    /**
+     * Finds the slot of a user.
+     *
+     * @param userId ID of the user; must not be 0
+     * @return the slot, or -1 if the user has none
+     */
+    public int findSlot(long userId) {
+        int slot = home(userId);
+        for (int probes = 0; probes < slots; probes++) {
+            long owner = (long) LONGS.getVolatile(buffer, userOffset(slot));
+            if (owner == userId) {
+                return slot;
+            }
+            if (owner == 0) {
+                return -1;
+            }
+            slot = slot + 1 == slots ? 0 : slot + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the slot of a user, claiming a free one if the user has none.
+     *
+     * @param userId ID of the user; must not be 0
+     * @return the slot, or -1 if the region is full
+     */
+    public int claimSlot(long userId) {
+        if (userId == 0) {
+            throw new IllegalArgumentException("User ID 0 marks free slots");
+        }
+        int slot = home(userId);
+        for (int probes = 0; probes < slots; probes++) {
+            long owner = (long) LONGS.getVolatile(buffer, userOffset(slot));
+            if (owner == 0) {
+                owner = (long) LONGS.compareAndExchange(buffer, userOffset(slot), 0L, userId);
+                if (owner == 0) {
+                    return slot;
+                }
+            }
+            if (owner == userId) {
+                return slot;
+            }
+            slot = slot + 1 == slots ? 0 : slot + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the user a slot is claimed by.
+     *
+     * @param slot the slot
+     * @return ID of the user, or 0 if the slot is free
+     */
+    public long getUserId(int slot) {
+        return (long) LONGS.getVolatile(buffer, userOffset(slot));
+    }
+
+    /**
+     * Returns whether a slot's totals are complete.
+     *
+     * @param slot the slot
+     * @return true if ready
+     */
+    public boolean isReady(int slot) {
+        return status((long) LONGS.getVolatile(buffer, stateOffset(slot))) == READY;
+    }
+
+    /**
+     * Claims an unloaded slot for loading and clears its totals.
+     *
+     * @param slot the slot
+     * @return the state word to pass to {@link #completeLoad}, or -1 if the
+     *         slot is ready or another load is in progress
+     */
+    public long beginLoad(int slot) {
+        long state = (long) LONGS.getVolatile(buffer, stateOffset(slot));
+        if (status(state) != UNLOADED) {
+            return -1;
+        }
+        long loading = state - UNLOADED + LOADING;
+        if (!LONGS.compareAndSet(buffer, stateOffset(slot), state, loading)) {
+            return -1;
+        }
+        int end = cellOffset(slot, months - 1, categories - 1) + CELL_BYTES;
+        for (int offset = cellOffset(slot, 0, 0); offset < end; offset += Long.BYTES) {
+            LONGS.set(buffer, offset, 0L);
+        }
+        return loading;
+    }
+
+    /**
+     * Sets a total of a slot being loaded.
+     *
+     * @param slot the slot, claimed with {@link #beginLoad}
+     * @param month month offset
+     * @param category category index
+     * @param cents total in cents
+     * @param count number of expenses
+     */
+    public void put(int slot, int month, int category, long cents, long count) {
+        int offset = cellOffset(slot, month, category);
+        LONGS.set(buffer, offset, cents);
+        LONGS.set(buffer, offset + Long.BYTES, count);
+    }
+
+    /**
+     * Publishes a loaded slot unless an add was attempted since the load began.
+     *
+     * On failure the slot is returned to unloaded.
+     *
+     * @param slot the slot
+     * @param loading the state word returned by {@link #beginLoad}
+     * @return true if the slot is now ready
+     */
+    public boolean completeLoad(int slot, long loading) {
+        if (LONGS.compareAndSet(buffer, stateOffset(slot), loading, loading - LOADING + READY)) {
+            return true;
+        }
+        abortLoad(slot);
+        return false;
+    }
+
+    /**
+     * Returns a slot being loaded to unloaded, keeping its epoch.
+     *
+     * @param slot the slot
+     */
+    public void abortLoad(int slot) {
+        long state;
+        do {
+            state = (long) LONGS.getVolatile(buffer, stateOffset(slot));
+            if (status(state) != LOADING) {
+                return;
+            }
+        } while (!LONGS.compareAndSet(buffer, stateOffset(slot), state, state - LOADING + UNLOADED));
+    }
+
+    /**
+     * Adds to a total of a ready slot.
+     *
+     * A slot that is not ready rejects the add and bumps its epoch, so a
+     * load in progress cannot be published without the change.
+     *
+     * @param slot the slot
+     * @param month month offset
+     * @param category category index
+     * @param centsDelta cents to add
+     * @param countDelta expenses to add
+     * @return true if applied
+     */
+    public boolean add(int slot, int month, int category, long centsDelta, long countDelta) {
+        int stateOffset = stateOffset(slot);
+        while (true) {
+            long state = (long) LONGS.getVolatile(buffer, stateOffset);
+            if (status(state) == READY) {
+                int offset = cellOffset(slot, month, category);
+                LONGS.getAndAdd(buffer, offset, centsDelta);
+                LONGS.getAndAdd(buffer, offset + Long.BYTES, countDelta);
+                return true;
+            }
+            if (LONGS.compareAndSet(buffer, stateOffset, state, state + EPOCH_INCREMENT)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Discards a slot's totals so it is loaded again, failing any load in progress.
+     *
+     * @param slot the slot
+     */
+    public void invalidate(int slot) {
+        int stateOffset = stateOffset(slot);
+        long state;
+        do {
+            state = (long) LONGS.getVolatile(buffer, stateOffset);
+        } while (!LONGS.compareAndSet(buffer, stateOffset, state,
+            (state & ~STATUS_MASK) + EPOCH_INCREMENT + UNLOADED));
+    }
+
+    /**
+     * Returns a total in cents.
+     *
+     * @param slot the slot
+     * @param month month offset
+     * @param category category index
+     * @return total in cents
+     */
+    public long getCents(int slot, int month, int category) {
+        return (long) LONGS.getVolatile(buffer, cellOffset(slot, month, category));
+    }
+
+    /**
+     * Returns a number of expenses.
+     *
+     * @param slot the slot
+     * @param month month offset
+     * @param category category index
+     * @return number of expenses
+     */
+    public long getCount(int slot, int month, int category) {
+        return (long) LONGS.getVolatile(buffer, cellOffset(slot, month, category) + Long.BYTES);
+    }
+
+    private int home(long userId) {
+        long mixed = userId * 0x9E3779B97F4A7C15L;
+        return (int) Long.remainderUnsigned(mixed ^ (mixed >>> 32), slots);
+    }
+
+    private int userOffset(int slot) {
+        return HEADER_BYTES + slot * slotBytes;
+    }
+
+    private int stateOffset(int slot) {
+        return userOffset(slot) + Long.BYTES;
+    }
+
+    private int cellOffset(int slot, int month, int category) {
+        if (month < 0 || month >= months || category < 0 || category >= categories) {
+            throw new IndexOutOfBoundsException("Cell " + month + "/" + category + " outside "
+                + months + "/" + categories);
+        }
+        return userOffset(slot) + SLOT_HEADER_BYTES + (month * categories + category) * CELL_BYTES;
+    }
+
+    private long getLong(int offset) {
+        return (long) LONGS.get(buffer, offset);
+    }
+
+    private static int status(long state) {
+        return (int) (state & STATUS_MASK);
+    }
+
+}
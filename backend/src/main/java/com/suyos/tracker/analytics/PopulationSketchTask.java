@@ -0,0 +1,156 @@
+package com.suyos.tracker.analytics;
+
+import java.util.concurrent.RecursiveTask;
+
+import com.suyos.tracker.model.Category;
+
+/**
+ * Fork-join task sketching the distribution of monthly spending per category across users.
+ *
+ * The task covers an inclusive range of user IDs. Ranges wider than the
+ * partition size are split in half and sketched in parallel; narrower
+ * ranges are scanned with one streaming read whose rows arrive ordered by
+ * user. Each user's total per category is divided by the number of months
+ * in the window and added to that category's sketch, so a sketch describes
+ * the monthly spending of the users who spent in the category. Partial
+ * sketches are merged on the way back up.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class PopulationSketchTask extends RecursiveTask<KllSketch[]> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Number of categories; the length of the result array */
+    private static final int CATEGORY_COUNT = Category.values().length;
+
+    /** Source of the rows of a user ID range */
+    private final transient PartitionScanner scanner;
+
+    /** First user ID of the range (inclusive) */
+    private final long fromUserId;
+
+    /** Last user ID of the range (inclusive) */
+    private final long toUserId;
+
+    /** Widest user ID range scanned without splitting */
+    private final long partitionSize;
+
+    /** Number of months in the window, dividing user totals into monthly averages */
+    private final int months;
+
+    /** Accuracy parameter of the sketches */
+    private final int k;
+
+    /**
+     * Creates a task over a user ID range.
+     *
+     * @param scanner source of the rows of a user ID range
+     * @param fromUserId first user ID (inclusive)
+     * @param toUserId last user ID (inclusive)
+     * @param partitionSize widest user ID range scanned without splitting
+     * @param months number of months in the window
+     * @param k accuracy parameter of the sketches
+     */
+    public PopulationSketchTask(PartitionScanner scanner, long fromUserId, long toUserId,
+            long partitionSize, int months, int k) {
+        this.scanner = scanner;
+        this.fromUserId = fromUserId;
+        this.toUserId = toUserId;
+        this.partitionSize = Math.max(1, partitionSize);
+        this.months = months;
+        this.k = k;
+    }
+
+    /**
+     * Sketches the range, splitting it while wider than the partition size.
+     *
+     * @return one sketch per category ordinal
+     */
+    @Override
+    protected KllSketch[] compute() {
+        if (toUserId - fromUserId < partitionSize) {
+            return scan();
+        }
+        long middle = fromUserId + (toUserId - fromUserId) / 2;
+        PopulationSketchTask left = new PopulationSketchTask(scanner, fromUserId, middle, partitionSize, months, k);
+        PopulationSketchTask right = new PopulationSketchTask(scanner, middle + 1, toUserId, partitionSize, months, k);
+        left.fork();
+        KllSketch[] merged = right.compute();
+        KllSketch[] other = left.join();
+        for (int c = 0; c < CATEGORY_COUNT; c++) {
+            merged[c].merge(other[c]);
+        }
+        return merged;
+    }
+
+    /**
+     * Scans the range in one streaming read, keeping only the current user's totals.
+     *
+     * @return one sketch per category ordinal
+     */
+    private KllSketch[] scan() {
+        KllSketch[] sketches = new KllSketch[CATEGORY_COUNT];
+        for (int c = 0; c < CATEGORY_COUNT; c++) {
+            sketches[c] = new KllSketch(k);
+        }
+        long[] totals = new long[CATEGORY_COUNT];
+        long[] currentUser = {Long.MIN_VALUE};
+
+        scanner.scan(fromUserId, toUserId, (userId, category, cents) -> {
+            if (userId != currentUser[0]) {
+                flush(totals, sketches);
+                currentUser[0] = userId;
+            }
+            totals[category] = Math.addExact(totals[category], cents);
+        });
+        flush(totals, sketches);
+        return sketches;
+    }
+
+    private void flush(long[] totals, KllSketch[] sketches) {
+        for (int c = 0; c < CATEGORY_COUNT; c++) {
+            if (totals[c] > 0) {
+                sketches[c].update(totals[c] / months);
+            }
+            totals[c] = 0;
+        }
+    }
+
+    /**
+     * Source of the expense rows of a range of users.
+     */
+    @FunctionalInterface
+    public interface PartitionScanner {
+
+        /**
+         * Streams the rows of the users in a range, ordered by user ID.
+         *
+         * @param fromUserId first user ID (inclusive)
+         * @param toUserId last user ID (inclusive)
+         * @param consumer receives each row
+         */
+        void scan(long fromUserId, long toUserId, RowConsumer consumer);
+
+    }
+
+    /**
+     * Receiver of expense rows.
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+
+        /**
+         * Accepts one expense row.
+         *
+         * @param userId ID of the owning user
+         * @param category category ordinal
+         * @param cents amount in cents
+         */
+        void accept(long userId, int category, long cents);
+
+    }
+
+}
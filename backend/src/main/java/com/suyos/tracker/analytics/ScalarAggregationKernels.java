@@ -0,0 +1,54 @@
+package com.suyos.tracker.analytics;
+
+/**
+ * Portable aggregation kernels written as plain loops.
+ *
+ * Used when the Vector API is unavailable and as the reference the
+ * vectorized kernels are tested against. HotSpot may auto-vectorize parts
+ * of these loops, but the data-dependent filters usually prevent it.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ScalarAggregationKernels implements AggregationKernels {
+
+    @Override
+    public boolean isVectorized() {
+        return false;
+    }
+
+    @Override
+    public Aggregate aggregate(long[] cents, int[] epochDays, byte[] categories, int size,
+            int fromDay, int toDay, int category) {
+        long sum = 0;
+        long count = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            int day = epochDays[i];
+            if (day >= fromDay && day <= toDay && (category == ALL_CATEGORIES || categories[i] == category)) {
+                long amount = cents[i];
+                sum += amount;
+                count++;
+                min = Math.min(min, amount);
+                max = Math.max(max, amount);
+            }
+        }
+        return new Aggregate(sum, count, min, max);
+    }
+
+    @Override
+    public void sumByCategory(long[] cents, int[] epochDays, byte[] categories, int size,
+            int fromDay, int toDay, long[] sums, long[] counts) {
+        for (int i = 0; i < size; i++) {
+            int day = epochDays[i];
+            if (day >= fromDay && day <= toDay) {
+                int category = categories[i];
+                sums[category] += cents[i];
+                counts[category]++;
+            }
+        }
+    }
+
+}
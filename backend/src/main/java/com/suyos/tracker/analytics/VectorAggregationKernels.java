@@ -0,0 +1,147 @@
+package com.suyos.tracker.analytics;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Aggregation kernels using the incubating Vector API with masked lanes.
+ *
+ * Rows are processed in blocks. Each block first evaluates the filters at
+ * the natural width of each column (int lanes for days, byte lanes for
+ * categories) into a selection buffer; aggregates then accumulate the
+ * amounts with long lanes masked by that selection, while per-category sums
+ * scatter them without branches. Building the selection at native
+ * widths keeps the kernels portable across vector sizes, where the lane
+ * counts of the three element types differ. Remainders that do not fill a
+ * vector are handled by scalar tails.
+ *
+ * This is the only class that links against {@code jdk.incubator.vector};
+ * it must only be loaded when the module is present.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class VectorAggregationKernels implements AggregationKernels {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    /** Rows per block; a multiple of every lane count so only the last block has tails */
+    private static final int BLOCK = 2048;
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
+    @Override
+    public Aggregate aggregate(long[] cents, int[] epochDays, byte[] categories, int size,
+            int fromDay, int toDay, int category) {
+        boolean[] selected = new boolean[BLOCK];
+        LongVector sums = LongVector.zero(LONGS);
+        LongVector mins = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        LongVector maxs = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        long sum = 0;
+        long count = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        for (int base = 0; base < size; base += BLOCK) {
+            int length = Math.min(BLOCK, size - base);
+            selectDays(epochDays, base, length, fromDay, toDay, selected);
+            if (category != ALL_CATEGORIES) {
+                selectCategory(categories, base, length, (byte) category, selected, selected);
+            }
+
+            int j = 0;
+            for (int bound = LONGS.loopBound(length); j < bound; j += LONGS.length()) {
+                VectorMask<Long> mask = VectorMask.fromArray(LONGS, selected, j);
+                LongVector amounts = LongVector.fromArray(LONGS, cents, base + j);
+                sums = sums.add(amounts, mask);
+                mins = mins.lanewise(VectorOperators.MIN, amounts, mask);
+                maxs = maxs.lanewise(VectorOperators.MAX, amounts, mask);
+                count += mask.trueCount();
+            }
+            for (; j < length; j++) {
+                if (selected[j]) {
+                    long amount = cents[base + j];
+                    sum += amount;
+                    count++;
+                    min = Math.min(min, amount);
+                    max = Math.max(max, amount);
+                }
+            }
+        }
+
+        sum += sums.reduceLanes(VectorOperators.ADD);
+        min = Math.min(min, mins.reduceLanes(VectorOperators.MIN));
+        max = Math.max(max, maxs.reduceLanes(VectorOperators.MAX));
+        return new Aggregate(sum, count, min, max);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Only the window filter is vectorized here: accumulating each category
+     * under its own mask needs one pass per category, which measured slower
+     * than a single scalar pass. The selection instead drives a branchless
+     * scatter into the per-category totals.
+     */
+    @Override
+    public void sumByCategory(long[] cents, int[] epochDays, byte[] categories, int size,
+            int fromDay, int toDay, long[] sums, long[] counts) {
+        boolean[] selected = new boolean[BLOCK];
+        for (int base = 0; base < size; base += BLOCK) {
+            int length = Math.min(BLOCK, size - base);
+            selectDays(epochDays, base, length, fromDay, toDay, selected);
+            for (int j = 0; j < length; j++) {
+                int category = categories[base + j];
+                long keep = selected[j] ? -1L : 0L;
+                sums[category] += cents[base + j] & keep;
+                counts[category] -= keep;
+            }
+        }
+    }
+
+    /**
+     * Marks the rows of a block whose day lies within the window.
+     */
+    private static void selectDays(int[] epochDays, int base, int length, int fromDay, int toDay,
+            boolean[] selected) {
+        int j = 0;
+        for (int bound = INTS.loopBound(length); j < bound; j += INTS.length()) {
+            IntVector days = IntVector.fromArray(INTS, epochDays, base + j);
+            days.compare(VectorOperators.GE, fromDay)
+                .and(days.compare(VectorOperators.LE, toDay))
+                .intoArray(selected, j);
+        }
+        for (; j < length; j++) {
+            int day = epochDays[base + j];
+            selected[j] = day >= fromDay && day <= toDay;
+        }
+    }
+
+    /**
+     * Marks the rows of a block that are selected in the input and have the category.
+     */
+    private static void selectCategory(byte[] categories, int base, int length, byte category,
+            boolean[] input, boolean[] selected) {
+        int j = 0;
+        for (int bound = BYTES.loopBound(length); j < bound; j += BYTES.length()) {
+            ByteVector.fromArray(BYTES, categories, base + j)
+                .compare(VectorOperators.EQ, category)
+                .and(VectorMask.fromArray(BYTES, input, j))
+                .intoArray(selected, j);
+        }
+        for (; j < length; j++) {
+            selected[j] = input[j] && categories[base + j] == category;
+        }
+    }
+
+}
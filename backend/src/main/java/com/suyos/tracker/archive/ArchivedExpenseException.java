@@ -0,0 +1,24 @@
+package com.suyos.tracker.archive;
+
+/**
+ * Thrown when an update or delete targets an expense held in the {@link ExpenseArchive}.
+ *
+ * Archived expenses are read-only; the APIs answer such writes with
+ * 409 Conflict instead of 404 Not Found.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public class ArchivedExpenseException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param id ID of the archived expense
+     */
+    public ArchivedExpenseException(Long id) {
+        super("Expense " + id + " is archived and read-only");
+    }
+
+}
@@ -0,0 +1,493 @@
+package com.suyos.tracker.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Expense;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cold tier holding expenses moved out of the expenses table.
+ *
+ * Each user's archived expenses live in {@link ExpenseSegment} files under
+ * {@code tracker.archive.path/<userId>/}, one per archiving run. A segment
+ * is written and synced as {@code .pending} before its rows are deleted
+ * from the table, and published under its final name once the delete
+ * commits, so a read never sees an expense in both tiers. Opened segments
+ * are cached per user and the user's directory is listed again whenever
+ * its modification time changes, so segments published by other instances
+ * sharing the path are read too.
+ *
+ * Archived expenses are read-only: they are listed and fetched by ID, but
+ * cannot be updated or deleted. Without {@code tracker.archive.enabled}, the
+ * archive is empty.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+public class ExpenseArchive {
+
+    /** Suffix of published segment files */
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    /** Suffix of segment files whose rows may still be in the table */
+    static final String PENDING_SUFFIX = ".seg.pending";
+
+    /** Whether archived expenses are read */
+    @Value("${tracker.archive.enabled:false}")
+    private boolean enabled;
+
+    /** Directory holding a subdirectory of segments per user */
+    @Value("${tracker.archive.path:data/archive}")
+    private Path root = Path.of("data/archive");
+
+    /**
+     * Age a directory's modification time must reach before a listing is
+     * trusted, since a change within the file system's timestamp
+     * granularity may leave the time unchanged
+     */
+    private static final Duration SETTLE_TIME = Duration.ofSeconds(2);
+
+    /** Published segments of each user, as of the last listing of their directory */
+    private final Map<Long, UserSegments> segments = new ConcurrentHashMap<>();
+
+    /**
+     * Returns whether the archive is in use.
+     *
+     * @return true with {@code tracker.archive.enabled}
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns whether a user has archived expenses within a date range.
+     *
+     * Answered from the segments' date bounds, without reading rows.
+     *
+     * @param userId ID of the user
+     * @param start first date, inclusive, or null for no lower bound
+     * @param end last date, inclusive, or null for no upper bound
+     * @return true if a segment of the user overlaps the range
+     */
+    public boolean overlaps(Long userId, LocalDate start, LocalDate end) {
+        return enabled && segments(userId).stream().anyMatch(segment -> overlaps(segment, start, end));
+    }
+
+    /**
+     * Reads a user's archived expenses matching a category and date range.
+     *
+     * @param userId ID of the user
+     * @param category the category, or null for all
+     * @param start first date, inclusive, or null for no lower bound
+     * @param end last date, inclusive, or null for no upper bound
+     * @return matching expenses, without their user, in no particular order
+     */
+    public List<Expense> find(Long userId, Category category, LocalDate start, LocalDate end) {
+        List<Expense> found = new ArrayList<>();
+        forEach(userId, category, start, end, found::add);
+        return found;
+    }
+
+    /**
+     * Visits a user's archived expenses matching a category and date range
+     * without holding them all in memory.
+     *
+     * @param userId ID of the user
+     * @param category the category, or null for all
+     * @param start first date, inclusive, or null for no lower bound
+     * @param end last date, inclusive, or null for no upper bound
+     * @param visitor receives the matching expenses, without their user, in no particular order
+     */
+    public void forEach(Long userId, Category category, LocalDate start, LocalDate end, Consumer<Expense> visitor) {
+        if (!enabled) {
+            return;
+        }
+        for (ExpenseSegment segment : segments(userId)) {
+            if (overlaps(segment, start, end)) {
+                segment.scan(category, start, end, false, date -> true, visitor);
+            }
+        }
+    }
+
+    /**
+     * Counts a user's archived expenses matching a category and date range.
+     *
+     * @param userId ID of the user
+     * @param category the category, or null for all
+     * @param start first date, inclusive, or null for no lower bound
+     * @param end last date, inclusive, or null for no upper bound
+     * @return number of matching expenses
+     */
+    public long count(Long userId, Category category, LocalDate start, LocalDate end) {
+        if (!enabled) {
+            return 0;
+        }
+        long count = 0;
+        for (ExpenseSegment segment : segments(userId)) {
+            if (overlaps(segment, start, end)) {
+                count += segment.count(category, start, end);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads the first of a user's archived expenses matching a category and
+     * date range in the order of a sort.
+     *
+     * At most {@code limit} expenses are held while the segments are read.
+     * When the sort leads with the date, segments are read from the end the
+     * sort starts at and blocks that cannot beat the rows already held are
+     * not inflated, so a first page only reads the blocks it shows.
+     *
+     * @param userId ID of the user
+     * @param category the category, or null for all
+     * @param start first date, inclusive, or null for no lower bound
+     * @param end last date, inclusive, or null for no upper bound
+     * @param sort the order, which must be total
+     * @param limit maximum number of expenses to return
+     * @return up to {@code limit} expenses, without their user, in the sort's order
+     * @throws IllegalArgumentException if the sort uses a property archived expenses do not have
+     */
+    public List<Expense> first(Long userId, Category category, LocalDate start, LocalDate end, Sort sort,
+            int limit) {
+        Comparator<Expense> order = order(sort);
+        if (!enabled || limit <= 0) {
+            return List.of();
+        }
+        Sort.Order leading = sort.isSorted() ? sort.iterator().next() : null;
+        boolean byDate = leading != null && "date".equals(leading.getProperty());
+        boolean newestFirst = byDate && leading.isDescending();
+
+        // Its head is the last of the rows held so far
+        PriorityQueue<Expense> held = new PriorityQueue<>(limit, order.reversed());
+        Predicate<LocalDate> reachable = date -> {
+            if (!byDate || held.size() < limit) {
+                return true;
+            }
+            LocalDate last = held.peek().getDate();
+            return newestFirst ? !date.isBefore(last) : !date.isAfter(last);
+        };
+        for (ExpenseSegment segment : segments(userId)) {
+            if (overlaps(segment, start, end)) {
+                segment.scan(category, start, end, newestFirst, reachable, expense -> {
+                    if (held.size() < limit) {
+                        held.add(expense);
+                    } else if (order.compare(expense, held.peek()) < 0) {
+                        held.poll();
+                        held.add(expense);
+                    }
+                });
+            }
+        }
+        List<Expense> first = new ArrayList<>(held);
+        first.sort(order);
+        return first;
+    }
+
+    /**
+     * Reads one of a user's archived expenses by ID.
+     *
+     * @param userId ID of the user
+     * @param id ID of the expense
+     * @return the expense, without its user, or empty if the user has no such archived expense
+     */
+    public Optional<Expense> findById(Long userId, Long id) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        for (ExpenseSegment segment : segments(userId)) {
+            Optional<Expense> expense = segment.findById(id);
+            if (expense.isPresent()) {
+                return expense;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Writes expenses to a new pending segment of a user.
+     *
+     * @param userId ID of the user
+     * @param expenses the expenses, not empty
+     * @return the pending file, to {@link #publish} once the expenses are deleted or {@link #discard} otherwise
+     * @throws UncheckedIOException if the segment cannot be written
+     */
+    public Path prepare(Long userId, List<Expense> expenses) {
+        try {
+            Path directory = Files.createDirectories(root.resolve(String.valueOf(userId)));
+            Path pending = directory.resolve(nextSegmentName(directory) + PENDING_SUFFIX);
+            ExpenseSegment.write(pending, expenses);
+            return pending;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write archive segment of user " + userId, e);
+        }
+    }
+
+    /**
+     * Publishes a pending segment whose expenses were deleted from the table.
+     *
+     * Publishing a segment that was already published has no effect.
+     *
+     * @param userId ID of the user
+     * @param pending the pending file
+     * @throws UncheckedIOException if the segment cannot be renamed
+     */
+    public void publish(Long userId, Path pending) {
+        String name = pending.getFileName().toString();
+        Path published = pending.resolveSibling(name.substring(0, name.length() - PENDING_SUFFIX.length())
+            + SEGMENT_SUFFIX);
+        try {
+            try {
+                Files.move(pending, published, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                if (Files.exists(published)) {
+                    // Published concurrently by the run that wrote it
+                    return;
+                }
+                throw e;
+            }
+            // Listed again on the next read, with the published segment
+            segments.remove(userId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot publish archive segment " + pending, e);
+        }
+    }
+
+    /**
+     * Deletes a pending segment whose expenses stayed in the table.
+     *
+     * @param pending the pending file
+     */
+    public void discard(Path pending) {
+        try {
+            Files.deleteIfExists(pending);
+        } catch (IOException e) {
+            log.warn("Could not delete abandoned archive segment {}", pending, e);
+        }
+    }
+
+    /**
+     * Lists the pending segments left by interrupted archiving runs.
+     *
+     * @return pending files by user ID
+     */
+    public Map<Long, List<Path>> pendingSegments() {
+        Map<Long, List<Path>> pending = new ConcurrentHashMap<>();
+        if (!Files.isDirectory(root)) {
+            return pending;
+        }
+        try (Stream<Path> users = Files.list(root)) {
+            for (Path directory : users.filter(Files::isDirectory).toList()) {
+                Long userId = parseUserId(directory);
+                List<Path> files = list(directory, PENDING_SUFFIX);
+                if (userId != null && !files.isEmpty()) {
+                    pending.put(userId, files);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list archive directory " + root, e);
+        }
+        return pending;
+    }
+
+    /**
+     * Returns the IDs of the expenses in a segment file.
+     *
+     * @param file a pending or published segment
+     * @return the IDs
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public List<Long> idsIn(Path file) {
+        try {
+            return ExpenseSegment.open(file).ids();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archive segment " + file, e);
+        }
+    }
+
+    /**
+     * Returns the order of a page's sort as a comparator over expenses.
+     *
+     * Nulls come first in ascending order, as in MySQL and H2, and
+     * descriptions compare ignoring case, as under MySQL's default collation;
+     * descriptions equal but for case are left to the ID the sort ends with.
+     *
+     * @param sort the sort of a page of expenses
+     * @return the comparator
+     * @throws IllegalArgumentException if the sort uses a property archived expenses do not have
+     */
+    public static Comparator<Expense> order(Sort sort) {
+        Comparator<Expense> order = null;
+        for (Sort.Order property : sort) {
+            Comparator<Expense> next = comparator(property.getProperty());
+            if (property.isDescending()) {
+                next = next.reversed();
+            }
+            order = order == null ? next : order.thenComparing(next);
+        }
+        return order != null ? order : Comparator.comparing(Expense::getId);
+    }
+
+    private static Comparator<Expense> comparator(String property) {
+        return switch (property) {
+            case "id" -> by(Expense::getId);
+            case "description" -> Comparator.comparing(Expense::getDescription,
+                Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+            case "amount" -> by(Expense::getAmount);
+            case "date" -> by(Expense::getDate);
+            case "category" -> by(expense -> expense.getCategory().name());
+            case "anomalous" -> Comparator.comparing(Expense::isAnomalous);
+            case "createdAt" -> by(Expense::getCreatedAt);
+            case "updatedAt" -> by(Expense::getUpdatedAt);
+            default -> throw new IllegalArgumentException("Cannot sort archived expenses by " + property);
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<Expense> by(Function<Expense, T> key) {
+        return Comparator.comparing(key, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    private static boolean overlaps(ExpenseSegment segment, LocalDate start, LocalDate end) {
+        return (start == null || !segment.lastDate().isBefore(start))
+            && (end == null || !segment.firstDate().isAfter(end));
+    }
+
+    /**
+     * Returns a user's published segments, oldest first.
+     *
+     * Served from the cache while the user's directory is unchanged;
+     * otherwise the directory is listed again, keeping the segments already
+     * open, as published segments never change.
+     */
+    private List<ExpenseSegment> segments(Long userId) {
+        Path directory = root.resolve(String.valueOf(userId));
+        FileTime modified = modified(directory);
+        UserSegments cached = segments.get(userId);
+        if (cached != null && cached.isCurrent(modified)) {
+            return cached.list();
+        }
+        UserSegments loaded = load(directory, modified, cached);
+        segments.put(userId, loaded);
+        return loaded.list();
+    }
+
+    private UserSegments load(Path directory, FileTime modified, UserSegments previous) {
+        Instant listed = Instant.now();
+        Map<String, ExpenseSegment> loaded = new LinkedHashMap<>();
+        if (modified != null) {
+            for (Path file : list(directory, SEGMENT_SUFFIX)) {
+                String name = file.getFileName().toString();
+                ExpenseSegment segment = previous != null ? previous.byName().get(name) : null;
+                if (segment == null) {
+                    try {
+                        segment = ExpenseSegment.open(file);
+                    } catch (NoSuchFileException e) {
+                        continue;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot read archive segment " + file, e);
+                    }
+                }
+                loaded.put(name, segment);
+            }
+        }
+        return new UserSegments(loaded, modified, listed);
+    }
+
+    private static FileTime modified(Path directory) {
+        try {
+            return Files.getLastModifiedTime(directory);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archive directory " + directory, e);
+        }
+    }
+
+    private static List<Path> list(Path directory, String suffix) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(suffix)).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list archive directory " + directory, e);
+        }
+    }
+
+    /**
+     * Returns a name sorting after every segment of the directory.
+     */
+    private static String nextSegmentName(Path directory) {
+        int next = 0;
+        for (Path file : list(directory, "")) {
+            String name = file.getFileName().toString();
+            int dot = name.indexOf('.');
+            if (name.startsWith("segment-") && dot > 8) {
+                try {
+                    next = Math.max(next, Integer.parseInt(name.substring(8, dot)) + 1);
+                } catch (NumberFormatException e) {
+                    // Not written by the archive
+                }
+            }
+        }
+        return String.format("segment-%08d", next);
+    }
+
+    private static Long parseUserId(Path directory) {
+        try {
+            return Long.valueOf(directory.getFileName().toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Segments of a user as of one listing of their directory.
+     *
+     * @param byName the segments by file name, oldest first
+     * @param modified modification time of the directory when listed, or null if it did not exist
+     * @param listed when the directory was listed
+     */
+    private record UserSegments(Map<String, ExpenseSegment> byName, FileTime modified, Instant listed) {
+
+        List<ExpenseSegment> list() {
+            return byName.values().stream().filter(segment -> segment.size() > 0).toList();
+        }
+
+        boolean isCurrent(FileTime current) {
+            return Objects.equals(modified, current)
+                && (current == null || current.toInstant().isBefore(listed.minus(SETTLE_TIME)));
+        }
+
+    }
+
+}
@@ -0,0 +1,248 @@
+package com.suyos.tracker.archive;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.suyos.tracker.model.Expense;
+import com.suyos.tracker.repository.ExpenseRepository;
+import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.sharding.ShardContext;
+import com.suyos.tracker.sharding.ShardMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scheduled job moving old expenses to the {@link ExpenseArchive}.
+ *
+ * On {@code tracker.archive.cron} (nightly by default), every user's
+ * expenses dated before the start of the month {@code tracker.archive.age}
+ * ago are written to segments of at most {@code tracker.archive.batch-size}
+ * rows. A segment is written and synced to disk before its rows are
+ * deleted, and published when the delete commits. The delete publishes no
+ * expense events: rollups keep their totals, and the in-memory analytics
+ * keep their state and load archived expenses through
+ * {@link ExpenseHistory}. Segments left pending by an interrupted run are
+ * published if their rows are gone and discarded otherwise, on startup and
+ * before each run. Enabled with {@code tracker.archive.enabled=true}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tracker.archive.enabled", havingValue = "true")
+public class ExpenseArchiveJob {
+
+    /** Maximum number of IDs bound into a single IN-list statement */
+    static final int DELETE_BATCH_SIZE = 500;
+
+    /** Archive receiving the expenses */
+    private final ExpenseArchive expenseArchive;
+
+    /** Repository for expense data access operations */
+    private final ExpenseRepository expenseRepository;
+
+    /** Repository for user data access operations */
+    private final UserRepository userRepository;
+
+    /** Directory of the users' shards */
+    private final ShardMap shardMap;
+
+    /** Transaction manager of the application data source */
+    private final PlatformTransactionManager transactionManager;
+
+    /** Expenses moved to the archive */
+    private final Counter archived;
+
+    /** Age past which expenses are archived */
+    @Value("${tracker.archive.age:P2Y}")
+    private Period age = Period.ofYears(2);
+
+    /** Maximum number of expenses per segment */
+    @Value("${tracker.archive.batch-size:10000}")
+    private int batchSize = 10000;
+
+    /**
+     * Creates the job.
+     *
+     * @param expenseArchive archive receiving the expenses
+     * @param expenseRepository repository for expense data access operations
+     * @param userRepository repository for user data access operations
+     * @param shardMap directory of the users' shards
+     * @param transactionManager transaction manager of the application data source
+     * @param meterRegistry registry the archive counter is published to
+     */
+    public ExpenseArchiveJob(ExpenseArchive expenseArchive, ExpenseRepository expenseRepository,
+        UserRepository userRepository, ShardMap shardMap, PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry) {
+        this.expenseArchive = expenseArchive;
+        this.expenseRepository = expenseRepository;
+        this.userRepository = userRepository;
+        this.shardMap = shardMap;
+        this.transactionManager = transactionManager;
+        this.archived = Counter.builder("tracker.archive.archived")
+            .description("Expenses moved to the archive")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Archives the old expenses of every user.
+     */
+    @Scheduled(cron = "${tracker.archive.cron:0 45 2 * * *}")
+    public void run() {
+        try {
+            int total = archive(LocalDate.now());
+            if (total > 0) {
+                log.info("Expense archiving finished: {} expenses archived", total);
+            }
+        } catch (RuntimeException e) {
+            log.error("Expense archiving failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Recovers interrupted runs, then archives the expenses past the age.
+     *
+     * @param today the current date
+     * @return number of archived expenses
+     */
+    int archive(LocalDate today) {
+        recover();
+        LocalDate cutoff = today.minus(age).withDayOfMonth(1);
+        List<Long> userIds = shardMap.onEachShard(userRepository::findAllIds).stream()
+            .flatMap(List::stream)
+            .toList();
+        int total = 0;
+        for (Long userId : userIds) {
+            try (ShardContext.Scope scope = shardMap.bindUser(userId)) {
+                int moved;
+                do {
+                    moved = archiveBatch(userId, cutoff);
+                    total += moved;
+                } while (moved == batchSize);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Moves one segment of a user's expenses dated before the cutoff.
+     *
+     * The rows are locked, then written to a pending segment that is synced
+     * to disk before any of them is deleted. The segment is published once
+     * the delete commits and discarded only if it rolled back; if the outcome
+     * is unknown it is left for {@link #recover()} to resolve from the rows.
+     *
+     * @return number of archived expenses
+     */
+    private int archiveBatch(Long userId, LocalDate cutoff) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            List<Expense> expenses = expenseRepository.findLockedByUserIdAndDateBefore(userId, cutoff,
+                PageRequest.of(0, batchSize, Sort.by("date", "id")));
+            if (expenses.isEmpty()) {
+                return 0;
+            }
+            Path pending = expenseArchive.prepare(userId, expenses);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int outcome) {
+                    if (outcome == STATUS_COMMITTED) {
+                        publish(userId, pending, expenses.size());
+                    } else if (outcome == STATUS_ROLLED_BACK) {
+                        expenseArchive.discard(pending);
+                    } else {
+                        log.warn("Archive segment {} left pending: outcome of its delete is unknown", pending);
+                    }
+                }
+            });
+            delete(expenses.stream().map(Expense::getId).toList());
+            return expenses.size();
+        });
+    }
+
+    /**
+     * Publishes a segment whose rows were deleted.
+     *
+     * A failed publish leaves the segment pending for {@link #recover()}.
+     */
+    private void publish(Long userId, Path pending, int moved) {
+        try {
+            expenseArchive.publish(userId, pending);
+            archived.increment(moved);
+        } catch (RuntimeException e) {
+            log.error("Could not publish archive segment {}; it is published on the next start or run", pending, e);
+        }
+    }
+
+    /**
+     * Resolves the segments left pending by an interrupted run once the
+     * application has started, so their expenses are listed again without
+     * waiting for the next run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        try {
+            recover();
+        } catch (RuntimeException e) {
+            log.error("Could not resolve pending archive segments; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Resolves the segments left pending by an interrupted run.
+     */
+    private void recover() {
+        for (Map.Entry<Long, List<Path>> entry : expenseArchive.pendingSegments().entrySet()) {
+            Long userId = entry.getKey();
+            try (ShardContext.Scope scope = shardMap.bindUser(userId)) {
+                for (Path pending : entry.getValue()) {
+                    // Rows still locked by a run in progress are waited for
+                    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                        if (countExisting(expenseArchive.idsIn(pending)) == 0) {
+                            expenseArchive.publish(userId, pending);
+                            log.info("Published archive segment {} of an interrupted run", pending);
+                        } else {
+                            expenseArchive.discard(pending);
+                            log.info("Discarded archive segment {} of an interrupted run", pending);
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    private void delete(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {
+            expenseRepository.deleteByIdIn(ids.subList(from, Math.min(from + DELETE_BATCH_SIZE, ids.size())));
+        }
+    }
+
+    private long countExisting(List<Long> ids) {
+        long existing = 0;
+        for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {
+            existing += expenseRepository.findLockedByIdIn(ids.subList(from, Math.min(from + DELETE_BATCH_SIZE,
+                ids.size()))).size();
+        }
+        return existing;
+    }
+
+}
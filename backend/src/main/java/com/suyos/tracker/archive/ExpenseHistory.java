@@ -0,0 +1,222 @@
+package com.suyos.tracker.archive;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import org.springframework.stereotype.Component;
+
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Expense;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.repository.DailyCategoryTotal;
+import com.suyos.tracker.repository.DailyTotal;
+import com.suyos.tracker.repository.ExpenseAmountRow;
+import com.suyos.tracker.repository.ExpenseMerchantRow;
+import com.suyos.tracker.repository.ExpenseRepository;
+import com.suyos.tracker.repository.MonthlyCategoryTotal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+/**
+ * A user's whole expense history, across the expenses table and the {@link ExpenseArchive}.
+ *
+ * Offers the per-user queries the in-memory analytics are loaded from,
+ * with archived expenses folded in, so a cache loaded after archiving holds
+ * the same history as one loaded before, and as the rollups. The archive
+ * is only read when the user has segments overlapping the queried dates;
+ * aggregates are merged per key, so each key is returned once.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpenseHistory {
+
+    /** Repository for expense data access operations */
+    private final ExpenseRepository expenseRepository;
+
+    /** Cold tier of expenses moved out of the table */
+    private final ExpenseArchive expenseArchive;
+
+    /**
+     * Sums a user's expenses per date and category.
+     *
+     * @param userId ID of the user
+     * @return one row per date and category with expenses, in no particular order
+     */
+    public List<DailyCategoryTotal> sumByDateAndCategory(Long userId) {
+        List<DailyCategoryTotal> live = expenseRepository.sumByDateAndCategory(userId);
+        if (!expenseArchive.overlaps(userId, null, null)) {
+            return live;
+        }
+        Map<List<Object>, long[]> totals = new LinkedHashMap<>();
+        for (DailyCategoryTotal row : live) {
+            add(totals, List.of(row.getDate(), row.getCategory()), Money.toCents(row.getTotal()), row.getCount());
+        }
+        expenseArchive.forEach(userId, null, null, null, expense ->
+            add(totals, List.of(expense.getDate(), expense.getCategory()), Money.toCents(expense.getAmount()), 1));
+        return rows(totals, (key, total) -> new DailyCategoryRow((LocalDate) key.get(0), (Category) key.get(1),
+            Money.toBigDecimal(total[0]), total[1]));
+    }
+
+    /**
+     * Sums a user's expenses per calendar month and category.
+     *
+     * @param userId ID of the user
+     * @return one row per month and category with expenses, in no particular order
+     */
+    public List<MonthlyCategoryTotal> sumByMonthAndCategory(Long userId) {
+        List<MonthlyCategoryTotal> live = expenseRepository.sumByMonthAndCategory(userId);
+        if (!expenseArchive.overlaps(userId, null, null)) {
+            return live;
+        }
+        Map<List<Object>, long[]> totals = new LinkedHashMap<>();
+        for (MonthlyCategoryTotal row : live) {
+            add(totals, List.of(row.getYear(), row.getMonth(), row.getCategory()), Money.toCents(row.getTotal()),
+                row.getCount());
+        }
+        expenseArchive.forEach(userId, null, null, null, expense ->
+            add(totals, List.of(expense.getDate().getYear(), expense.getDate().getMonthValue(), expense.getCategory()),
+                Money.toCents(expense.getAmount()), 1));
+        return rows(totals, (key, total) -> new MonthlyCategoryRow((Integer) key.get(0), (Integer) key.get(1),
+            (Category) key.get(2), Money.toBigDecimal(total[0]), total[1]));
+    }
+
+    /**
+     * Sums a user's expenses per date within a date range.
+     *
+     * @param userId ID of the user
+     * @param startDate first date, inclusive
+     * @param endDate last date, inclusive
+     * @return one row per date with expenses, in no particular order
+     */
+    public List<DailyTotal> sumByDateBetween(Long userId, LocalDate startDate, LocalDate endDate) {
+        List<DailyTotal> live = expenseRepository.sumByDateBetween(userId, startDate, endDate);
+        if (!expenseArchive.overlaps(userId, startDate, endDate)) {
+            return live;
+        }
+        Map<List<Object>, long[]> totals = new LinkedHashMap<>();
+        for (DailyTotal row : live) {
+            add(totals, List.of(row.getDate()), Money.toCents(row.getTotal()), 0);
+        }
+        expenseArchive.forEach(userId, null, startDate, endDate, expense ->
+            add(totals, List.of(expense.getDate()), Money.toCents(expense.getAmount()), 0));
+        return rows(totals, (key, total) -> new DailyRow((LocalDate) key.get(0), Money.toBigDecimal(total[0])));
+    }
+
+    /**
+     * Reads the amount, date and category of each of a user's expenses.
+     *
+     * @param userId ID of the user
+     * @return one row per expense in no particular order
+     */
+    public List<ExpenseAmountRow> findAmountRowsByUserId(Long userId) {
+        List<ExpenseAmountRow> live = expenseRepository.findAmountRowsByUserId(userId);
+        if (!expenseArchive.overlaps(userId, null, null)) {
+            return live;
+        }
+        List<ExpenseAmountRow> rows = new ArrayList<>(live);
+        expenseArchive.forEach(userId, null, null, null, expense -> rows.add(AmountRow.of(expense)));
+        return rows;
+    }
+
+    /**
+     * Reads the amount, date and category of each of a user's expenses within a date range.
+     *
+     * @param userId ID of the user
+     * @param startDate first date, inclusive
+     * @param endDate last date, inclusive
+     * @return one row per expense in no particular order
+     */
+    public List<ExpenseAmountRow> findAmountRowsByUserIdAndDateBetween(Long userId, LocalDate startDate,
+        LocalDate endDate) {
+        List<ExpenseAmountRow> live = expenseRepository.findAmountRowsByUserIdAndDateBetween(userId, startDate,
+            endDate);
+        if (!expenseArchive.overlaps(userId, startDate, endDate)) {
+            return live;
+        }
+        List<ExpenseAmountRow> rows = new ArrayList<>(live);
+        expenseArchive.forEach(userId, null, startDate, endDate, expense -> rows.add(AmountRow.of(expense)));
+        return rows;
+    }
+
+    /**
+     * Reads the description and amount of each of a user's expenses.
+     *
+     * @param userId ID of the user
+     * @return one row per expense in no particular order
+     */
+    public List<ExpenseMerchantRow> findMerchantRowsByUserId(Long userId) {
+        List<ExpenseMerchantRow> live = expenseRepository.findMerchantRowsByUserId(userId);
+        if (!expenseArchive.overlaps(userId, null, null)) {
+            return live;
+        }
+        List<ExpenseMerchantRow> rows = new ArrayList<>(live);
+        expenseArchive.forEach(userId, null, null, null,
+            expense -> rows.add(new MerchantRow(expense.getDescription(), expense.getAmount())));
+        return rows;
+    }
+
+    private static void add(Map<List<Object>, long[]> totals, List<Object> key, long cents, long count) {
+        long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+        total[0] += cents;
+        total[1] += count;
+    }
+
+    private static <T> List<T> rows(Map<List<Object>, long[]> totals,
+        BiFunction<List<Object>, long[], T> row) {
+        List<T> rows = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> rows.add(row.apply(key, total)));
+        return rows;
+    }
+
+    @Value
+    private static class DailyCategoryRow implements DailyCategoryTotal {
+        LocalDate date;
+        Category category;
+        BigDecimal total;
+        Long count;
+    }
+
+    @Value
+    private static class MonthlyCategoryRow implements MonthlyCategoryTotal {
+        Integer year;
+        Integer month;
+        Category category;
+        BigDecimal total;
+        Long count;
+    }
+
+    @Value
+    private static class DailyRow implements DailyTotal {
+        LocalDate date;
+        BigDecimal total;
+    }
+
+    @Value
+    private static class AmountRow implements ExpenseAmountRow {
+        Long id;
+        BigDecimal amount;
+        LocalDate date;
+        Category category;
+
+        static AmountRow of(Expense expense) {
+            return new AmountRow(expense.getId(), expense.getAmount(), expense.getDate(), expense.getCategory());
+        }
+    }
+
+    @Value
+    private static class MerchantRow implements ExpenseMerchantRow {
+        String description;
+        BigDecimal amount;
+    }
+
+}
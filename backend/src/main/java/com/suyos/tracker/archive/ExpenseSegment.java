@@ -0,0 +1,515 @@
+package com.suyos.tracker.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.suyos.tracker.analytics.DeltaVarintCodec;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Expense;
+import com.suyos.tracker.model.Money;
+
+/**
+ * Immutable file of one user's archived expenses, sorted by date.
+ *
+ * Rows are stored in blocks of {@link #BLOCK_ROWS}. Each block holds its
+ * columns as delta varints ({@link DeltaVarintCodec}) followed by the
+ * descriptions, and is deflated. A sparse index after the blocks records
+ * the first and last date of each block, so a date-range read only
+ * inflates the blocks the range overlaps. The file is read through a
+ * read-only memory mapping and never modified; new archived expenses go
+ * to a new segment.
+ *
+ * Layout: magic, version, blocks, index entries of
+ * {@code (firstDay, lastDay, rows, offset, length)}, then a trailer of
+ * {@code (blockCount, indexOffset, magic)}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ExpenseSegment {
+
+    /** Rows per compressed block */
+    static final int BLOCK_ROWS = 128;
+
+    /** File signature, "EXSG" */
+    private static final int MAGIC = 0x45585347;
+
+    /** Format version */
+    private static final int VERSION = 1;
+
+    /** Bytes of one index entry */
+    private static final int INDEX_ENTRY_BYTES = 24;
+
+    /** Bytes of the trailer */
+    private static final int TRAILER_BYTES = 16;
+
+    /** Categories by stored ordinal */
+    private static final Category[] CATEGORIES = Category.values();
+
+    /** Order of the rows in a segment */
+    private static final Comparator<Expense> STORAGE_ORDER =
+        Comparator.comparing(Expense::getDate).thenComparing(Expense::getId);
+
+    /** The mapped file */
+    private final ByteBuffer mapped;
+
+    /** First date of each block, as epoch days */
+    private final int[] firstDays;
+
+    /** Last date of each block, as epoch days */
+    private final int[] lastDays;
+
+    /** Rows of each block */
+    private final int[] rows;
+
+    /** Offset of each block in the file */
+    private final long[] offsets;
+
+    /** Compressed length of each block */
+    private final int[] lengths;
+
+    /** IDs and category counts, built on first use */
+    private volatile RowIndex rowIndex;
+
+    private ExpenseSegment(ByteBuffer mapped, int[] firstDays, int[] lastDays, int[] rows, long[] offsets,
+            int[] lengths) {
+        this.mapped = mapped;
+        this.firstDays = firstDays;
+        this.lastDays = lastDays;
+        this.rows = rows;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    /**
+     * Writes expenses to a new segment file and syncs it to disk.
+     *
+     * @param file the file to create; must not exist
+     * @param expenses the expenses, in any order
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, List<Expense> expenses) throws IOException {
+        List<Expense> sorted = new ArrayList<>(expenses);
+        sorted.sort(STORAGE_ORDER);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        int blocks = 0;
+        for (int from = 0; from < sorted.size(); from += BLOCK_ROWS) {
+            List<Expense> block = sorted.subList(from, Math.min(from + BLOCK_ROWS, sorted.size()));
+            byte[] compressed = deflate(encodeBlock(block));
+            indexOut.writeInt((int) block.get(0).getDate().toEpochDay());
+            indexOut.writeInt((int) block.get(block.size() - 1).getDate().toEpochDay());
+            indexOut.writeInt(block.size());
+            indexOut.writeLong(out.size());
+            indexOut.writeInt(compressed.length);
+            out.write(compressed);
+            blocks++;
+        }
+        long indexOffset = out.size();
+        index.writeTo(out);
+        out.writeInt(blocks);
+        out.writeLong(indexOffset);
+        out.writeInt(MAGIC);
+        out.flush();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Maps a segment file.
+     *
+     * @param file the segment file
+     * @return the segment
+     * @throws IOException if the file cannot be mapped or is not a segment
+     */
+    public static ExpenseSegment open(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mapped.capacity() < 8 + TRAILER_BYTES || mapped.getInt(0) != MAGIC
+                || mapped.getInt(mapped.capacity() - 4) != MAGIC) {
+            throw new IOException("Not an expense segment: " + file);
+        }
+        if (mapped.getInt(4) != VERSION) {
+            throw new IOException("Unsupported expense segment version " + mapped.getInt(4) + ": " + file);
+        }
+        int trailer = mapped.capacity() - TRAILER_BYTES;
+        int blocks = mapped.getInt(trailer);
+        int indexOffset = (int) mapped.getLong(trailer + 4);
+        int[] firstDays = new int[blocks];
+        int[] lastDays = new int[blocks];
+        int[] rows = new int[blocks];
+        long[] offsets = new long[blocks];
+        int[] lengths = new int[blocks];
+        for (int block = 0; block < blocks; block++) {
+            int entry = indexOffset + block * INDEX_ENTRY_BYTES;
+            firstDays[block] = mapped.getInt(entry);
+            lastDays[block] = mapped.getInt(entry + 4);
+            rows[block] = mapped.getInt(entry + 8);
+            offsets[block] = mapped.getLong(entry + 12);
+            lengths[block] = mapped.getInt(entry + 20);
+        }
+        return new ExpenseSegment(mapped, firstDays, lastDays, rows, offsets, lengths);
+    }
+
+    /**
+     * Returns the number of expenses in the segment.
+     *
+     * @return row count
+     */
+    public int size() {
+        int size = 0;
+        for (int blockRows : rows) {
+            size += blockRows;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the date of the oldest expense.
+     *
+     * @return the date, or null for an empty segment
+     */
+    public LocalDate firstDate() {
+        return firstDays.length == 0 ? null : LocalDate.ofEpochDay(firstDays[0]);
+    }
+
+    /**
+     * Returns the date of the newest expense.
+     *
+     * @return the date, or null for an empty segment
+     */
+    public LocalDate lastDate() {
+        return lastDays.length == 0 ? null : LocalDate.ofEpochDay(lastDays[lastDays.length - 1]);
+    }
+
+    /**
+     * Reads the expenses matching a category and date range.
+     *
+     * Returned expenses are detached copies without their user.
+     *
+     * @param category the category, or null for all
+     * @param start first date, inclusive, or null for no lower bound
+     * @param end last date, inclusive, or null for no upper bound
+     * @return matching expenses by date
+     */
+    public List<Expense> find(Category category, LocalDate start, LocalDate end) {
+        List<Expense> found = new ArrayList<>();
+        scan(category, start, end, false, date -> true, found::add);
+        return found;
+    }
+
+    /**
+     * Visits the expenses matching a category and date range, block by block.
+     *
+     * Blocks are visited oldest or newest first, and rows within a block in
+     * the same direction. Before a block is inflated, its date nearest to
+     * the visit's start is offered to {@code reachable}; the visit stops at
+     * the first block it declines, so a caller already holding the rows it
+     * needs skips the rest of the segment.
+     *
+     * @param category the category, or null for all
+     * @param start first date, inclusive, or null for no lower bound
+     * @param end last date, inclusive, or null for no upper bound
+     * @param newestFirst whether to visit the newest expenses first
+     * @param reachable whether rows from a block starting at a date may still be needed
+     * @param visitor receives the matching expenses, as detached copies without their user
+     */
+    public void scan(Category category, LocalDate start, LocalDate end, boolean newestFirst,
+            Predicate<LocalDate> reachable, Consumer<Expense> visitor) {
+        long startDay = start == null ? Long.MIN_VALUE : start.toEpochDay();
+        long endDay = end == null ? Long.MAX_VALUE : end.toEpochDay();
+        int first = firstBlockEndingOnOrAfter(startDay);
+        int last = first;
+        while (last < firstDays.length && firstDays[last] <= endDay) {
+            last++;
+        }
+        for (int i = 0; i < last - first; i++) {
+            int block = newestFirst ? last - 1 - i : first + i;
+            if (!reachable.test(LocalDate.ofEpochDay(newestFirst ? lastDays[block] : firstDays[block]))) {
+                return;
+            }
+            List<Expense> expenses = decodeBlock(inflate(block), rows[block]);
+            for (int row = 0; row < expenses.size(); row++) {
+                Expense expense = expenses.get(newestFirst ? expenses.size() - 1 - row : row);
+                long day = expense.getDate().toEpochDay();
+                if (day >= startDay && day <= endDay && (category == null || expense.getCategory() == category)) {
+                    visitor.accept(expense);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the expenses matching a category and date range.
+     *
+     * Only the blocks at the ends of the range are inflated; the others
+     * are counted from the block index.
+     *
+     * @param category the category, or null for all
+     * @param start first date, inclusive, or null for no lower bound
+     * @param end last date, inclusive, or null for no upper bound
+     * @return number of matching expenses
+     */
+    public long count(Category category, LocalDate start, LocalDate end) {
+        long startDay = start == null ? Long.MIN_VALUE : start.toEpochDay();
+        long endDay = end == null ? Long.MAX_VALUE : end.toEpochDay();
+        long count = 0;
+        for (int block = firstBlockEndingOnOrAfter(startDay); block < firstDays.length
+                && firstDays[block] <= endDay; block++) {
+            if (firstDays[block] >= startDay && lastDays[block] <= endDay) {
+                count += category == null ? rows[block] : rowIndex().categoryCounts()[block][category.ordinal()];
+            } else {
+                LocalDate from = LocalDate.ofEpochDay(Math.max(startDay, firstDays[block]));
+                LocalDate to = LocalDate.ofEpochDay(Math.min(endDay, lastDays[block]));
+                for (Expense expense : decodeBlock(inflate(block), rows[block])) {
+                    if (!expense.getDate().isBefore(from) && !expense.getDate().isAfter(to)
+                            && (category == null || expense.getCategory() == category)) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads one expense by ID.
+     *
+     * @param id ID of the expense
+     * @return the expense as a detached copy without its user, or empty if not in the segment
+     */
+    public Optional<Expense> findById(long id) {
+        RowIndex index = rowIndex();
+        int position = Arrays.binarySearch(index.ids(), id);
+        if (position < 0) {
+            return Optional.empty();
+        }
+        int block = index.blocks()[position];
+        return decodeBlock(inflate(block), rows[block]).stream()
+            .filter(expense -> expense.getId() == id)
+            .findFirst();
+    }
+
+    /**
+     * Returns the IDs of all expenses in the segment.
+     *
+     * @return the IDs, in ascending order
+     */
+    public List<Long> ids() {
+        return Arrays.stream(rowIndex().ids()).boxed().toList();
+    }
+
+    /**
+     * Returns the index of the segment's IDs and category counts, building it on first use.
+     */
+    private RowIndex rowIndex() {
+        RowIndex index = rowIndex;
+        if (index == null) {
+            int size = size();
+            long[][] idBlocks = new long[size][];
+            int[][] categoryCounts = new int[firstDays.length][CATEGORIES.length];
+            int row = 0;
+            for (int block = 0; block < firstDays.length; block++) {
+                for (Expense expense : decodeBlock(inflate(block), rows[block])) {
+                    idBlocks[row++] = new long[] {expense.getId(), block};
+                    categoryCounts[block][expense.getCategory().ordinal()]++;
+                }
+            }
+            Arrays.sort(idBlocks, Comparator.comparingLong(entry -> entry[0]));
+            long[] ids = new long[size];
+            int[] blocks = new int[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = idBlocks[i][0];
+                blocks[i] = (int) idBlocks[i][1];
+            }
+            index = new RowIndex(ids, blocks, categoryCounts);
+            rowIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the first block whose last date is on or after a day, by bisection.
+     */
+    private int firstBlockEndingOnOrAfter(long day) {
+        int low = 0;
+        int high = lastDays.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lastDays[middle] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static byte[] encodeBlock(List<Expense> block) throws IOException {
+        int size = block.size();
+        long[] days = new long[size];
+        long[] ids = new long[size];
+        long[] cents = new long[size];
+        long[] categories = new long[size];
+        long[] flags = new long[size];
+        long[] created = new long[size];
+        long[] updated = new long[size];
+        long[] descriptionLengths = new long[size];
+        ByteArrayOutputStream descriptions = new ByteArrayOutputStream();
+        for (int i = 0; i < size; i++) {
+            Expense expense = block.get(i);
+            days[i] = expense.getDate().toEpochDay();
+            ids[i] = expense.getId();
+            cents[i] = Money.toCents(expense.getAmount());
+            categories[i] = expense.getCategory().ordinal();
+            flags[i] = expense.isAnomalous() ? 1 : 0;
+            created[i] = toMicros(expense.getCreatedAt());
+            updated[i] = toMicros(expense.getUpdatedAt());
+            if (expense.getDescription() != null) {
+                byte[] utf8 = expense.getDescription().getBytes(StandardCharsets.UTF_8);
+                descriptionLengths[i] = utf8.length + 1L;
+                descriptions.write(utf8);
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (long[] column : List.of(days, ids, cents, categories, flags, created, updated, descriptionLengths)) {
+            byte[] encoded = DeltaVarintCodec.encode(column);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+        descriptions.writeTo(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<Expense> decodeBlock(ByteBuffer block, int size) {
+        long[][] columns = new long[8][];
+        for (int column = 0; column < columns.length; column++) {
+            byte[] encoded = new byte[block.getInt()];
+            block.get(encoded);
+            columns[column] = DeltaVarintCodec.decode(encoded);
+        }
+        List<Expense> expenses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String description = null;
+            long length = columns[7][i];
+            if (length > 0) {
+                byte[] utf8 = new byte[(int) length - 1];
+                block.get(utf8);
+                description = new String(utf8, StandardCharsets.UTF_8);
+            }
+            expenses.add(Expense.builder()
+                .id(columns[1][i])
+                .description(description)
+                .amount(Money.toBigDecimal(columns[2][i]))
+                .date(LocalDate.ofEpochDay(columns[0][i]))
+                .category(CATEGORIES[(int) columns[3][i]])
+                .anomalous(columns[4][i] != 0)
+                .createdAt(fromMicros(columns[5][i]))
+                .updatedAt(fromMicros(columns[6][i]))
+                .build());
+        }
+        return expenses;
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private ByteBuffer inflate(int block) {
+        ByteBuffer compressed = mapped.slice((int) offsets[block], lengths[block]);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(lengths[block] * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(chunk);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new IllegalStateException("Truncated expense segment block " + block);
+                }
+                out.write(chunk, 0, inflated);
+            }
+            return ByteBuffer.wrap(out.toByteArray());
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt expense segment block " + block, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Encodes a timestamp as UTC microseconds plus one, keeping zero for null.
+     */
+    private static long toMicros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return 0;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000 + 1;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == 0) {
+            return null;
+        }
+        long value = micros - 1;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(value, 1_000_000),
+            (int) Math.floorMod(value, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * IDs of a segment's rows in ascending order with the block holding
+     * each, and the number of rows per block and category ordinal.
+     */
+    private record RowIndex(long[] ids, int[] blocks, int[][] categoryCounts) {
+    }
+
+}
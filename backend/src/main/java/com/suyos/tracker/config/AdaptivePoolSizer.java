@@ -0,0 +1,196 @@
+package com.suyos.tracker.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resizes the connection pool within bounds from acquire pressure and database latency.
+ *
+ * Every {@code tracker.jdbc.pool.adaptive.interval} the sizer reads the
+ * pool's own acquire and usage timers ({@code hikaricp.connections.acquire}
+ * and {@code hikaricp.connections.usage}) over the interval, together with
+ * the number of threads waiting for a connection:
+ *
+ * <ul>
+ *   <li>If connections are held longer than {@code max-usage-time} on
+ *       average, the database itself is slow and more connections would
+ *       only add to its load, so the pool shrinks by a quarter.</li>
+ *   <li>Otherwise, if threads are waiting or the mean acquire time exceeds
+ *       {@code target-acquire-time}, the pool grows by the number of waiting
+ *       threads, at most doubling. An interval in which no connection was
+ *       returned leaves the size unchanged.</li>
+ *   <li>After {@link #CALM_INTERVALS} intervals without waiting threads and
+ *       with at most half of the connections in use, it shrinks by a
+ *       quarter.</li>
+ * </ul>
+ *
+ * The new size is set as the pool's maximum; the pool opens connections up
+ * to it on demand, and idle connections above the minimum idle count are
+ * closed after the idle timeout.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+public class AdaptivePoolSizer {
+
+    /** Consecutive calm intervals before the pool shrinks */
+    static final int CALM_INTERVALS = 3;
+
+    /** The pool being sized */
+    private final HikariDataSource dataSource;
+
+    /** Registry holding the pool's timers */
+    private final MeterRegistry meterRegistry;
+
+    /** Smallest pool size */
+    private final int minSize;
+
+    /** Largest pool size */
+    private final int maxSize;
+
+    /** Mean acquire time above which the pool grows, in nanoseconds */
+    private final long targetAcquireNanos;
+
+    /** Mean usage time above which the pool shrinks, in nanoseconds */
+    private final long maxUsageNanos;
+
+    /** Resizes that grew the pool */
+    private final Counter grown;
+
+    /** Resizes that shrank the pool */
+    private final Counter shrunk;
+
+    /** Acquire timer totals at the previous interval */
+    private final TimerWindow acquire = new TimerWindow();
+
+    /** Usage timer totals at the previous interval */
+    private final TimerWindow usage = new TimerWindow();
+
+    /** Consecutive intervals without pressure */
+    private int calmIntervals;
+
+    /**
+     * Creates a sizer and moves the pool size into the bounds.
+     *
+     * @param dataSource the pool to size
+     * @param meterRegistry registry holding the pool's timers
+     * @param minSize smallest pool size
+     * @param maxSize largest pool size
+     * @param targetAcquireTime mean acquire time above which the pool grows
+     * @param maxUsageTime mean usage time above which the pool shrinks
+     */
+    public AdaptivePoolSizer(HikariDataSource dataSource, MeterRegistry meterRegistry, int minSize, int maxSize,
+            Duration targetAcquireTime, Duration maxUsageTime) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid pool size bounds: " + minSize + ".." + maxSize);
+        }
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetAcquireNanos = targetAcquireTime.toNanos();
+        this.maxUsageNanos = maxUsageTime.toNanos();
+        this.grown = Counter.builder("tracker.jdbc.pool.resizes").tag("direction", "grow")
+            .description("Connection pool resizes by the adaptive sizer")
+            .register(meterRegistry);
+        this.shrunk = Counter.builder("tracker.jdbc.pool.resizes").tag("direction", "shrink")
+            .description("Connection pool resizes by the adaptive sizer")
+            .register(meterRegistry);
+        int size = dataSource.getMaximumPoolSize();
+        if (size < minSize || size > maxSize) {
+            resize(Math.max(minSize, Math.min(maxSize, size)));
+        }
+    }
+
+    /**
+     * Runs one control step.
+     *
+     * @return the pool size after the step
+     */
+    @Scheduled(initialDelayString = "${tracker.jdbc.pool.adaptive.interval:PT5S}",
+        fixedDelayString = "${tracker.jdbc.pool.adaptive.interval:PT5S}")
+    public synchronized int adjust() {
+        int size = dataSource.getMaximumPoolSize();
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            // Not started yet
+            return size;
+        }
+        String poolName = dataSource.getPoolName();
+        long acquireNanos = acquire.meanNanos(timer("hikaricp.connections.acquire", poolName));
+        long usageNanos = usage.meanNanos(timer("hikaricp.connections.usage", poolName));
+        int waiting = pool.getThreadsAwaitingConnection();
+
+        int target = size;
+        if (usageNanos > maxUsageNanos) {
+            target = size - Math.max(1, size / 4);
+            calmIntervals = 0;
+        } else if (waiting > 0 || acquireNanos > targetAcquireNanos) {
+            // Without a returned connection there is no evidence the database keeps up
+            if (usageNanos >= 0) {
+                target = size + Math.max(1, Math.min(waiting, size));
+            }
+            calmIntervals = 0;
+        } else if (pool.getActiveConnections() <= size / 2 && ++calmIntervals >= CALM_INTERVALS) {
+            target = size - Math.max(1, size / 4);
+            calmIntervals = 0;
+        }
+        target = Math.max(minSize, Math.min(maxSize, target));
+        if (target != size) {
+            log.info("Resizing connection pool '{}' from {} to {} ({} waiting, mean acquire {} us, mean usage {} us)",
+                poolName, size, target, waiting, Math.max(0, acquireNanos) / 1_000, Math.max(0, usageNanos) / 1_000);
+            resize(target);
+            (target > size ? grown : shrunk).increment();
+        }
+        return target;
+    }
+
+    private void resize(int size) {
+        dataSource.getHikariConfigMXBean().setMaximumPoolSize(size);
+        if (dataSource.getMinimumIdle() > size) {
+            dataSource.getHikariConfigMXBean().setMinimumIdle(size);
+        }
+    }
+
+    private Timer timer(String name, String poolName) {
+        return meterRegistry.find(name).tag("pool", poolName).timer();
+    }
+
+    /**
+     * Mean of a cumulative timer over the time since the previous reading,
+     * or -1 without samples.
+     */
+    private static final class TimerWindow {
+
+        private long count;
+
+        private double totalNanos;
+
+        long meanNanos(Timer timer) {
+            if (timer == null) {
+                return -1;
+            }
+            long currentCount = timer.count();
+            double currentTotal = timer.totalTime(TimeUnit.NANOSECONDS);
+            long samples = currentCount - count;
+            double nanos = currentTotal - totalNanos;
+            count = currentCount;
+            totalNanos = currentTotal;
+            return samples > 0 ? (long) (nanos / samples) : -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.suyos.tracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.suyos.tracker.analytics.AggregationKernels;
+import com.suyos.tracker.analytics.ScalarAggregationKernels;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Configuration of the in-memory analytics engine.
+ *
+ * Selects the aggregation kernels at startup: the Vector API kernels when
+ * the JVM was started with {@code --add-modules jdk.incubator.vector} and
+ * {@code tracker.kernels.vectorized} is true, the scalar kernels otherwise.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Configuration
+public class AnalyticsConfig {
+
+    /** Fully qualified name of the kernels that require the Vector API */
+    private static final String VECTOR_KERNELS = "com.suyos.tracker.analytics.VectorAggregationKernels";
+
+    /**
+     * Creates the aggregation kernels.
+     *
+     * The vectorized kernels are loaded reflectively so that no class
+     * linking against the incubator module is loaded when it is absent.
+     *
+     * @param vectorized whether to prefer the vectorized kernels
+     * @return the kernels
+     */
+    @Bean
+    public AggregationKernels aggregationKernels(@Value("${tracker.kernels.vectorized:true}") boolean vectorized) {
+        if (vectorized) {
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                try {
+                    AggregationKernels kernels = (AggregationKernels) Class.forName(VECTOR_KERNELS)
+                        .getDeclaredConstructor().newInstance();
+                    log.info("Using vectorized aggregation kernels");
+                    return kernels;
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    log.warn("Vectorized aggregation kernels failed to load, using scalar kernels", e);
+                }
+            } else {
+                log.warn("Module jdk.incubator.vector not present, using scalar aggregation kernels; "
+                    + "start the JVM with --add-modules jdk.incubator.vector to enable them");
+            }
+        }
+        return new ScalarAggregationKernels();
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.suyos.tracker.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuration of adaptive connection pool sizing.
+ *
+ * The pool's own metrics ({@code hikaricp.connections.*}: active, idle,
+ * pending, acquire and usage time) are published by Spring Boot. When
+ * {@code tracker.jdbc.pool.adaptive.enabled} is true, an
+ * {@link AdaptivePoolSizer} resizes the pool from them within
+ * {@code tracker.jdbc.pool.adaptive.min-size} and {@code max-size}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "tracker.jdbc.pool.adaptive.enabled", havingValue = "true")
+public class ConnectionPoolConfig {
+
+    /** Smallest pool size */
+    @Value("${tracker.jdbc.pool.adaptive.min-size:4}")
+    private int minSize;
+
+    /** Largest pool size */
+    @Value("${tracker.jdbc.pool.adaptive.max-size:20}")
+    private int maxSize;
+
+    /** Mean acquire time above which the pool grows */
+    @Value("${tracker.jdbc.pool.adaptive.target-acquire-time:PT0.01S}")
+    private Duration targetAcquireTime;
+
+    /** Mean usage time above which the database is considered slow and the pool shrinks */
+    @Value("${tracker.jdbc.pool.adaptive.max-usage-time:PT1S}")
+    private Duration maxUsageTime;
+
+    /**
+     * Creates the sizer for the application's connection pool.
+     *
+     * @param dataSource the application data source, possibly throttled
+     * @param meterRegistry registry holding the pool's metrics
+     * @return the sizer, run on its configured interval
+     * @throws SQLException if the data source is not a HikariCP pool
+     */
+    @Bean
+    public AdaptivePoolSizer adaptivePoolSizer(DataSource dataSource, MeterRegistry meterRegistry)
+            throws SQLException {
+        return new AdaptivePoolSizer(dataSource.unwrap(HikariDataSource.class), meterRegistry, minSize, maxSize,
+            targetAcquireTime, maxUsageTime);
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.suyos.tracker.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source admitting a bounded number of open connections at a time.
+ *
+ * A fair semaphore sized to the connection pool sits in front of it: a
+ * thread takes a permit before borrowing a connection and returns it when
+ * the connection is closed. With cheap virtual threads, thousands of
+ * requests can reach the repositories at once; the semaphore queues them
+ * in arrival order, bounds the wait by {@code acquireTimeout}, and exposes
+ * the queue length, instead of letting all of them contend inside the pool.
+ * A thread that does not get a permit in time fails with an
+ * {@link SQLTransientConnectionException}, as it would on a pool timeout.
+ *
+ * Permits are per connection, so a thread opening a second connection while
+ * holding one (such as a REQUIRES_NEW transaction) needs a second permit.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConnectionThrottlingDataSource extends DelegatingDataSource {
+
+    /** Permits for open connections */
+    private final Semaphore permits;
+
+    /** Number of permits */
+    private final int maxConnections;
+
+    /** Longest wait for a permit */
+    private final Duration acquireTimeout;
+
+    /**
+     * Creates a throttling data source.
+     *
+     * @param target the pooled data source
+     * @param maxConnections connections allowed open at once
+     * @param acquireTimeout longest wait for a permit
+     */
+    public ConnectionThrottlingDataSource(DataSource target, int maxConnections, Duration acquireTimeout) {
+        super(target);
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("maxConnections must be positive: " + maxConnections);
+        }
+        this.permits = new Semaphore(maxConnections, true);
+        this.maxConnections = maxConnections;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasing(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasing(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of connections allowed open at once.
+     *
+     * @return permit count
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Returns the number of connections currently open through this data source.
+     *
+     * @return permits in use
+     */
+    public int getActiveConnections() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    /**
+     * Returns the approximate number of threads waiting for a permit.
+     *
+     * @return queue length
+     */
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("No connection permit within " + acquireTimeout
+                    + "; " + permits.getQueueLength() + " threads waiting for " + maxConnections + " connections");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection permit", e);
+        }
+    }
+
+    /**
+     * Wraps a connection so that closing it returns its permit exactly once.
+     */
+    private Connection releasing(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+            new Class<?>[] {ConnectionProxy.class}, new ReleasingInvocationHandler(target));
+    }
+
+    private final class ReleasingInvocationHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleasingInvocationHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                case "close":
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                    return null;
+                default:
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.suyos.tracker.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate configuration for statement instrumentation.
+ *
+ * Registers the {@link SqlStatementTracker} bean as the session factory's
+ * statement inspector so every SQL statement is counted against the request
+ * that issued it.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+public class HibernateConfig {
+
+    /**
+     * Installs the statement tracker as Hibernate's statement inspector.
+     *
+     * @param sqlStatementTracker the tracker bean
+     * @return customizer adding the inspector to the Hibernate properties
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspectorCustomizer(SqlStatementTracker sqlStatementTracker) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementTracker);
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.suyos.tracker.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares that an endpoint only reads, whatever its HTTP method.
+ *
+ * Evaluated by {@link ReadYourWritesInterceptor}, which otherwise treats
+ * every method but GET, HEAD and OPTIONS as a write. Put it on handlers
+ * that take a POST only to carry a request body, such as a lookup by IDs,
+ * so calling them does not pin the user's reads to the primary.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlyEndpoint {
+}
@@ -0,0 +1,58 @@
+package com.suyos.tracker.config;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Marks the authenticated user in {@link ReadYourWritesTracker} on every write request.
+ *
+ * Any method other than GET, HEAD and OPTIONS counts as a write, unless the
+ * handler is annotated with {@link ReadOnlyEndpoint}. The user is
+ * marked before the handler runs, so reads made while handling the request
+ * go to the primary, and again after it completes, so the pin window starts
+ * once the write is committed. This also covers writes committed on other
+ * threads, such as coalesced expense creations.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    /** Tracker of recent writers */
+    private final ReadYourWritesTracker readYourWrites;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler) {
+        if (isWrite(request, handler)) {
+            readYourWrites.markCurrentUserWrite();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler, @Nullable Exception ex) {
+        if (isWrite(request, handler)) {
+            readYourWrites.markCurrentUserWrite();
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request, Object handler) {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            return false;
+        }
+        return !(handler instanceof HandlerMethod handlerMethod)
+            || !handlerMethod.hasMethodAnnotation(ReadOnlyEndpoint.class);
+    }
+
+}
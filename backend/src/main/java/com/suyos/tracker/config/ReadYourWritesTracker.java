@@ -0,0 +1,97 @@
+package com.suyos.tracker.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which users wrote recently, so their reads can avoid lagging replicas.
+ *
+ * Users are identified by their authentication name (the email). A write
+ * marks the user for {@code tracker.datasource.replica.pin-window}; while
+ * marked, {@link ReplicaRoutingDataSource} sends the user's read-only
+ * transactions to the primary, so they see their own writes even if the
+ * replica has not applied them yet. Other users keep reading from the
+ * replica.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    /** Marked users above which expired marks are swept on the next write */
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    /** {@link System#nanoTime()} until which each user is pinned */
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    /** How long a write pins the user's reads to the primary */
+    @Value("${tracker.datasource.replica.pin-window:PT5S}")
+    private Duration pinWindow = Duration.ofSeconds(5);
+
+    /**
+     * Marks a user as having just written.
+     *
+     * @param principal the user's authentication name; ignored if null
+     */
+    public void markWrite(String principal) {
+        if (principal == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        pinnedUntil.put(principal, now + pinWindow.toNanos());
+        if (pinnedUntil.size() > SWEEP_THRESHOLD) {
+            pinnedUntil.values().removeIf(until -> until - now < 0);
+        }
+    }
+
+    /**
+     * Marks the authenticated user of the current thread as having just written.
+     */
+    public void markCurrentUserWrite() {
+        markWrite(currentPrincipal());
+    }
+
+    /**
+     * Returns whether a user wrote within the pin window.
+     *
+     * @param principal the user's authentication name
+     * @return true if the user's reads should go to the primary
+     */
+    public boolean isPinned(String principal) {
+        if (principal == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(principal);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() < 0) {
+            pinnedUntil.remove(principal, until);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the authenticated user of the current thread wrote within the pin window.
+     *
+     * @return true if the current user's reads should go to the primary
+     */
+    public boolean isCurrentUserPinned() {
+        return isPinned(currentPrincipal());
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+}
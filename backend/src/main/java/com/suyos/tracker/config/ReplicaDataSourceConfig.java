@@ -0,0 +1,116 @@
+package com.suyos.tracker.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Configuration of read replica routing.
+ *
+ * When {@code tracker.datasource.replica.enabled} is true, the application
+ * data source becomes a {@link ReplicaRoutingDataSource} over two HikariCP
+ * pools: the primary, configured by {@code spring.datasource.*} as before,
+ * and the replica, configured by {@code tracker.datasource.replica.*}.
+ * Read-only transactions use the replica unless the user wrote within
+ * {@code tracker.datasource.replica.pin-window}; writes are recorded by a
+ * {@link ReadYourWritesInterceptor}.
+ *
+ * The pools are not beans themselves, so that the connection throttle and
+ * the adaptive pool sizer apply once, to the routing data source and to the
+ * primary pool respectively. Both pools publish {@code hikaricp.connections.*}
+ * metrics under their pool names.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "tracker.datasource.replica.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReplicaDataSourceConfig implements WebMvcConfigurer {
+
+    /** Tracker of recent writers */
+    private final ReadYourWritesTracker readYourWrites;
+
+    /** JDBC URL of the replica */
+    @Value("${tracker.datasource.replica.url}")
+    private String replicaUrl;
+
+    /** Database user of the replica */
+    @Value("${tracker.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    /** Database password of the replica */
+    @Value("${tracker.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    /** Primary pool, closed on shutdown */
+    private HikariDataSource primary;
+
+    /** Replica pool, closed on shutdown */
+    private HikariDataSource replica;
+
+    /**
+     * Creates the routing data source used by JPA and JDBC.
+     *
+     * @param properties the primary's {@code spring.datasource.*} properties
+     * @param environment environment holding the pools' HikariCP settings
+     * @param meterRegistry registry the pools' metrics are published to
+     * @return the routing data source behind a lazy connection proxy
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+            MeterRegistry meterRegistry) {
+        primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        replica = new HikariDataSource();
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(replicaUsername);
+        replica.setPassword(replicaPassword);
+        replica.setPoolName((primary.getPoolName() != null ? primary.getPoolName() : "primary") + "-replica");
+        replica.setReadOnly(true);
+        Binder.get(environment).bind("tracker.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        return ReplicaRoutingDataSource.lazy(primary, replica, readYourWrites);
+    }
+
+    /**
+     * Closes both pools once the data source is no longer used.
+     */
+    @PreDestroy
+    public void closePools() {
+        if (replica != null) {
+            replica.close();
+        }
+        if (primary != null) {
+            primary.close();
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(readYourWrites));
+    }
+
+}
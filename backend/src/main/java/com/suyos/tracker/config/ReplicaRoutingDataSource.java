@@ -0,0 +1,114 @@
+package com.suyos.tracker.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending read-only transactions to a replica and everything else to the primary.
+ *
+ * A connection is routed to the replica when it is taken for a
+ * {@code @Transactional(readOnly = true)} transaction and the current user
+ * is not pinned by {@link ReadYourWritesTracker}. Read-only methods called
+ * from a read-write transaction join it and stay on the primary.
+ *
+ * Loads that fill long-lived caches must not read from a lagging replica,
+ * as the stale state would outlive the lag; they run within
+ * {@link #forcePrimary()}, which routes every connection the thread takes
+ * to the primary, pinned or not. A connection the thread's transaction
+ * already took keeps its target.
+ *
+ * Transaction managers take their connection before the read-only flag of
+ * the transaction is published, so the routing only works behind a
+ * {@link LazyConnectionDataSourceProxy}, which defers taking the connection
+ * to the first statement; use {@link #lazy} to create both.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /** Lookup key of the primary */
+    static final String PRIMARY = "primary";
+
+    /** Lookup key of the replica */
+    static final String REPLICA = "replica";
+
+    /** Whether each thread's connections are routed to the primary, or null */
+    private static final ThreadLocal<Boolean> FORCED_PRIMARY = new ThreadLocal<>();
+
+    /** Users whose reads stay on the primary */
+    private final ReadYourWritesTracker readYourWrites;
+
+    /**
+     * Creates a routing data source.
+     *
+     * @param primary data source for writes and pinned reads
+     * @param replica data source for other read-only transactions
+     * @param readYourWrites tracker of recent writers
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesTracker readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Creates a routing data source behind a lazy connection proxy.
+     *
+     * @param primary data source for writes and pinned reads
+     * @param replica data source for other read-only transactions
+     * @param readYourWrites tracker of recent writers
+     * @return the proxy to hand to transaction managers
+     */
+    public static LazyConnectionDataSourceProxy lazy(DataSource primary, DataSource replica,
+            ReadYourWritesTracker readYourWrites) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, readYourWrites));
+    }
+
+    /**
+     * Routes the connections the current thread takes to the primary until
+     * the returned scope is closed. Scopes nest.
+     *
+     * @return scope restoring the previous routing
+     */
+    public static Scope forcePrimary() {
+        Boolean previous = FORCED_PRIMARY.get();
+        FORCED_PRIMARY.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                FORCED_PRIMARY.remove();
+            } else {
+                FORCED_PRIMARY.set(previous);
+            }
+        };
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && FORCED_PRIMARY.get() == null
+                && !readYourWrites.isCurrentUserPinned()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Routing released on close, for try-with-resources.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.suyos.tracker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling configuration enabling {@code @Scheduled} background jobs.
+ *
+ * Individual jobs are switched on and off with their own
+ * {@code tracker.*.enabled} properties.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
@@ -0,0 +1,34 @@
+package com.suyos.tracker.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the maximum number of SQL statements an endpoint may execute.
+ * 
+ * Evaluated by {@link SqlStatementCountingFilter} after each request. Requests
+ * that exceed the budget are logged and counted under the
+ * {@code sql.statements.budget.exceeded} metric so regressions that quietly
+ * add queries become visible.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlStatementBudget {
+
+    /**
+     * Maximum number of statements, including those issued by the
+     * authentication filter before the handler runs.
+     * 
+     * @return the statement budget
+     */
+    int value();
+
+}
@@ -0,0 +1,133 @@
+package com.suyos.tracker.config;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Servlet filter that attributes SQL statements to the endpoint serving a request.
+ *
+ * Runs ahead of the security filter chain so that statements issued while
+ * authenticating the JWT are included. After the request completes it
+ * publishes the statement count as the {@code sql.statements} distribution
+ * summary tagged by method and URI pattern, reports repeated statement
+ * shapes as likely N+1 patterns, and checks {@link SqlStatementBudget}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class SqlStatementCountingFilter extends OncePerRequestFilter {
+
+    /** Tracker collecting statements from Hibernate */
+    private final SqlStatementTracker sqlStatementTracker;
+
+    /** Registry the per-endpoint histograms are published to */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Tracks statements executed while the rest of the chain handles the request.
+     *
+     * @param request the HTTP request
+     * @param response the HTTP response
+     * @param filterChain the filter chain
+     * @throws ServletException if servlet processing fails
+     * @throws IOException if I/O operation fails
+     */
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        sqlStatementTracker.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            String uri = resolveUriPattern(request);
+            SqlStatementTracker.RequestStatements statements =
+                sqlStatementTracker.end(request.getMethod() + " " + uri);
+            if (statements != null) {
+                report(request, uri, statements);
+            }
+        }
+    }
+
+    /**
+     * Publishes metrics and logs findings for a completed request.
+     *
+     * @param request the completed request
+     * @param uri the matched URI pattern
+     * @param statements the statements collected for the request
+     */
+    private void report(HttpServletRequest request, String uri, SqlStatementTracker.RequestStatements statements) {
+        String method = request.getMethod();
+
+        DistributionSummary.builder("sql.statements")
+            .description("SQL statements executed per HTTP request")
+            .baseUnit("statements")
+            .tag("method", method)
+            .tag("uri", uri)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(statements.getCount());
+
+        statements.getRepeatedShapes().forEach((shape, occurrences) -> {
+            log.warn("Possible N+1 on {} {}: statement executed {} times: {}", method, uri, occurrences, shape);
+            Counter.builder("sql.statements.n_plus_one")
+                .description("Requests with a statement shape repeated past the N+1 threshold")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .increment();
+        });
+
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod handlerMethod) {
+            SqlStatementBudget budget = handlerMethod.getMethodAnnotation(SqlStatementBudget.class);
+            if (budget != null && statements.getCount() > budget.value()) {
+                log.warn("SQL statement budget exceeded on {} {}: {} statements, budget {}",
+                    method, uri, statements.getCount(), budget.value());
+                Counter.builder("sql.statements.budget.exceeded")
+                    .description("Requests that executed more statements than their declared budget")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            }
+        }
+    }
+
+    /**
+     * Resolves the URI pattern of the handler that served the request.
+     *
+     * Uses the pattern rather than the raw path to keep metric cardinality bounded.
+     *
+     * @param request the completed request
+     * @return the matched pattern, or "UNKNOWN" when no handler was matched
+     */
+    private String resolveUriPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.suyos.tracker.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+
+/**
+ * Hibernate statement inspector that counts SQL statements per HTTP request.
+ *
+ * Every statement prepared by Hibernate passes through {@link #inspect(String)}
+ * and is attributed to the request currently bound to the executing thread.
+ * Statements are grouped by shape (the SQL text with IN-lists and literals
+ * collapsed) so that the same query issued repeatedly within one request can
+ * be flagged as a likely N+1 access pattern.
+ *
+ * The statistics of the most recent completed request per endpoint are kept
+ * so that tests can assert statement budgets after calling an endpoint.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class SqlStatementTracker implements StatementInspector {
+
+    /** Matches a parenthesized list of JDBC placeholders, e.g. "(?, ?, ?)" */
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+
+    /** Matches quoted string literals */
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    /** Matches standalone numeric literals */
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+
+    /** Matches runs of whitespace */
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /** Statistics of the request bound to the current thread, if any */
+    private final ThreadLocal<RequestStatements> current = new ThreadLocal<>();
+
+    /** Statistics of the last completed request per endpoint */
+    private final Map<String, RequestStatements> lastCompleted = new ConcurrentHashMap<>();
+
+    /** Number of identical statement shapes in one request that flags an N+1 pattern */
+    @Value("${tracker.sql.n-plus-one-threshold:3}")
+    private int nPlusOneThreshold = 3;
+
+    /**
+     * Records a statement against the request bound to the current thread.
+     *
+     * Statements executed outside of a tracked request (startup, scheduled
+     * jobs) are ignored. The SQL is returned unchanged.
+     *
+     * @param sql the SQL statement about to be prepared
+     * @return the same SQL statement
+     */
+    @Override
+    public String inspect(String sql) {
+        RequestStatements statements = current.get();
+        if (statements != null) {
+            statements.record(normalize(sql));
+        }
+        return sql;
+    }
+
+    /**
+     * Starts tracking statements for a request on the current thread.
+     *
+     * @return the statistics holder bound to the current thread
+     */
+    public RequestStatements begin() {
+        RequestStatements statements = new RequestStatements(nPlusOneThreshold);
+        current.set(statements);
+        return statements;
+    }
+
+    /**
+     * Stops tracking statements on the current thread.
+     *
+     * @param endpoint the endpoint key (e.g. "GET /api/expenses") to record the
+     *                 statistics under, or null to discard them
+     * @return the statistics of the finished request, or null if none was tracked
+     */
+    public RequestStatements end(String endpoint) {
+        RequestStatements statements = current.get();
+        current.remove();
+        if (statements != null && endpoint != null) {
+            lastCompleted.put(endpoint, statements);
+        }
+        return statements;
+    }
+
+    /**
+     * Returns the statistics of the last completed request for an endpoint.
+     *
+     * @param endpoint the endpoint key, e.g. "GET /api/expenses/{id}"
+     * @return the statistics, or null if the endpoint has not been called
+     */
+    public RequestStatements getLastCompleted(String endpoint) {
+        return lastCompleted.get(endpoint);
+    }
+
+    /**
+     * Clears all recorded per-endpoint statistics.
+     */
+    public void reset() {
+        lastCompleted.clear();
+    }
+
+    /**
+     * Reduces a SQL statement to its shape.
+     *
+     * IN-lists of any length collapse to a single placeholder and literals
+     * are replaced with placeholders, so that statements differing only by
+     * their parameters compare equal.
+     *
+     * @param sql the SQL statement
+     * @return the normalized statement shape
+     */
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMERIC_LITERAL.matcher(shape).replaceAll("?");
+        shape = PLACEHOLDER_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim().toLowerCase();
+    }
+
+    /**
+     * Statement statistics collected for a single request.
+     */
+    public static class RequestStatements {
+
+        /** Occurrences of each statement shape, in first-seen order */
+        private final Map<String, Integer> shapes = new LinkedHashMap<>();
+
+        /** Repetition count at which a shape is reported as N+1 */
+        private final int nPlusOneThreshold;
+
+        /** Total number of statements executed */
+        @Getter
+        private int count;
+
+        RequestStatements(int nPlusOneThreshold) {
+            this.nPlusOneThreshold = nPlusOneThreshold;
+        }
+
+        void record(String shape) {
+            count++;
+            shapes.merge(shape, 1, Integer::sum);
+        }
+
+        /**
+         * Returns the number of times each statement shape was executed.
+         *
+         * @return unmodifiable view of shape occurrences
+         */
+        public Map<String, Integer> getShapes() {
+            return Collections.unmodifiableMap(shapes);
+        }
+
+        /**
+         * Returns the statement shapes repeated often enough to suggest an N+1 pattern.
+         *
+         * @return shapes with their occurrence counts, in first-seen order
+         */
+        public Map<String, Integer> getRepeatedShapes() {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            shapes.forEach((shape, occurrences) -> {
+                if (occurrences >= nPlusOneThreshold) {
+                    repeated.put(shape, occurrences);
+                }
+            });
+            return repeated;
+        }
+
+    }
+
+}
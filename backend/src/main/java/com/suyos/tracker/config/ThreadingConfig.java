@@ -0,0 +1,121 @@
+package com.suyos.tracker.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Configuration of request threading and of the JDBC admission guard.
+ *
+ * Virtual threads are opted into with Spring Boot's
+ * {@code spring.threads.virtual.enabled}, which switches the Tomcat request
+ * threads, the application task executor and the scheduler to virtual
+ * threads. They require Java 21; on older runtimes the property has no
+ * effect and a warning is logged.
+ *
+ * When {@code tracker.jdbc.throttle.enabled} is true (by default whenever
+ * virtual threads are requested), the data source is wrapped in a
+ * {@link ConnectionThrottlingDataSource} sized to the connection pool (to
+ * its upper bound when the pool is sized adaptively), and its active and
+ * waiting counts are published as metrics.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Configuration
+public class ThreadingConfig {
+
+    /** Permits used when the pool size cannot be determined */
+    private static final int DEFAULT_MAX_CONNECTIONS = 10;
+
+    /**
+     * Logs the request threading mode in effect.
+     *
+     * @param environment the application environment
+     */
+    public ThreadingConfig(Environment environment) {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Serving requests on virtual threads");
+        } else if (requested) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                + "serving requests on the platform thread pool", Runtime.version().feature());
+        }
+    }
+
+    /**
+     * Wraps the data source in a connection throttle when enabled.
+     *
+     * @param environment the application environment
+     * @return the post-processor
+     */
+    @Bean
+    public static BeanPostProcessor connectionThrottlePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionThrottlingDataSource
+                        || !throttleEnabled(environment)) {
+                    return bean;
+                }
+                int maxConnections = environment.getProperty("tracker.jdbc.throttle.max-connections", Integer.class, 0);
+                if (maxConnections <= 0 && environment.getProperty("tracker.jdbc.pool.adaptive.enabled",
+                        Boolean.class, false)) {
+                    // The pool may grow up to its adaptive bound
+                    maxConnections = environment.getProperty("tracker.jdbc.pool.adaptive.max-size", Integer.class, 20);
+                } else if (maxConnections <= 0) {
+                    maxConnections = bean instanceof HikariDataSource hikari
+                        ? hikari.getMaximumPoolSize() : DEFAULT_MAX_CONNECTIONS;
+                }
+                Duration acquireTimeout = environment.getProperty("tracker.jdbc.throttle.acquire-timeout",
+                    Duration.class, Duration.ofSeconds(30));
+                log.info("Throttling data source '{}' to {} concurrent connections", beanName, maxConnections);
+                return new ConnectionThrottlingDataSource(dataSource, maxConnections, acquireTimeout);
+            }
+        };
+    }
+
+    /**
+     * Publishes the throttle's active and waiting counts.
+     *
+     * @param dataSources the application data sources
+     * @return binder registering gauges for each throttled data source
+     */
+    @Bean
+    public MeterBinder connectionThrottleMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream()
+            .filter(ConnectionThrottlingDataSource.class::isInstance)
+            .map(ConnectionThrottlingDataSource.class::cast)
+            .forEach(throttle -> {
+                Gauge.builder("tracker.jdbc.throttle.active", throttle,
+                        ConnectionThrottlingDataSource::getActiveConnections)
+                    .description("Connections open through the JDBC throttle")
+                    .register(registry);
+                Gauge.builder("tracker.jdbc.throttle.waiting", throttle,
+                        ConnectionThrottlingDataSource::getWaitingThreads)
+                    .description("Threads waiting for a JDBC connection permit")
+                    .register(registry);
+            });
+    }
+
+    private static boolean throttleEnabled(Environment environment) {
+        boolean virtual = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        return environment.getProperty("tracker.jdbc.throttle.enabled", Boolean.class, virtual);
+    }
+
+}
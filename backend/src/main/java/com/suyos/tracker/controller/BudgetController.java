@@ -0,0 +1,160 @@
+package com.suyos.tracker.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.suyos.tracker.config.SqlStatementBudget;
+import com.suyos.tracker.dto.BudgetDTO;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.service.BudgetService;
+import com.suyos.tracker.service.UserService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for monthly category budgets of the authenticated user.
+ *
+ * Each category has at most one budget, addressed by the category in the
+ * path. Expense creates and updates that cross a budget threshold return
+ * alerts with the written expense.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/budgets")
+@CrossOrigin(origins = "http://localhost:5173") // React dev server
+@Tag(name = "Budgets", description = "Monthly category budget management")
+@SecurityRequirement(name = "Bearer Authentication")
+public class BudgetController {
+
+    /** Service layer for budget operations */
+    private final BudgetService budgetService;
+
+    /** Service layer for user operations */
+    private final UserService userService;
+
+    /**
+     * Retrieves the authenticated user's budgets with current month usage.
+     *
+     * @return ResponseEntity containing one budget per budgeted category
+     */
+    @GetMapping
+    @SqlStatementBudget(4)
+    @Operation(summary = "Get budgets", description = "Retrieves all budgets of the authenticated user with spending in the current month")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved budgets"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<List<BudgetDTO>> getBudgets() {
+        // Get current user ID from authentication context
+        Long userId = userService.getCurrentUserId();
+
+        // Read budgets with usage for current user
+        return ResponseEntity.ok(budgetService.getBudgets(userId));
+    }
+
+    /**
+     * Retrieves the authenticated user's budget for one category.
+     *
+     * Returns HTTP 404 (Not Found) if the category has no budget.
+     *
+     * @param category The budgeted category
+     * @return ResponseEntity containing the budget or 404 if not found
+     */
+    @GetMapping("/{category}")
+    @SqlStatementBudget(4)
+    @Operation(summary = "Get budget by category", description = "Retrieves the budget of one category for the authenticated user")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Budget found"),
+        @ApiResponse(responseCode = "404", description = "Budget not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<BudgetDTO> getBudget(@Parameter(description = "Budgeted category") @PathVariable Category category) {
+        try {
+            // Get current user ID from authentication context
+            Long userId = userService.getCurrentUserId();
+
+            // Attempt to retrieve budget for current user
+            return ResponseEntity.ok(budgetService.getBudget(userId, category));
+        } catch (RuntimeException e) {
+            // Return 404 if budget not found
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Creates or replaces the authenticated user's budget for one category.
+     *
+     * @param category The budgeted category
+     * @param budgetDTO The budget data with the monthly limit (validated)
+     * @return ResponseEntity containing the saved budget
+     */
+    @PutMapping("/{category}")
+    @SqlStatementBudget(5)
+    @Operation(summary = "Set budget", description = "Creates or replaces the monthly limit of one category for the authenticated user")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Budget saved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid input data"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<BudgetDTO> setBudget(
+            @Parameter(description = "Budgeted category") @PathVariable Category category,
+            @Valid @RequestBody BudgetDTO budgetDTO) {
+        // Get current user ID from authentication context
+        Long userId = userService.getCurrentUserId();
+
+        // Create or replace budget for current user
+        return ResponseEntity.ok(budgetService.setBudget(userId, category, budgetDTO));
+    }
+
+    /**
+     * Deletes the authenticated user's budget for one category.
+     *
+     * Returns HTTP 204 (No Content) on successful deletion.
+     * Returns HTTP 404 (Not Found) if the category has no budget.
+     *
+     * @param category The budgeted category
+     * @return ResponseEntity with no content on success or 404 if not found
+     */
+    @DeleteMapping("/{category}")
+    @SqlStatementBudget(4)
+    @Operation(summary = "Delete budget", description = "Deletes the budget of one category for the authenticated user")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Budget deleted successfully"),
+        @ApiResponse(responseCode = "404", description = "Budget not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<Void> deleteBudget(@Parameter(description = "Budgeted category") @PathVariable Category category) {
+        try {
+            // Get current user ID from authentication context
+            Long userId = userService.getCurrentUserId();
+
+            // Attempt to delete budget for current user
+            budgetService.deleteBudget(userId, category);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            // Return 404 if budget not found
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+}
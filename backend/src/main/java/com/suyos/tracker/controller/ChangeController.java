@@ -0,0 +1,71 @@
+package com.suyos.tracker.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.suyos.tracker.config.SqlStatementBudget;
+import com.suyos.tracker.dto.ChangeFeedDTO;
+import com.suyos.tracker.service.ExpenseChangeOutbox;
+import com.suyos.tracker.service.UserService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller serving the authenticated user's expense change feed.
+ *
+ * Clients poll with the {@code next} position of their previous response
+ * and receive every change relayed since, at least once and in order.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/changes")
+@CrossOrigin(origins = "http://localhost:5173") // React dev server
+@Tag(name = "Changes", description = "Feed of expense creates, updates and deletes")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ChangeController {
+
+    /** Service keeping the outbox of expense changes */
+    private final ExpenseChangeOutbox expenseChangeOutbox;
+
+    /** Service layer for user operations */
+    private final UserService userService;
+
+    /**
+     * Retrieves the authenticated user's expense changes after a position.
+     *
+     * @param since Last position processed (default: 0, the oldest retained change)
+     * @param limit Maximum number of changes (default: 100, max 1000)
+     * @return ResponseEntity containing the changes and the position to resume from
+     */
+    @GetMapping
+    @SqlStatementBudget(3)
+    @Operation(summary = "Get expense changes", description = "Retrieves the authenticated user's expense changes after a position, in order")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved changes"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<ChangeFeedDTO> getChanges(
+            @Parameter(description = "Last position processed") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes (max 1000)") @RequestParam(defaultValue = "100") int limit) {
+        // Get current user ID from authentication context
+        Long userId = userService.getCurrentUserId();
+
+        // Read changes after the position for current user
+        return ResponseEntity.ok(expenseChangeOutbox.getChanges(userId, since, limit));
+    }
+
+}
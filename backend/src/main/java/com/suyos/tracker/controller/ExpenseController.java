@@ -1,6 +1,8 @@
 package com.suyos.tracker.controller;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,10 +17,20 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.suyos.tracker.archive.ArchivedExpenseException;
+import com.suyos.tracker.config.ReadOnlyEndpoint;
+import com.suyos.tracker.config.SqlStatementBudget;
 import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.dto.ExpenseLookupRequestDTO;
+import com.suyos.tracker.dto.ExpenseLookupResponseDTO;
+import com.suyos.tracker.dto.ExpenseSummaryDTO;
+import com.suyos.tracker.dto.ExpenseTotalDTO;
 import com.suyos.tracker.dto.PagedResponse;
 import com.suyos.tracker.model.Category;
+import com.suyos.tracker.service.ExpenseAnalyticsService;
+import com.suyos.tracker.service.ExpenseRollupService;
 import com.suyos.tracker.service.ExpenseService;
+import com.suyos.tracker.service.ExpenseWriteCoalescer;
 import com.suyos.tracker.service.UserService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -55,9 +67,18 @@ public class ExpenseController {
     /** Service layer for expense business logic */
     private final ExpenseService expenseService;
     
+    /** Group commit for expense creations */
+    private final ExpenseWriteCoalescer expenseWriteCoalescer;
+    
     /** Service layer for user operations */
     private final UserService userService;
     
+    /** Service layer for spending rollups */
+    private final ExpenseRollupService expenseRollupService;
+    
+    /** Service layer for spending analytics */
+    private final ExpenseAnalyticsService expenseAnalyticsService;
+    
     /**
      * Retrieves expenses with pagination, sorting, and filtering support for the authenticated user.
      * 
@@ -74,6 +95,7 @@ public class ExpenseController {
      * @return ResponseEntity containing paginated expense data and metadata
      */
     @GetMapping
+    @SqlStatementBudget(4)
     @Operation(summary = "Get paginated expenses", description = "Retrieves expenses with pagination, sorting, and filtering for the authenticated user")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved expenses"),
@@ -100,6 +122,77 @@ public class ExpenseController {
         return ResponseEntity.ok(expenses);
     }
     
+    /**
+     * Retrieves the authenticated user's spending per month and category.
+     * 
+     * Answered from the maintained rollups with one indexed range lookup,
+     * independent of the number of expenses. Defaults to the last 12 months
+     * including the current one.
+     * 
+     * @param from First month (inclusive) in yyyy-MM format
+     * @param to Last month (inclusive) in yyyy-MM format
+     * @return ResponseEntity containing one summary per month and category with expenses
+     */
+    @GetMapping("/summary")
+    @SqlStatementBudget(3)
+    @Operation(summary = "Get monthly summary", description = "Retrieves spending totals per month and category for the authenticated user")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved summary"),
+        @ApiResponse(responseCode = "400", description = "Invalid month range"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<List<ExpenseSummaryDTO>> getMonthlySummary(
+            @Parameter(description = "First month (YYYY-MM)") @RequestParam(required = false) YearMonth from,
+            @Parameter(description = "Last month (YYYY-MM)") @RequestParam(required = false) YearMonth to) {
+        // Default to the trailing 12 months
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(11);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Get current user ID from authentication context
+        Long userId = userService.getCurrentUserId();
+        
+        // Read totals from the maintained rollups
+        return ResponseEntity.ok(expenseRollupService.getMonthlySummary(userId, start, end));
+    }
+    
+    /**
+     * Retrieves the authenticated user's total spending within a date range.
+     * 
+     * Answered from the in-memory range-sum index in logarithmic time,
+     * independent of the number of expenses or days in the range. Omitted
+     * bounds leave the range open on that side.
+     * 
+     * @param startDate First date (inclusive), or null for no lower bound
+     * @param endDate Last date (inclusive), or null for no upper bound
+     * @param category Optional category filter (null for all categories)
+     * @return ResponseEntity containing the total spent within the range
+     */
+    @GetMapping("/total")
+    @SqlStatementBudget(3)
+    @Operation(summary = "Get range total", description = "Retrieves total spending within a date range for the authenticated user")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved total"),
+        @ApiResponse(responseCode = "400", description = "Invalid date range"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<ExpenseTotalDTO> getRangeTotal(
+            @Parameter(description = "First date (YYYY-MM-DD)") @RequestParam(required = false) LocalDate startDate,
+            @Parameter(description = "Last date (YYYY-MM-DD)") @RequestParam(required = false) LocalDate endDate,
+            @Parameter(description = "Filter by category") @RequestParam(required = false) Category category) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Get current user ID from authentication context
+        Long userId = userService.getCurrentUserId();
+        
+        // Sum the range from the in-memory index
+        return ResponseEntity.ok(expenseAnalyticsService.getRangeTotal(userId, startDate, endDate, category));
+    }
+    
     /**
      * Creates a new expense record for the authenticated user.
      * 
@@ -110,6 +203,7 @@ public class ExpenseController {
      * @return ResponseEntity containing the created expense with generated ID
      */
     @PostMapping
+    @SqlStatementBudget(5)
     @Operation(summary = "Create new expense", description = "Creates a new expense record for the authenticated user")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Expense created successfully"),
@@ -120,22 +214,52 @@ public class ExpenseController {
         // Get current user ID from authentication context
         Long userId = userService.getCurrentUserId();
         
-        // Create new expense through service layer for current user
-        ExpenseDTO expenseDTOCreated = expenseService.createExpense(expenseDTO, userId);
+        // Create new expense for current user, sharing the commit with concurrent creations
+        ExpenseDTO expenseDTOCreated = expenseWriteCoalescer.createExpense(expenseDTO, userId);
         
         // Return 201 Created status with the new expense data
         return ResponseEntity.status(HttpStatus.CREATED).body(expenseDTOCreated);
     }
     
+    /**
+     * Retrieves several expenses by ID for the authenticated user.
+     * 
+     * Resolves up to 1000 IDs in a handful of bounded IN-list queries instead of
+     * one request per expense. The response preserves the order of the requested
+     * IDs and lists the IDs that were not found for the current user.
+     * 
+     * @param lookupRequest The expense IDs to fetch (validated)
+     * @return ResponseEntity containing found expenses and missing IDs
+     */
+    @PostMapping("/lookup")
+    @ReadOnlyEndpoint
+    @SqlStatementBudget(4)
+    @Operation(summary = "Get expenses by IDs", description = "Retrieves several expenses by ID for the authenticated user in request order")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lookup completed; missing IDs are reported in the body"),
+        @ApiResponse(responseCode = "400", description = "Invalid input data"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<ExpenseLookupResponseDTO> lookupExpenses(@Valid @RequestBody ExpenseLookupRequestDTO lookupRequest) {
+        // Get current user ID from authentication context
+        Long userId = userService.getCurrentUserId();
+        
+        // Resolve all requested IDs for current user
+        ExpenseLookupResponseDTO result = expenseService.getExpensesByIds(lookupRequest.getIds(), userId);
+        return ResponseEntity.ok(result);
+    }
+    
     /**
      * Retrieves a specific expense by ID for the authenticated user.
      * 
      * Returns HTTP 404 (Not Found) if no expense exists with the given ID for the current user.
+     * Archived expenses are found as well.
      * 
      * @param id The unique identifier of the expense
      * @return ResponseEntity containing the expense data or 404 if not found
      */
     @GetMapping("/{id}")
+    @SqlStatementBudget(3)
     @Operation(summary = "Get expense by ID", description = "Retrieves a specific expense by ID for the authenticated user")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Expense found"),
@@ -160,18 +284,21 @@ public class ExpenseController {
      * Updates an existing expense record for the authenticated user.
      * 
      * The request body is validated and the expense ID must exist and belong to the current user.
-     * Returns HTTP 404 (Not Found) if no expense exists with the given ID for the current user.
+     * Returns HTTP 404 (Not Found) if no expense exists with the given ID for the current user,
+     * and HTTP 409 (Conflict) if the expense was moved to the read-only archive.
      * 
      * @param id The ID of the expense to update
      * @param expenseDTO The updated expense data (validated)
      * @return ResponseEntity containing the updated expense or 404 if not found
      */
     @PutMapping("/{id}")
+    @SqlStatementBudget(5)
     @Operation(summary = "Update expense", description = "Updates an existing expense record for the authenticated user")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Expense updated successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid input data"),
         @ApiResponse(responseCode = "404", description = "Expense not found"),
+        @ApiResponse(responseCode = "409", description = "Expense is archived and read-only"),
         @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
     })
     public ResponseEntity<ExpenseDTO> updateExpense(@Parameter(description = "Expense ID") @PathVariable Long id, @Valid @RequestBody ExpenseDTO expenseDTO) {
@@ -182,6 +309,9 @@ public class ExpenseController {
             // Attempt to update expense for current user
             ExpenseDTO updated = expenseService.updateExpenseById(id, expenseDTO, userId);
             return ResponseEntity.ok(updated);
+        } catch (ArchivedExpenseException e) {
+            // Return 409 if expense was moved to the read-only archive
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             // Return 404 if expense not found
             return ResponseEntity.notFound().build();
@@ -192,16 +322,19 @@ public class ExpenseController {
      * Deletes an expense record by ID for the authenticated user.
      * 
      * Returns HTTP 204 (No Content) on successful deletion.
-     * Returns HTTP 404 (Not Found) if no expense exists with the given ID for the current user.
+     * Returns HTTP 404 (Not Found) if no expense exists with the given ID for the current user,
+     * and HTTP 409 (Conflict) if the expense was moved to the read-only archive.
      * 
      * @param id The ID of the expense to delete
      * @return ResponseEntity with no content on success or 404 if not found
      */
     @DeleteMapping("/{id}")
+    @SqlStatementBudget(5)
     @Operation(summary = "Delete expense", description = "Deletes an expense record by ID for the authenticated user")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Expense deleted successfully"),
         @ApiResponse(responseCode = "404", description = "Expense not found"),
+        @ApiResponse(responseCode = "409", description = "Expense is archived and read-only"),
         @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
     })
     public ResponseEntity<Void> deleteExpense(@Parameter(description = "Expense ID") @PathVariable Long id) {
@@ -214,6 +347,9 @@ public class ExpenseController {
             
             // Return 204 No Content on successful deletion
             return ResponseEntity.noContent().build();
+        } catch (ArchivedExpenseException e) {
+            // Return 409 if expense was moved to the read-only archive
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             // Return 404 if expense not found
             return ResponseEntity.notFound().build();
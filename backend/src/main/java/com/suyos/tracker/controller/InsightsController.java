@@ -0,0 +1,253 @@
+package com.suyos.tracker.controller;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.suyos.tracker.config.SqlStatementBudget;
+import com.suyos.tracker.dto.CategoryStatisticsDTO;
+import com.suyos.tracker.dto.CategoryTotalDTO;
+import com.suyos.tracker.dto.DailyTotalsDTO;
+import com.suyos.tracker.dto.PopulationBenchmarkDTO;
+import com.suyos.tracker.dto.SpendingForecastDTO;
+import com.suyos.tracker.dto.TopMerchantsDTO;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.service.ExpenseAnalyticsService;
+import com.suyos.tracker.service.ExpenseCalendarService;
+import com.suyos.tracker.service.ExpenseForecastService;
+import com.suyos.tracker.service.MerchantSketchService;
+import com.suyos.tracker.service.PopulationBenchmarkService;
+import com.suyos.tracker.service.UserService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for spending analytics of the authenticated user.
+ * 
+ * Endpoints are served from in-memory analytic structures that are kept
+ * in sync with expense writes, so they do not scan the expenses table.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/insights")
+@CrossOrigin(origins = "http://localhost:5173") // React dev server
+@Tag(name = "Insights", description = "Spending analytics")
+@SecurityRequirement(name = "Bearer Authentication")
+public class InsightsController {
+
+    /** Service layer for expense analytics */
+    private final ExpenseAnalyticsService expenseAnalyticsService;
+
+    /** Service layer for user operations */
+    private final UserService userService;
+
+    /** Service layer for population benchmarks */
+    private final PopulationBenchmarkService populationBenchmarkService;
+
+    /** Service layer for spending forecasts */
+    private final ExpenseForecastService expenseForecastService;
+
+    /** Service layer for merchant heavy hitters */
+    private final MerchantSketchService merchantSketchService;
+
+    /** Service layer for daily totals */
+    private final ExpenseCalendarService expenseCalendarService;
+
+    /**
+     * Retrieves the authenticated user's spending per category.
+     * 
+     * @param startDate Optional start date filter (null for no filter)
+     * @param endDate Optional end date filter (null for no filter)
+     * @return ResponseEntity containing one total per category with expenses
+     */
+    @GetMapping("/categories")
+    @SqlStatementBudget(3)
+    @Operation(summary = "Get category totals", description = "Retrieves spending per category for the authenticated user")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved category totals"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<List<CategoryTotalDTO>> getCategoryTotals(
+            @Parameter(description = "Filter by start date (YYYY-MM-DD)") @RequestParam(required = false) LocalDate startDate,
+            @Parameter(description = "Filter by end date (YYYY-MM-DD)") @RequestParam(required = false) LocalDate endDate) {
+        // Get current user ID from authentication context
+        Long userId = userService.getCurrentUserId();
+        
+        // Aggregate from the in-memory columnar store
+        return ResponseEntity.ok(expenseAnalyticsService.getCategoryTotals(userId, startDate, endDate));
+    }
+
+    /**
+     * Retrieves the distribution of the authenticated user's expense amounts per category.
+     * 
+     * Answers questions such as "typical grocery trip" (p50) or "90th percentile
+     * transport cost" from per-month quantile sketches merged over the range.
+     * Defaults to the last 12 months including the current one.
+     * 
+     * @param from First month (inclusive) in yyyy-MM format
+     * @param to Last month (inclusive) in yyyy-MM format
+     * @param category Optional category filter (null for all categories)
+     * @return ResponseEntity containing statistics per category with expenses
+     */
+    @GetMapping("/statistics")
+    @SqlStatementBudget(3)
+    @Operation(summary = "Get category statistics", description = "Retrieves count, mean and approximate percentiles of expense amounts per category for the authenticated user")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved statistics"),
+        @ApiResponse(responseCode = "400", description = "Invalid month range"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<List<CategoryStatisticsDTO>> getCategoryStatistics(
+            @Parameter(description = "First month (YYYY-MM)") @RequestParam(required = false) YearMonth from,
+            @Parameter(description = "Last month (YYYY-MM)") @RequestParam(required = false) YearMonth to,
+            @Parameter(description = "Filter by category") @RequestParam(required = false) Category category) {
+        // Default to the trailing 12 months
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(11);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Get current user ID from authentication context
+        Long userId = userService.getCurrentUserId();
+        
+        // Merge the month sketches covering the range
+        return ResponseEntity.ok(expenseAnalyticsService.getCategoryStatistics(userId, start, end, category));
+    }
+
+    /**
+     * Compares the authenticated user's monthly spending per category with all users.
+     * 
+     * Reads the snapshot published by the population benchmark job, so the
+     * cost is independent of the number of users and expenses.
+     * 
+     * @return ResponseEntity containing the comparison, or 503 before the first snapshot
+     */
+    @GetMapping("/benchmarks")
+    @SqlStatementBudget(3)
+    @Operation(summary = "Get population benchmarks", description = "Compares the authenticated user's monthly spending per category with anonymized statistics of all users")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved benchmarks"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+        @ApiResponse(responseCode = "503", description = "Population snapshot not computed yet")
+    })
+    public ResponseEntity<PopulationBenchmarkDTO> getBenchmarks() {
+        // Get current user ID from authentication context
+        Long userId = userService.getCurrentUserId();
+        
+        // Compare against the published population snapshot
+        PopulationBenchmarkDTO benchmarks = populationBenchmarkService.getBenchmarks(userId);
+        if (benchmarks == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(benchmarks);
+    }
+
+    /**
+     * Retrieves the authenticated user's spending trends and month-end projection.
+     * 
+     * Served from streaming per-category statistics that are updated on
+     * every expense write, so the cost does not depend on the user's history.
+     * 
+     * @return ResponseEntity containing the forecast for the current month
+     */
+    @GetMapping("/forecast")
+    @SqlStatementBudget(3)
+    @Operation(summary = "Get spending forecast", description = "Retrieves month-over-month trends, moving averages and the projected month-end total per category for the authenticated user")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved forecast"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<SpendingForecastDTO> getForecast() {
+        // Get current user ID from authentication context
+        Long userId = userService.getCurrentUserId();
+        
+        // Project from the maintained statistics
+        return ResponseEntity.ok(expenseForecastService.getForecast(userId));
+    }
+
+    /**
+     * Retrieves the authenticated user's most frequent and most expensive merchants.
+     * 
+     * Merchants are normalized expense descriptions counted in a fixed-size
+     * sketch per user; the response states how far counts and totals may
+     * be overestimated.
+     * 
+     * @param limit Maximum number of merchants per ranking
+     * @return ResponseEntity containing the rankings, or 400 if the limit is out of range
+     */
+    @GetMapping("/merchants")
+    @SqlStatementBudget(4)
+    @Operation(summary = "Get top merchants", description = "Retrieves the merchants with the most expenses and the highest spending for the authenticated user, with error bounds")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved top merchants"),
+        @ApiResponse(responseCode = "400", description = "Limit out of range"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<TopMerchantsDTO> getTopMerchants(
+            @Parameter(description = "Merchants per ranking") @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > merchantSketchService.getCapacity()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Get current user ID from authentication context
+        Long userId = userService.getCurrentUserId();
+        
+        // Rank the candidates of the user's sketch
+        return ResponseEntity.ok(merchantSketchService.getTopMerchants(userId, limit));
+    }
+
+    /**
+     * Retrieves the authenticated user's spending on every day of a year.
+     * 
+     * Returns one total per day in a single response for calendar heatmaps,
+     * instead of paging through the year's expenses. Years are cached until
+     * an expense in them changes.
+     * 
+     * @param year Calendar year (defaults to the current year)
+     * @param packed Whether to return the totals delta-varint encoded
+     * @return ResponseEntity containing the daily totals, or 400 if the year is out of range
+     */
+    @GetMapping("/daily")
+    @SqlStatementBudget(3)
+    @Operation(summary = "Get daily totals", description = "Retrieves the authenticated user's spending in cents per day of a year, as an array or delta-varint packed")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved daily totals"),
+        @ApiResponse(responseCode = "400", description = "Year out of range"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    })
+    public ResponseEntity<DailyTotalsDTO> getDailyTotals(
+            @Parameter(description = "Calendar year (YYYY)") @RequestParam(required = false) Integer year,
+            @Parameter(description = "Return Base64 delta-varint packed totals") @RequestParam(defaultValue = "false") boolean packed) {
+        int calendarYear = year != null ? year : Year.now().getValue();
+        if (calendarYear < 1 || calendarYear > 9999) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Get current user ID from authentication context
+        Long userId = userService.getCurrentUserId();
+        
+        // Serve the cached or freshly grouped year
+        return ResponseEntity.ok(expenseCalendarService.getDailyTotals(userId, calendarYear, packed));
+    }
+
+}
@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.suyos.tracker.config.SqlStatementBudget;
 import com.suyos.tracker.dto.AuthenticationResponseDTO;
 import com.suyos.tracker.dto.UserLoginDTO;
 import com.suyos.tracker.dto.UserProfileDTO;
@@ -58,6 +59,7 @@ public class UserController {
      * @return ResponseEntity containing the created user's profile or error message
      */
     @PostMapping("/register")
+    @SqlStatementBudget(2)
     @Operation(summary = "Register new user", description = "Creates a new user account with the provided information")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "User registered successfully"),
@@ -83,6 +85,7 @@ public class UserController {
      * @return ResponseEntity containing JWT token and user profile or error message
      */
     @PostMapping("/login")
+    @SqlStatementBudget(2)
     @Operation(summary = "User login", description = "Authenticates user credentials and returns JWT token")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Login successful, JWT token returned"),
@@ -108,6 +111,7 @@ public class UserController {
      * @return ResponseEntity containing the user's profile or error message
      */
     @GetMapping("/{userId}/profile")
+    @SqlStatementBudget(2)
     @Operation(summary = "Get user profile", description = "Retrieves user profile information")
     @SecurityRequirement(name = "Bearer Authentication")
     @ApiResponses(value = {
@@ -136,6 +140,7 @@ public class UserController {
      * @return ResponseEntity containing the updated user's profile or error message
      */
     @PutMapping("/{userId}/profile")
+    @SqlStatementBudget(3)
     @Operation(summary = "Update user profile", description = "Updates user profile information (excluding sensitive fields)")
     @SecurityRequirement(name = "Bearer Authentication")
     @ApiResponses(value = {
@@ -0,0 +1,66 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.suyos.tracker.model.Category;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object reporting that an expense write crossed a budget threshold.
+ * 
+ * Returned with the written expense, e.g. "80% of the FOOD budget for
+ * 2024-03 reached".
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BudgetAlertDTO {
+
+    /**
+     * Category of the budget.
+     */
+    @JsonProperty("category")
+    private Category category;
+
+    /**
+     * Month whose spending crossed the threshold, serialized as "yyyy-MM".
+     */
+    @JsonProperty("month")
+    private YearMonth month;
+
+    /**
+     * Highest threshold crossed by the write, as a percentage of the limit.
+     */
+    @JsonProperty("threshold")
+    private int threshold;
+
+    /**
+     * Monthly limit of the budget.
+     */
+    @JsonProperty("monthlyLimit")
+    private BigDecimal monthlyLimit;
+
+    /**
+     * Spending in the month and category including the write.
+     */
+    @JsonProperty("spent")
+    private BigDecimal spent;
+
+    /**
+     * Spending as a percentage of the limit, to one decimal.
+     */
+    @JsonProperty("percentUsed")
+    private double percentUsed;
+
+}
@@ -0,0 +1,59 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.suyos.tracker.model.Category;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a monthly category budget and its current usage.
+ * 
+ * Only the limit is read from requests; the category comes from the
+ * request path and usage is computed for the current month.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BudgetDTO {
+
+    /**
+     * Category the budget limits.
+     */
+    @JsonProperty(value = "category", access = JsonProperty.Access.READ_ONLY)
+    private Category category;
+
+    /**
+     * Maximum spending per calendar month.
+     */
+    @NotNull(message = "Monthly limit is mandatory")
+    @DecimalMin(value = "0.01", inclusive = true, message = "Monthly limit must be at least $0.01")
+    @Digits(integer = 9, fraction = 2, message = "Monthly limit must have a maximum of 9 integer digits and 2 decimal places")
+    @JsonProperty("monthlyLimit")
+    private BigDecimal monthlyLimit;
+
+    /**
+     * Spending in the category in the current month.
+     */
+    @JsonProperty(value = "spent", access = JsonProperty.Access.READ_ONLY)
+    private BigDecimal spent;
+
+    /**
+     * Current month's spending as a percentage of the limit, to one decimal.
+     */
+    @JsonProperty(value = "percentUsed", access = JsonProperty.Access.READ_ONLY)
+    private double percentUsed;
+
+}
@@ -0,0 +1,57 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.suyos.tracker.model.Category;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object comparing a user's monthly spending in one category with all users.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryBenchmarkDTO {
+
+    /**
+     * Category of the comparison.
+     */
+    @JsonProperty("category")
+    private Category category;
+
+    /**
+     * The user's average monthly spending in the category over the window.
+     */
+    @JsonProperty("monthlyAverage")
+    private BigDecimal monthlyAverage;
+
+    /**
+     * Percentage (0-100) of spending users whose monthly average is at most the user's.
+     */
+    @JsonProperty("percentileRank")
+    private double percentileRank;
+
+    /**
+     * Number of users who spent in the category over the window.
+     */
+    @JsonProperty("populationUsers")
+    private long populationUsers;
+
+    /**
+     * Population monthly averages by percentile label ("p25", "p50", "p75", "p90").
+     */
+    @JsonProperty("populationPercentiles")
+    private Map<String, BigDecimal> populationPercentiles;
+
+}
@@ -0,0 +1,92 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.suyos.tracker.model.Category;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the spending trend and month-end projection of one category.
+ * 
+ * Averages and the standard deviation are computed over the user's full
+ * months before the current one, months without expenses counting as zero.
+ * The projection adds the expected spending of the remaining days to the
+ * spending so far.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryForecastDTO {
+
+    /**
+     * Category of the forecast.
+     */
+    @JsonProperty("category")
+    private Category category;
+
+    /**
+     * Spending in the current month so far.
+     */
+    @JsonProperty("currentTotal")
+    private BigDecimal currentTotal;
+
+    /**
+     * Projected spending at the end of the current month.
+     */
+    @JsonProperty("projectedTotal")
+    private BigDecimal projectedTotal;
+
+    /**
+     * Expected spending of a full current month from history and seasonality.
+     */
+    @JsonProperty("expectedTotal")
+    private BigDecimal expectedTotal;
+
+    /**
+     * Spending in the previous month.
+     */
+    @JsonProperty("previousMonthTotal")
+    private BigDecimal previousMonthTotal;
+
+    /**
+     * Percent change of the previous month over the month before it, or
+     * null if that month had no spending.
+     */
+    @JsonProperty("monthOverMonthChange")
+    private Double monthOverMonthChange;
+
+    /**
+     * Exponentially weighted moving average of monthly spending.
+     */
+    @JsonProperty("movingAverage")
+    private BigDecimal movingAverage;
+
+    /**
+     * Mean spending of the last three full months.
+     */
+    @JsonProperty("threeMonthAverage")
+    private BigDecimal threeMonthAverage;
+
+    /**
+     * Standard deviation of monthly spending.
+     */
+    @JsonProperty("standardDeviation")
+    private BigDecimal standardDeviation;
+
+    /**
+     * Number of full months the statistics cover.
+     */
+    @JsonProperty("monthsOfHistory")
+    private int monthsOfHistory;
+
+}
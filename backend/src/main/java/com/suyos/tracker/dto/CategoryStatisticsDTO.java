@@ -0,0 +1,75 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.suyos.tracker.model.Category;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the distribution of a user's expense amounts in one category.
+ * 
+ * Count, minimum, maximum and mean are exact. Percentiles are estimated
+ * from quantile sketches: with 99% confidence each returned value lies
+ * between the true percentiles {@code rankError} below and above the one
+ * requested, e.g. p90 lies between the exact p88.7 and p91.3 for a rank
+ * error of 0.013. Percentiles are exact while a range holds few expenses.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryStatisticsDTO {
+
+    /**
+     * Category of the statistics.
+     */
+    @JsonProperty("category")
+    private Category category;
+
+    /**
+     * Number of expenses in the category.
+     */
+    @JsonProperty("count")
+    private long count;
+
+    /**
+     * Smallest expense amount.
+     */
+    @JsonProperty("min")
+    private BigDecimal min;
+
+    /**
+     * Largest expense amount.
+     */
+    @JsonProperty("max")
+    private BigDecimal max;
+
+    /**
+     * Mean expense amount, rounded to cents.
+     */
+    @JsonProperty("mean")
+    private BigDecimal mean;
+
+    /**
+     * Estimated amounts by percentile label ("p25", "p50", ..., "p99").
+     */
+    @JsonProperty("percentiles")
+    private Map<String, BigDecimal> percentiles;
+
+    /**
+     * Normalized rank error bound of the percentiles at 99% confidence.
+     */
+    @JsonProperty("rankError")
+    private double rankError;
+
+}
@@ -0,0 +1,44 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.suyos.tracker.model.Category;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a user's spending in one category.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryTotalDTO {
+
+    /**
+     * Category of the total.
+     */
+    @JsonProperty("category")
+    private Category category;
+
+    /**
+     * Total amount spent in the category.
+     */
+    @JsonProperty("total")
+    private BigDecimal total;
+
+    /**
+     * Number of expenses in the category.
+     */
+    @JsonProperty("count")
+    private long count;
+
+}
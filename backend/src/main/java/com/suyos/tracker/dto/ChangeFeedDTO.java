@@ -0,0 +1,46 @@
+package com.suyos.tracker.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for one page of the expense change feed.
+ * 
+ * Clients pass {@code next} as {@code since} of their next request to
+ * resume after the changes they have processed.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeFeedDTO {
+
+    /**
+     * Changes after the requested position, in position order.
+     */
+    @JsonProperty("changes")
+    private List<ExpenseChangeDTO> changes;
+
+    /**
+     * Position to resume from: the last returned change's, or the requested one if none.
+     */
+    @JsonProperty("next")
+    private long next;
+
+    /**
+     * Whether more changes follow the returned ones.
+     */
+    @JsonProperty("hasMore")
+    private boolean hasMore;
+
+}
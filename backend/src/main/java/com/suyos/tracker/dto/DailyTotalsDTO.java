@@ -0,0 +1,62 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a user's spending on every day of a year.
+ * 
+ * Day {@code i} (zero-based) is January 1st plus {@code i} days. Totals are
+ * returned either as a plain cents array or, when packed, as the
+ * Base64-encoded zigzag varints of the differences between consecutive days
+ * ({@link com.suyos.tracker.analytics.DeltaVarintCodec}).
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DailyTotalsDTO {
+
+    /**
+     * Calendar year of the totals.
+     */
+    @JsonProperty("year")
+    private int year;
+
+    /**
+     * Number of days in the year.
+     */
+    @JsonProperty("days")
+    private int days;
+
+    /**
+     * Total spending in the year.
+     */
+    @JsonProperty("total")
+    private BigDecimal total;
+
+    /**
+     * Spending in cents per day of the year, unless packed.
+     */
+    @JsonProperty("cents")
+    private long[] cents;
+
+    /**
+     * Delta-varint encoded spending in cents per day of the year, if packed.
+     */
+    @JsonProperty("packed")
+    private byte[] packed;
+
+}
@@ -0,0 +1,107 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.suyos.tracker.event.ExpenseChangedEvent.ChangeType;
+import com.suyos.tracker.model.Category;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for one relayed expense change.
+ * 
+ * Carries the values after the change (before it for a delete) and, for an
+ * update, the previous amount, date and category, so consumers can apply
+ * the change to derived data without reading the expense.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExpenseChangeDTO {
+
+    /**
+     * Position of the change; increases with every relayed change of the user.
+     */
+    @JsonProperty("position")
+    private Long position;
+
+    /**
+     * Kind of change.
+     */
+    @JsonProperty("type")
+    private ChangeType type;
+
+    /**
+     * ID of the changed expense.
+     */
+    @JsonProperty("expenseId")
+    private Long expenseId;
+
+    /**
+     * ID of the user owning the expense.
+     */
+    @JsonProperty("userId")
+    private Long userId;
+
+    /**
+     * Description after the change, or before it for a delete.
+     */
+    @JsonProperty("description")
+    private String description;
+
+    /**
+     * Amount after the change, or before it for a delete.
+     */
+    @JsonProperty("amount")
+    private BigDecimal amount;
+
+    /**
+     * Date after the change, or before it for a delete.
+     */
+    @JsonProperty("date")
+    private LocalDate date;
+
+    /**
+     * Category after the change, or before it for a delete.
+     */
+    @JsonProperty("category")
+    private Category category;
+
+    /**
+     * Amount before an update.
+     */
+    @JsonProperty("previousAmount")
+    private BigDecimal previousAmount;
+
+    /**
+     * Date before an update.
+     */
+    @JsonProperty("previousDate")
+    private LocalDate previousDate;
+
+    /**
+     * Category before an update.
+     */
+    @JsonProperty("previousCategory")
+    private Category previousCategory;
+
+    /**
+     * Timestamp when the change was written.
+     */
+    @JsonProperty("changedAt")
+    private LocalDateTime changedAt;
+
+}
@@ -2,10 +2,14 @@ package com.suyos.tracker.dto;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.suyos.tracker.model.Category;
 
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
@@ -34,6 +38,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Builder
 public class ExpenseDTO {
+
+    /** Earliest date an expense may have */
+    public static final LocalDate EARLIEST_DATE = LocalDate.of(1900, 1, 1);
     
     /**
      * Unique identifier for the expense.
@@ -73,7 +80,8 @@ public class ExpenseDTO {
      * Date when the expense occurred.
      * 
      * Represents the actual date of the expense, not when it was recorded.
-     * Must not be in the future to ensure realistic expense tracking.
+     * Must not be in the future to ensure realistic expense tracking, nor
+     * before {@link #EARLIEST_DATE}.
      */
     @NotNull(message = "Date is mandatory")
     @PastOrPresent(message = "Date cannot be in the future")
@@ -90,4 +98,36 @@ public class ExpenseDTO {
     @JsonProperty("category")
     private Category category;
 
-}
\ No newline at end of file
+    /**
+     * Whether the amount is unusually high for the user and category.
+     * 
+     * Set by the server when the expense is written; ignored in requests.
+     */
+    @JsonProperty(value = "anomalous", access = JsonProperty.Access.READ_ONLY)
+    private boolean anomalous;
+
+    /**
+     * Budget thresholds crossed by this write.
+     * 
+     * Only present in responses to creates and updates that pushed a
+     * month's spending in the category past a threshold; ignored in requests.
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @JsonProperty(value = "budgetAlerts", access = JsonProperty.Access.READ_ONLY)
+    private List<BudgetAlertDTO> budgetAlerts;
+
+    /**
+     * Whether the date is on or after {@link #EARLIEST_DATE}.
+     * 
+     * Bounds the days the per-user range indexes have to span. A missing
+     * date is reported by its own constraint.
+     * 
+     * @return true if the date is absent or supported
+     */
+    @JsonIgnore
+    @AssertTrue(message = "Date cannot be before 1900-01-01")
+    public boolean isDateSupported() {
+        return date == null || !date.isBefore(EARLIEST_DATE);
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.suyos.tracker.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for fetching several expenses by ID in one request.
+ * 
+ * Replaces a series of single-expense lookups with one call that is resolved
+ * in a small number of bounded IN-list queries.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseLookupRequestDTO {
+
+    /**
+     * IDs of the expenses to fetch, in the order the caller wants them back.
+     * 
+     * Duplicates are allowed and resolved once. The list size is capped to
+     * keep the number of IN-list batches per request bounded.
+     */
+    @NotEmpty(message = "At least one expense ID is required")
+    @Size(max = 1000, message = "At most 1000 expense IDs can be looked up at once")
+    @JsonProperty("ids")
+    private List<@NotNull(message = "Expense IDs must not be null") Long> ids;
+
+}
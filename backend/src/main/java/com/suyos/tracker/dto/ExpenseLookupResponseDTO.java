@@ -0,0 +1,37 @@
+package com.suyos.tracker.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the result of a multi-expense lookup.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseLookupResponseDTO {
+
+    /**
+     * Expenses that were found, in the order their IDs were first requested.
+     */
+    @JsonProperty("expenses")
+    private List<ExpenseDTO> expenses;
+
+    /**
+     * Requested IDs that do not exist or do not belong to the user, in request order.
+     */
+    @JsonProperty("missingIds")
+    private List<Long> missingIds;
+
+}
@@ -0,0 +1,51 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.suyos.tracker.model.Category;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a user's spending in one month and category.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseSummaryDTO {
+
+    /**
+     * Month of the summary, serialized as "yyyy-MM".
+     */
+    @JsonProperty("yearMonth")
+    private YearMonth yearMonth;
+
+    /**
+     * Category of the summary.
+     */
+    @JsonProperty("category")
+    private Category category;
+
+    /**
+     * Total amount spent in the month and category.
+     */
+    @JsonProperty("total")
+    private BigDecimal total;
+
+    /**
+     * Number of expenses in the month and category.
+     */
+    @JsonProperty("count")
+    private long count;
+
+}
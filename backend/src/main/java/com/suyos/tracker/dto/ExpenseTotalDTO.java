@@ -0,0 +1,51 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.suyos.tracker.model.Category;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a user's spending within a date range.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseTotalDTO {
+
+    /**
+     * First date of the range (inclusive), or null if unbounded.
+     */
+    @JsonProperty("startDate")
+    private LocalDate startDate;
+
+    /**
+     * Last date of the range (inclusive), or null if unbounded.
+     */
+    @JsonProperty("endDate")
+    private LocalDate endDate;
+
+    /**
+     * Category of the total, or null for all categories.
+     */
+    @JsonProperty("category")
+    private Category category;
+
+    /**
+     * Total amount spent within the range.
+     */
+    @JsonProperty("total")
+    private BigDecimal total;
+
+}
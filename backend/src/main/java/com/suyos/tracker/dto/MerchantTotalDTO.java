@@ -0,0 +1,45 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a user's estimated spending at one merchant.
+ * 
+ * Both figures are sketch estimates that are never below the true values.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MerchantTotalDTO {
+
+    /**
+     * Normalized expense description identifying the merchant.
+     */
+    @JsonProperty("merchant")
+    private String merchant;
+
+    /**
+     * Estimated number of expenses at the merchant.
+     */
+    @JsonProperty("count")
+    private long count;
+
+    /**
+     * Estimated total amount spent at the merchant.
+     */
+    @JsonProperty("total")
+    private BigDecimal total;
+
+}
@@ -0,0 +1,55 @@
+package com.suyos.tracker.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object comparing a user's spending with anonymized population statistics.
+ * 
+ * Population statistics come from the latest published snapshot and only
+ * include categories with enough spending users to keep individuals
+ * unidentifiable.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PopulationBenchmarkDTO {
+
+    /**
+     * When the population snapshot was computed.
+     */
+    @JsonProperty("generatedAt")
+    private LocalDateTime generatedAt;
+
+    /**
+     * First day of the compared window.
+     */
+    @JsonProperty("windowStart")
+    private LocalDate windowStart;
+
+    /**
+     * Last day of the compared window.
+     */
+    @JsonProperty("windowEnd")
+    private LocalDate windowEnd;
+
+    /**
+     * Comparison per category, in category order.
+     */
+    @JsonProperty("categories")
+    private List<CategoryBenchmarkDTO> categories;
+
+}
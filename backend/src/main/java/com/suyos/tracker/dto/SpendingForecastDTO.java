@@ -0,0 +1,63 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a user's spending trends and month-end projection.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpendingForecastDTO {
+
+    /**
+     * Month being projected, serialized as "yyyy-MM".
+     */
+    @JsonProperty("month")
+    private YearMonth month;
+
+    /**
+     * Days of the month elapsed, including today.
+     */
+    @JsonProperty("daysElapsed")
+    private int daysElapsed;
+
+    /**
+     * Number of days in the month.
+     */
+    @JsonProperty("daysInMonth")
+    private int daysInMonth;
+
+    /**
+     * Spending across all categories in the month so far.
+     */
+    @JsonProperty("currentTotal")
+    private BigDecimal currentTotal;
+
+    /**
+     * Projected spending across all categories at the end of the month.
+     */
+    @JsonProperty("projectedTotal")
+    private BigDecimal projectedTotal;
+
+    /**
+     * Forecast per category with current or past spending, in category order.
+     */
+    @JsonProperty("categories")
+    private List<CategoryForecastDTO> categories;
+
+}
@@ -0,0 +1,38 @@
+package com.suyos.tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a ticket opening the expense change stream.
+ *
+ * Returned by {@code POST /api/expenses/stream/ticket} on the reactive API.
+ * The client opens {@code GET /api/expenses/stream?ticket={ticket}}, which
+ * lets a browser EventSource authenticate without an Authorization header.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StreamTicketDTO {
+
+    /**
+     * Signed ticket, only accepted by the expense change stream.
+     */
+    private String ticket;
+
+    /**
+     * Ticket expiration time in seconds.
+     *
+     * A stream opened before the ticket expires stays open; reconnecting
+     * after that takes a new ticket.
+     */
+    private Long expiresIn;
+
+}
@@ -0,0 +1,71 @@
+package com.suyos.tracker.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a user's most frequent and most expensive merchants.
+ * 
+ * Counts and totals are overestimated by at most {@code countError} and
+ * {@code totalError} with probability {@code confidence}.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopMerchantsDTO {
+
+    /**
+     * Merchants with the most expenses, most frequent first.
+     */
+    @JsonProperty("byCount")
+    private List<MerchantTotalDTO> byCount;
+
+    /**
+     * Merchants with the highest spending, highest first.
+     */
+    @JsonProperty("byTotal")
+    private List<MerchantTotalDTO> byTotal;
+
+    /**
+     * Number of expenses included.
+     */
+    @JsonProperty("expenseCount")
+    private long expenseCount;
+
+    /**
+     * Total amount of the expenses included.
+     */
+    @JsonProperty("total")
+    private BigDecimal total;
+
+    /**
+     * Largest overestimate of a merchant's count within the confidence.
+     */
+    @JsonProperty("countError")
+    private long countError;
+
+    /**
+     * Largest overestimate of a merchant's total within the confidence.
+     */
+    @JsonProperty("totalError")
+    private BigDecimal totalError;
+
+    /**
+     * Probability that each estimate is within its error.
+     */
+    @JsonProperty("confidence")
+    private double confidence;
+
+}
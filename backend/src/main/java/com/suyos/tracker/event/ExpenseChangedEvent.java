@@ -0,0 +1,91 @@
+package com.suyos.tracker.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Application event published by the expense service for every expense write.
+ * 
+ * Listeners that must stay consistent with the expenses table in the same
+ * transaction (e.g. rollups) use {@code @EventListener}; in-memory caches and
+ * indexes use {@code @TransactionalEventListener} so they only observe
+ * committed changes.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ExpenseChangedEvent {
+
+    /**
+     * Kind of change applied to the expense.
+     */
+    public enum ChangeType {
+        /** A new expense was created */
+        CREATED,
+        /** An existing expense was modified */
+        UPDATED,
+        /** An expense was deleted */
+        DELETED
+    }
+
+    /** Kind of change */
+    private final ChangeType type;
+
+    /** ID of the user owning the expense */
+    private final Long userId;
+
+    /** Values before the change; null for CREATED */
+    private final ExpenseSnapshot before;
+
+    /** Values after the change; null for DELETED */
+    private final ExpenseSnapshot after;
+
+    /**
+     * Creates an event for a newly created expense.
+     * 
+     * @param userId ID of the owning user
+     * @param created values of the created expense
+     * @return the event
+     */
+    public static ExpenseChangedEvent created(Long userId, ExpenseSnapshot created) {
+        return new ExpenseChangedEvent(ChangeType.CREATED, userId, null, created);
+    }
+
+    /**
+     * Creates an event for a modified expense.
+     * 
+     * @param userId ID of the owning user
+     * @param before values before the update
+     * @param after values after the update
+     * @return the event
+     */
+    public static ExpenseChangedEvent updated(Long userId, ExpenseSnapshot before, ExpenseSnapshot after) {
+        return new ExpenseChangedEvent(ChangeType.UPDATED, userId, before, after);
+    }
+
+    /**
+     * Creates an event for a deleted expense.
+     * 
+     * @param userId ID of the owning user
+     * @param deleted values of the deleted expense
+     * @return the event
+     */
+    public static ExpenseChangedEvent deleted(Long userId, ExpenseSnapshot deleted) {
+        return new ExpenseChangedEvent(ChangeType.DELETED, userId, deleted, null);
+    }
+
+    /**
+     * Returns the ID of the changed expense.
+     * 
+     * @return the expense ID
+     */
+    public Long getExpenseId() {
+        return after != null ? after.getId() : before.getId();
+    }
+
+}
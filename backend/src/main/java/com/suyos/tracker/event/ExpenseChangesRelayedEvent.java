@@ -0,0 +1,33 @@
+package com.suyos.tracker.event;
+
+import java.util.List;
+
+import com.suyos.tracker.dto.ExpenseChangeDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Application event carrying a batch of changes relayed from the outbox.
+ * 
+ * Published by the relay inside the transaction that assigns the changes
+ * their positions. A listener that throws rolls the batch back, and the
+ * same changes are delivered again on the next relay run, so listeners
+ * must tolerate seeing a change more than once. Unlike
+ * {@link ExpenseChangedEvent}, changes arrive only after their write
+ * committed, in position order per user.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ExpenseChangesRelayedEvent {
+
+    /** Relayed changes in position order */
+    private final List<ExpenseChangeDTO> changes;
+
+}
@@ -0,0 +1,57 @@
+package com.suyos.tracker.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Expense;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable copy of the business fields of an expense at one point in time.
+ * 
+ * Carried by {@link ExpenseChangedEvent} so listeners see the values before
+ * and after a change without touching the managed entity or its lazy user.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Value
+@Builder
+public class ExpenseSnapshot {
+
+    /** ID of the expense */
+    Long id;
+
+    /** Description of the expense */
+    String description;
+
+    /** Amount of the expense */
+    BigDecimal amount;
+
+    /** Date of the expense */
+    LocalDate date;
+
+    /** Category of the expense */
+    Category category;
+
+    /**
+     * Captures the current values of an expense.
+     * 
+     * @param expense the expense entity
+     * @return snapshot of the expense
+     */
+    public static ExpenseSnapshot of(Expense expense) {
+        return ExpenseSnapshot.builder()
+            .id(expense.getId())
+            .description(expense.getDescription())
+            .amount(expense.getAmount())
+            .date(expense.getDate())
+            .category(expense.getCategory())
+            .build();
+    }
+
+}
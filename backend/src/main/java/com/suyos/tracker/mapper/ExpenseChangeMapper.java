@@ -0,0 +1,29 @@
+package com.suyos.tracker.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+
+import com.suyos.tracker.dto.ExpenseChangeDTO;
+import com.suyos.tracker.model.ExpenseChange;
+
+/**
+ * MapStruct mapper interface for converting outbox change records to DTOs.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface ExpenseChangeMapper {
+
+    /**
+     * Converts a relayed change record to an ExpenseChangeDTO.
+     * 
+     * @param change the record to convert
+     * @return the corresponding ExpenseChangeDTO
+     */
+    @Mapping(target = "changedAt", source = "createdAt")
+    ExpenseChangeDTO toDTO(ExpenseChange change);
+
+}
@@ -6,6 +6,7 @@ import org.mapstruct.MappingConstants;
 
 import com.suyos.tracker.dto.ExpenseDTO;
 import com.suyos.tracker.model.Expense;
+import com.suyos.tracker.reactive.ReactiveExpense;
 
 /**
  * MapStruct mapper interface for converting between Expense entities and DTOs.
@@ -37,6 +38,7 @@ public interface ExpenseMapper {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "user", ignore = true)
+    @Mapping(target = "anomalous", ignore = true)
     Expense toEntity(ExpenseDTO expenseDTO);
 
     /**
@@ -48,6 +50,16 @@ public interface ExpenseMapper {
      * @param expense the entity to convert
      * @return the corresponding ExpenseDTO
      */
+    @Mapping(target = "budgetAlerts", ignore = true)
     ExpenseDTO toDTO(Expense expense);
 
+    /**
+     * Converts an expense row read by the reactive API to an ExpenseDTO.
+     * 
+     * @param expense the row to convert
+     * @return the corresponding ExpenseDTO
+     */
+    @Mapping(target = "budgetAlerts", ignore = true)
+    ExpenseDTO rowToDTO(ReactiveExpense expense);
+
 }
\ No newline at end of file
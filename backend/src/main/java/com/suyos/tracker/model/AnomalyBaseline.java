@@ -0,0 +1,82 @@
+package com.suyos.tracker.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity holding the persisted amount statistics of one user and category.
+ * 
+ * This class maps to the 'anomaly_baselines' table. Rows are written
+ * periodically from the in-memory statistics used to score new expenses, so
+ * a restarted instance loads a user's baseline from one small query instead
+ * of replaying their expense history.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "anomaly_baselines", uniqueConstraints = @UniqueConstraint(
+    name = "uk_anomaly_baselines_user_category", columnNames = {"user_id", "category"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnomalyBaseline {
+
+    /**
+     * Unique identifier for the baseline record.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * ID of the user the statistics belong to.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Category the statistics belong to.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", nullable = false)
+    private Category category;
+
+    /**
+     * Number of expenses included in the statistics.
+     */
+    @Column(name = "count", nullable = false)
+    private Long expenseCount;
+
+    /**
+     * Encoded {@link com.suyos.tracker.analytics.AmountDistribution} of the amounts in cents.
+     */
+    @Column(name = "distribution", nullable = false, length = 4096)
+    private byte[] distribution;
+
+    /**
+     * Timestamp when the statistics were last written.
+     */
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+}
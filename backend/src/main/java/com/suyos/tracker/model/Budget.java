@@ -0,0 +1,86 @@
+package com.suyos.tracker.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity representing a user's monthly spending limit for one category.
+ * 
+ * This class maps to the 'budgets' table. Each user has at most one budget
+ * per category, which applies to every calendar month.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "budgets", uniqueConstraints = @UniqueConstraint(
+    name = "uk_budgets_user_category", columnNames = {"user_id", "category"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Budget {
+
+    /**
+     * Unique identifier for the budget record.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * ID of the user the budget belongs to.
+     * 
+     * Stored as a plain column rather than an association so that budget
+     * checks on expense writes never load the user entity.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Category the budget limits.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", nullable = false)
+    private Category category;
+
+    /**
+     * Maximum spending per calendar month.
+     */
+    @Column(name = "monthly_limit", nullable = false, precision = 17, scale = 2)
+    private BigDecimal monthlyLimit;
+
+    /**
+     * Timestamp when the budget was first created.
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Timestamp when the budget was last modified.
+     */
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+}
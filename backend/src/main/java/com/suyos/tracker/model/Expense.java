@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -24,7 +25,9 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * Entity representing an expense record in the expense tracking system.
@@ -102,13 +105,27 @@ public class Expense {
      * 
      * Establishes a many-to-one relationship where multiple expenses
      * can belong to a single user. Uses lazy loading for performance
-     * and foreign key constraint for data integrity.
+     * and foreign key constraint for data integrity. Excluded from
+     * toString/equals/hashCode so that logging or comparing an expense
+     * never initializes the lazy proxy with an extra SELECT.
      */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @NotNull(message = "User is mandatory")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    /**
+     * Whether the amount is unusually high for the user and category.
+     * 
+     * Scored when the expense is written against the user's in-memory
+     * amount statistics and corrected by the periodic rescoring job.
+     */
+    @ColumnDefault("false")
+    @Column(name = "anomalous", nullable = false)
+    private boolean anomalous;
+
     /**
      * Timestamp when the expense record was first created in the system.
      * 
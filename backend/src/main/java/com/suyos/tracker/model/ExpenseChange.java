@@ -0,0 +1,133 @@
+package com.suyos.tracker.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import com.suyos.tracker.event.ExpenseChangedEvent.ChangeType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity recording one expense write in the transactional outbox.
+ *
+ * This class maps to the 'expense_changes' table. A row is inserted in the
+ * transaction of every expense create, update and delete, so it exists if
+ * and only if the write committed. The relay later assigns the row a
+ * position, which orders the changes of a user and lets change feed
+ * consumers resume after the last position they processed.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "expense_changes", indexes = {
+    @Index(name = "idx_expense_changes_position", columnList = "feed_position"),
+    @Index(name = "idx_expense_changes_user_position", columnList = "user_id, feed_position")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseChange {
+
+    /**
+     * Unique identifier for the change record, in insertion order.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * Position assigned by the relay; null until the change is relayed.
+     */
+    @Column(name = "feed_position")
+    private Long position;
+
+    /**
+     * ID of the user owning the expense.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * ID of the changed expense.
+     */
+    @Column(name = "expense_id", nullable = false)
+    private Long expenseId;
+
+    /**
+     * Kind of change.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private ChangeType type;
+
+    /**
+     * Description after the change, or before it for a delete.
+     */
+    @Column(name = "description")
+    private String description;
+
+    /**
+     * Amount after the change, or before it for a delete.
+     */
+    @Column(name = "amount", nullable = false, precision = 17, scale = 2)
+    private BigDecimal amount;
+
+    /**
+     * Date after the change, or before it for a delete.
+     */
+    @Column(name = "expense_date", nullable = false)
+    private LocalDate date;
+
+    /**
+     * Category after the change, or before it for a delete.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", nullable = false)
+    private Category category;
+
+    /**
+     * Amount before an update; null for creates and deletes.
+     */
+    @Column(name = "previous_amount", precision = 17, scale = 2)
+    private BigDecimal previousAmount;
+
+    /**
+     * Date before an update; null for creates and deletes.
+     */
+    @Column(name = "previous_date")
+    private LocalDate previousDate;
+
+    /**
+     * Category before an update; null for creates and deletes.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_category")
+    private Category previousCategory;
+
+    /**
+     * Timestamp when the change was recorded.
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+}
@@ -0,0 +1,49 @@
+package com.suyos.tracker.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity holding the last position the relay assigned to an expense change.
+ *
+ * This class maps to the 'expense_change_sequence' table, which holds a
+ * single row per database. The relay locks the row for the whole of a
+ * batch, from reading the last position to committing the positioned
+ * changes, so relays on different instances never assign overlapping
+ * positions and commit their batches in position order.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "expense_change_sequence")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseChangeSequence {
+
+    /** ID of the single sequence row */
+    public static final long ID = 1L;
+
+    /**
+     * Identifier of the row, always {@link #ID}.
+     */
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * Last position assigned; 0 before the first relay.
+     */
+    @Column(name = "last_position", nullable = false)
+    private Long lastPosition;
+
+}
@@ -0,0 +1,84 @@
+package com.suyos.tracker.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity representing the spending total of one user, month and category.
+ * 
+ * This class maps to the 'expense_rollups' table, which is maintained
+ * incrementally by every expense write so that monthly and per-category
+ * summaries are answered from one indexed lookup instead of scanning
+ * the user's expenses.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "expense_rollups", uniqueConstraints = @UniqueConstraint(
+    name = "uk_expense_rollups_user_month_category", columnNames = {"user_id", "`year_month`", "category"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseRollup {
+
+    /**
+     * Unique identifier for the rollup record.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * ID of the user the totals belong to.
+     * 
+     * Stored as a plain column rather than an association so that rollup
+     * maintenance never loads the user entity.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Month of the totals encoded as yyyyMM (e.g. 202401 for January 2024).
+     * 
+     * The integer encoding keeps the unique index compact and makes month
+     * ranges a simple BETWEEN. The column name is quoted because YEAR_MONTH
+     * is a reserved word in MySQL.
+     */
+    @Column(name = "`year_month`", nullable = false)
+    private Integer yearMonth;
+
+    /**
+     * Category the totals belong to.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", nullable = false)
+    private Category category;
+
+    /**
+     * Sum of the expense amounts in cents.
+     */
+    @Column(name = "total_cents", nullable = false)
+    private Long totalCents;
+
+    /**
+     * Number of expenses included in the total.
+     */
+    @Column(name = "count", nullable = false)
+    private Long expenseCount;
+
+}
@@ -0,0 +1,77 @@
+package com.suyos.tracker.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity holding the persisted merchant sketch of one user.
+ * 
+ * This class maps to the 'merchant_sketches' table. Rows are written
+ * periodically from the in-memory sketches behind the top-merchants
+ * endpoint, so a restarted instance loads a user's sketch from one row
+ * instead of replaying their expense history.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "merchant_sketches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MerchantSketch {
+
+    /**
+     * Unique identifier for the sketch record.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * ID of the user the sketch belongs to.
+     */
+    @Column(name = "user_id", nullable = false, unique = true)
+    private Long userId;
+
+    /**
+     * Number of expenses included in the sketch.
+     */
+    @Column(name = "count", nullable = false)
+    private Long expenseCount;
+
+    /**
+     * Total amount in cents included in the sketch.
+     */
+    @Column(name = "total_cents", nullable = false)
+    private Long totalCents;
+
+    /**
+     * Encoded {@link com.suyos.tracker.analytics.HeavyHitterSketch} of the normalized descriptions.
+     */
+    @Column(name = "sketch", nullable = false, length = 1048576)
+    private byte[] sketch;
+
+    /**
+     * Timestamp when the sketch was last written.
+     */
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+}
@@ -0,0 +1,173 @@
+package com.suyos.tracker.model;
+
+import java.math.BigDecimal;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Fixed-point monetary amount stored as a whole number of cents.
+ *
+ * Expense amounts are validated to at most 7 integer digits and 2 decimals,
+ * so every amount fits in a {@code long} of cents and sums of billions of
+ * expenses cannot overflow. Aggregation code works on cents with the static
+ * helpers to avoid allocating a {@link BigDecimal} per element, and converts
+ * exactly to and from the {@code BigDecimal} API at the boundaries.
+ *
+ * All arithmetic is overflow-checked and throws {@link ArithmeticException}
+ * instead of wrapping around.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@EqualsAndHashCode
+public final class Money implements Comparable<Money> {
+
+    /** Number of decimal places of every amount */
+    public static final int SCALE = 2;
+
+    /** Zero amount */
+    public static final Money ZERO = new Money(0);
+
+    /** Amount in cents */
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Creates an amount from cents.
+     *
+     * @param cents amount in cents
+     * @return the amount
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Creates an amount from a decimal value with at most two decimals.
+     *
+     * @param amount the decimal amount
+     * @return the amount
+     * @throws ArithmeticException if the amount has more than two decimals or overflows
+     */
+    public static Money of(BigDecimal amount) {
+        return ofCents(toCents(amount));
+    }
+
+    /**
+     * Converts a decimal value with at most two decimals to cents.
+     *
+     * @param amount the decimal amount
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount has more than two decimals or overflows
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    /**
+     * Converts cents to a decimal value with scale two.
+     *
+     * @param cents amount in cents
+     * @return the decimal amount
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Adds two amounts in cents.
+     *
+     * @param a first amount in cents
+     * @param b second amount in cents
+     * @return the sum in cents
+     * @throws ArithmeticException if the sum overflows
+     */
+    public static long addCents(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Sums amounts in cents.
+     *
+     * @param cents amounts in cents
+     * @param size number of leading entries to sum
+     * @return the sum in cents
+     * @throws ArithmeticException if the sum overflows
+     */
+    public static long sumCents(long[] cents, int size) {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total = Math.addExact(total, cents[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Returns this amount plus another.
+     *
+     * @param other the amount to add
+     * @return the sum
+     * @throws ArithmeticException if the sum overflows
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * Returns this amount minus another.
+     *
+     * @param other the amount to subtract
+     * @return the difference
+     * @throws ArithmeticException if the difference overflows
+     */
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * Returns this amount multiplied by a whole factor.
+     *
+     * @param factor the factor
+     * @return the product
+     * @throws ArithmeticException if the product overflows
+     */
+    public Money times(long factor) {
+        return ofCents(Math.multiplyExact(cents, factor));
+    }
+
+    /**
+     * Returns the negated amount.
+     *
+     * @return the negated amount
+     * @throws ArithmeticException if the amount is {@code Long.MIN_VALUE} cents
+     */
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    /**
+     * Converts this amount to a decimal value with scale two.
+     *
+     * @return the decimal amount
+     */
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(cents);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.suyos.tracker.partition;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * One range partition of the expenses table.
+ *
+ * A partition holds the expenses dated before its bound and not held by an
+ * earlier partition, so the first partition also holds everything older.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class ExpensePartition {
+
+    /** Name of the catch-all partition above the newest period */
+    public static final String OVERFLOW = "pmax";
+
+    /** Partition name */
+    private final String name;
+
+    /** Exclusive upper bound of the dates held; null for MAXVALUE */
+    private final LocalDate lessThan;
+
+    /**
+     * Returns whether the partition has an upper bound.
+     *
+     * @return false for a MAXVALUE partition
+     */
+    public boolean isBounded() {
+        return lessThan != null;
+    }
+
+    /**
+     * Returns the partition's definition in MySQL DDL.
+     *
+     * @return e.g. {@code PARTITION p202403 VALUES LESS THAN ('2024-04-01')}
+     */
+    public String toDefinition() {
+        return "PARTITION " + name + " VALUES LESS THAN (" + (isBounded() ? "'" + lessThan + "'" : "MAXVALUE") + ")";
+    }
+
+}
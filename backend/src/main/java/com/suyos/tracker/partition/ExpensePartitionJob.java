@@ -0,0 +1,57 @@
+package com.suyos.tracker.partition;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Startup and scheduled job maintaining the expense partitions.
+ *
+ * Partitions the table on startup if needed, then rolls partitions forward
+ * on {@code tracker.partitioning.maintenance-cron} (nightly by default).
+ * Enabled with {@code tracker.partitioning.enabled=true}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "tracker.partitioning.enabled", havingValue = "true")
+public class ExpensePartitionJob implements ApplicationRunner {
+
+    /** Manager applying the partition changes */
+    private final ExpensePartitionManager expensePartitionManager;
+
+    /**
+     * Brings the partitions up to date before the first scheduled run.
+     *
+     * @param args application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        maintain();
+    }
+
+    /**
+     * Adds the coming periods' partitions.
+     */
+    @Scheduled(cron = "${tracker.partitioning.maintenance-cron:0 15 2 * * *}")
+    public void maintain() {
+        try {
+            int changes = expensePartitionManager.maintain();
+            if (changes > 0) {
+                log.info("Expense partition maintenance finished: {} partitions created", changes);
+            }
+        } catch (RuntimeException e) {
+            log.error("Expense partition maintenance failed; retrying on the next run", e);
+        }
+    }
+
+}
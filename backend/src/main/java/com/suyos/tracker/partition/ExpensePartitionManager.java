@@ -0,0 +1,218 @@
+package com.suyos.tracker.partition;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.suyos.tracker.sharding.ShardMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the expenses table range-partitioned by date.
+ *
+ * On MySQL, the table is partitioned by {@code RANGE COLUMNS(date)} with
+ * one partition per {@code tracker.partitioning.granularity} period, so
+ * queries filtering on a date range, such as
+ * {@code findByUserIdAndDateBetween}, only read the partitions the range
+ * overlaps. Partitioning an existing table drops its foreign keys and
+ * widens its primary key to {@code (id, date)}, both required by MySQL;
+ * user ownership stays enforced by the services.
+ *
+ * Hibernate's {@code ddl-auto=update} would add the dropped foreign keys
+ * back, which MySQL refuses on a partitioned table, so the manager refuses
+ * to start with it.
+ *
+ * Each run adds the partitions of the coming periods. Partitions are never
+ * dropped: old expenses leave the table through the expense archive, which
+ * keeps them readable. Other databases are left unpartitioned. With
+ * sharding, every shard is maintained.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tracker.partitioning.enabled", havingValue = "true")
+public class ExpensePartitionManager {
+
+    /** The partitioned table */
+    static final String TABLE = "expenses";
+
+    /** Template over the application data source */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Directory of the users' shards */
+    private final ShardMap shardMap;
+
+    /** Partitions created */
+    private final Counter created;
+
+    /** Period held by each partition */
+    @Value("${tracker.partitioning.granularity:MONTH}")
+    private PartitionGranularity granularity = PartitionGranularity.MONTH;
+
+    /** Periods kept ready after the current one */
+    @Value("${tracker.partitioning.periods-ahead:3}")
+    private int periodsAhead = 3;
+
+    /**
+     * Creates the manager.
+     *
+     * @param jdbcTemplate template over the application data source
+     * @param shardMap directory of the users' shards
+     * @param meterRegistry registry the partition counters are published to
+     * @param ddlAuto Hibernate schema management mode
+     * @throws IllegalStateException if Hibernate updates the schema
+     */
+    public ExpensePartitionManager(JdbcTemplate jdbcTemplate, ShardMap shardMap, MeterRegistry meterRegistry,
+            @Value("${spring.jpa.hibernate.ddl-auto:}") String ddlAuto) {
+        if ("update".equalsIgnoreCase(ddlAuto.trim())) {
+            throw new IllegalStateException("tracker.partitioning.enabled needs spring.jpa.hibernate.ddl-auto="
+                + "validate or none: update re-adds the foreign keys partitioning drops");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardMap = shardMap;
+        this.created = Counter.builder("tracker.partitions.created")
+            .description("Expense partitions created")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Partitions the expenses table if needed, then rolls partitions forward.
+     *
+     * @return number of partitions created on all shards
+     */
+    public int maintain() {
+        return shardMap.onEachShard(() -> maintain(LocalDate.now())).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Maintains the partitions of the current shard.
+     *
+     * @param today the current date
+     * @return number of partitions created
+     */
+    int maintain(LocalDate today) {
+        if (!isMySql()) {
+            log.warn("Expense partitioning needs MySQL; the expenses table is left unpartitioned");
+            return 0;
+        }
+        List<ExpensePartition> partitions = readPartitions();
+        int changes = 0;
+        if (partitions.isEmpty()) {
+            partitions = partitionTable(today);
+            changes += partitions.size();
+        }
+        ExpensePartitionPlan plan = ExpensePartitionPlan.of(partitions, granularity, today, periodsAhead);
+        if (!plan.getPartitionsToAdd().isEmpty()) {
+            addPartitions(partitions, plan.getPartitionsToAdd());
+            created.increment(plan.getPartitionsToAdd().size());
+            changes += plan.getPartitionsToAdd().size();
+        }
+        return changes;
+    }
+
+    /**
+     * Returns the partitions of the expenses table in order.
+     *
+     * @return the partitions; empty if the table is not partitioned
+     * @throws IllegalStateException if the table is partitioned other than by date ranges
+     */
+    List<ExpensePartition> readPartitions() {
+        List<String> methods = jdbcTemplate.queryForList(
+            "SELECT DISTINCT PARTITION_METHOD FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL", String.class, TABLE);
+        if (methods.isEmpty()) {
+            return List.of();
+        }
+        if (!methods.equals(List.of("RANGE COLUMNS"))) {
+            throw new IllegalStateException(TABLE + " is partitioned by " + methods + ", not by RANGE COLUMNS(date)");
+        }
+        return jdbcTemplate.query("SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY PARTITION_ORDINAL_POSITION",
+            (row, index) -> new ExpensePartition(row.getString(1), parseBound(row.getString(2))), TABLE);
+    }
+
+    private List<ExpensePartition> partitionTable(LocalDate today) {
+        List<String> referencing = jdbcTemplate.queryForList(
+            "SELECT TABLE_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS "
+            + "WHERE CONSTRAINT_SCHEMA = DATABASE() AND REFERENCED_TABLE_NAME = ?", String.class, TABLE);
+        if (!referencing.isEmpty()) {
+            throw new IllegalStateException("Cannot partition " + TABLE + ": referenced by foreign keys of "
+                + referencing);
+        }
+        List<String> uniqueKeys = jdbcTemplate.queryForList(
+            "SELECT DISTINCT INDEX_NAME FROM information_schema.STATISTICS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND NON_UNIQUE = 0 AND INDEX_NAME <> 'PRIMARY'",
+            String.class, TABLE);
+        if (!uniqueKeys.isEmpty()) {
+            throw new IllegalStateException("Cannot partition " + TABLE + ": unique keys " + uniqueKeys
+                + " do not include the date");
+        }
+
+        List<String> foreignKeys = jdbcTemplate.queryForList(
+            "SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS "
+            + "WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = ?", String.class, TABLE);
+        for (String foreignKey : foreignKeys) {
+            // The backing index stays, so lookups by user keep their index
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP FOREIGN KEY `" + foreignKey + "`");
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PRIMARY KEY, ADD PRIMARY KEY (id, `date`)");
+
+        LocalDate oldest = jdbcTemplate.queryForObject("SELECT MIN(`date`) FROM " + TABLE, LocalDate.class);
+        List<ExpensePartition> layout = ExpensePartitionPlan.initialLayout(oldest, granularity, today, periodsAhead);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " PARTITION BY RANGE COLUMNS(`date`) ("
+            + definitions(layout) + ")");
+        created.increment(layout.size());
+        log.info("Partitioned {} by {} into {} partitions", TABLE, granularity.name().toLowerCase(Locale.ROOT),
+            layout.size());
+        return layout;
+    }
+
+    private void addPartitions(List<ExpensePartition> partitions, List<ExpensePartition> toAdd) {
+        ExpensePartition last = partitions.get(partitions.size() - 1);
+        if (last.isBounded()) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD PARTITION (" + definitions(toAdd) + ")");
+        } else {
+            // Rows already in the overflow partition are redistributed into the new ones
+            List<ExpensePartition> split = new ArrayList<>(toAdd);
+            split.add(last);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + last.getName()
+                + " INTO (" + definitions(split) + ")");
+        }
+        log.info("Added expense partitions {}", toAdd.stream().map(ExpensePartition::getName).toList());
+    }
+
+    private boolean isMySql() {
+        String product = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return product != null && product.toLowerCase(Locale.ROOT).contains("mysql");
+    }
+
+    private static String definitions(List<ExpensePartition> partitions) {
+        return partitions.stream().map(ExpensePartition::toDefinition).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Parses a partition bound as reported by MySQL, e.g. {@code '2024-04-01'} or {@code MAXVALUE}.
+     */
+    static LocalDate parseBound(String description) {
+        if (description == null || "MAXVALUE".equalsIgnoreCase(description)) {
+            return null;
+        }
+        return LocalDate.parse(description.replace("'", "").trim());
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.suyos.tracker.partition;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Changes bringing the partitions of the expenses table up to date.
+ *
+ * Partitions are kept ready for the current period and
+ * {@code periodsAhead} more, so inserts never land in the overflow
+ * partition in normal operation. The plan is pure; the
+ * {@link ExpensePartitionManager} applies it.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ExpensePartitionPlan {
+
+    /** Most bounded partitions laid out when a table is first partitioned */
+    static final int MAX_INITIAL_PARTITIONS = 1000;
+
+    /** Partitions to create after the newest bounded one, oldest first */
+    private final List<ExpensePartition> partitionsToAdd;
+
+    /**
+     * Plans the changes to an existing layout.
+     *
+     * @param partitions current partitions in order
+     * @param granularity period held by each new partition
+     * @param today the current date
+     * @param periodsAhead periods kept ready after the current one
+     * @return the plan
+     */
+    public static ExpensePartitionPlan of(List<ExpensePartition> partitions, PartitionGranularity granularity,
+            LocalDate today, int periodsAhead) {
+        LocalDate newestBound = null;
+        for (ExpensePartition partition : partitions) {
+            if (partition.isBounded()) {
+                newestBound = partition.getLessThan();
+            }
+        }
+        LocalDate from = newestBound != null ? newestBound : granularity.periodStart(today);
+        return new ExpensePartitionPlan(periods(from, horizon(granularity, today, periodsAhead), granularity));
+    }
+
+    /**
+     * Lays out the partitions of a table being partitioned.
+     *
+     * Bounded partitions run from the period of the oldest expense, or from
+     * at most {@link #MAX_INITIAL_PARTITIONS} periods back, to the end of
+     * the periods kept ready; an overflow partition follows them.
+     *
+     * @param oldest date of the oldest expense, or null if there are none
+     * @param granularity period held by each partition
+     * @param today the current date
+     * @param periodsAhead periods kept ready after the current one
+     * @return the partitions in order
+     */
+    public static List<ExpensePartition> initialLayout(LocalDate oldest, PartitionGranularity granularity,
+            LocalDate today, int periodsAhead) {
+        LocalDate horizon = horizon(granularity, today, periodsAhead);
+        LocalDate earliest = granularity == PartitionGranularity.MONTH
+            ? horizon.minusMonths(MAX_INITIAL_PARTITIONS)
+            : horizon.minusYears(MAX_INITIAL_PARTITIONS);
+        LocalDate from = oldest == null || oldest.isAfter(today) ? today : oldest;
+        from = granularity.periodStart(from.isBefore(earliest) ? earliest : from);
+        List<ExpensePartition> layout = periods(from, horizon, granularity);
+        layout.add(new ExpensePartition(ExpensePartition.OVERFLOW, null));
+        return layout;
+    }
+
+    /**
+     * Returns whether the layout is up to date.
+     *
+     * @return true if there is nothing to add
+     */
+    public boolean isEmpty() {
+        return partitionsToAdd.isEmpty();
+    }
+
+    /**
+     * Returns the first day after the last period kept ready.
+     */
+    private static LocalDate horizon(PartitionGranularity granularity, LocalDate today, int periodsAhead) {
+        LocalDate horizon = granularity.nextPeriod(today);
+        for (int i = 0; i < periodsAhead; i++) {
+            horizon = granularity.nextPeriod(horizon);
+        }
+        return horizon;
+    }
+
+    /**
+     * Returns partitions covering the dates from one bound to another, one per period.
+     *
+     * A bound inside a period, left by a change of granularity, starts a
+     * partition holding the rest of that period.
+     */
+    private static List<ExpensePartition> periods(LocalDate from, LocalDate to, PartitionGranularity granularity) {
+        List<ExpensePartition> partitions = new ArrayList<>();
+        for (LocalDate start = from; start.isBefore(to); start = granularity.nextPeriod(start)) {
+            partitions.add(new ExpensePartition(granularity.partitionName(start), granularity.nextPeriod(start)));
+        }
+        return partitions;
+    }
+
+}
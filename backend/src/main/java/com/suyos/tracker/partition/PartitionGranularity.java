@@ -0,0 +1,59 @@
+package com.suyos.tracker.partition;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Period of expense dates held by one partition.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public enum PartitionGranularity {
+
+    /** One partition per calendar month, named {@code pYYYYMM} */
+    MONTH(DateTimeFormatter.ofPattern("'p'yyyyMM")),
+
+    /** One partition per calendar year, named {@code pYYYY} */
+    YEAR(DateTimeFormatter.ofPattern("'p'yyyy"));
+
+    /** Format of the names of the partitions */
+    private final DateTimeFormatter names;
+
+    PartitionGranularity(DateTimeFormatter names) {
+        this.names = names;
+    }
+
+    /**
+     * Returns the first day of the period containing a date.
+     *
+     * @param date the date
+     * @return start of its period
+     */
+    public LocalDate periodStart(LocalDate date) {
+        return this == MONTH ? date.withDayOfMonth(1) : date.withDayOfYear(1);
+    }
+
+    /**
+     * Returns the first day of the next period.
+     *
+     * @param date a date
+     * @return start of the period after the one containing the date
+     */
+    public LocalDate nextPeriod(LocalDate date) {
+        LocalDate start = periodStart(date);
+        return this == MONTH ? start.plusMonths(1) : start.plusYears(1);
+    }
+
+    /**
+     * Returns the name of the partition holding a period.
+     *
+     * @param date a date in the period
+     * @return the partition name
+     */
+    public String partitionName(LocalDate date) {
+        return names.format(periodStart(date));
+    }
+
+}
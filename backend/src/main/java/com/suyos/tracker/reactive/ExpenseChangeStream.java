@@ -0,0 +1,255 @@
+package com.suyos.tracker.reactive;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.codec.ServerSentEvent;
+
+import com.suyos.tracker.dto.ChangeFeedDTO;
+import com.suyos.tracker.dto.ExpenseChangeDTO;
+import com.suyos.tracker.mapper.ExpenseChangeMapper;
+import com.suyos.tracker.model.ExpenseChange;
+import com.suyos.tracker.repository.ExpenseChangeRepository;
+import com.suyos.tracker.service.ExpenseChangeOutbox;
+import com.suyos.tracker.sharding.ShardContext;
+import com.suyos.tracker.sharding.ShardMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+/**
+ * Fan-out of relayed expense changes to Server-Sent Event streams.
+ *
+ * Every {@code tracker.reactive.stream.poll-interval}, one thread reads the
+ * changes relayed since its last poll from each shard's outbox and hands
+ * them to the open streams of their users. Tailing the outbox rather than
+ * listening to this instance's relay delivers the changes relayed by any
+ * instance, and only after they committed. The cursors rely on the relay
+ * committing positions in increasing order, which its lock on the shard's
+ * sequence row guarantees: a change with a position below a cursor is
+ * never committed after the cursor passed it. While no stream is open, a
+ * poll only moves the cursors to the highest position.
+ *
+ * Each stream buffers at most {@code tracker.reactive.stream.buffer-size}
+ * changes. A client too slow to drain them is disconnected rather than
+ * holding memory, and resumes with the ID of the last event it received.
+ * An idle stream costs its socket, its empty buffer and a heartbeat timer;
+ * no thread waits on it.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+public class ExpenseChangeStream {
+
+    /** Maximum number of changes read from a shard per query */
+    private static final int BATCH_SIZE = 500;
+
+    /** Cursor of a shard not polled yet */
+    private static final long UNSET = -1;
+
+    /** Repository for change record data access operations */
+    private final ExpenseChangeRepository expenseChangeRepository;
+
+    /** Change feed replaying the changes a client missed */
+    private final ExpenseChangeOutbox expenseChangeOutbox;
+
+    /** Mapper for converting change records to DTOs */
+    private final ExpenseChangeMapper expenseChangeMapper;
+
+    /** Directory of the users' shards */
+    private final ShardMap shardMap;
+
+    /** Maximum number of changes buffered per stream */
+    private final int bufferSize;
+
+    /** Interval between heartbeats of an idle stream */
+    private final Duration heartbeat;
+
+    /** Buffers of the open streams, by user ID */
+    private final Map<Long, Set<Sinks.Many<ExpenseChangeDTO>>> streams = new ConcurrentHashMap<>();
+
+    /** Last position delivered from each shard; only touched by the polling thread */
+    private final long[] cursors;
+
+    /** Thread polling the outbox */
+    private final Scheduler poller;
+
+    /** Streams disconnected for falling behind */
+    private final Counter overflowed;
+
+    /**
+     * Creates the stream and starts polling the outbox.
+     *
+     * @param expenseChangeRepository repository for change record data access operations
+     * @param expenseChangeOutbox change feed replaying the changes a client missed
+     * @param expenseChangeMapper mapper for converting change records to DTOs
+     * @param shardMap directory of the users' shards
+     * @param pollInterval interval between polls of the outbox
+     * @param heartbeat interval between heartbeats of an idle stream
+     * @param bufferSize maximum number of changes buffered per stream
+     * @param meterRegistry registry the stream meters are published to
+     */
+    public ExpenseChangeStream(ExpenseChangeRepository expenseChangeRepository,
+        ExpenseChangeOutbox expenseChangeOutbox, ExpenseChangeMapper expenseChangeMapper, ShardMap shardMap,
+        Duration pollInterval, Duration heartbeat, int bufferSize, MeterRegistry meterRegistry) {
+        this.expenseChangeRepository = expenseChangeRepository;
+        this.expenseChangeOutbox = expenseChangeOutbox;
+        this.expenseChangeMapper = expenseChangeMapper;
+        this.shardMap = shardMap;
+        this.heartbeat = heartbeat;
+        this.bufferSize = bufferSize;
+        this.cursors = new long[shardMap.getShardCount()];
+        Arrays.fill(cursors, UNSET);
+        this.overflowed = Counter.builder("tracker.reactive.stream.overflowed")
+            .description("Expense change streams disconnected for falling behind")
+            .register(meterRegistry);
+        Gauge.builder("tracker.reactive.stream.open", streams,
+                open -> open.values().stream().mapToInt(Set::size).sum())
+            .description("Open expense change streams")
+            .register(meterRegistry);
+        this.poller = Schedulers.newSingle("expense-change-stream", true);
+        poller.schedulePeriodically(this::poll, pollInterval.toMillis(), pollInterval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream of a user's expense changes.
+     *
+     * With a last event ID, the changes relayed after it are replayed from
+     * the change feed first; live changes arriving meanwhile are buffered
+     * and only those after the replayed ones are sent. Each event carries
+     * the change's position as its ID. The stream completes when its buffer
+     * overflows.
+     *
+     * @param userId ID of the user whose changes to stream
+     * @param lastEventId position of the last change the client received, or null to stream new changes only
+     * @return the events, interleaved with heartbeat comments
+     */
+    public Flux<ServerSentEvent<ExpenseChangeDTO>> subscribe(Long userId, Long lastEventId) {
+        return Flux.defer(() -> {
+            Sinks.Many<ExpenseChangeDTO> sink = Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<ExpenseChangeDTO>get(bufferSize).get());
+            // Registered before the replay is read, so that no change falls in between
+            streams.compute(userId, (id, sinks) -> {
+                Set<Sinks.Many<ExpenseChangeDTO>> open = sinks != null ? sinks : ConcurrentHashMap.newKeySet();
+                open.add(sink);
+                return open;
+            });
+
+            long[] sent = {lastEventId != null ? lastEventId : 0};
+            Flux<ExpenseChangeDTO> replay = lastEventId != null ? replay(userId, lastEventId) : Flux.empty();
+            Sinks.Empty<Void> closed = Sinks.empty();
+            Flux<ServerSentEvent<ExpenseChangeDTO>> changes = replay.concatWith(sink.asFlux())
+                .filter(change -> change.getPosition() > sent[0])
+                .doOnNext(change -> sent[0] = change.getPosition())
+                .map(change -> ServerSentEvent.builder(change)
+                    .id(String.valueOf(change.getPosition()))
+                    .build())
+                .doOnTerminate(closed::tryEmitEmpty);
+            Flux<ServerSentEvent<ExpenseChangeDTO>> heartbeats = Flux.interval(heartbeat)
+                .map(tick -> ServerSentEvent.<ExpenseChangeDTO>builder().comment("heartbeat").build())
+                .takeUntilOther(closed.asMono());
+            return Flux.merge(changes, heartbeats)
+                .doFinally(signal -> close(userId, sink));
+        });
+    }
+
+    /**
+     * Stops polling and completes the open streams.
+     */
+    public void close() {
+        poller.dispose();
+        streams.values().forEach(sinks -> sinks.forEach(Sinks.Many::tryEmitComplete));
+    }
+
+    /**
+     * Reads a user's changes after a position from the change feed, page by page.
+     */
+    private Flux<ExpenseChangeDTO> replay(Long userId, long since) {
+        return page(userId, since)
+            .expand(feed -> feed.isHasMore() ? page(userId, feed.getNext()) : Mono.empty())
+            .concatMapIterable(ChangeFeedDTO::getChanges);
+    }
+
+    private Mono<ChangeFeedDTO> page(Long userId, long since) {
+        return Mono.fromCallable(() -> {
+            try (ShardContext.Scope scope = shardMap.bindUser(userId)) {
+                return expenseChangeOutbox.getChanges(userId, since, ExpenseChangeOutbox.MAX_FEED_LIMIT);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Delivers the changes relayed since the last poll of each shard.
+     */
+    void poll() {
+        try {
+            for (int shard = 0; shard < cursors.length; shard++) {
+                try (ShardContext.Scope scope = shardMap.bindShard(shard)) {
+                    poll(shard);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Expense change stream poll failed; retrying on the next run", e);
+        }
+    }
+
+    private void poll(int shard) {
+        if (cursors[shard] == UNSET || streams.isEmpty()) {
+            // Read before checking for streams again: a stream opened meanwhile only misses older changes
+            Long highest = expenseChangeRepository.findMaxPosition();
+            if (cursors[shard] == UNSET || streams.isEmpty()) {
+                cursors[shard] = highest != null ? highest : 0;
+                return;
+            }
+        }
+        List<ExpenseChange> changes;
+        do {
+            changes = expenseChangeRepository.findByPositionGreaterThanOrderByPositionAsc(cursors[shard],
+                PageRequest.of(0, BATCH_SIZE));
+            for (ExpenseChange change : changes) {
+                deliver(change);
+                cursors[shard] = change.getPosition();
+            }
+        } while (changes.size() == BATCH_SIZE);
+    }
+
+    private void deliver(ExpenseChange change) {
+        Set<Sinks.Many<ExpenseChangeDTO>> sinks = streams.get(change.getUserId());
+        if (sinks == null) {
+            return;
+        }
+        ExpenseChangeDTO dto = expenseChangeMapper.toDTO(change);
+        for (Sinks.Many<ExpenseChangeDTO> sink : sinks) {
+            if (sink.tryEmitNext(dto) == Sinks.EmitResult.FAIL_OVERFLOW) {
+                // The client resumes from the last event it received
+                sink.tryEmitComplete();
+                overflowed.increment();
+            }
+        }
+    }
+
+    private void close(Long userId, Sinks.Many<ExpenseChangeDTO> sink) {
+        streams.computeIfPresent(userId, (id, sinks) -> {
+            sinks.remove(sink);
+            return sinks.isEmpty() ? null : sinks;
+        });
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.suyos.tracker.reactive;
+
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.suyos.tracker.service.JwtService;
+
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * JWT authentication filter for the reactive expense API.
+ *
+ * Accepts the same tokens as the servlet
+ * {@link com.suyos.tracker.config.JwtAuthenticationFilter}: a signed,
+ * unexpired Bearer token whose subject is the email of an active user.
+ * Since a browser EventSource cannot send headers, the change stream also
+ * accepts a stream ticket in its {@code ticket} query parameter; tickets
+ * are accepted nowhere else, and Bearer tokens never carry one. The user
+ * is resolved through the non-blocking driver and its ID and email stored
+ * as exchange attributes for the handlers. Every route of the reactive
+ * API requires authentication, so requests without a valid token are
+ * answered with 401 here rather than passed on.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@RequiredArgsConstructor
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    /** Exchange attribute holding the authenticated user's ID */
+    public static final String USER_ID_ATTRIBUTE = JwtAuthenticationWebFilter.class.getName() + ".userId";
+
+    /** Exchange attribute holding the authenticated user's email */
+    public static final String USER_EMAIL_ATTRIBUTE = JwtAuthenticationWebFilter.class.getName() + ".userEmail";
+
+    /** Path of the change stream, the only route accepting stream tickets */
+    public static final String STREAM_PATH = "/api/expenses/stream";
+
+    /** Service for JWT token operations */
+    private final JwtService jwtService;
+
+    /** Repository for resolving the token's user */
+    private final ReactiveUserRepository userRepository;
+
+    /**
+     * Authenticates the exchange from its Authorization header, or from
+     * its stream ticket on the change stream.
+     *
+     * @param exchange the current exchange
+     * @param chain the remaining filter chain
+     * @return completion of the request handling
+     */
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        // Use the Bearer token, or the ticket of a change stream opened by an EventSource
+        String token;
+        boolean ticket = authHeader == null && HttpMethod.GET.equals(request.getMethod())
+            && STREAM_PATH.equals(request.getPath().pathWithinApplication().value());
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            token = authHeader.substring(7);
+        } else if (ticket) {
+            token = request.getQueryParams().getFirst("ticket");
+        } else {
+            token = null;
+        }
+        if (token == null) {
+            return unauthorized(exchange);
+        }
+
+        // Parsing verifies the signature and expiration
+        String userEmail;
+        try {
+            userEmail = jwtService.extractUsername(token);
+            if (jwtService.isStreamTicket(token) != ticket) {
+                return unauthorized(exchange);
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            return unauthorized(exchange);
+        }
+        if (userEmail == null) {
+            return unauthorized(exchange);
+        }
+
+        return userRepository.findByEmailAndAccountEnabledTrueAndAccountLockedFalse(userEmail)
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(user -> {
+                if (user.isEmpty()) {
+                    return unauthorized(exchange);
+                }
+                exchange.getAttributes().put(USER_ID_ATTRIBUTE, user.get().getId());
+                exchange.getAttributes().put(USER_EMAIL_ATTRIBUTE, userEmail);
+                return chain.filter(exchange);
+            });
+    }
+
+    private static Mono<Void> unauthorized(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        return exchange.getResponse().setComplete();
+    }
+
+}
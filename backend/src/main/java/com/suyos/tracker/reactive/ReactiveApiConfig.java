@@ -0,0 +1,229 @@
+package com.suyos.tracker.reactive;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suyos.tracker.archive.ExpenseArchive;
+import com.suyos.tracker.mapper.ExpenseChangeMapper;
+import com.suyos.tracker.mapper.ExpenseMapper;
+import com.suyos.tracker.repository.ExpenseChangeRepository;
+import com.suyos.tracker.service.ExpenseChangeOutbox;
+import com.suyos.tracker.service.ExpenseService;
+import com.suyos.tracker.service.JwtService;
+import com.suyos.tracker.sharding.ShardMap;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+
+/**
+ * Configuration of the reactive expense API.
+ *
+ * When {@code tracker.reactive.enabled} is true, serves the expense routes
+ * under {@code /api/expenses} from a Netty server on
+ * {@code tracker.reactive.port}, next to the servlet API. Reads use an
+ * R2DBC connection pool on the same database. {@code /api/expenses/stream}
+ * streams the user's expense changes as Server-Sent Events; browsers open
+ * it with a ticket from {@code POST /api/expenses/stream/ticket}.
+ *
+ * The pool is deliberately not exposed as a bean: Spring Boot backs off its
+ * JDBC data source, and with it JPA, as soon as an R2DBC connection
+ * factory bean exists. For the same reason the R2DBC auto-configuration is
+ * excluded and the repositories are created here instead of scanned.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "tracker.reactive.enabled", havingValue = "true")
+public class ReactiveApiConfig {
+
+    /** R2DBC URL of the expense database */
+    @Value("${tracker.reactive.r2dbc.url}")
+    private String url;
+
+    /** Database user */
+    @Value("${tracker.reactive.r2dbc.username:}")
+    private String username;
+
+    /** Database password */
+    @Value("${tracker.reactive.r2dbc.password:}")
+    private String password;
+
+    /** Upper bound on open R2DBC connections */
+    @Value("${tracker.reactive.r2dbc.max-connections:20}")
+    private int maxConnections;
+
+    /** Port of the reactive server; 0 picks a free port */
+    @Value("${tracker.reactive.port:8081}")
+    private int port;
+
+    /** Interval between polls of the outbox for streamed changes */
+    @Value("${tracker.reactive.stream.poll-interval:PT0.5S}")
+    private Duration streamPollInterval = Duration.ofMillis(500);
+
+    /** Interval between heartbeats of an idle change stream */
+    @Value("${tracker.reactive.stream.heartbeat:PT15S}")
+    private Duration streamHeartbeat = Duration.ofSeconds(15);
+
+    /** Maximum number of changes buffered per change stream */
+    @Value("${tracker.reactive.stream.buffer-size:256}")
+    private int streamBufferSize = 256;
+
+    /** How long a ticket for opening a change stream remains valid */
+    @Value("${tracker.reactive.stream.ticket-ttl:PT1M}")
+    private Duration streamTicketTtl = Duration.ofMinutes(1);
+
+    /** Connection pool of the non-blocking driver */
+    private ConnectionPool connectionPool;
+
+    /**
+     * Creates the R2DBC template over a private connection pool.
+     *
+     * @return the template
+     */
+    @Bean
+    public R2dbcEntityTemplate reactiveEntityTemplate() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+            .option(ConnectionFactoryOptions.USER, username)
+            .option(ConnectionFactoryOptions.PASSWORD, password)
+            .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+            .maxSize(maxConnections)
+            .build());
+        return new R2dbcEntityTemplate(connectionPool);
+    }
+
+    /**
+     * Creates the non-blocking expense repository.
+     *
+     * @param template the R2DBC template
+     * @return the repository
+     */
+    @Bean
+    public ReactiveExpenseRepository reactiveExpenseRepository(R2dbcEntityTemplate template) {
+        return new R2dbcRepositoryFactory(template).getRepository(ReactiveExpenseRepository.class,
+            RepositoryFragments.just(new ReactiveExpenseCategoryQueriesImpl(template)));
+    }
+
+    /**
+     * Creates the non-blocking user repository.
+     *
+     * @param template the R2DBC template
+     * @return the repository
+     */
+    @Bean
+    public ReactiveUserRepository reactiveUserRepository(R2dbcEntityTemplate template) {
+        return new R2dbcRepositoryFactory(template).getRepository(ReactiveUserRepository.class);
+    }
+
+    /**
+     * Creates the fan-out of relayed expense changes to event streams.
+     *
+     * @param expenseChangeRepository repository for change record data access operations
+     * @param expenseChangeOutbox change feed replaying the changes a client missed
+     * @param expenseChangeMapper mapper for converting change records to DTOs
+     * @param shardMap directory of the users' shards
+     * @param meterRegistry registry the stream meters are published to
+     * @return the change stream, closed with the application context
+     */
+    @Bean
+    public ExpenseChangeStream expenseChangeStream(ExpenseChangeRepository expenseChangeRepository,
+            ExpenseChangeOutbox expenseChangeOutbox, ExpenseChangeMapper expenseChangeMapper, ShardMap shardMap,
+            MeterRegistry meterRegistry) {
+        return new ExpenseChangeStream(expenseChangeRepository, expenseChangeOutbox, expenseChangeMapper, shardMap,
+            streamPollInterval, streamHeartbeat, streamBufferSize, meterRegistry);
+    }
+
+    /**
+     * Creates the Netty server with the expense routes, CORS and JWT authentication.
+     *
+     * @param expenseRepository non-blocking expense repository
+     * @param userRepository non-blocking user repository
+     * @param expenseService service layer for expense writes
+     * @param expenseMapper mapper for converting rows to DTOs
+     * @param jwtService service for JWT token operations
+     * @param validator validator for request bodies
+     * @param changeStream fan-out of relayed expense changes
+     * @param expenseArchive cold tier of expenses moved out of the table
+     * @param objectMapper the application's JSON mapper
+     * @return the server, started with the application context
+     */
+    @Bean
+    public ReactiveApiServer reactiveApiServer(ReactiveExpenseRepository expenseRepository,
+            ReactiveUserRepository userRepository, ExpenseService expenseService, ExpenseMapper expenseMapper,
+            JwtService jwtService, Validator validator, ExpenseChangeStream changeStream,
+            ExpenseArchive expenseArchive, ObjectMapper objectMapper) {
+        ReactiveExpenseHandler handler = new ReactiveExpenseHandler(expenseRepository, expenseService,
+            expenseMapper, validator, changeStream, expenseArchive, jwtService, streamTicketTtl);
+        RouterFunction<ServerResponse> routes = RouterFunctions.route()
+            .path("/api/expenses", builder -> builder
+                .GET("", handler::list)
+                .POST("", handler::create)
+                .GET("/stream", handler::stream)
+                .POST("/stream/ticket", handler::streamTicket)
+                .GET("/{id}", handler::get)
+                .PUT("/{id}", handler::update)
+                .DELETE("/{id}", handler::delete))
+            .build();
+
+        // Serialize exactly like the servlet API
+        HandlerStrategies strategies = HandlerStrategies.builder()
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+            })
+            .build();
+
+        // React dev server, as allowed by the servlet controllers
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.setAllowedOrigins(List.of("http://localhost:5173"));
+        cors.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE"));
+        cors.addAllowedHeader("*");
+        UrlBasedCorsConfigurationSource corsSource = new UrlBasedCorsConfigurationSource();
+        corsSource.registerCorsConfiguration("/**", cors);
+
+        HttpHandler httpHandler = WebHttpHandlerBuilder
+            .webHandler(RouterFunctions.toWebHandler(routes, strategies))
+            .filter(new CorsWebFilter(corsSource), new JwtAuthenticationWebFilter(jwtService, userRepository))
+            .build();
+        return new ReactiveApiServer(new NettyReactiveWebServerFactory(port).getWebServer(httpHandler));
+    }
+
+    /**
+     * Closes the connection pool.
+     */
+    @PreDestroy
+    public void close() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.suyos.tracker.reactive;
+
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lifecycle of the Netty server hosting the reactive expense API.
+ *
+ * Runs next to the servlet container, which keeps serving every other
+ * endpoint; started after the context is refreshed and stopped before
+ * its beans are destroyed.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveApiServer implements SmartLifecycle {
+
+    /** The Netty server */
+    private final WebServer webServer;
+
+    /** Whether the server is accepting connections */
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        webServer.start();
+        running = true;
+        log.info("Reactive expense API listening on port {}", getPort());
+    }
+
+    @Override
+    public void stop() {
+        webServer.stop();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the bound port, resolved once started when configured as 0
+     */
+    public int getPort() {
+        return webServer.getPort();
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.suyos.tracker.reactive;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import com.suyos.tracker.model.Category;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Row of the 'expenses' table as read by the reactive expense API.
+ *
+ * Maps the same table as the {@link com.suyos.tracker.model.Expense} entity
+ * for the non-blocking R2DBC driver, which has no associations or lazy
+ * loading, so the owner is a plain user ID column. Only used for reads;
+ * writes go through the JPA entity.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Table("expenses")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReactiveExpense {
+
+    /**
+     * Unique identifier for the expense record.
+     */
+    @Id
+    @Column("id")
+    private Long id;
+
+    /**
+     * Description of the expense.
+     */
+    @Column("description")
+    private String description;
+
+    /**
+     * Monetary amount of the expense.
+     */
+    @Column("amount")
+    private BigDecimal amount;
+
+    /**
+     * Date when the expense occurred.
+     */
+    @Column("date")
+    private LocalDate date;
+
+    /**
+     * Category of the expense, stored by name.
+     */
+    @Column("category")
+    private Category category;
+
+    /**
+     * ID of the user who owns the expense.
+     */
+    @Column("user_id")
+    private Long userId;
+
+    /**
+     * Whether the amount was flagged as unusually high for its category.
+     */
+    @Column("anomalous")
+    private boolean anomalous;
+
+    /**
+     * Timestamp when the expense record was created.
+     */
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * Timestamp when the expense record was last updated.
+     */
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+}
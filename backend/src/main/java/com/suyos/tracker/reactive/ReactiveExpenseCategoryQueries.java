@@ -0,0 +1,70 @@
+package com.suyos.tracker.reactive;
+
+import java.time.LocalDate;
+
+import org.springframework.data.domain.Pageable;
+
+import com.suyos.tracker.model.Category;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Category-filtered expense queries of {@link ReactiveExpenseRepository}.
+ *
+ * Written by hand rather than derived because the category column is a
+ * native ENUM and not every R2DBC driver binds strings as VARCHAR (the H2
+ * driver binds them as CLOBs, which cannot be converted to ENUM values),
+ * so the bound category is cast explicitly.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public interface ReactiveExpenseCategoryQueries {
+
+    /**
+     * Finds one page of a user's expenses in a category.
+     *
+     * @param userId The ID of the user whose expenses to retrieve
+     * @param category The expense category to filter by
+     * @param pageable Pagination and sorting information
+     * @return Flux of the expenses on the page
+     */
+    Flux<ReactiveExpense> findByUserIdAndCategory(Long userId, Category category, Pageable pageable);
+
+    /**
+     * Counts a user's expenses in a category.
+     *
+     * @param userId The ID of the user
+     * @param category The expense category to filter by
+     * @return Mono emitting the number of matching expenses
+     */
+    Mono<Long> countByUserIdAndCategory(Long userId, Category category);
+
+    /**
+     * Finds one page of a user's expenses in a category within a date range.
+     *
+     * @param userId The ID of the user whose expenses to retrieve
+     * @param category The expense category to filter by
+     * @param startDate The start date (inclusive)
+     * @param endDate The end date (inclusive)
+     * @param pageable Pagination and sorting information
+     * @return Flux of the expenses on the page
+     */
+    Flux<ReactiveExpense> findByUserIdAndCategoryAndDateBetween(Long userId, Category category,
+        LocalDate startDate, LocalDate endDate, Pageable pageable);
+
+    /**
+     * Counts a user's expenses in a category within a date range.
+     *
+     * @param userId The ID of the user
+     * @param category The expense category to filter by
+     * @param startDate The start date (inclusive)
+     * @param endDate The end date (inclusive)
+     * @return Mono emitting the number of matching expenses
+     */
+    Mono<Long> countByUserIdAndCategoryAndDateBetween(Long userId, Category category, LocalDate startDate,
+        LocalDate endDate);
+
+}
@@ -0,0 +1,111 @@
+package com.suyos.tracker.reactive;
+
+import java.time.LocalDate;
+import java.util.StringJoiner;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.suyos.tracker.model.Category;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * SQL implementation of {@link ReactiveExpenseCategoryQueries}.
+ *
+ * Sort properties are resolved to columns through the mapping of
+ * {@link ReactiveExpense}, so unknown properties are rejected instead of
+ * reaching the SQL text.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public class ReactiveExpenseCategoryQueriesImpl implements ReactiveExpenseCategoryQueries {
+
+    /** Filter by owner and category; the cast makes the bound string comparable to the ENUM column */
+    private static final String CATEGORY_FILTER = " WHERE user_id = :userId AND category = CAST(:category AS CHAR(32))";
+
+    /** Additional date range filter */
+    private static final String DATE_FILTER = " AND date BETWEEN :startDate AND :endDate";
+
+    /** Template providing the connection and row mapping */
+    private final R2dbcEntityTemplate template;
+
+    /** Mapping of the expense row */
+    private final RelationalPersistentEntity<?> entity;
+
+    /**
+     * Creates the queries on a template.
+     *
+     * @param template the R2DBC template
+     */
+    public ReactiveExpenseCategoryQueriesImpl(R2dbcEntityTemplate template) {
+        this.template = template;
+        this.entity = template.getConverter().getMappingContext().getRequiredPersistentEntity(ReactiveExpense.class);
+    }
+
+    @Override
+    public Flux<ReactiveExpense> findByUserIdAndCategory(Long userId, Category category, Pageable pageable) {
+        return select(CATEGORY_FILTER, pageable, userId, category, null, null);
+    }
+
+    @Override
+    public Mono<Long> countByUserIdAndCategory(Long userId, Category category) {
+        return count(CATEGORY_FILTER, userId, category, null, null);
+    }
+
+    @Override
+    public Flux<ReactiveExpense> findByUserIdAndCategoryAndDateBetween(Long userId, Category category,
+            LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        return select(CATEGORY_FILTER + DATE_FILTER, pageable, userId, category, startDate, endDate);
+    }
+
+    @Override
+    public Mono<Long> countByUserIdAndCategoryAndDateBetween(Long userId, Category category, LocalDate startDate,
+            LocalDate endDate) {
+        return count(CATEGORY_FILTER + DATE_FILTER, userId, category, startDate, endDate);
+    }
+
+    private Flux<ReactiveExpense> select(String filter, Pageable pageable, Long userId, Category category,
+            LocalDate startDate, LocalDate endDate) {
+        String sql = "SELECT * FROM " + entity.getTableName().getReference() + filter + orderBy(pageable.getSort())
+            + " LIMIT " + pageable.getPageSize() + " OFFSET " + pageable.getOffset();
+        return bind(template.getDatabaseClient().sql(sql), userId, category, startDate, endDate)
+            .map((row, metadata) -> template.getConverter().read(ReactiveExpense.class, row, metadata))
+            .all();
+    }
+
+    private Mono<Long> count(String filter, Long userId, Category category, LocalDate startDate, LocalDate endDate) {
+        String sql = "SELECT COUNT(*) FROM " + entity.getTableName().getReference() + filter;
+        return bind(template.getDatabaseClient().sql(sql), userId, category, startDate, endDate)
+            .map(row -> row.get(0, Long.class))
+            .one();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, Long userId,
+            Category category, LocalDate startDate, LocalDate endDate) {
+        spec = spec.bind("userId", userId).bind("category", category.name());
+        if (startDate != null) {
+            spec = spec.bind("startDate", startDate).bind("endDate", endDate);
+        }
+        return spec;
+    }
+
+    private String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        StringJoiner columns = new StringJoiner(", ", " ORDER BY ", "");
+        for (Sort.Order order : sort) {
+            String column = entity.getRequiredPersistentProperty(order.getProperty()).getColumnName().getReference();
+            columns.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return columns.toString();
+    }
+
+}
@@ -0,0 +1,313 @@
+package com.suyos.tracker.reactive;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.suyos.tracker.archive.ArchivedExpenseException;
+import com.suyos.tracker.archive.ExpenseArchive;
+import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.dto.PagedResponse;
+import com.suyos.tracker.dto.StreamTicketDTO;
+import com.suyos.tracker.mapper.ExpenseMapper;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.service.ExpenseService;
+import com.suyos.tracker.service.JwtService;
+
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Handler functions of the reactive expense API.
+ *
+ * Mirrors the status codes and payloads of
+ * {@link com.suyos.tracker.controller.ExpenseController}. Reads run on the
+ * non-blocking driver without tying up a thread while the database works.
+ * Writes are delegated to {@link ExpenseService} on the bounded elastic
+ * scheduler, so rollups, budgets, anomaly flags and change events are
+ * maintained exactly as for the servlet API; they are bounded by the JDBC
+ * pool rather than by the event loop. Change streams hold no thread while
+ * idle.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@RequiredArgsConstructor
+public class ReactiveExpenseHandler {
+
+    /** Non-blocking repository for expense reads */
+    private final ReactiveExpenseRepository expenseRepository;
+
+    /** Service layer for expense writes */
+    private final ExpenseService expenseService;
+
+    /** Mapper for converting rows to DTOs */
+    private final ExpenseMapper expenseMapper;
+
+    /** Validator for request bodies */
+    private final Validator validator;
+
+    /** Fan-out of relayed expense changes */
+    private final ExpenseChangeStream changeStream;
+
+    /** Cold tier of expenses moved out of the table */
+    private final ExpenseArchive expenseArchive;
+
+    /** Service for JWT token operations */
+    private final JwtService jwtService;
+
+    /** How long a stream ticket remains valid */
+    private final Duration streamTicketTtl;
+
+    /**
+     * Retrieves expenses with pagination, sorting, and filtering for the authenticated user.
+     *
+     * Accepts the query parameters of {@code GET /api/expenses}; the date
+     * range only applies when both ends are given. Pages whose date range
+     * reaches archived months include the archived expenses, as in the
+     * servlet API.
+     *
+     * @param request the request
+     * @return 200 with the page, or 400 for malformed parameters
+     */
+    public Mono<ServerResponse> list(ServerRequest request) {
+        Long userId = userId(request);
+        String sortBy = request.queryParam("sortBy").orElse("date");
+        String sortDir = request.queryParam("sortDir").orElse("desc");
+        Pageable pageable;
+        Category category;
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            Sort sort = Sort.by(sortBy);
+            if ("desc".equalsIgnoreCase(sortDir)) {
+                sort = sort.descending();
+            }
+            pageable = PageRequest.of(Integer.parseInt(request.queryParam("page").orElse("0")),
+                Integer.parseInt(request.queryParam("size").orElse("10")), sort);
+            category = request.queryParam("category").map(Category::valueOf).orElse(null);
+            startDate = request.queryParam("startDate").map(LocalDate::parse).orElse(null);
+            endDate = request.queryParam("endDate").map(LocalDate::parse).orElse(null);
+        } catch (RuntimeException e) {
+            return ServerResponse.badRequest().build();
+        }
+        if (!expenseArchive.isEnabled()) {
+            return listLive(userId, pageable, category, startDate, endDate);
+        }
+
+        // Pages reaching archived months are merged by the service, off the event loop
+        boolean dateRange = startDate != null && endDate != null;
+        return blocking(() -> expenseArchive.overlaps(userId, dateRange ? startDate : null, dateRange ? endDate : null))
+            .flatMap(archived -> archived
+                ? blocking(() -> expenseService.getAllExpensesPaginated(userId, pageable.getPageNumber(),
+                        pageable.getPageSize(), sortBy, sortDir, category, startDate, endDate))
+                    .flatMap(page -> ServerResponse.ok().bodyValue(page))
+                    .onErrorResume(IllegalArgumentException.class, e -> ServerResponse.badRequest().build())
+                : listLive(userId, pageable, category, startDate, endDate));
+    }
+
+    /**
+     * Reads a page of expenses from the expenses table on the non-blocking driver.
+     */
+    private Mono<ServerResponse> listLive(Long userId, Pageable pageable, Category category, LocalDate startDate,
+            LocalDate endDate) {
+        // Apply conditional filtering based on provided parameters (user-specific)
+        Flux<ReactiveExpense> content;
+        Mono<Long> total;
+        if (category != null && startDate != null && endDate != null) {
+            content = expenseRepository.findByUserIdAndCategoryAndDateBetween(userId, category, startDate, endDate,
+                pageable);
+            total = expenseRepository.countByUserIdAndCategoryAndDateBetween(userId, category, startDate, endDate);
+        } else if (category != null) {
+            content = expenseRepository.findByUserIdAndCategory(userId, category, pageable);
+            total = expenseRepository.countByUserIdAndCategory(userId, category);
+        } else if (startDate != null && endDate != null) {
+            content = expenseRepository.findByUserIdAndDateBetween(userId, startDate, endDate, pageable);
+            total = expenseRepository.countByUserIdAndDateBetween(userId, startDate, endDate);
+        } else {
+            content = expenseRepository.findByUserId(userId, pageable);
+            total = expenseRepository.countByUserId(userId);
+        }
+
+        return Mono.zip(content.map(expenseMapper::rowToDTO).collectList(), total)
+            .map(pageAndTotal -> toPagedResponse(new PageImpl<>(pageAndTotal.getT1(), pageable, pageAndTotal.getT2())))
+            .flatMap(page -> ServerResponse.ok().bodyValue(page));
+    }
+
+    /**
+     * Retrieves a specific expense by ID for the authenticated user.
+     *
+     * Falls back to the archive for expenses no longer in the table.
+     *
+     * @param request the request
+     * @return 200 with the expense, or 404 if not found
+     */
+    public Mono<ServerResponse> get(ServerRequest request) {
+        Long id = pathId(request);
+        if (id == null) {
+            return ServerResponse.badRequest().build();
+        }
+        Long userId = userId(request);
+        return expenseRepository.findByIdAndUserId(id, userId)
+            .map(expenseMapper::rowToDTO)
+            .switchIfEmpty(Mono.defer(() -> expenseArchive.isEnabled()
+                ? blocking(() -> expenseArchive.findById(userId, id).map(expenseMapper::toDTO).orElse(null))
+                : Mono.empty()))
+            .flatMap(expense -> ServerResponse.ok().bodyValue(expense))
+            .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    /**
+     * Creates a new expense for the authenticated user.
+     *
+     * @param request the request with the expense as body
+     * @return 201 with the created expense, or 400 for invalid input
+     */
+    public Mono<ServerResponse> create(ServerRequest request) {
+        Long userId = userId(request);
+        return validBody(request)
+            .flatMap(expense -> blocking(() -> expenseService.createExpense(expense, userId)))
+            .flatMap(created -> ServerResponse.status(HttpStatus.CREATED).bodyValue(created))
+            .switchIfEmpty(ServerResponse.badRequest().build());
+    }
+
+    /**
+     * Updates an existing expense of the authenticated user.
+     *
+     * @param request the request with the updated expense as body
+     * @return 200 with the updated expense, 400 for invalid input, 404 if not found, or 409 if archived
+     */
+    public Mono<ServerResponse> update(ServerRequest request) {
+        Long id = pathId(request);
+        if (id == null) {
+            return ServerResponse.badRequest().build();
+        }
+        Long userId = userId(request);
+        return validBody(request)
+            .flatMap(expense -> blocking(() -> expenseService.updateExpenseById(id, expense, userId))
+                .flatMap(updated -> ServerResponse.ok().bodyValue(updated))
+                .onErrorResume(ArchivedExpenseException.class, e -> ServerResponse.status(HttpStatus.CONFLICT).build())
+                .onErrorResume(RuntimeException.class, e -> ServerResponse.notFound().build()))
+            .switchIfEmpty(ServerResponse.badRequest().build());
+    }
+
+    /**
+     * Deletes an expense of the authenticated user.
+     *
+     * @param request the request
+     * @return 204 on success, 404 if not found, or 409 if archived
+     */
+    public Mono<ServerResponse> delete(ServerRequest request) {
+        Long id = pathId(request);
+        if (id == null) {
+            return ServerResponse.badRequest().build();
+        }
+        Long userId = userId(request);
+        return blocking(() -> {
+                expenseService.deleteExpenseById(id, userId);
+                return Boolean.TRUE;
+            })
+            .flatMap(deleted -> ServerResponse.noContent().build())
+            .onErrorResume(ArchivedExpenseException.class, e -> ServerResponse.status(HttpStatus.CONFLICT).build())
+            .onErrorResume(RuntimeException.class, e -> ServerResponse.notFound().build());
+    }
+
+    /**
+     * Issues a short-lived ticket for opening the change stream from a browser.
+     *
+     * @param request the request, authenticated with a Bearer token
+     * @return 200 with the ticket
+     */
+    public Mono<ServerResponse> streamTicket(ServerRequest request) {
+        String email = (String) request.attribute(JwtAuthenticationWebFilter.USER_EMAIL_ATTRIBUTE).orElseThrow();
+        return ServerResponse.ok().bodyValue(StreamTicketDTO.builder()
+            .ticket(jwtService.generateStreamTicket(email, streamTicketTtl))
+            .expiresIn(streamTicketTtl.toSeconds())
+            .build());
+    }
+
+    /**
+     * Streams the authenticated user's expense changes as Server-Sent Events.
+     *
+     * A client reconnecting with the {@code Last-Event-ID} header first
+     * receives the changes it missed, as far as the outbox retains them.
+     * A client opening a new EventSource, which cannot set that header,
+     * sends the {@code lastEventId} query parameter instead.
+     *
+     * @param request the request
+     * @return 200 with the event stream, or 400 for a malformed last event ID
+     */
+    public Mono<ServerResponse> stream(ServerRequest request) {
+        Long lastEventId;
+        try {
+            lastEventId = request.headers().header("Last-Event-ID").stream()
+                .findFirst()
+                .or(() -> request.queryParam("lastEventId"))
+                .map(Long::valueOf)
+                .orElse(null);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return ServerResponse.ok()
+            .contentType(MediaType.TEXT_EVENT_STREAM)
+            .body(BodyInserters.fromServerSentEvents(changeStream.subscribe(userId(request), lastEventId)));
+    }
+
+    /**
+     * Reads and validates the expense body.
+     *
+     * @return the expense, or empty if missing, malformed or invalid
+     */
+    private Mono<ExpenseDTO> validBody(ServerRequest request) {
+        return request.bodyToMono(ExpenseDTO.class)
+            .onErrorResume(e -> Mono.empty())
+            .filter(expense -> validator.validate(expense).isEmpty());
+    }
+
+    /**
+     * Runs a blocking service call off the event loop.
+     */
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Long userId(ServerRequest request) {
+        return (Long) request.attribute(JwtAuthenticationWebFilter.USER_ID_ATTRIBUTE).orElseThrow();
+    }
+
+    private static Long pathId(ServerRequest request) {
+        try {
+            return Long.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static PagedResponse<ExpenseDTO> toPagedResponse(Page<ExpenseDTO> page) {
+        return PagedResponse.<ExpenseDTO>builder()
+            .content(page.getContent())
+            .currentPage(page.getNumber())
+            .totalPages(page.getTotalPages())
+            .totalElements(page.getTotalElements())
+            .size(page.getSize())
+            .first(page.isFirst())
+            .last(page.isLast())
+            .build();
+    }
+
+}
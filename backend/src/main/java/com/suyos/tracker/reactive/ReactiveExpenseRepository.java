@@ -0,0 +1,74 @@
+package com.suyos.tracker.reactive;
+
+import java.time.LocalDate;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking repository for expense reads of the reactive expense API.
+ *
+ * Mirrors the paginated queries of
+ * {@link com.suyos.tracker.repository.ExpenseRepository}. R2DBC has no
+ * {@code Page} return type, so each page query comes with a count query
+ * over the same filter. The category-filtered queries are declared in
+ * {@link ReactiveExpenseCategoryQueries}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public interface ReactiveExpenseRepository extends Repository<ReactiveExpense, Long>, ReactiveExpenseCategoryQueries {
+
+    /**
+     * Finds one page of a user's expenses.
+     *
+     * @param userId The ID of the user whose expenses to retrieve
+     * @param pageable Pagination and sorting information
+     * @return Flux of the expenses on the page
+     */
+    Flux<ReactiveExpense> findByUserId(Long userId, Pageable pageable);
+
+    /**
+     * Counts a user's expenses.
+     *
+     * @param userId The ID of the user
+     * @return Mono emitting the number of expenses
+     */
+    Mono<Long> countByUserId(Long userId);
+
+    /**
+     * Finds one page of a user's expenses within a date range.
+     *
+     * @param userId The ID of the user whose expenses to retrieve
+     * @param startDate The start date (inclusive)
+     * @param endDate The end date (inclusive)
+     * @param pageable Pagination and sorting information
+     * @return Flux of the expenses on the page
+     */
+    Flux<ReactiveExpense> findByUserIdAndDateBetween(Long userId, LocalDate startDate, LocalDate endDate,
+        Pageable pageable);
+
+    /**
+     * Counts a user's expenses within a date range.
+     *
+     * @param userId The ID of the user
+     * @param startDate The start date (inclusive)
+     * @param endDate The end date (inclusive)
+     * @return Mono emitting the number of matching expenses
+     */
+    Mono<Long> countByUserIdAndDateBetween(Long userId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Finds a specific expense by ID and user ID.
+     *
+     * @param id The expense ID
+     * @param userId The user ID who owns the expense
+     * @return Mono emitting the expense, or empty if not found or owned by another user
+     */
+    Mono<ReactiveExpense> findByIdAndUserId(Long id, Long userId);
+
+}
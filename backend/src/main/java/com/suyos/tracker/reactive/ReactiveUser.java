@@ -0,0 +1,53 @@
+package com.suyos.tracker.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Row of the 'users' table as read by the reactive expense API.
+ *
+ * Carries only the columns needed to resolve the user of a JWT token.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Table("users")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReactiveUser {
+
+    /**
+     * Unique identifier for the user.
+     */
+    @Id
+    @Column("id")
+    private Long id;
+
+    /**
+     * Email address the user authenticates with.
+     */
+    @Column("email")
+    private String email;
+
+    /**
+     * Whether the account is enabled.
+     */
+    @Column("account_enabled")
+    private Boolean accountEnabled;
+
+    /**
+     * Whether the account is locked.
+     */
+    @Column("account_locked")
+    private Boolean accountLocked;
+
+}
@@ -0,0 +1,27 @@
+package com.suyos.tracker.reactive;
+
+import org.springframework.data.repository.Repository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking repository resolving users for the reactive expense API.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public interface ReactiveUserRepository extends Repository<ReactiveUser, Long> {
+
+    /**
+     * Finds an active user by email address.
+     *
+     * Same criteria as {@link com.suyos.tracker.repository.UserRepository#findActiveUserByEmail}:
+     * the account is enabled and not locked.
+     *
+     * @param email the email address to search for
+     * @return Mono emitting the active user, or empty if not found
+     */
+    Mono<ReactiveUser> findByEmailAndAccountEnabledTrueAndAccountLockedFalse(String email);
+
+}
@@ -0,0 +1,28 @@
+package com.suyos.tracker.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.suyos.tracker.model.AnomalyBaseline;
+
+/**
+ * Repository interface for AnomalyBaseline entity data access operations.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+public interface AnomalyBaselineRepository extends JpaRepository<AnomalyBaseline, Long> {
+
+    /**
+     * Finds the persisted statistics of a user.
+     * 
+     * @param userId The ID of the user
+     * @return One baseline per category with expenses
+     */
+    List<AnomalyBaseline> findByUserId(Long userId);
+
+}
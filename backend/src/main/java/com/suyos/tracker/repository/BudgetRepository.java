@@ -0,0 +1,39 @@
+package com.suyos.tracker.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.suyos.tracker.model.Budget;
+import com.suyos.tracker.model.Category;
+
+/**
+ * Repository interface for Budget entity data access operations.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+public interface BudgetRepository extends JpaRepository<Budget, Long> {
+
+    /**
+     * Finds all budgets of a user.
+     * 
+     * @param userId The ID of the user whose budgets to retrieve
+     * @return The user's budgets ordered by category
+     */
+    List<Budget> findByUserIdOrderByCategoryAsc(Long userId);
+
+    /**
+     * Finds a user's budget for one category.
+     * 
+     * @param userId The ID of the user
+     * @param category The budgeted category
+     * @return Optional containing the budget if set, empty otherwise
+     */
+    Optional<Budget> findByUserIdAndCategory(Long userId, Category category);
+
+}
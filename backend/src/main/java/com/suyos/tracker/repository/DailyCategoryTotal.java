@@ -0,0 +1,40 @@
+package com.suyos.tracker.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.suyos.tracker.model.Category;
+
+/**
+ * Projection of an aggregate over a user's expenses for one day and category.
+ * 
+ * Returned by grouped queries on {@link ExpenseRepository} that load
+ * day-granular derived data such as range-sum indexes.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public interface DailyCategoryTotal {
+
+    /**
+     * @return date of the aggregated expenses
+     */
+    LocalDate getDate();
+
+    /**
+     * @return category of the aggregated expenses
+     */
+    Category getCategory();
+
+    /**
+     * @return sum of the aggregated amounts
+     */
+    BigDecimal getTotal();
+
+    /**
+     * @return number of aggregated expenses
+     */
+    Long getCount();
+
+}
@@ -0,0 +1,25 @@
+package com.suyos.tracker.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projection of the total of a user's expenses on one day.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public interface DailyTotal {
+
+    /**
+     * @return date of the aggregated expenses
+     */
+    LocalDate getDate();
+
+    /**
+     * @return sum of the aggregated amounts
+     */
+    BigDecimal getTotal();
+
+}
@@ -0,0 +1,40 @@
+package com.suyos.tracker.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.suyos.tracker.model.Category;
+
+/**
+ * Projection of the analytic fields of an expense.
+ * 
+ * Used to load a user's history into in-memory analytic structures without
+ * hydrating full entities or their user association.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public interface ExpenseAmountRow {
+
+    /**
+     * @return ID of the expense
+     */
+    Long getId();
+
+    /**
+     * @return amount of the expense
+     */
+    BigDecimal getAmount();
+
+    /**
+     * @return date of the expense
+     */
+    LocalDate getDate();
+
+    /**
+     * @return category of the expense
+     */
+    Category getCategory();
+
+}
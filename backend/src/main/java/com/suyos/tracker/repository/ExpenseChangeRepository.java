@@ -0,0 +1,83 @@
+package com.suyos.tracker.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.suyos.tracker.model.ExpenseChange;
+
+/**
+ * Repository interface for ExpenseChange entity data access operations.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+public interface ExpenseChangeRepository extends JpaRepository<ExpenseChange, Long> {
+
+    /**
+     * Finds the oldest changes not yet relayed.
+     *
+     * @param pageable The number of changes to return
+     * @return Unrelayed changes in insertion order
+     */
+    @Query("SELECT c FROM ExpenseChange c WHERE c.position IS NULL ORDER BY c.id")
+    List<ExpenseChange> findUnrelayed(Pageable pageable);
+
+    /**
+     * Returns the highest position assigned so far.
+     *
+     * @return The highest position, or null if no change was relayed
+     */
+    @Query("SELECT MAX(c.position) FROM ExpenseChange c")
+    Long findMaxPosition();
+
+    /**
+     * Assigns a position to a change that has none yet.
+     *
+     * @param id The ID of the change
+     * @param position The position to assign
+     * @return 1 if assigned, 0 if another relay assigned one first
+     */
+    @Modifying
+    @Query("UPDATE ExpenseChange c SET c.position = :position WHERE c.id = :id AND c.position IS NULL")
+    int assignPosition(@Param("id") Long id, @Param("position") Long position);
+
+    /**
+     * Finds a user's relayed changes after a position.
+     *
+     * @param userId The ID of the user
+     * @param position The last position already processed
+     * @param pageable The number of changes to return
+     * @return Changes in position order
+     */
+    List<ExpenseChange> findByUserIdAndPositionGreaterThanOrderByPositionAsc(Long userId, Long position,
+        Pageable pageable);
+
+    /**
+     * Finds the relayed changes of all users after a position.
+     *
+     * @param position The last position already processed
+     * @param pageable The number of changes to return
+     * @return Changes in position order
+     */
+    List<ExpenseChange> findByPositionGreaterThanOrderByPositionAsc(Long position, Pageable pageable);
+
+    /**
+     * Deletes relayed changes recorded before a cutoff.
+     *
+     * @param cutoff The oldest creation time kept
+     * @return Number of deleted changes
+     */
+    @Modifying
+    @Query("DELETE FROM ExpenseChange c WHERE c.position IS NOT NULL AND c.createdAt < :cutoff")
+    int deleteRelayedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+}
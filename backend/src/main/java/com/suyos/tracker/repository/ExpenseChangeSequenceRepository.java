@@ -0,0 +1,38 @@
+package com.suyos.tracker.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.suyos.tracker.model.ExpenseChangeSequence;
+
+import jakarta.persistence.LockModeType;
+
+/**
+ * Repository interface for ExpenseChangeSequence entity data access operations.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+public interface ExpenseChangeSequenceRepository extends JpaRepository<ExpenseChangeSequence, Long> {
+
+    /**
+     * Reads the sequence row and locks it until the transaction ends.
+     *
+     * A relay holding the lock excludes every other relay of the same
+     * database until it commits or rolls back.
+     *
+     * @param id The ID of the row
+     * @return The locked row, or empty if it was not created yet
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ExpenseChangeSequence s WHERE s.id = :id")
+    Optional<ExpenseChangeSequence> findLockedById(@Param("id") Long id);
+
+}
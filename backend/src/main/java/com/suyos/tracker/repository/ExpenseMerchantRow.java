@@ -0,0 +1,27 @@
+package com.suyos.tracker.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the description and amount of an expense.
+ * 
+ * Used to replay a user's history into their merchant sketch without
+ * hydrating full entities or their user association.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public interface ExpenseMerchantRow {
+
+    /**
+     * @return description of the expense
+     */
+    String getDescription();
+
+    /**
+     * @return amount of the expense
+     */
+    BigDecimal getAmount();
+
+}
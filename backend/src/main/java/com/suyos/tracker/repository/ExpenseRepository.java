@@ -1,16 +1,28 @@
 package com.suyos.tracker.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.suyos.tracker.model.Category;
 import com.suyos.tracker.model.Expense;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository interface for Expense entity data access operations.
  * 
@@ -83,5 +95,178 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
      * @return Optional containing the expense if found and owned by user
      */
     Optional<Expense> findByIdAndUserId(Long id, Long userId);
+    
+    /**
+     * Finds the expenses with the given IDs that belong to a specific user.
+     * 
+     * Issues a single {@code WHERE id IN (...) AND user_id = ?} query, so callers
+     * should bound the size of the ID collection.
+     * 
+     * @param userId The user ID who owns the expenses
+     * @param ids The expense IDs to look up
+     * @return List of matching expenses in no particular order
+     */
+    List<Expense> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+    
+    /**
+     * Aggregates a user's expenses by month and category.
+     * 
+     * Used to rebuild derived per-month data such as rollups from the
+     * source of truth in a single grouped query.
+     * 
+     * @param userId The ID of the user whose expenses to aggregate
+     * @return One total per month and category with at least one expense
+     */
+    @Query("SELECT YEAR(e.date) AS year, MONTH(e.date) AS month, e.category AS category, "
+        + "SUM(e.amount) AS total, COUNT(e) AS count FROM Expense e WHERE e.user.id = :userId "
+        + "GROUP BY YEAR(e.date), MONTH(e.date), e.category")
+    List<MonthlyCategoryTotal> sumByMonthAndCategory(@Param("userId") Long userId);
+    
+    /**
+     * Aggregates a user's expenses by day and category.
+     * 
+     * @param userId The ID of the user whose expenses to aggregate
+     * @return One total per day and category with at least one expense
+     */
+    @Query("SELECT e.date AS date, e.category AS category, SUM(e.amount) AS total, COUNT(e) AS count "
+        + "FROM Expense e WHERE e.user.id = :userId GROUP BY e.date, e.category")
+    List<DailyCategoryTotal> sumByDateAndCategory(@Param("userId") Long userId);
+    
+    /**
+     * Sums a user's expenses per day within a date range.
+     * 
+     * @param userId The ID of the user whose expenses to aggregate
+     * @param startDate The first date (inclusive)
+     * @param endDate The last date (inclusive)
+     * @return One row per day with expenses, in no particular order
+     */
+    @Query("SELECT e.date AS date, SUM(e.amount) AS total FROM Expense e "
+        + "WHERE e.user.id = :userId AND e.date BETWEEN :startDate AND :endDate GROUP BY e.date")
+    List<DailyTotal> sumByDateBetween(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate);
+    
+    /**
+     * Retrieves the analytic fields of all expenses of a user.
+     * 
+     * Selects only ID, amount, date and category so that in-memory analytic
+     * structures can be loaded without hydrating entities.
+     * 
+     * @param userId The ID of the user whose expenses to retrieve
+     * @return One row per expense in no particular order
+     */
+    @Query("SELECT e.id AS id, e.amount AS amount, e.date AS date, e.category AS category "
+        + "FROM Expense e WHERE e.user.id = :userId")
+    List<ExpenseAmountRow> findAmountRowsByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Retrieves the description and amount of all of a user's expenses.
+     * 
+     * Used to replay the user's history into their merchant sketch.
+     * 
+     * @param userId The ID of the user whose expenses to retrieve
+     * @return One row per expense in no particular order
+     */
+    @Query("SELECT e.description AS description, e.amount AS amount FROM Expense e WHERE e.user.id = :userId")
+    List<ExpenseMerchantRow> findMerchantRowsByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Retrieves the analytic fields of a user's expenses within a date range.
+     * 
+     * @param userId The ID of the user whose expenses to retrieve
+     * @param startDate The start date (inclusive)
+     * @param endDate The end date (inclusive)
+     * @return One row per matching expense in no particular order
+     */
+    @Query("SELECT e.id AS id, e.amount AS amount, e.date AS date, e.category AS category "
+        + "FROM Expense e WHERE e.user.id = :userId AND e.date BETWEEN :startDate AND :endDate")
+    List<ExpenseAmountRow> findAmountRowsByUserIdAndDateBetween(@Param("userId") Long userId,
+        @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    /**
+     * Streams the owner, category and amount of the expenses of a range of users within a date range.
+     * 
+     * Rows are ordered by user so consumers can aggregate one user at a time,
+     * and fetched in batches rather than materialized as a list. Must be
+     * called within a transaction and the stream closed after use.
+     * 
+     * @param fromUserId The first user ID (inclusive)
+     * @param toUserId The last user ID (inclusive)
+     * @param startDate The start date (inclusive)
+     * @param endDate The end date (inclusive)
+     * @return Stream of rows ordered by user ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT e.user.id AS userId, e.category AS category, e.amount AS amount FROM Expense e "
+        + "WHERE e.user.id BETWEEN :fromUserId AND :toUserId AND e.date BETWEEN :startDate AND :endDate "
+        + "ORDER BY e.user.id")
+    Stream<UserAmountRow> streamAmountsByUserIdBetween(@Param("fromUserId") Long fromUserId,
+        @Param("toUserId") Long toUserId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    /**
+     * Clears the anomaly flag of all expenses of a user.
+     * 
+     * @param userId The ID of the user
+     * @return Number of expenses that were flagged
+     */
+    @Modifying
+    @Query("UPDATE Expense e SET e.anomalous = false WHERE e.user.id = :userId AND e.anomalous = true")
+    int clearAnomalousByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Flags expenses of a user as anomalous.
+     * 
+     * @param userId The ID of the user owning the expenses
+     * @param ids The IDs of the expenses to flag
+     * @return Number of flagged expenses
+     */
+    @Modifying
+    @Query("UPDATE Expense e SET e.anomalous = true WHERE e.user.id = :userId AND e.id IN :ids")
+    int markAnomalousByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+    
+    /**
+     * Finds the oldest expenses of a user dated before a cutoff.
+     * 
+     * @param userId The ID of the user
+     * @param cutoff The first date not returned
+     * @param pageable The number of expenses to return and their order
+     * @return Expenses dated before the cutoff
+     */
+    List<Expense> findByUserIdAndDateBefore(Long userId, LocalDate cutoff, Pageable pageable);
+    
+    /**
+     * Finds and write-locks the oldest expenses of a user dated before a cutoff.
+     * 
+     * The locks keep the expenses from changing until the transaction ends,
+     * so a copy of them taken in the transaction stays current.
+     * 
+     * @param userId The ID of the user
+     * @param cutoff The first date not returned
+     * @param pageable The number of expenses to return and their order
+     * @return Expenses dated before the cutoff
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Expense> findLockedByUserIdAndDateBefore(Long userId, LocalDate cutoff, Pageable pageable);
+    
+    /**
+     * Finds and write-locks the expenses among the given IDs that still exist.
+     * 
+     * Waits for transactions holding locks on them, so the result reflects
+     * their outcome.
+     * 
+     * @param ids The IDs of the expenses
+     * @return Existing expenses
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Expense> findLockedByIdIn(Collection<Long> ids);
+    
+    /**
+     * Deletes expenses by ID without loading them.
+     * 
+     * @param ids The IDs of the expenses to delete
+     * @return Number of deleted expenses
+     */
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
         
-}
\ No newline at end of file
+}
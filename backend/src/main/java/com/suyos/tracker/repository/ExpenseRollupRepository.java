@@ -0,0 +1,72 @@
+package com.suyos.tracker.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.ExpenseRollup;
+
+/**
+ * Repository interface for ExpenseRollup entity data access operations.
+ * 
+ * Provides the delta upsert used to maintain rollups on every expense write
+ * and the range lookup that serves spending summaries.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+public interface ExpenseRollupRepository extends JpaRepository<ExpenseRollup, Long>, ExpenseRollupUpserts {
+
+    /**
+     * Finds a user's rollups within a month range.
+     * 
+     * Served by the unique (user_id, year_month, category) index.
+     * 
+     * @param userId The ID of the user whose rollups to retrieve
+     * @param fromYearMonth The first month (inclusive) encoded as yyyyMM
+     * @param toYearMonth The last month (inclusive) encoded as yyyyMM
+     * @return Rollups ordered by month and category
+     */
+    List<ExpenseRollup> findByUserIdAndYearMonthBetweenOrderByYearMonthAscCategoryAsc(Long userId,
+        Integer fromYearMonth, Integer toYearMonth);
+
+    /**
+     * Finds a user's rollup of one month and category.
+     * 
+     * @param userId The ID of the user owning the rollup
+     * @param yearMonth The month encoded as yyyyMM
+     * @param category The expense category
+     * @return Optional containing the rollup if the month and category had expenses
+     */
+    Optional<ExpenseRollup> findByUserIdAndYearMonthAndCategory(Long userId, Integer yearMonth, Category category);
+
+    /**
+     * Sums all rollups of a user.
+     * 
+     * @param userId The ID of the user whose rollups to sum
+     * @return Expense count and total cents, zero if the user has no rollups
+     */
+    @Query("SELECT COALESCE(SUM(r.expenseCount), 0) AS expenseCount, COALESCE(SUM(r.totalCents), 0) AS totalCents "
+        + "FROM ExpenseRollup r WHERE r.userId = :userId")
+    RollupTotals sumByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes all rollups of a user.
+     * 
+     * Used by the backfill before rebuilding the user's rollups from expenses.
+     * 
+     * @param userId The ID of the user whose rollups to delete
+     */
+    @Modifying
+    @Query("DELETE FROM ExpenseRollup r WHERE r.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+
+}
@@ -0,0 +1,31 @@
+package com.suyos.tracker.repository;
+
+import com.suyos.tracker.model.Category;
+
+/**
+ * Rollup upsert of {@link ExpenseRollupRepository}.
+ *
+ * Written by hand because neither JPQL nor derived queries can express an
+ * upsert, and its SQL differs between MySQL and H2.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public interface ExpenseRollupUpserts {
+
+    /**
+     * Adds a delta to a rollup row, creating the row if it does not exist.
+     *
+     * One statement, so concurrent first writes to the same (user, month,
+     * category) both count instead of one failing on the unique key.
+     *
+     * @param userId The ID of the user owning the rollup
+     * @param yearMonth The month encoded as yyyyMM
+     * @param category The expense category
+     * @param centsDelta Amount in cents to add (negative to subtract)
+     * @param countDelta Number of expenses to add (negative to subtract)
+     */
+    void upsertDelta(Long userId, Integer yearMonth, Category category, long centsDelta, long countDelta);
+
+}
@@ -0,0 +1,66 @@
+package com.suyos.tracker.repository;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import com.suyos.tracker.model.Category;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * SQL implementation of {@link ExpenseRollupUpserts}.
+ *
+ * Uses {@code INSERT ... ON DUPLICATE KEY UPDATE} on MySQL and the
+ * standard {@code MERGE} elsewhere (H2 in tests). Runs through the
+ * persistence context, so it joins the transaction of the expense write.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public class ExpenseRollupUpsertsImpl implements ExpenseRollupUpserts {
+
+    /** Upsert on MySQL, where the unique key resolves the conflict atomically */
+    private static final String MYSQL_UPSERT = "INSERT INTO expense_rollups "
+        + "(user_id, `year_month`, category, total_cents, count) VALUES (:userId, :yearMonth, :category, :cents, :count) "
+        + "ON DUPLICATE KEY UPDATE total_cents = total_cents + :cents, count = count + :count";
+
+    /** Standard upsert; the casts type the bound values of the source row */
+    private static final String MERGE_UPSERT = "MERGE INTO expense_rollups r USING (VALUES (CAST(:userId AS BIGINT), "
+        + "CAST(:yearMonth AS INTEGER), CAST(:category AS VARCHAR(32)), CAST(:cents AS BIGINT), "
+        + "CAST(:count AS BIGINT))) AS d(user_id, ym, category, cents, cnt) "
+        + "ON r.user_id = d.user_id AND r.\"year_month\" = d.ym AND r.category = d.category "
+        + "WHEN MATCHED THEN UPDATE SET total_cents = r.total_cents + d.cents, count = r.count + d.cnt "
+        + "WHEN NOT MATCHED THEN INSERT (user_id, \"year_month\", category, total_cents, count) "
+        + "VALUES (d.user_id, d.ym, d.category, d.cents, d.cnt)";
+
+    /** Persistence context of the current transaction */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Upsert statement of the database, resolved on first use */
+    private volatile String upsert;
+
+    @Override
+    public void upsertDelta(Long userId, Integer yearMonth, Category category, long centsDelta, long countDelta) {
+        entityManager.createNativeQuery(upsert())
+            .setParameter("userId", userId)
+            .setParameter("yearMonth", yearMonth)
+            .setParameter("category", category.name())
+            .setParameter("cents", centsDelta)
+            .setParameter("count", countDelta)
+            .executeUpdate();
+    }
+
+    private String upsert() {
+        if (upsert == null) {
+            Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+            upsert = dialect instanceof MySQLDialect ? MYSQL_UPSERT : MERGE_UPSERT;
+        }
+        return upsert;
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.suyos.tracker.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.suyos.tracker.model.MerchantSketch;
+
+/**
+ * Repository interface for MerchantSketch entity data access operations.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+public interface MerchantSketchRepository extends JpaRepository<MerchantSketch, Long> {
+
+    /**
+     * Finds the persisted merchant sketch of a user.
+     * 
+     * @param userId The ID of the user
+     * @return Optional containing the sketch if one was written
+     */
+    Optional<MerchantSketch> findByUserId(Long userId);
+
+}
@@ -0,0 +1,44 @@
+package com.suyos.tracker.repository;
+
+import java.math.BigDecimal;
+
+import com.suyos.tracker.model.Category;
+
+/**
+ * Projection of an aggregate over a user's expenses for one month and category.
+ * 
+ * Returned by grouped queries on {@link ExpenseRepository} that rebuild
+ * derived data such as rollups from the expenses table.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public interface MonthlyCategoryTotal {
+
+    /**
+     * @return calendar year of the aggregated expenses
+     */
+    Integer getYear();
+
+    /**
+     * @return calendar month (1-12) of the aggregated expenses
+     */
+    Integer getMonth();
+
+    /**
+     * @return category of the aggregated expenses
+     */
+    Category getCategory();
+
+    /**
+     * @return sum of the expense amounts
+     */
+    BigDecimal getTotal();
+
+    /**
+     * @return number of aggregated expenses
+     */
+    Long getCount();
+
+}
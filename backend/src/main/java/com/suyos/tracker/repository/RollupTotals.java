@@ -0,0 +1,22 @@
+package com.suyos.tracker.repository;
+
+/**
+ * Projection of the summed rollups of a user.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public interface RollupTotals {
+
+    /**
+     * @return number of expenses over all months and categories
+     */
+    Long getExpenseCount();
+
+    /**
+     * @return total amount in cents over all months and categories
+     */
+    Long getTotalCents();
+
+}
@@ -0,0 +1,34 @@
+package com.suyos.tracker.repository;
+
+import java.math.BigDecimal;
+
+import com.suyos.tracker.model.Category;
+
+/**
+ * Projection of the owner, category and amount of an expense.
+ * 
+ * Used by population-wide batch jobs that stream expenses of many users
+ * without hydrating entities.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public interface UserAmountRow {
+
+    /**
+     * @return ID of the user owning the expense
+     */
+    Long getUserId();
+
+    /**
+     * @return category of the expense
+     */
+    Category getCategory();
+
+    /**
+     * @return amount of the expense
+     */
+    BigDecimal getAmount();
+
+}
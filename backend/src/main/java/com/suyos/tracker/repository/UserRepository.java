@@ -1,6 +1,7 @@
 package com.suyos.tracker.repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -66,6 +67,33 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     boolean existsByUsername(String username);
     
+    /**
+     * Retrieves the IDs of all users.
+     * 
+     * Used by maintenance jobs that process data user by user
+     * without loading full user entities.
+     * 
+     * @return List of all user IDs in ascending order
+     */
+    @Query("SELECT u.id FROM User u ORDER BY u.id")
+    List<Long> findAllIds();
+    
+    /**
+     * Finds the smallest user ID.
+     * 
+     * @return The smallest user ID, or null if there are no users
+     */
+    @Query("SELECT MIN(u.id) FROM User u")
+    Long findMinId();
+    
+    /**
+     * Finds the largest user ID.
+     * 
+     * @return The largest user ID, or null if there are no users
+     */
+    @Query("SELECT MAX(u.id) FROM User u")
+    Long findMaxId();
+    
     /**
      * Finds an active user by email address.
      * 
@@ -0,0 +1,345 @@
+package com.suyos.tracker.service;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.suyos.tracker.dto.BudgetAlertDTO;
+import com.suyos.tracker.dto.BudgetDTO;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Budget;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.ExpenseRollup;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.repository.BudgetRepository;
+import com.suyos.tracker.repository.ExpenseRollupRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service class managing monthly category budgets and checking expense
+ * writes against them.
+ *
+ * Each write is evaluated before its change event is published, against
+ * the committed total of the written month and category. That total is read
+ * from the {@link OffHeapRollupStore}, which seeds a user's running totals
+ * from the rollup table once and keeps them current on every committed
+ * write, so a check costs a constant-time lookup instead of a SUM over the
+ * expenses table. Months outside the off-heap window fall back to a single
+ * rollup row lookup. Writes made earlier in the same transaction, such as
+ * the other creations of a coalesced batch, are added to that total, so a
+ * threshold crossed by their combined amount is reported by the write that
+ * crosses it. The limits themselves are cached per user and dropped
+ * whenever a budget changes.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class BudgetService {
+
+    /** Number of categories */
+    private static final int CATEGORY_COUNT = Category.values().length;
+
+    /** Repository for budget data access operations */
+    private final BudgetRepository budgetRepository;
+
+    /** Repository for rollup data access operations */
+    private final ExpenseRollupRepository expenseRollupRepository;
+
+    /** Running monthly totals per user and category */
+    private final OffHeapRollupStore offHeapRollupStore;
+
+    /** Upper bound on the memory held by cached limits */
+    @Value("${tracker.budgets.max-bytes:16777216}")
+    private long maxBytes = 16L * 1024 * 1024;
+
+    /** Percentages of a limit that raise an alert when a write reaches them */
+    @Value("${tracker.budgets.thresholds:50,80,100}")
+    private int[] thresholds = {50, 80, 100};
+
+    /** Key the current transaction's uncommitted spending is bound under */
+    private final Object uncommittedKey = new Object();
+
+    /** Cached limits in cents per user, by category ordinal (0 for no budget) */
+    private final UserStateCache<AtomicLongArray> limits =
+        new UserStateCache<>("budgets", () -> maxBytes, this::loadLimits, BudgetService::estimatedBytes);
+
+    /**
+     * Retrieves a user's budgets with their usage in the current month.
+     *
+     * @param userId ID of the user
+     * @return budgets ordered by category
+     */
+    @Transactional(readOnly = true)
+    public List<BudgetDTO> getBudgets(Long userId) {
+        YearMonth month = YearMonth.now();
+        return budgetRepository.findByUserIdOrderByCategoryAsc(userId).stream()
+            .map(budget -> toDTO(budget, monthTotalCents(userId, month, budget.getCategory())))
+            .toList();
+    }
+
+    /**
+     * Retrieves a user's budget for one category with its usage in the current month.
+     *
+     * @param userId ID of the user
+     * @param category the budgeted category
+     * @return the budget
+     * @throws RuntimeException if the user has no budget for the category
+     */
+    @Transactional(readOnly = true)
+    public BudgetDTO getBudget(Long userId, Category category) {
+        Budget budget = budgetRepository.findByUserIdAndCategory(userId, category)
+            .orElseThrow(() -> new RuntimeException("Budget not found for category: " + category));
+        return toDTO(budget, monthTotalCents(userId, YearMonth.now(), category));
+    }
+
+    /**
+     * Creates or replaces a user's budget for one category.
+     *
+     * @param userId ID of the user
+     * @param category the budgeted category
+     * @param budgetDTO the budget data; only the monthly limit is used
+     * @return the saved budget
+     */
+    public BudgetDTO setBudget(Long userId, Category category, BudgetDTO budgetDTO) {
+        Budget budget = budgetRepository.findByUserIdAndCategory(userId, category)
+            .orElseGet(() -> Budget.builder().userId(userId).category(category).build());
+        budget.setMonthlyLimit(budgetDTO.getMonthlyLimit());
+        Budget saved = budgetRepository.save(budget);
+
+        // Reload the user's limits once the change is visible
+        invalidateAfterCommit(userId);
+        return toDTO(saved, monthTotalCents(userId, YearMonth.now(), category));
+    }
+
+    /**
+     * Deletes a user's budget for one category.
+     *
+     * @param userId ID of the user
+     * @param category the budgeted category
+     * @throws RuntimeException if the user has no budget for the category
+     */
+    public void deleteBudget(Long userId, Category category) {
+        Budget budget = budgetRepository.findByUserIdAndCategory(userId, category)
+            .orElseThrow(() -> new RuntimeException("Budget not found for category: " + category));
+        budgetRepository.delete(budget);
+
+        // Reload the user's limits once the change is visible
+        invalidateAfterCommit(userId);
+    }
+
+    /**
+     * Checks an expense write against the budget of the written category.
+     *
+     * Must be called before the write's change event is published, so the
+     * running total still holds the committed spending without this write.
+     * Spending checked earlier in the same transaction is added to it.
+     * Reports the highest threshold the write moved the month's spending to
+     * or past; writes that stay below a threshold, lower spending or touch a
+     * category without a budget report nothing.
+     *
+     * @param userId ID of the user
+     * @param before the expense before the write, or null for a create
+     * @param after the expense after the write, or null for a delete
+     * @return the crossed threshold, or an empty list
+     */
+    public List<BudgetAlertDTO> evaluate(Long userId, ExpenseSnapshot before, ExpenseSnapshot after) {
+        if (after == null) {
+            return List.of();
+        }
+        Category category = after.getCategory();
+        YearMonth month = YearMonth.from(after.getDate());
+        long pending = recordUncommitted(userId, before, after, month, category);
+        long limit = limits.get(userId).get(category.ordinal());
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        // The rollup row already holds this transaction's writes; the off-heap total only committed ones
+        OptionalLong committed = offHeapRollupStore.getMonthTotalCents(userId, month, category);
+        long previous = committed.isPresent() ? committed.getAsLong() + pending : rollupTotalCents(userId, month,
+            category);
+        long current = previous + Money.toCents(after.getAmount());
+        if (before != null && before.getCategory() == category && YearMonth.from(before.getDate()).equals(month)) {
+            current -= Money.toCents(before.getAmount());
+        }
+
+        int crossed = highestCrossed(previous, current, limit);
+        if (crossed == 0) {
+            return List.of();
+        }
+        log.debug("User {} reached {}% of the {} budget for {}", userId, crossed, category, month);
+        return List.of(BudgetAlertDTO.builder()
+            .category(category)
+            .month(month)
+            .threshold(crossed)
+            .monthlyLimit(Money.toBigDecimal(limit))
+            .spent(Money.toBigDecimal(current))
+            .percentUsed(percentOf(current, limit))
+            .build());
+    }
+
+    /**
+     * Returns the highest threshold that lies above the previous total and
+     * at or below the current one.
+     *
+     * @return the threshold percentage, or 0 if none was crossed
+     */
+    private int highestCrossed(long previous, long current, long limit) {
+        int crossed = 0;
+        for (int threshold : thresholds) {
+            long boundary = limit * threshold;
+            if (previous * 100 < boundary && current * 100 >= boundary) {
+                crossed = Math.max(crossed, threshold);
+            }
+        }
+        return crossed;
+    }
+
+    /**
+     * Adds a write to the current transaction's uncommitted spending.
+     *
+     * @return the uncommitted spending of the written month and category
+     *         before this write, or 0 outside a transaction
+     */
+    private long recordUncommitted(Long userId, ExpenseSnapshot before, ExpenseSnapshot after, YearMonth month,
+        Category category) {
+        Map<Long, Map<Long, Long>> uncommitted = uncommittedSpending();
+        if (uncommitted == null) {
+            return 0;
+        }
+        Map<Long, Long> cells = uncommitted.computeIfAbsent(userId, id -> new HashMap<>());
+        long cell = cellKey(month, category);
+        long pending = cells.getOrDefault(cell, 0L);
+        cells.merge(cell, Money.toCents(after.getAmount()), Long::sum);
+        if (before != null) {
+            cells.merge(cellKey(YearMonth.from(before.getDate()), before.getCategory()),
+                -Money.toCents(before.getAmount()), Long::sum);
+        }
+        return pending;
+    }
+
+    /**
+     * Returns the spending written so far by the current transaction, by
+     * user and month/category cell, binding it on first use.
+     *
+     * @return the uncommitted spending, or null outside a transaction
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Long, Map<Long, Long>> uncommittedSpending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<Long, Map<Long, Long>> uncommitted =
+            (Map<Long, Map<Long, Long>>) TransactionSynchronizationManager.getResource(uncommittedKey);
+        if (uncommitted != null) {
+            return uncommitted;
+        }
+        Map<Long, Map<Long, Long>> bound = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(uncommittedKey, bound);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(uncommittedKey);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(uncommittedKey, bound);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(uncommittedKey);
+            }
+        });
+        return bound;
+    }
+
+    private static long cellKey(YearMonth month, Category category) {
+        return (long) ExpenseRollupService.toYearMonthKey(month) * CATEGORY_COUNT + category.ordinal();
+    }
+
+    /**
+     * Returns a user's committed spending in one month and category.
+     */
+    private long monthTotalCents(Long userId, YearMonth month, Category category) {
+        return offHeapRollupStore.getMonthTotalCents(userId, month, category)
+            .orElseGet(() -> rollupTotalCents(userId, month, category));
+    }
+
+    /**
+     * Returns a user's spending in one month and category from the rollup row.
+     */
+    private long rollupTotalCents(Long userId, YearMonth month, Category category) {
+        return expenseRollupRepository
+            .findByUserIdAndYearMonthAndCategory(userId, ExpenseRollupService.toYearMonthKey(month), category)
+            .map(ExpenseRollup::getTotalCents)
+            .orElse(0L);
+    }
+
+    /**
+     * Loads a user's limits from the budgets table.
+     *
+     * @param userId ID of the user
+     * @return limits in cents by category ordinal
+     */
+    private AtomicLongArray loadLimits(Long userId) {
+        AtomicLongArray loaded = new AtomicLongArray(CATEGORY_COUNT);
+        for (Budget budget : budgetRepository.findByUserIdOrderByCategoryAsc(userId)) {
+            loaded.set(budget.getCategory().ordinal(), Money.toCents(budget.getMonthlyLimit()));
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops a user's cached limits after the current transaction commits,
+     * or immediately without a transaction.
+     */
+    private void invalidateAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            limits.invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                limits.invalidate(userId);
+            }
+        });
+    }
+
+    private BudgetDTO toDTO(Budget budget, long spentCents) {
+        long limit = Money.toCents(budget.getMonthlyLimit());
+        return BudgetDTO.builder()
+            .category(budget.getCategory())
+            .monthlyLimit(budget.getMonthlyLimit())
+            .spent(Money.toBigDecimal(spentCents))
+            .percentUsed(percentOf(spentCents, limit))
+            .build();
+    }
+
+    private static double percentOf(long cents, long limitCents) {
+        return limitCents > 0 ? Math.round(cents * 1000.0 / limitCents) / 10.0 : 0;
+    }
+
+    private static long estimatedBytes(AtomicLongArray limits) {
+        return 32 + (long) limits.length() * Long.BYTES;
+    }
+
+}
@@ -6,9 +6,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.suyos.tracker.model.User;
 import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.sharding.ShardContext;
+import com.suyos.tracker.sharding.ShardMap;
 
 import lombok.RequiredArgsConstructor;
 
@@ -29,6 +32,9 @@ public class CustomUserDetailsService implements UserDetailsService {
     /** Repository for user data access */
     private final UserRepository userRepository;
 
+    /** Directory of the shards holding the accounts */
+    private final ShardMap shardMap;
+
     /**
      * Loads user details by email for authentication.
      * 
@@ -37,9 +43,14 @@ public class CustomUserDetailsService implements UserDetailsService {
      * @throws UsernameNotFoundException if user not found
      */
     @Override
+    @Transactional // Read-write, so credentials and lock state never come from a lagging replica
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findActiveUserByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
+        User user;
+        // Not authenticated yet, so the account's shard is bound explicitly
+        try (ShardContext.Scope scope = shardMap.bindShard(shardMap.shardOfEmail(email))) {
+            user = userRepository.findActiveUserByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
+        }
 
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getEmail())
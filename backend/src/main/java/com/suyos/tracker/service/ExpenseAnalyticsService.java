@@ -0,0 +1,148 @@
+package com.suyos.tracker.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import com.suyos.tracker.analytics.AggregationKernels;
+import com.suyos.tracker.dto.CategoryStatisticsDTO;
+import com.suyos.tracker.dto.CategoryTotalDTO;
+import com.suyos.tracker.dto.ExpenseTotalDTO;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Money;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Service answering analytic queries over a user's full expense history.
+ * 
+ * Scans run against the {@link ExpenseColumnStore} as single passes of the
+ * {@link AggregationKernels} over primitive arrays, range totals against the
+ * {@link ExpenseRangeSumIndex} in logarithmic time, and distribution
+ * statistics against the mergeable {@link ExpenseQuantileSketches}, so
+ * repeated queries over a user's history neither hit the database nor
+ * allocate per expense.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseAnalyticsService {
+
+    /** Percentiles reported by the statistics endpoint */
+    private static final int[] PERCENTILES = {25, 50, 75, 90, 95, 99};
+
+    /** Columnar cache of user expense histories */
+    private final ExpenseColumnStore expenseColumnStore;
+
+    /** Kernels aggregating the columnar store's arrays */
+    private final AggregationKernels aggregationKernels;
+
+    /** Range-sum index of user daily spending */
+    private final ExpenseRangeSumIndex expenseRangeSumIndex;
+
+    /** Quantile sketches of user expense amounts */
+    private final ExpenseQuantileSketches expenseQuantileSketches;
+
+    /**
+     * Computes a user's spending per category within an optional date range.
+     * 
+     * @param userId ID of the user
+     * @param startDate first date (inclusive), or null for no lower bound
+     * @param endDate last date (inclusive), or null for no upper bound
+     * @return one total per category with at least one expense, in category order
+     */
+    public List<CategoryTotalDTO> getCategoryTotals(Long userId, LocalDate startDate, LocalDate endDate) {
+        int from = startDate != null ? (int) startDate.toEpochDay() : Integer.MIN_VALUE;
+        int to = endDate != null ? (int) endDate.toEpochDay() : Integer.MAX_VALUE;
+        int categoryCount = Category.values().length;
+
+        long[][] totals = expenseColumnStore.query(userId, (ids, cents, epochDays, categories, size) -> {
+            long[] sums = new long[categoryCount];
+            long[] counts = new long[categoryCount];
+            aggregationKernels.sumByCategory(cents, epochDays, categories, size, from, to, sums, counts);
+            return new long[][] {sums, counts};
+        });
+
+        List<CategoryTotalDTO> result = new ArrayList<>();
+        for (Category category : Category.values()) {
+            long count = totals[1][category.ordinal()];
+            if (count > 0) {
+                result.add(CategoryTotalDTO.builder()
+                    .category(category)
+                    .total(Money.toBigDecimal(totals[0][category.ordinal()]))
+                    .count(count)
+                    .build());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes a user's spending within an optional date range.
+     * 
+     * @param userId ID of the user
+     * @param startDate first date (inclusive), or null for no lower bound
+     * @param endDate last date (inclusive), or null for no upper bound
+     * @param category category to total, or null for all categories
+     * @return the total spent within the range
+     */
+    public ExpenseTotalDTO getRangeTotal(Long userId, LocalDate startDate, LocalDate endDate, Category category) {
+        long cents = expenseRangeSumIndex.sumCents(userId, startDate, endDate, category);
+        return ExpenseTotalDTO.builder()
+            .startDate(startDate)
+            .endDate(endDate)
+            .category(category)
+            .total(Money.toBigDecimal(cents))
+            .build();
+    }
+
+    /**
+     * Computes the distribution of a user's expense amounts per category over a month range.
+     * 
+     * Merges one quantile sketch per month and category, so the cost depends
+     * on the number of months rather than the number of expenses.
+     * 
+     * @param userId ID of the user
+     * @param from first month (inclusive)
+     * @param to last month (inclusive)
+     * @param category category to describe, or null for every category
+     * @return statistics per category with at least one expense, in category order
+     */
+    public List<CategoryStatisticsDTO> getCategoryStatistics(Long userId, YearMonth from, YearMonth to, Category category) {
+        double[] fractions = new double[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            fractions[i] = PERCENTILES[i] / 100.0;
+        }
+
+        List<CategoryStatisticsDTO> result = new ArrayList<>();
+        expenseQuantileSketches.merge(userId, from, to, category).forEach((key, sketch) -> {
+            long[] quantiles = sketch.getQuantiles(fractions);
+            Map<String, BigDecimal> percentiles = new LinkedHashMap<>();
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                percentiles.put("p" + PERCENTILES[i], Money.toBigDecimal(quantiles[i]));
+            }
+            result.add(CategoryStatisticsDTO.builder()
+                .category(key)
+                .count(sketch.getCount())
+                .min(Money.toBigDecimal(sketch.getMin()))
+                .max(Money.toBigDecimal(sketch.getMax()))
+                .mean(Money.toBigDecimal(sketch.getSum()).divide(BigDecimal.valueOf(sketch.getCount()),
+                    Money.SCALE, RoundingMode.HALF_EVEN))
+                .percentiles(percentiles)
+                .rankError(sketch.getNormalizedRankError())
+                .build());
+        });
+        return result;
+    }
+
+}
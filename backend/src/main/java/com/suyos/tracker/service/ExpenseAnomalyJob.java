@@ -0,0 +1,54 @@
+package com.suyos.tracker.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scheduled jobs maintaining the anomaly baselines.
+ * 
+ * Changed baselines are persisted every {@code tracker.anomalies.persist-interval}.
+ * All expenses are rescored from history on {@code tracker.anomalies.rescore-cron}
+ * (nightly by default; "-" disables it), which also repairs baselines that
+ * missed changes before a restart.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpenseAnomalyJob {
+
+    /** Service holding the baselines */
+    private final ExpenseAnomalyService expenseAnomalyService;
+
+    /**
+     * Persists the baselines changed since the previous run.
+     */
+    @Scheduled(initialDelayString = "${tracker.anomalies.persist-interval:PT5M}",
+        fixedDelayString = "${tracker.anomalies.persist-interval:PT5M}")
+    public void persist() {
+        try {
+            expenseAnomalyService.persistDirty();
+        } catch (RuntimeException e) {
+            log.error("Persisting anomaly baselines failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Rebuilds all baselines and rescores every expense.
+     */
+    @Scheduled(cron = "${tracker.anomalies.rescore-cron:0 30 3 * * *}")
+    public void rescore() {
+        try {
+            expenseAnomalyService.rescoreAll();
+        } catch (RuntimeException e) {
+            log.error("Rescoring expenses failed", e);
+        }
+    }
+
+}
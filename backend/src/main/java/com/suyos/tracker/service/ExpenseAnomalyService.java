@@ -0,0 +1,435 @@
+package com.suyos.tracker.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.suyos.tracker.analytics.AmountDistribution;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.AnomalyBaseline;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.repository.AnomalyBaselineRepository;
+import com.suyos.tracker.repository.ExpenseAmountRow;
+import com.suyos.tracker.repository.ExpenseRepository;
+import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.sharding.ShardContext;
+import com.suyos.tracker.sharding.ShardMap;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service flagging expense amounts that are unusually high for a user and category.
+ *
+ * Each user's baseline holds one {@link AmountDistribution} per category
+ * (mean and variance plus a median/MAD histogram) and is updated in place by
+ * committed expense changes. Writes are scored against the cached baseline
+ * with the modified z-score, which the median and MAD keep robust to the
+ * outliers being detected; scoring costs a bounded histogram scan and no
+ * query. A write for a user without a cached baseline is not flagged and
+ * loads the baseline in the background for the next write.
+ *
+ * Baselines of changed users are persisted periodically to the
+ * anomaly_baselines table and loaded from there, falling back to replaying
+ * the user's history. Changes made after the last persist are lost if the
+ * process stops uncleanly or the baseline is evicted; {@link #rescoreAll()}
+ * rebuilds every baseline from history and corrects the stored flags.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseAnomalyService {
+
+    /** Number of categories */
+    private static final int CATEGORY_COUNT = Category.values().length;
+
+    /** Maximum number of IDs bound into a single flag update */
+    private static final int FLAG_BATCH_SIZE = 500;
+
+    /** Repository for expense data access operations */
+    private final ExpenseRepository expenseRepository;
+
+    /** Repository for persisted baselines */
+    private final AnomalyBaselineRepository anomalyBaselineRepository;
+
+    /** Repository for user data access operations */
+    private final UserRepository userRepository;
+
+    /** Transaction manager for persistence and rescoring */
+    private final PlatformTransactionManager transactionManager;
+
+    /** Directory of the users' shards, bound around background work */
+    private final ShardMap shardMap;
+
+    /** Upper bound on the memory held by cached baselines */
+    @Value("${tracker.anomalies.max-bytes:67108864}")
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /** Modified z-score at or above which an amount is flagged */
+    @Value("${tracker.anomalies.threshold:3.5}")
+    private double threshold = 3.5;
+
+    /** Fewest earlier expenses in a category before its amounts are scored */
+    @Value("${tracker.anomalies.min-samples:10}")
+    private long minSamples = 10;
+
+    /** Worker threads of the rescoring job; 0 uses one per available processor */
+    @Value("${tracker.anomalies.rescore-parallelism:0}")
+    private int parallelism;
+
+    /** Cached baselines per user */
+    private final UserStateCache<UserBaseline> cache =
+        new UserStateCache<>("anomalies", () -> maxBytes, this::load, UserBaseline::estimatedBytes);
+
+    /** Users whose cached baseline changed since it was last persisted */
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    /** Users whose baseline is being loaded in the background */
+    private final Set<Long> loading = ConcurrentHashMap.newKeySet();
+
+    /** Single background thread loading baselines missed by writes */
+    private final ExecutorService loaderThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "anomaly-baseline-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Executor of background loads */
+    private Executor loader = loaderThread;
+
+    /**
+     * Scores an amount against the user's baseline for the category.
+     *
+     * Never queries the database: without a cached baseline the amount is
+     * not flagged and the baseline is loaded in the background.
+     *
+     * @param userId ID of the user
+     * @param category category of the expense
+     * @param amount amount of the expense
+     * @return true if the amount is unusually high
+     */
+    public boolean isAnomalous(Long userId, Category category, BigDecimal amount) {
+        UserBaseline baseline = cache.getIfPresent(userId);
+        if (baseline == null) {
+            loadInBackground(userId);
+            return false;
+        }
+        return baseline.isAnomalous(category, Money.toCents(amount), minSamples, threshold);
+    }
+
+    /**
+     * Applies an expense change, once committed, to the user's cached baseline.
+     *
+     * @param event the expense change
+     */
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        Long userId = event.getUserId();
+        cache.update(userId, baseline -> {
+            baseline.apply(event);
+            dirty.add(userId);
+        });
+    }
+
+    /**
+     * Writes the baselines of users changed since the last call.
+     *
+     * @return number of users written
+     */
+    public int persistDirty() {
+        int written = 0;
+        for (Long userId : List.copyOf(dirty)) {
+            dirty.remove(userId);
+            UserBaseline baseline = cache.getIfPresent(userId);
+            if (baseline != null) {
+                try {
+                    write(userId, baseline.encode(userId));
+                } catch (RuntimeException e) {
+                    dirty.add(userId);
+                    throw e;
+                }
+                written++;
+            }
+        }
+        if (written > 0) {
+            log.debug("Persisted anomaly baselines of {} users", written);
+        }
+        return written;
+    }
+
+    /**
+     * Rebuilds every user's baseline from history and rescores all expenses.
+     *
+     * Users are processed by a parallel stream on a dedicated fork-join pool,
+     * each in its own transaction. Every expense is scored against the rest
+     * of its category, so old expenses are judged by the same rule as new ones.
+     *
+     * @return number of expenses flagged
+     */
+    public long rescoreAll() {
+        List<Long> userIds = shardMap.onEachShard(userRepository::findAllIds).stream()
+            .flatMap(List::stream)
+            .toList();
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        long started = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long flagged;
+        try {
+            flagged = pool.submit(() -> userIds.parallelStream().mapToLong(this::rescore).sum()).join();
+        } finally {
+            pool.shutdown();
+        }
+        log.info("Rescored expenses of {} users with {} threads in {} ms; {} flagged", userIds.size(), threads,
+            (System.nanoTime() - started) / 1_000_000, flagged);
+        return flagged;
+    }
+
+    /**
+     * Rebuilds one user's baseline from history and rewrites the flags of their expenses.
+     *
+     * @param userId ID of the user
+     * @return number of expenses flagged
+     */
+    public long rescore(Long userId) {
+        Long flagged;
+        try (ShardContext.Scope scope = shardMap.bindUser(userId)) {
+            flagged = rescoreInTransaction(userId);
+        }
+
+        // Reload from the rewritten baseline on next access
+        dirty.remove(userId);
+        cache.invalidate(userId);
+        return flagged;
+    }
+
+    private Long rescoreInTransaction(Long userId) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            List<ExpenseAmountRow> rows = expenseRepository.findAmountRowsByUserId(userId);
+            UserBaseline baseline = UserBaseline.replay(rows);
+            List<Long> anomalous = new ArrayList<>();
+            for (ExpenseAmountRow row : rows) {
+                if (baseline.isAnomalousAmongOthers(row.getCategory(), Money.toCents(row.getAmount()), minSamples,
+                        threshold)) {
+                    anomalous.add(row.getId());
+                }
+            }
+
+            expenseRepository.clearAnomalousByUserId(userId);
+            for (int from = 0; from < anomalous.size(); from += FLAG_BATCH_SIZE) {
+                expenseRepository.markAnomalousByUserIdAndIdIn(userId,
+                    anomalous.subList(from, Math.min(from + FLAG_BATCH_SIZE, anomalous.size())));
+            }
+            writeBaselines(userId, baseline.encode(userId));
+            return (long) anomalous.size();
+        });
+    }
+
+    /**
+     * Returns whether a user's baseline is currently cached.
+     *
+     * @param userId ID of the user
+     * @return true if cached
+     */
+    public boolean isCached(Long userId) {
+        return cache.contains(userId);
+    }
+
+    /**
+     * Persists changed baselines and stops the background loader.
+     */
+    @PreDestroy
+    public void close() {
+        loaderThread.shutdownNow();
+        persistDirty();
+    }
+
+    private void loadInBackground(Long userId) {
+        if (!loading.add(userId)) {
+            return;
+        }
+        try {
+            loader.execute(() -> {
+                try {
+                    cache.get(userId);
+                } catch (RuntimeException e) {
+                    log.warn("Could not load anomaly baseline of user {}", userId, e);
+                } finally {
+                    loading.remove(userId);
+                }
+            });
+        } catch (RuntimeException e) {
+            loading.remove(userId);
+            log.warn("Could not schedule anomaly baseline load of user {}", userId, e);
+        }
+    }
+
+    /**
+     * Loads a user's baseline from its persisted rows, or replays their history if none exist.
+     *
+     * @param userId ID of the user
+     * @return the baseline
+     */
+    private UserBaseline load(Long userId) {
+        try (ShardContext.Scope scope = shardMap.bindUser(userId)) {
+            List<AnomalyBaseline> persisted = anomalyBaselineRepository.findByUserId(userId);
+            if (!persisted.isEmpty()) {
+                return UserBaseline.decode(persisted);
+            }
+            List<ExpenseAmountRow> rows = expenseRepository.findAmountRowsByUserId(userId);
+            log.debug("Replayed {} expenses into anomaly baseline of user {}", rows.size(), userId);
+            if (!rows.isEmpty()) {
+                dirty.add(userId);
+            }
+            return UserBaseline.replay(rows);
+        }
+    }
+
+    private void write(Long userId, Map<Category, AnomalyBaseline> encoded) {
+        try (ShardContext.Scope scope = shardMap.bindUser(userId)) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> writeBaselines(userId, encoded));
+        }
+    }
+
+    /**
+     * Upserts one row per category with expenses and deletes rows of emptied categories.
+     */
+    private void writeBaselines(Long userId, Map<Category, AnomalyBaseline> encoded) {
+        Map<Category, AnomalyBaseline> existing = new EnumMap<>(Category.class);
+        for (AnomalyBaseline row : anomalyBaselineRepository.findByUserId(userId)) {
+            existing.put(row.getCategory(), row);
+        }
+
+        List<AnomalyBaseline> saved = new ArrayList<>();
+        for (AnomalyBaseline fresh : encoded.values()) {
+            AnomalyBaseline row = existing.remove(fresh.getCategory());
+            if (row == null) {
+                row = fresh;
+            } else {
+                row.setExpenseCount(fresh.getExpenseCount());
+                row.setDistribution(fresh.getDistribution());
+            }
+            saved.add(row);
+        }
+        anomalyBaselineRepository.saveAll(saved);
+        anomalyBaselineRepository.deleteAll(existing.values());
+    }
+
+    /**
+     * Amount distributions of one user, by category ordinal.
+     */
+    static final class UserBaseline {
+
+        private final AmountDistribution[] distributions;
+
+        private UserBaseline(AmountDistribution[] distributions) {
+            this.distributions = distributions;
+        }
+
+        static UserBaseline replay(List<ExpenseAmountRow> rows) {
+            UserBaseline baseline = empty();
+            for (ExpenseAmountRow row : rows) {
+                baseline.distributions[row.getCategory().ordinal()].add(Money.toCents(row.getAmount()));
+            }
+            return baseline;
+        }
+
+        static UserBaseline decode(List<AnomalyBaseline> rows) {
+            UserBaseline baseline = empty();
+            for (AnomalyBaseline row : rows) {
+                baseline.distributions[row.getCategory().ordinal()] = AmountDistribution.fromBytes(row.getDistribution());
+            }
+            return baseline;
+        }
+
+        private static UserBaseline empty() {
+            AmountDistribution[] distributions = new AmountDistribution[CATEGORY_COUNT];
+            for (int c = 0; c < CATEGORY_COUNT; c++) {
+                distributions[c] = new AmountDistribution();
+            }
+            return new UserBaseline(distributions);
+        }
+
+        synchronized boolean isAnomalous(Category category, long cents, long minSamples, double threshold) {
+            AmountDistribution distribution = distributions[category.ordinal()];
+            return distribution.getCount() >= minSamples && distribution.score(cents) >= threshold;
+        }
+
+        /**
+         * Scores an amount that is part of the baseline against the other amounts.
+         */
+        synchronized boolean isAnomalousAmongOthers(Category category, long cents, long minSamples,
+                double threshold) {
+            AmountDistribution distribution = distributions[category.ordinal()];
+            boolean removed = distribution.remove(cents);
+            try {
+                return isAnomalous(category, cents, minSamples, threshold);
+            } finally {
+                if (removed) {
+                    distribution.add(cents);
+                }
+            }
+        }
+
+        synchronized void apply(ExpenseChangedEvent event) {
+            ExpenseSnapshot before = event.getBefore();
+            ExpenseSnapshot after = event.getAfter();
+            if (before != null) {
+                distributions[before.getCategory().ordinal()].remove(Money.toCents(before.getAmount()));
+            }
+            if (after != null) {
+                distributions[after.getCategory().ordinal()].add(Money.toCents(after.getAmount()));
+            }
+        }
+
+        /**
+         * Encodes the categories with expenses into unsaved rows.
+         */
+        synchronized Map<Category, AnomalyBaseline> encode(Long userId) {
+            Map<Category, AnomalyBaseline> encoded = new EnumMap<>(Category.class);
+            for (Category category : Category.values()) {
+                AmountDistribution distribution = distributions[category.ordinal()];
+                if (distribution.getCount() > 0) {
+                    encoded.put(category, AnomalyBaseline.builder()
+                        .userId(userId)
+                        .category(category)
+                        .expenseCount(distribution.getCount())
+                        .distribution(distribution.toBytes())
+                        .build());
+                }
+            }
+            return encoded;
+        }
+
+        synchronized long estimatedBytes() {
+            long bytes = 32;
+            for (AmountDistribution distribution : distributions) {
+                bytes += distribution.estimatedBytes();
+            }
+            return bytes;
+        }
+
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.suyos.tracker.service;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.suyos.tracker.analytics.DeltaVarintCodec;
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.dto.DailyTotalsDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.repository.DailyTotal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service serving a user's spending per day of a year for calendar heatmaps.
+ *
+ * A year is computed by one grouped query and cached as a cents array
+ * indexed by day of year until a committed expense change touches that
+ * year; an update moving an expense between years invalidates both. Each
+ * year carries a version bumped by invalidation, so a query that raced with
+ * a commit does not cache its stale result. Cached years are evicted per
+ * user, least-recently-used, once they exceed {@code tracker.calendar.max-bytes}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseCalendarService {
+
+    /** Expense history across the table and the archive */
+    private final ExpenseHistory expenseHistory;
+
+    /** Upper bound on the memory held by cached years */
+    @Value("${tracker.calendar.max-bytes:16777216}")
+    private long maxBytes = 16L * 1024 * 1024;
+
+    /** Cached years per user */
+    private final UserStateCache<UserYears> cache =
+        new UserStateCache<>("calendar", () -> maxBytes, userId -> new UserYears(), UserYears::estimatedBytes);
+
+    /**
+     * Retrieves a user's spending per day of a year.
+     *
+     * @param userId ID of the user
+     * @param year calendar year
+     * @param packed whether to delta-varint encode the totals
+     * @return the daily totals
+     */
+    public DailyTotalsDTO getDailyTotals(Long userId, int year, boolean packed) {
+        long[] cents = getDailyCents(userId, year);
+        long total = 0;
+        for (long day : cents) {
+            total = Math.addExact(total, day);
+        }
+        return DailyTotalsDTO.builder()
+            .year(year)
+            .days(cents.length)
+            .total(Money.toBigDecimal(total))
+            .cents(packed ? null : cents)
+            .packed(packed ? DeltaVarintCodec.encode(cents) : null)
+            .build();
+    }
+
+    /**
+     * Retrieves a user's spending in cents per day of a year.
+     *
+     * @param userId ID of the user
+     * @param year calendar year
+     * @return a new array with one total per day, January 1st first
+     */
+    public long[] getDailyCents(Long userId, int year) {
+        UserYears years = cache.get(userId);
+        long[] cached = years.get(year);
+        if (cached != null) {
+            return cached.clone();
+        }
+
+        long version = years.version(year);
+        long[] cents = query(userId, year);
+        if (years.put(year, version, cents)) {
+            cache.reaccount(userId);
+        }
+        return cents.clone();
+    }
+
+    /**
+     * Drops the cached years touched by an expense change once it commits.
+     *
+     * @param event the expense change
+     */
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        cache.update(event.getUserId(), years -> years.invalidate(event));
+    }
+
+    /**
+     * Returns whether a year of a user is currently cached.
+     *
+     * @param userId ID of the user
+     * @param year calendar year
+     * @return true if cached
+     */
+    public boolean isCached(Long userId, int year) {
+        UserYears years = cache.getIfPresent(userId);
+        return years != null && years.get(year) != null;
+    }
+
+    private long[] query(Long userId, int year) {
+        LocalDate first = Year.of(year).atDay(1);
+        LocalDate last = first.plusYears(1).minusDays(1);
+        List<DailyTotal> rows = expenseHistory.sumByDateBetween(userId, first, last);
+        long[] cents = new long[Year.of(year).length()];
+        for (DailyTotal row : rows) {
+            cents[row.getDate().getDayOfYear() - 1] = Money.toCents(row.getTotal());
+        }
+        log.debug("Loaded {} daily totals of {} for user {}", rows.size(), year, userId);
+        return cents;
+    }
+
+    /**
+     * Cached daily totals of one user, by year.
+     */
+    static final class UserYears {
+
+        /** Daily totals per cached year */
+        private final Map<Integer, long[]> days = new HashMap<>();
+
+        /** Invalidation count per year ever invalidated */
+        private final Map<Integer, Long> versions = new HashMap<>();
+
+        synchronized long[] get(int year) {
+            return days.get(year);
+        }
+
+        synchronized long version(int year) {
+            return versions.getOrDefault(year, 0L);
+        }
+
+        /**
+         * Caches a year unless it was invalidated since {@code version} was read.
+         */
+        synchronized boolean put(int year, long version, long[] cents) {
+            if (version(year) != version) {
+                return false;
+            }
+            days.put(year, cents);
+            return true;
+        }
+
+        synchronized void invalidate(ExpenseChangedEvent event) {
+            invalidate(event.getBefore());
+            invalidate(event.getAfter());
+        }
+
+        private void invalidate(ExpenseSnapshot snapshot) {
+            if (snapshot != null) {
+                int year = snapshot.getDate().getYear();
+                days.remove(year);
+                versions.merge(year, 1L, Long::sum);
+            }
+        }
+
+        synchronized long estimatedBytes() {
+            return 64 + versions.size() * 48L + days.size() * (48L + 16 + 366 * Long.BYTES);
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.suyos.tracker.service;
+
+import java.util.List;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.suyos.tracker.dto.ChangeFeedDTO;
+import com.suyos.tracker.dto.ExpenseChangeDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.mapper.ExpenseChangeMapper;
+import com.suyos.tracker.model.ExpenseChange;
+import com.suyos.tracker.repository.ExpenseChangeRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Service keeping the transactional outbox of expense changes.
+ *
+ * Every expense change event is recorded in the {@code expense_changes}
+ * table inside the publishing transaction, so a change is recorded exactly
+ * when its write commits. {@link ExpenseChangeRelay} then positions and
+ * publishes the records, and the change feed serves a user's positioned
+ * records to clients resuming from the last position they processed.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ExpenseChangeOutbox {
+
+    /** Largest number of changes returned by one feed request */
+    public static final int MAX_FEED_LIMIT = 1000;
+
+    /** Repository for change record data access operations */
+    private final ExpenseChangeRepository expenseChangeRepository;
+
+    /** Mapper for converting change records to DTOs */
+    private final ExpenseChangeMapper expenseChangeMapper;
+
+    /**
+     * Records an expense change in the outbox.
+     *
+     * Runs synchronously in the transaction of the expense write.
+     *
+     * @param event the expense change
+     */
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        ExpenseSnapshot current = event.getAfter() != null ? event.getAfter() : event.getBefore();
+        ExpenseSnapshot previous = event.getType() == ExpenseChangedEvent.ChangeType.UPDATED ? event.getBefore() : null;
+        expenseChangeRepository.save(ExpenseChange.builder()
+            .userId(event.getUserId())
+            .expenseId(current.getId())
+            .type(event.getType())
+            .description(current.getDescription())
+            .amount(current.getAmount())
+            .date(current.getDate())
+            .category(current.getCategory())
+            .previousAmount(previous != null ? previous.getAmount() : null)
+            .previousDate(previous != null ? previous.getDate() : null)
+            .previousCategory(previous != null ? previous.getCategory() : null)
+            .build());
+    }
+
+    /**
+     * Retrieves a user's relayed changes after a position.
+     *
+     * @param userId ID of the user whose changes to retrieve
+     * @param since Last position the client processed (0 for the oldest retained change)
+     * @param limit Maximum number of changes, capped at {@link #MAX_FEED_LIMIT}
+     * @return ChangeFeedDTO with the changes and the position to resume from
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeedDTO getChanges(Long userId, long since, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_FEED_LIMIT));
+        // Read one extra change to tell whether more follow
+        List<ExpenseChange> changes = expenseChangeRepository
+            .findByUserIdAndPositionGreaterThanOrderByPositionAsc(userId, since, PageRequest.of(0, size + 1));
+        List<ExpenseChangeDTO> page = changes.stream()
+            .limit(size)
+            .map(expenseChangeMapper::toDTO)
+            .toList();
+        return ChangeFeedDTO.builder()
+            .changes(page)
+            .next(page.isEmpty() ? since : page.get(page.size() - 1).getPosition())
+            .hasMore(changes.size() > size)
+            .build();
+    }
+
+}
@@ -0,0 +1,221 @@
+package com.suyos.tracker.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.suyos.tracker.dto.ExpenseChangeDTO;
+import com.suyos.tracker.event.ExpenseChangesRelayedEvent;
+import com.suyos.tracker.mapper.ExpenseChangeMapper;
+import com.suyos.tracker.model.ExpenseChange;
+import com.suyos.tracker.model.ExpenseChangeSequence;
+import com.suyos.tracker.repository.ExpenseChangeRepository;
+import com.suyos.tracker.repository.ExpenseChangeSequenceRepository;
+import com.suyos.tracker.sharding.ShardMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scheduled relay publishing the outbox of expense changes.
+ *
+ * Every {@code tracker.outbox.relay-interval}, the unrelayed changes of
+ * each shard are taken in insertion order, in batches of
+ * {@code tracker.outbox.batch-size}. Each batch gets increasing positions
+ * and is published as an {@link ExpenseChangesRelayedEvent} in one
+ * transaction. Positions start at the current time in microseconds or
+ * after the shard's highest position, whichever is greater. They keep
+ * increasing after old changes are purged and after a user moves to
+ * another shard. Each batch holds the lock of the shard's
+ * {@link ExpenseChangeSequence} row from reading the last position until
+ * it commits, so relays on several instances take turns: their positions
+ * never overlap, and a batch with higher positions never commits before
+ * one with lower positions. A batch whose listeners fail is delivered
+ * again on the next run.
+ *
+ * Relayed changes older than {@code tracker.outbox.retention} are purged
+ * on {@code tracker.outbox.purge-cron}. Disabled with
+ * {@code tracker.outbox.relay.enabled=false}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tracker.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpenseChangeRelay {
+
+    /** Repository for change record data access operations */
+    private final ExpenseChangeRepository expenseChangeRepository;
+
+    /** Repository for the last assigned position */
+    private final ExpenseChangeSequenceRepository expenseChangeSequenceRepository;
+
+    /** Mapper for converting change records to DTOs */
+    private final ExpenseChangeMapper expenseChangeMapper;
+
+    /** Publisher delivering relayed batches to in-process listeners */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Directory of the users' shards */
+    private final ShardMap shardMap;
+
+    /** Transaction manager of the application data source */
+    private final PlatformTransactionManager transactionManager;
+
+    /** Changes relayed */
+    private final Counter relayed;
+
+    /** Maximum number of changes per batch */
+    @Value("${tracker.outbox.batch-size:500}")
+    private int batchSize = 500;
+
+    /** Age past which relayed changes are purged */
+    @Value("${tracker.outbox.retention:P7D}")
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * Creates the relay.
+     *
+     * @param expenseChangeRepository repository for change record data access operations
+     * @param expenseChangeSequenceRepository repository for the last assigned position
+     * @param expenseChangeMapper mapper for converting change records to DTOs
+     * @param eventPublisher publisher delivering relayed batches to in-process listeners
+     * @param shardMap directory of the users' shards
+     * @param transactionManager transaction manager of the application data source
+     * @param meterRegistry registry the relay counter is published to
+     */
+    public ExpenseChangeRelay(ExpenseChangeRepository expenseChangeRepository,
+        ExpenseChangeSequenceRepository expenseChangeSequenceRepository, ExpenseChangeMapper expenseChangeMapper,
+        ApplicationEventPublisher eventPublisher, ShardMap shardMap, PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry) {
+        this.expenseChangeRepository = expenseChangeRepository;
+        this.expenseChangeSequenceRepository = expenseChangeSequenceRepository;
+        this.expenseChangeMapper = expenseChangeMapper;
+        this.eventPublisher = eventPublisher;
+        this.shardMap = shardMap;
+        this.transactionManager = transactionManager;
+        this.relayed = Counter.builder("tracker.outbox.relayed")
+            .description("Expense changes relayed from the outbox")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Relays the pending changes of every shard.
+     */
+    @Scheduled(initialDelayString = "${tracker.outbox.relay-interval:PT1S}",
+        fixedDelayString = "${tracker.outbox.relay-interval:PT1S}")
+    public void run() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.error("Expense change relay failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Relays the pending changes of every shard, batch by batch.
+     *
+     * @return number of relayed changes
+     */
+    public int relay() {
+        return shardMap.onEachShard(() -> {
+            createSequence();
+            int total = 0;
+            int batch;
+            do {
+                batch = relayBatch();
+                total += batch;
+            } while (batch == batchSize);
+            return total;
+        }).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Deletes relayed changes older than the retention.
+     */
+    @Scheduled(cron = "${tracker.outbox.purge-cron:0 30 3 * * *}")
+    public void purge() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+            int purged = shardMap.onEachShard(() -> new TransactionTemplate(transactionManager)
+                .execute(status -> expenseChangeRepository.deleteRelayedBefore(cutoff)))
+                .stream().mapToInt(Integer::intValue).sum();
+            if (purged > 0) {
+                log.info("Purged {} relayed expense changes", purged);
+            }
+        } catch (RuntimeException e) {
+            log.error("Expense change purge failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Creates the current shard's sequence row if it does not exist yet.
+     *
+     * Runs before any relay transaction locks the row, in its own
+     * transaction; a relay on another instance creating it first is fine.
+     */
+    private void createSequence() {
+        if (expenseChangeSequenceRepository.existsById(ExpenseChangeSequence.ID)) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                expenseChangeSequenceRepository.saveAndFlush(new ExpenseChangeSequence(ExpenseChangeSequence.ID, 0L)));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Expense change sequence created concurrently", e);
+        }
+    }
+
+    /**
+     * Positions and publishes the oldest unrelayed changes of the current shard.
+     *
+     * Holds the sequence row's lock until the batch commits.
+     *
+     * @return number of relayed changes
+     */
+    private int relayBatch() {
+        Integer count = new TransactionTemplate(transactionManager).execute(status -> {
+            ExpenseChangeSequence sequence = expenseChangeSequenceRepository
+                .findLockedById(ExpenseChangeSequence.ID)
+                .orElseThrow(() -> new IllegalStateException("Expense change sequence is missing"));
+            List<ExpenseChange> changes = expenseChangeRepository.findUnrelayed(PageRequest.of(0, batchSize));
+            if (changes.isEmpty()) {
+                return 0;
+            }
+            // Changes of users moved in from another shard may carry higher positions
+            Long highest = expenseChangeRepository.findMaxPosition();
+            long position = Math.max(TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()),
+                Math.max(sequence.getLastPosition(), highest != null ? highest : 0) + 1);
+            List<ExpenseChangeDTO> batch = new ArrayList<>(changes.size());
+            for (ExpenseChange change : changes) {
+                if (expenseChangeRepository.assignPosition(change.getId(), position) == 0) {
+                    throw new IllegalStateException("Expense change " + change.getId() + " was relayed concurrently");
+                }
+                ExpenseChangeDTO dto = expenseChangeMapper.toDTO(change);
+                dto.setPosition(position++);
+                batch.add(dto);
+            }
+            sequence.setLastPosition(position - 1);
+            eventPublisher.publishEvent(new ExpenseChangesRelayedEvent(batch));
+            return batch.size();
+        });
+        relayed.increment(count);
+        return count;
+    }
+
+}
@@ -0,0 +1,254 @@
+package com.suyos.tracker.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.repository.ExpenseAmountRow;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory columnar cache of each user's expense history for analytics.
+ *
+ * A user's expenses are held as parallel primitive arrays (ID, amount in
+ * cents, epoch day, category ordinal) so aggregate queries run as tight
+ * loops without hydrating entities or allocating per row. Columns are
+ * loaded lazily from {@link ExpenseHistory} on first access, kept in sync
+ * with committed expense changes, and evicted least-recently-used once the
+ * cached columns exceed {@code tracker.columnar.max-bytes}.
+ *
+ * Caching and write consistency are handled by {@link UserStateCache}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpenseColumnStore {
+
+    /** Bytes held per row across the four columns */
+    static final int BYTES_PER_ROW = Long.BYTES + Long.BYTES + Integer.BYTES + Byte.BYTES;
+
+    /** Expense history across the table and the archive */
+    private final ExpenseHistory expenseHistory;
+
+    /** Upper bound on the memory held by cached columns */
+    @Value("${tracker.columnar.max-bytes:67108864}")
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /** Cached columns per user */
+    private final UserStateCache<UserColumns> cache =
+        new UserStateCache<>("columnar", () -> maxBytes, this::load, UserColumns::capacityBytes);
+
+    /**
+     * Runs a query over a user's columns under a read lock.
+     *
+     * The arrays passed to the query must not be modified or retained;
+     * only the first {@code size} entries are valid.
+     *
+     * @param <T> the query result type
+     * @param userId ID of the user whose history to query
+     * @param query the query to run
+     * @return the query result
+     */
+    public <T> T query(Long userId, ColumnQuery<T> query) {
+        return cache.get(userId).read(query);
+    }
+
+    /**
+     * Applies an expense change, once committed, to the user's cached columns.
+     *
+     * Users whose columns are not cached are skipped; they load the
+     * committed state on next access.
+     *
+     * @param event the expense change
+     */
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        cache.update(event.getUserId(), columns -> columns.apply(event));
+    }
+
+    /**
+     * Drops all cached columns.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Returns the number of bytes held by cached columns.
+     *
+     * @return cached bytes
+     */
+    public long getUsedBytes() {
+        return cache.getUsedBytes();
+    }
+
+    /**
+     * Returns whether a user's columns are currently cached.
+     *
+     * @param userId ID of the user
+     * @return true if cached
+     */
+    public boolean isCached(Long userId) {
+        return cache.contains(userId);
+    }
+
+    /**
+     * Loads a user's columns from the expenses table.
+     *
+     * @param userId ID of the user
+     * @return freshly built columns
+     */
+    private UserColumns load(Long userId) {
+        List<ExpenseAmountRow> rows = expenseHistory.findAmountRowsByUserId(userId);
+        UserColumns columns = new UserColumns(rows.size());
+        for (ExpenseAmountRow row : rows) {
+            columns.append(row.getId(), Money.toCents(row.getAmount()),
+                (int) row.getDate().toEpochDay(), (byte) row.getCategory().ordinal());
+        }
+        log.debug("Loaded {} expenses into columnar store for user {}", rows.size(), userId);
+        return columns;
+    }
+
+    /**
+     * Query over a user's expense columns.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface ColumnQuery<T> {
+
+        /**
+         * Computes a result from the columns.
+         *
+         * @param ids expense IDs
+         * @param cents amounts in cents
+         * @param epochDays dates as days since 1970-01-01
+         * @param categories category ordinals
+         * @param size number of valid entries in each array
+         * @return the result
+         */
+        T apply(long[] ids, long[] cents, int[] epochDays, byte[] categories, int size);
+
+    }
+
+    /**
+     * Parallel primitive arrays holding one user's expenses in no particular order.
+     */
+    static final class UserColumns {
+
+        /** Guards the arrays and size */
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private long[] ids;
+        private long[] cents;
+        private int[] epochDays;
+        private byte[] categories;
+        private int size;
+
+        UserColumns(int capacity) {
+            int initial = Math.max(capacity, 8);
+            ids = new long[initial];
+            cents = new long[initial];
+            epochDays = new int[initial];
+            categories = new byte[initial];
+        }
+
+        <T> T read(ColumnQuery<T> query) {
+            lock.readLock().lock();
+            try {
+                return query.apply(ids, cents, epochDays, categories, size);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void apply(ExpenseChangedEvent event) {
+            lock.writeLock().lock();
+            try {
+                ExpenseSnapshot before = event.getBefore();
+                ExpenseSnapshot after = event.getAfter();
+                int index = before != null ? indexOf(before.getId()) : -1;
+                if (after == null) {
+                    if (index >= 0) {
+                        removeAt(index);
+                    }
+                    return;
+                }
+                long amountCents = Money.toCents(after.getAmount());
+                int epochDay = (int) after.getDate().toEpochDay();
+                byte category = (byte) after.getCategory().ordinal();
+                if (index >= 0) {
+                    cents[index] = amountCents;
+                    epochDays[index] = epochDay;
+                    categories[index] = category;
+                } else {
+                    append(after.getId(), amountCents, epochDay, category);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void append(long id, long amountCents, int epochDay, byte category) {
+            if (size == ids.length) {
+                int capacity = ids.length + (ids.length >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                cents = Arrays.copyOf(cents, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+            }
+            ids[size] = id;
+            cents[size] = amountCents;
+            epochDays[size] = epochDay;
+            categories[size] = category;
+            size++;
+        }
+
+        private int indexOf(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void removeAt(int index) {
+            int last = --size;
+            ids[index] = ids[last];
+            cents[index] = cents[last];
+            epochDays[index] = epochDays[last];
+            categories[index] = categories[last];
+        }
+
+        /**
+         * Returns the bytes held by the arrays at their current capacity.
+         *
+         * @return capacity in bytes
+         */
+        long capacityBytes() {
+            lock.readLock().lock();
+            try {
+                return (long) ids.length * BYTES_PER_ROW;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+    }
+
+}
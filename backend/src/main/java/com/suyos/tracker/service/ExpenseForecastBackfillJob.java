@@ -0,0 +1,63 @@
+package com.suyos.tracker.service;
+
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.sharding.ShardContext;
+import com.suyos.tracker.sharding.ShardMap;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Startup job that replays every user's history into forecast state.
+ * 
+ * Enabled with {@code tracker.forecast.backfill-on-startup=true} so that
+ * the first forecast requests after a deployment are served without a
+ * replay. Users beyond the forecast memory budget are evicted and replayed
+ * again on their next request.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "tracker.forecast.backfill-on-startup", havingValue = "true")
+public class ExpenseForecastBackfillJob implements ApplicationRunner {
+
+    /** Repository for user data access operations */
+    private final UserRepository userRepository;
+
+    /** Directory of the users' shards */
+    private final ShardMap shardMap;
+
+    /** Service holding forecast state per user */
+    private final ExpenseForecastService expenseForecastService;
+
+    /**
+     * Replays the forecast state of every user.
+     * 
+     * @param args application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> userIds = shardMap.onEachShard(userRepository::findAllIds).stream()
+            .flatMap(List::stream)
+            .toList();
+        log.info("Backfilling forecast state for {} users", userIds.size());
+        for (Long userId : userIds) {
+            try (ShardContext.Scope scope = shardMap.bindUser(userId)) {
+                expenseForecastService.rebuild(userId);
+            }
+        }
+        log.info("Forecast backfill finished");
+    }
+
+}
@@ -0,0 +1,357 @@
+package com.suyos.tracker.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.suyos.tracker.analytics.MonthlySeriesStatistics;
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.dto.CategoryForecastDTO;
+import com.suyos.tracker.dto.SpendingForecastDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.repository.MonthlyCategoryTotal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service forecasting a user's spending from streaming monthly statistics.
+ *
+ * Each user's state holds the monthly total per category since their first
+ * expense and one {@link MonthlySeriesStatistics} per category over the
+ * full months before the current one. Committed expense changes update the
+ * current month's total, or correct a past month's statistics, in constant
+ * time; months are folded into the statistics as the calendar advances.
+ * Forecasts are therefore answered without touching the expenses table.
+ *
+ * State is built by replaying the user's monthly totals from one grouped
+ * query, lazily on first access or for every user by the backfill job, and
+ * evicted least-recently-used once it exceeds {@code tracker.forecast.max-bytes}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseForecastService {
+
+    /** Number of categories */
+    private static final int CATEGORY_COUNT = Category.values().length;
+
+    /** Expense history across the table and the archive */
+    private final ExpenseHistory expenseHistory;
+
+    /** Upper bound on the memory held by cached forecast state */
+    @Value("${tracker.forecast.max-bytes:67108864}")
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /** Weight of the latest month in the moving average */
+    @Value("${tracker.forecast.alpha:0.3}")
+    private double alpha = 0.3;
+
+    /** Cached forecast state per user */
+    private final UserStateCache<UserForecast> cache =
+        new UserStateCache<>("forecast", () -> maxBytes, this::load, UserForecast::estimatedBytes);
+
+    /**
+     * Forecasts a user's spending for the current month.
+     *
+     * @param userId ID of the user
+     * @return trends and month-end projection per category
+     */
+    public SpendingForecastDTO getForecast(Long userId) {
+        LocalDate today = LocalDate.now();
+        UserForecast forecast = cache.get(userId);
+        if (forecast.advance(monthIndex(today))) {
+            cache.reaccount(userId);
+        }
+        return forecast.forecast(today);
+    }
+
+    /**
+     * Applies an expense change, once committed, to the user's cached state.
+     *
+     * Users whose state is not cached are skipped; they replay the
+     * committed history on next access.
+     *
+     * @param event the expense change
+     */
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        long currentMonth = monthIndex(LocalDate.now());
+        cache.update(event.getUserId(), forecast -> forecast.apply(event, currentMonth));
+    }
+
+    /**
+     * Replays a user's history into fresh state.
+     *
+     * @param userId ID of the user
+     */
+    public void rebuild(Long userId) {
+        cache.invalidate(userId);
+        cache.get(userId);
+    }
+
+    /**
+     * Returns whether a user's state is currently cached.
+     *
+     * @param userId ID of the user
+     * @return true if cached
+     */
+    public boolean isCached(Long userId) {
+        return cache.contains(userId);
+    }
+
+    /**
+     * Replays a user's monthly totals from the expenses table.
+     *
+     * @param userId ID of the user
+     * @return freshly built state
+     */
+    private UserForecast load(Long userId) {
+        List<MonthlyCategoryTotal> rows = expenseHistory.sumByMonthAndCategory(userId);
+        UserForecast forecast = UserForecast.replay(alpha, monthIndex(LocalDate.now()), rows);
+        log.debug("Replayed {} monthly totals into forecast state for user {}", rows.size(), userId);
+        return forecast;
+    }
+
+    /**
+     * Encodes the month of a date as months since year 0.
+     *
+     * @param date the date
+     * @return the month index
+     */
+    static long monthIndex(LocalDate date) {
+        return date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+
+    private static int calendarMonth(long monthIndex) {
+        return (int) Math.floorMod(monthIndex, 12L) + 1;
+    }
+
+    /**
+     * Monthly totals and streaming statistics of one user.
+     */
+    static final class UserForecast {
+
+        private final double alpha;
+
+        /** Month index of the first total */
+        private long firstMonth;
+
+        /** Month index of the open month; earlier months are in the statistics */
+        private long currentMonth;
+
+        /** Totals in cents by category ordinal, then months since the first */
+        private long[][] totals;
+
+        /** Statistics over the full months, by category ordinal */
+        private MonthlySeriesStatistics[] statistics;
+
+        private UserForecast(double alpha, long firstMonth, long[][] totals) {
+            this.alpha = alpha;
+            this.firstMonth = firstMonth;
+            this.currentMonth = firstMonth;
+            this.totals = totals;
+            this.statistics = newStatistics(alpha);
+        }
+
+        /**
+         * Builds state from monthly totals, folding every month before the current one.
+         *
+         * @param alpha weight of the latest month in the moving average
+         * @param currentMonth month index of the current month
+         * @param rows monthly totals per category
+         * @return the state
+         */
+        static UserForecast replay(double alpha, long currentMonth, List<MonthlyCategoryTotal> rows) {
+            long first = currentMonth;
+            long last = currentMonth;
+            for (MonthlyCategoryTotal row : rows) {
+                long month = row.getYear() * 12L + row.getMonth() - 1;
+                first = Math.min(first, month);
+                last = Math.max(last, month);
+            }
+
+            long[][] totals = new long[CATEGORY_COUNT][Math.toIntExact(last - first + 1)];
+            for (MonthlyCategoryTotal row : rows) {
+                long month = row.getYear() * 12L + row.getMonth() - 1;
+                totals[row.getCategory().ordinal()][(int) (month - first)] += Money.toCents(row.getTotal());
+            }
+            UserForecast forecast = new UserForecast(alpha, first, totals);
+            forecast.advance(currentMonth);
+            return forecast;
+        }
+
+        /**
+         * Folds the months before the given one into the statistics.
+         *
+         * @param month month index of the current month
+         * @return whether any month was folded
+         */
+        synchronized boolean advance(long month) {
+            if (month <= currentMonth) {
+                return false;
+            }
+            ensureCapacity(month);
+            for (; currentMonth < month; currentMonth++) {
+                int offset = (int) (currentMonth - firstMonth);
+                for (int c = 0; c < CATEGORY_COUNT; c++) {
+                    statistics[c].append(totals[c][offset], calendarMonth(currentMonth));
+                }
+            }
+            return true;
+        }
+
+        synchronized void apply(ExpenseChangedEvent event, long month) {
+            advance(month);
+            ExpenseSnapshot before = event.getBefore();
+            ExpenseSnapshot after = event.getAfter();
+            if (before != null) {
+                add(monthIndex(before.getDate()), before.getCategory().ordinal(), -Money.toCents(before.getAmount()));
+            }
+            if (after != null) {
+                add(monthIndex(after.getDate()), after.getCategory().ordinal(), Money.toCents(after.getAmount()));
+            }
+        }
+
+        /**
+         * Adds to a month's total, correcting the statistics if the month is already folded.
+         */
+        private void add(long month, int category, long cents) {
+            if (month < firstMonth) {
+                prepend(month);
+            }
+            ensureCapacity(month);
+            int offset = (int) (month - firstMonth);
+            long old = totals[category][offset];
+            totals[category][offset] = old + cents;
+            if (month < currentMonth) {
+                statistics[category].replace(offset, old, old + cents, calendarMonth(month));
+            }
+        }
+
+        /**
+         * Extends the history back to an earlier first month and replays the statistics.
+         *
+         * The moving average depends on the order of all months, so moving
+         * its start is the one change that is not applied in constant time.
+         */
+        private void prepend(long month) {
+            int shift = (int) (firstMonth - month);
+            for (int c = 0; c < CATEGORY_COUNT; c++) {
+                long[] shifted = new long[totals[c].length + shift];
+                System.arraycopy(totals[c], 0, shifted, shift, totals[c].length);
+                totals[c] = shifted;
+            }
+            firstMonth = month;
+            long folded = currentMonth;
+            currentMonth = firstMonth;
+            statistics = newStatistics(alpha);
+            advance(folded);
+        }
+
+        private void ensureCapacity(long month) {
+            int needed = (int) (month - firstMonth + 1);
+            if (needed > totals[0].length) {
+                int capacity = Math.max(needed, totals[0].length + 12);
+                for (int c = 0; c < CATEGORY_COUNT; c++) {
+                    totals[c] = Arrays.copyOf(totals[c], capacity);
+                }
+            }
+        }
+
+        /**
+         * Projects the current month from the statistics.
+         *
+         * The remaining days are expected to follow the seasonal moving
+         * average, or the run rate so far for a category without history.
+         *
+         * @param today the current date, in the month the state was advanced to
+         * @return the forecast
+         */
+        synchronized SpendingForecastDTO forecast(LocalDate today) {
+            int daysElapsed = today.getDayOfMonth();
+            int daysInMonth = today.lengthOfMonth();
+            double remaining = 1 - (double) daysElapsed / daysInMonth;
+            int offset = (int) (currentMonth - firstMonth);
+            int calendarMonth = calendarMonth(currentMonth);
+
+            List<CategoryForecastDTO> categories = new ArrayList<>();
+            long currentSum = 0;
+            long projectedSum = 0;
+            for (Category category : Category.values()) {
+                int c = category.ordinal();
+                MonthlySeriesStatistics stats = statistics[c];
+                long current = totals[c][offset];
+                if (current == 0 && stats.getMean() <= 0) {
+                    continue;
+                }
+
+                int months = stats.getCount();
+                double expected = months > 0 ? Math.max(stats.getExpected(calendarMonth), 0)
+                    : (double) current * daysInMonth / daysElapsed;
+                long projected = current + Math.round(expected * remaining);
+                long previous = months >= 1 ? totals[c][offset - 1] : 0;
+                long beforePrevious = months >= 2 ? totals[c][offset - 2] : 0;
+                int recent = Math.min(months, 3);
+                long recentSum = 0;
+                for (int i = 1; i <= recent; i++) {
+                    recentSum += totals[c][offset - i];
+                }
+
+                currentSum += current;
+                projectedSum += projected;
+                categories.add(CategoryForecastDTO.builder()
+                    .category(category)
+                    .currentTotal(Money.toBigDecimal(current))
+                    .projectedTotal(Money.toBigDecimal(projected))
+                    .expectedTotal(Money.toBigDecimal(Math.round(expected)))
+                    .previousMonthTotal(Money.toBigDecimal(previous))
+                    .monthOverMonthChange(beforePrevious > 0
+                        ? Math.round((previous - beforePrevious) * 1000.0 / beforePrevious) / 10.0 : null)
+                    .movingAverage(Money.toBigDecimal(Math.round(stats.getEwma())))
+                    .threeMonthAverage(recent > 0 ? Money.toBigDecimal(Math.round((double) recentSum / recent))
+                        : BigDecimal.ZERO.setScale(Money.SCALE))
+                    .standardDeviation(Money.toBigDecimal(Math.round(stats.getStandardDeviation())))
+                    .monthsOfHistory(months)
+                    .build());
+            }
+
+            return SpendingForecastDTO.builder()
+                .month(YearMonth.from(today))
+                .daysElapsed(daysElapsed)
+                .daysInMonth(daysInMonth)
+                .currentTotal(Money.toBigDecimal(currentSum))
+                .projectedTotal(Money.toBigDecimal(projectedSum))
+                .categories(categories)
+                .build();
+        }
+
+        synchronized long estimatedBytes() {
+            return 64 + CATEGORY_COUNT * (totals[0].length * (long) Long.BYTES + 256);
+        }
+
+        private static MonthlySeriesStatistics[] newStatistics(double alpha) {
+            MonthlySeriesStatistics[] statistics = new MonthlySeriesStatistics[CATEGORY_COUNT];
+            for (int c = 0; c < CATEGORY_COUNT; c++) {
+                statistics[c] = new MonthlySeriesStatistics(alpha);
+            }
+            return statistics;
+        }
+
+    }
+
+}
@@ -0,0 +1,327 @@
+package com.suyos.tracker.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.suyos.tracker.analytics.KllSketch;
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.repository.ExpenseAmountRow;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory quantile sketches of expense amounts per user, month and category.
+ *
+ * Each month and category holds a {@link KllSketch} of amounts in cents, so
+ * distribution statistics over any month range are answered by merging at
+ * most one sketch per month and category instead of sorting every amount.
+ *
+ * Sketches cannot remove items: created expenses are added in place, while
+ * an update or delete marks the month and category it removed an amount
+ * from as stale. Stale sketches are rebuilt from the expenses table by the
+ * next read that covers them, with one query for the months involved.
+ * Sketches are loaded lazily and evicted least-recently-used once they
+ * exceed {@code tracker.sketches.max-bytes}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpenseQuantileSketches {
+
+    /** Estimated fixed bytes per sketch besides its retained items */
+    private static final int SKETCH_OVERHEAD_BYTES = 96;
+
+    /** Number of categories; sizes the per-month arrays */
+    private static final int CATEGORY_COUNT = Category.values().length;
+
+    /** Expense history across the table and the archive */
+    private final ExpenseHistory expenseHistory;
+
+    /** Upper bound on the memory held by cached sketches */
+    @Value("${tracker.sketches.max-bytes:67108864}")
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /** Accuracy parameter of every sketch */
+    @Value("${tracker.sketches.k:200}")
+    private int k = KllSketch.DEFAULT_K;
+
+    /** Cached sketches per user */
+    private final UserStateCache<UserSketches> cache =
+        new UserStateCache<>("quantile-sketch", () -> maxBytes, this::load, UserSketches::estimatedBytes);
+
+    /**
+     * Merges a user's sketches over a month range.
+     *
+     * @param userId ID of the user
+     * @param from first month (inclusive)
+     * @param to last month (inclusive)
+     * @param category category to merge, or null for every category
+     * @return one merged sketch per category with at least one expense in the range
+     */
+    public Map<Category, KllSketch> merge(Long userId, YearMonth from, YearMonth to, Category category) {
+        int fromKey = ExpenseRollupService.toYearMonthKey(from);
+        int toKey = ExpenseRollupService.toYearMonthKey(to);
+        UserSketches sketches = cache.get(userId);
+
+        Map<Long, KllSketch> rebuilt = Map.of();
+        List<StaleCell> stale = sketches.staleCells(fromKey, toKey, category);
+        if (!stale.isEmpty()) {
+            rebuilt = rebuild(userId, stale);
+            sketches.install(stale, rebuilt);
+            cache.reaccount(userId);
+        }
+        return sketches.merge(fromKey, toKey, category, rebuilt);
+    }
+
+    /**
+     * Applies an expense change, once committed, to the user's cached sketches.
+     *
+     * Users whose sketches are not cached are skipped; they load the
+     * committed state on next access.
+     *
+     * @param event the expense change
+     */
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        cache.update(event.getUserId(), sketches -> sketches.apply(event));
+    }
+
+    /**
+     * Drops all cached sketches.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Loads a user's sketches from the expenses table.
+     *
+     * @param userId ID of the user
+     * @return freshly built sketches
+     */
+    private UserSketches load(Long userId) {
+        List<ExpenseAmountRow> rows = expenseHistory.findAmountRowsByUserId(userId);
+        UserSketches sketches = new UserSketches(k);
+        for (ExpenseAmountRow row : rows) {
+            sketches.add(ExpenseRollupService.toYearMonthKey(row.getDate()), row.getCategory().ordinal(),
+                Money.toCents(row.getAmount()));
+        }
+        log.debug("Loaded {} expenses into quantile sketches for user {}", rows.size(), userId);
+        return sketches;
+    }
+
+    /**
+     * Rebuilds stale sketches with one query spanning their months.
+     *
+     * @param userId ID of the user
+     * @param stale the stale cells
+     * @return fresh sketches by cell key; empty sketches for cells without expenses
+     */
+    private Map<Long, KllSketch> rebuild(Long userId, List<StaleCell> stale) {
+        int firstKey = Integer.MAX_VALUE;
+        int lastKey = Integer.MIN_VALUE;
+        Map<Long, KllSketch> rebuilt = new HashMap<>();
+        for (StaleCell cell : stale) {
+            firstKey = Math.min(firstKey, cell.yearMonth);
+            lastKey = Math.max(lastKey, cell.yearMonth);
+            rebuilt.put(cellKey(cell.yearMonth, cell.category), new KllSketch(k));
+        }
+
+        LocalDate startDate = LocalDate.of(firstKey / 100, firstKey % 100, 1);
+        LocalDate endDate = YearMonth.of(lastKey / 100, lastKey % 100).atEndOfMonth();
+        for (ExpenseAmountRow row : expenseHistory.findAmountRowsByUserIdAndDateBetween(userId, startDate, endDate)) {
+            KllSketch sketch = rebuilt.get(cellKey(ExpenseRollupService.toYearMonthKey(row.getDate()),
+                row.getCategory().ordinal()));
+            if (sketch != null) {
+                sketch.update(Money.toCents(row.getAmount()));
+            }
+        }
+        log.debug("Rebuilt {} stale quantile sketches for user {}", stale.size(), userId);
+        return rebuilt;
+    }
+
+    private static long cellKey(int yearMonth, int category) {
+        return (long) yearMonth * CATEGORY_COUNT + category;
+    }
+
+    /**
+     * Sketch of one month and category awaiting a rebuild, with the version it was observed at.
+     */
+    private static final class StaleCell {
+
+        private final int yearMonth;
+        private final int category;
+        private final long version;
+
+        private StaleCell(int yearMonth, int category, long version) {
+            this.yearMonth = yearMonth;
+            this.category = category;
+            this.version = version;
+        }
+
+    }
+
+    /**
+     * Sketch of one month and category.
+     */
+    private static final class Cell {
+
+        /** Amounts of the month and category; incomplete while stale */
+        private KllSketch sketch;
+
+        /** Whether an amount was removed since the sketch was built */
+        private boolean stale;
+
+        /** Bumped on every change so rebuilds started earlier are discarded */
+        private long version;
+
+        private Cell(KllSketch sketch) {
+            this.sketch = sketch;
+        }
+
+    }
+
+    /**
+     * Sketches of one user by month, then category ordinal.
+     */
+    static final class UserSketches {
+
+        private final int k;
+
+        /** Cells by yyyyMM month key, indexed by category ordinal */
+        private final TreeMap<Integer, Cell[]> months = new TreeMap<>();
+
+        UserSketches(int k) {
+            this.k = k;
+        }
+
+        synchronized void apply(ExpenseChangedEvent event) {
+            ExpenseSnapshot before = event.getBefore();
+            ExpenseSnapshot after = event.getAfter();
+            if (before != null) {
+                Cell cell = cell(ExpenseRollupService.toYearMonthKey(before.getDate()), before.getCategory().ordinal());
+                cell.version++;
+                cell.stale = true;
+            }
+            if (after != null) {
+                add(ExpenseRollupService.toYearMonthKey(after.getDate()), after.getCategory().ordinal(),
+                    Money.toCents(after.getAmount()));
+            }
+        }
+
+        synchronized void add(int yearMonth, int category, long cents) {
+            Cell cell = cell(yearMonth, category);
+            cell.version++;
+            if (!cell.stale) {
+                cell.sketch.update(cents);
+            }
+        }
+
+        synchronized List<StaleCell> staleCells(int fromKey, int toKey, Category category) {
+            List<StaleCell> stale = new ArrayList<>();
+            for (Map.Entry<Integer, Cell[]> month : months.subMap(fromKey, true, toKey, true).entrySet()) {
+                Cell[] cells = month.getValue();
+                for (int c = 0; c < cells.length; c++) {
+                    if (cells[c] != null && cells[c].stale && (category == null || category.ordinal() == c)) {
+                        stale.add(new StaleCell(month.getKey(), c, cells[c].version));
+                    }
+                }
+            }
+            return stale;
+        }
+
+        /**
+         * Installs rebuilt sketches for cells that did not change since they were observed stale.
+         *
+         * @param stale the cells that were rebuilt
+         * @param rebuilt fresh sketches by cell key
+         */
+        synchronized void install(List<StaleCell> stale, Map<Long, KllSketch> rebuilt) {
+            for (StaleCell observed : stale) {
+                Cell[] cells = months.get(observed.yearMonth);
+                Cell cell = cells != null ? cells[observed.category] : null;
+                if (cell != null && cell.version == observed.version) {
+                    cell.sketch = rebuilt.get(cellKey(observed.yearMonth, observed.category));
+                    cell.stale = false;
+                }
+            }
+        }
+
+        /**
+         * Merges the cells of a month range, preferring freshly rebuilt sketches.
+         *
+         * @param fromKey first month key (inclusive)
+         * @param toKey last month key (inclusive)
+         * @param category category to merge, or null for every category
+         * @param rebuilt fresh sketches by cell key, used over stale cells
+         * @return one merged sketch per category with at least one amount
+         */
+        synchronized Map<Category, KllSketch> merge(int fromKey, int toKey, Category category,
+                Map<Long, KllSketch> rebuilt) {
+            KllSketch[] merged = new KllSketch[CATEGORY_COUNT];
+            for (Map.Entry<Integer, Cell[]> month : months.subMap(fromKey, true, toKey, true).entrySet()) {
+                Cell[] cells = month.getValue();
+                for (int c = 0; c < cells.length; c++) {
+                    if (cells[c] == null || (category != null && category.ordinal() != c)) {
+                        continue;
+                    }
+                    KllSketch sketch = rebuilt.getOrDefault(cellKey(month.getKey(), c), cells[c].sketch);
+                    if (!sketch.isEmpty()) {
+                        if (merged[c] == null) {
+                            merged[c] = new KllSketch(k);
+                        }
+                        merged[c].merge(sketch);
+                    }
+                }
+            }
+
+            Map<Category, KllSketch> result = new TreeMap<>();
+            for (Category value : Category.values()) {
+                if (merged[value.ordinal()] != null) {
+                    result.put(value, merged[value.ordinal()]);
+                }
+            }
+            return result;
+        }
+
+        synchronized long estimatedBytes() {
+            long bytes = 0;
+            for (Cell[] cells : months.values()) {
+                for (Cell cell : cells) {
+                    if (cell != null) {
+                        bytes += SKETCH_OVERHEAD_BYTES + (long) cell.sketch.getRetainedItems() * Long.BYTES;
+                    }
+                }
+            }
+            return bytes;
+        }
+
+        private Cell cell(int yearMonth, int category) {
+            Cell[] cells = months.computeIfAbsent(yearMonth, key -> new Cell[CATEGORY_COUNT]);
+            if (cells[category] == null) {
+                cells[category] = new Cell(new KllSketch(k));
+            }
+            return cells[category];
+        }
+
+    }
+
+}
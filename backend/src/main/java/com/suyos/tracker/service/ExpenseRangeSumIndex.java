@@ -0,0 +1,257 @@
+package com.suyos.tracker.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.suyos.tracker.analytics.FenwickTree;
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.repository.DailyCategoryTotal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory index answering a user's spending over arbitrary date ranges in O(log n).
+ *
+ * Each user's daily spending is held in one {@link FenwickTree} per category
+ * plus one across all categories, indexed by days since the user's earliest
+ * expense, so a range total is two prefix sums regardless of how many
+ * expenses or days the range spans. Expense dates are bounded by
+ * {@link ExpenseDTO#EARLIEST_DATE} and today, which caps the days a tree
+ * covers. Trees are loaded lazily from one grouped query on first access,
+ * kept in sync with committed expense changes, and evicted
+ * least-recently-used once they exceed {@code tracker.range-index.max-bytes}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpenseRangeSumIndex {
+
+    /** Expense history across the table and the archive */
+    private final ExpenseHistory expenseHistory;
+
+    /** Upper bound on the memory held by cached trees */
+    @Value("${tracker.range-index.max-bytes:67108864}")
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /** Cached trees per user */
+    private final UserStateCache<UserRangeSums> cache =
+        new UserStateCache<>("range-sum", () -> maxBytes, this::load, UserRangeSums::capacityBytes);
+
+    /**
+     * Sums a user's spending within a date range.
+     *
+     * @param userId ID of the user
+     * @param startDate first date (inclusive), or null for no lower bound
+     * @param endDate last date (inclusive), or null for no upper bound
+     * @param category category to sum, or null for all categories
+     * @return the total in cents
+     */
+    public long sumCents(Long userId, LocalDate startDate, LocalDate endDate, Category category) {
+        long from = startDate != null ? startDate.toEpochDay() : Long.MIN_VALUE;
+        long to = endDate != null ? endDate.toEpochDay() : Long.MAX_VALUE;
+        return cache.get(userId).sum(from, to, category != null ? category.ordinal() : UserRangeSums.ALL);
+    }
+
+    /**
+     * Applies an expense change, once committed, to the user's cached trees.
+     *
+     * Users whose trees are not cached are skipped; they load the
+     * committed state on next access.
+     *
+     * @param event the expense change
+     */
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        cache.update(event.getUserId(), sums -> sums.apply(event));
+    }
+
+    /**
+     * Drops all cached trees.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Returns whether a user's trees are currently cached.
+     *
+     * @param userId ID of the user
+     * @return true if cached
+     */
+    public boolean isCached(Long userId) {
+        return cache.contains(userId);
+    }
+
+    /**
+     * Loads a user's trees from the expenses table.
+     *
+     * The day range extends to today so that new expenses, which are
+     * dated in the past or present, rarely force a rebuild.
+     *
+     * @param userId ID of the user
+     * @return freshly built trees
+     */
+    private UserRangeSums load(Long userId) {
+        List<DailyCategoryTotal> rows = expenseHistory.sumByDateAndCategory(userId);
+        if (rows.isEmpty()) {
+            return new UserRangeSums();
+        }
+
+        long firstDay = Long.MAX_VALUE;
+        long lastDay = LocalDate.now().toEpochDay();
+        for (DailyCategoryTotal row : rows) {
+            long day = row.getDate().toEpochDay();
+            firstDay = Math.min(firstDay, day);
+            lastDay = Math.max(lastDay, day);
+        }
+
+        long[][] values = new long[UserRangeSums.ALL + 1][];
+        int size = Math.toIntExact(lastDay - firstDay + 1);
+        values[UserRangeSums.ALL] = new long[size];
+        for (DailyCategoryTotal row : rows) {
+            int index = (int) (row.getDate().toEpochDay() - firstDay);
+            int category = row.getCategory().ordinal();
+            long cents = Money.toCents(row.getTotal());
+            if (values[category] == null) {
+                values[category] = new long[size];
+            }
+            values[category][index] += cents;
+            values[UserRangeSums.ALL][index] += cents;
+        }
+        log.debug("Loaded {} daily totals into range-sum index for user {}", rows.size(), userId);
+        return new UserRangeSums(firstDay, values);
+    }
+
+    /**
+     * Daily spending trees of one user over a contiguous range of days.
+     */
+    static final class UserRangeSums {
+
+        /** Tree slot holding the totals across all categories */
+        static final int ALL = Category.values().length;
+
+        /** Epoch day of the earliest date an expense may have */
+        private static final long EARLIEST_DAY = ExpenseDTO.EARLIEST_DATE.toEpochDay();
+
+        /** Epoch day of index zero */
+        private long originDay;
+
+        /** Number of days covered, zero until the first expense */
+        private int size;
+
+        /** Trees per category ordinal, then across all categories; null until used */
+        private final FenwickTree[] trees = new FenwickTree[ALL + 1];
+
+        UserRangeSums() {
+        }
+
+        UserRangeSums(long originDay, long[][] values) {
+            this.originDay = originDay;
+            this.size = values[ALL].length;
+            for (int slot = 0; slot < trees.length; slot++) {
+                if (values[slot] != null) {
+                    trees[slot] = FenwickTree.of(values[slot]);
+                }
+            }
+        }
+
+        synchronized long sum(long fromDay, long toDay, int slot) {
+            FenwickTree tree = trees[slot];
+            if (tree == null) {
+                return 0;
+            }
+            long from = Math.max(fromDay, originDay) - originDay;
+            long to = Math.min(toDay, originDay + size - 1) - originDay;
+            return from > to ? 0 : tree.rangeSum((int) from, (int) to);
+        }
+
+        synchronized void apply(ExpenseChangedEvent event) {
+            ExpenseSnapshot before = event.getBefore();
+            ExpenseSnapshot after = event.getAfter();
+            if (before != null) {
+                add(before.getDate().toEpochDay(), before.getCategory().ordinal(), -Money.toCents(before.getAmount()));
+            }
+            if (after != null) {
+                add(after.getDate().toEpochDay(), after.getCategory().ordinal(), Money.toCents(after.getAmount()));
+            }
+        }
+
+        private void add(long day, int category, long cents) {
+            cover(day);
+            int index = (int) (day - originDay);
+            if (trees[category] == null) {
+                trees[category] = new FenwickTree(size);
+            }
+            trees[category].add(index, cents);
+            trees[ALL].add(index, cents);
+        }
+
+        /**
+         * Extends the covered range to include a day.
+         *
+         * Grows by at least doubling, on the side of the new day, so that
+         * rebuilds are amortized O(1) per write, but not past the dates an
+         * expense may have.
+         *
+         * @param day epoch day to cover
+         */
+        private void cover(long day) {
+            if (size == 0) {
+                originDay = day;
+                size = 1;
+                trees[ALL] = new FenwickTree(size);
+                return;
+            }
+            long lastDay = originDay + size - 1;
+            if (day >= originDay && day <= lastDay) {
+                return;
+            }
+
+            long newOrigin = originDay;
+            long newLastDay = lastDay;
+            if (day < originDay) {
+                newOrigin = Math.max(Math.min(day, lastDay - 2L * size + 1), Math.min(day, EARLIEST_DAY));
+            } else {
+                newLastDay = Math.min(Math.max(day, originDay + 2L * size - 1),
+                    Math.max(day, LocalDate.now().toEpochDay()));
+            }
+            int newSize = Math.toIntExact(newLastDay - newOrigin + 1);
+            int offset = (int) (originDay - newOrigin);
+            for (int slot = 0; slot < trees.length; slot++) {
+                if (trees[slot] != null) {
+                    long[] values = new long[newSize];
+                    System.arraycopy(trees[slot].toValues(), 0, values, offset, size);
+                    trees[slot] = FenwickTree.of(values);
+                }
+            }
+            originDay = newOrigin;
+            size = newSize;
+        }
+
+        synchronized long capacityBytes() {
+            long bytes = 0;
+            for (FenwickTree tree : trees) {
+                if (tree != null) {
+                    bytes += (long) (tree.size() + 1) * Long.BYTES;
+                }
+            }
+            return bytes;
+        }
+
+    }
+
+}
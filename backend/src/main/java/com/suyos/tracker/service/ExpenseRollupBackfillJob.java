@@ -0,0 +1,64 @@
+package com.suyos.tracker.service;
+
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.sharding.ShardContext;
+import com.suyos.tracker.sharding.ShardMap;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Startup job that builds expense rollups from the users' expenses, archived ones included.
+ * 
+ * Enabled with {@code tracker.rollups.backfill-on-startup=true} after
+ * deploying rollups to a database with existing expenses, or to repair
+ * drift. Each user is rebuilt in its own transaction so the job can be
+ * interrupted and rerun safely.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "tracker.rollups.backfill-on-startup", havingValue = "true")
+public class ExpenseRollupBackfillJob implements ApplicationRunner {
+
+    /** Repository for user data access operations */
+    private final UserRepository userRepository;
+
+    /** Directory of the users' shards */
+    private final ShardMap shardMap;
+
+    /** Service rebuilding rollups per user */
+    private final ExpenseRollupService expenseRollupService;
+
+    /**
+     * Rebuilds the rollups of every user.
+     * 
+     * @param args application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> userIds = shardMap.onEachShard(userRepository::findAllIds).stream()
+            .flatMap(List::stream)
+            .toList();
+        log.info("Backfilling expense rollups for {} users", userIds.size());
+        int rows = 0;
+        for (Long userId : userIds) {
+            try (ShardContext.Scope scope = shardMap.bindUser(userId)) {
+                rows += expenseRollupService.rebuildForUser(userId);
+            }
+        }
+        log.info("Expense rollup backfill finished: {} rollup rows written", rows);
+    }
+
+}
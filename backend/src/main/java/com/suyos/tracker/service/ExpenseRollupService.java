@@ -0,0 +1,187 @@
+package com.suyos.tracker.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.dto.ExpenseSummaryDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.ExpenseRollup;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.repository.ExpenseRollupRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Service maintaining per-user monthly/category spending rollups.
+ * 
+ * Expense change events apply signed deltas to the affected rollup rows
+ * inside the publishing transaction, so rollups commit or roll back together
+ * with the expense. Summaries are then answered with one indexed range lookup
+ * regardless of how many expenses a user has. A per-user rebuild from the
+ * user's whole expense history, archived expenses included, backs the
+ * backfill job and repairs any drift.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ExpenseRollupService {
+
+    /** Repository for rollup data access operations */
+    private final ExpenseRollupRepository expenseRollupRepository;
+
+    /** Expenses of the table and the archive */
+    private final ExpenseHistory expenseHistory;
+
+    /** Off-heap copy of the rollups serving summaries */
+    private final OffHeapRollupStore offHeapRollupStore;
+
+    /**
+     * Applies an expense change to the affected rollups.
+     * 
+     * Runs synchronously in the transaction of the expense write. An update
+     * moves the previous values out of their rollup and the new values in.
+     * 
+     * @param event the expense change
+     */
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        ExpenseSnapshot before = event.getBefore();
+        ExpenseSnapshot after = event.getAfter();
+        if (before != null) {
+            subtract(event.getUserId(), before.getDate(), before.getCategory(), before.getAmount());
+        }
+        if (after != null) {
+            add(event.getUserId(), after.getDate(), after.getCategory(), after.getAmount());
+        }
+    }
+
+    /**
+     * Adds an expense to the rollup of its month and category.
+     * 
+     * @param userId ID of the user owning the expense
+     * @param date date of the expense
+     * @param category category of the expense
+     * @param amount amount of the expense
+     */
+    public void add(Long userId, LocalDate date, Category category, BigDecimal amount) {
+        applyDelta(userId, toYearMonthKey(date), category, Money.toCents(amount), 1);
+    }
+
+    /**
+     * Removes an expense from the rollup of its month and category.
+     * 
+     * @param userId ID of the user owning the expense
+     * @param date date of the expense
+     * @param category category of the expense
+     * @param amount amount of the expense
+     */
+    public void subtract(Long userId, LocalDate date, Category category, BigDecimal amount) {
+        applyDelta(userId, toYearMonthKey(date), category, -Money.toCents(amount), -1);
+    }
+
+    /**
+     * Applies a delta to a rollup row, creating the row on first use.
+     * 
+     * A single upsert, so concurrent first writes to the same (user, month,
+     * category) both count without either failing on the unique constraint.
+     * 
+     * @param userId ID of the user owning the rollup
+     * @param yearMonth month encoded as yyyyMM
+     * @param category expense category
+     * @param centsDelta amount in cents to add
+     * @param countDelta number of expenses to add
+     */
+    private void applyDelta(Long userId, int yearMonth, Category category, long centsDelta, long countDelta) {
+        expenseRollupRepository.upsertDelta(userId, yearMonth, category, centsDelta, countDelta);
+    }
+
+    /**
+     * Rebuilds a user's rollups from their expenses.
+     * 
+     * Replaces the user's rollup rows with their monthly totals, within a
+     * single transaction: one grouped query over the expenses table, merged
+     * with the user's archived expenses, so archived months keep their
+     * totals. The user's off-heap totals are discarded once it commits.
+     * 
+     * @param userId ID of the user whose rollups to rebuild
+     * @return number of rollup rows written
+     */
+    public int rebuildForUser(Long userId) {
+        expenseRollupRepository.deleteByUserId(userId);
+        List<ExpenseRollup> rollups = expenseHistory.sumByMonthAndCategory(userId)
+            .stream()
+            .map(total -> ExpenseRollup.builder()
+                .userId(userId)
+                .yearMonth(total.getYear() * 100 + total.getMonth())
+                .category(total.getCategory())
+                .totalCents(Money.toCents(total.getTotal()))
+                .expenseCount(total.getCount())
+                .build())
+            .toList();
+        expenseRollupRepository.saveAll(rollups);
+        offHeapRollupStore.invalidate(userId);
+        return rollups.size();
+    }
+
+    /**
+     * Retrieves a user's spending per month and category within a month range.
+     * 
+     * Months and categories without expenses are omitted. Served from the
+     * {@link OffHeapRollupStore} when it holds the user and range, otherwise
+     * from the rollup table.
+     * 
+     * @param userId ID of the user
+     * @param from first month (inclusive)
+     * @param to last month (inclusive)
+     * @return summaries ordered by month and category
+     */
+    @Transactional(readOnly = true)
+    public List<ExpenseSummaryDTO> getMonthlySummary(Long userId, YearMonth from, YearMonth to) {
+        return offHeapRollupStore.getMonthlySummary(userId, from, to).orElseGet(() -> expenseRollupRepository
+            .findByUserIdAndYearMonthBetweenOrderByYearMonthAscCategoryAsc(userId, toYearMonthKey(from),
+                toYearMonthKey(to))
+            .stream()
+            .filter(rollup -> rollup.getExpenseCount() > 0)
+            .map(rollup -> ExpenseSummaryDTO.builder()
+                .yearMonth(YearMonth.of(rollup.getYearMonth() / 100, rollup.getYearMonth() % 100))
+                .category(rollup.getCategory())
+                .total(Money.toBigDecimal(rollup.getTotalCents()))
+                .count(rollup.getExpenseCount())
+                .build())
+            .toList());
+    }
+
+    /**
+     * Encodes the month of a date as yyyyMM.
+     * 
+     * @param date the date
+     * @return the month key
+     */
+    static int toYearMonthKey(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    /**
+     * Encodes a month as yyyyMM.
+     * 
+     * @param yearMonth the month
+     * @return the month key
+     */
+    static int toYearMonthKey(YearMonth yearMonth) {
+        return yearMonth.getYear() * 100 + yearMonth.getMonthValue();
+    }
+
+}
@@ -1,16 +1,30 @@
 package com.suyos.tracker.service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.suyos.tracker.archive.ArchivedExpenseException;
+import com.suyos.tracker.archive.ExpenseArchive;
+import com.suyos.tracker.dto.BudgetAlertDTO;
 import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.dto.ExpenseLookupResponseDTO;
 import com.suyos.tracker.dto.PagedResponse;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
 import com.suyos.tracker.mapper.ExpenseMapper;
 import com.suyos.tracker.model.Category;
 import com.suyos.tracker.model.Expense;
@@ -28,13 +42,24 @@ import lombok.RequiredArgsConstructor;
  * for expense operations. It handles entity-DTO conversions and provides both
  * paginated and non-paginated data access methods.
  * 
+ * Every write publishes an {@link ExpenseChangedEvent} within its transaction
+ * so derived data (rollups, in-memory analytics, the change outbox) is
+ * maintained by listeners instead of being wired into this service. Creates and updates are first
+ * checked against the user's budgets, and crossed thresholds are returned
+ * with the written expense. Amounts are flagged as anomalous before they
+ * are saved, from in-memory statistics and without an extra query.
+ * 
  * @author Joel Salazar
  * @version 1.0
  * @since 1.0
  */
 @Service
 @RequiredArgsConstructor
+@Transactional
 public class ExpenseService {
+    
+    /** Maximum number of IDs bound into a single IN-list query */
+    static final int LOOKUP_BATCH_SIZE = 500;
         
     /** Repository for expense data access operations */
     private final ExpenseRepository expenseRepository;
@@ -45,13 +70,29 @@ public class ExpenseService {
     /** Mapper for converting between entities and DTOs */
     private final ExpenseMapper expenseMapper;
     
+    /** Publisher for expense change events */
+    private final ApplicationEventPublisher eventPublisher;
+    
+    /** Service checking writes against the user's budgets */
+    private final BudgetService budgetService;
+    
+    /** Service flagging unusual amounts */
+    private final ExpenseAnomalyService expenseAnomalyService;
+    
+    /** Cold tier of expenses moved out of the table */
+    private final ExpenseArchive expenseArchive;
+    
     /**
      * Retrieves expenses with pagination, sorting, and optional filtering for a specific user.
      * 
      * This method provides efficient data access for large datasets by implementing
      * server-side pagination with optional filters for category and date range.
      * Results are filtered by user and sorted by the specified field and direction.
-     * 
+     *
+     * Archived expenses ({@link ExpenseArchive}) matching the filters are
+     * merged into the pages, so moving old expenses to the archive does not
+     * change what is listed.
+     *
      * @param page Zero-based page index
      * @param size Number of records per page
      * @param sortBy Field name to sort by
@@ -62,6 +103,7 @@ public class ExpenseService {
      * @param userId ID of the user whose expenses to retrieve
      * @return PagedResponse containing expense DTOs and pagination metadata
      */
+    @Transactional(readOnly = true)
     public PagedResponse<ExpenseDTO> getAllExpensesPaginated(Long userId, int page, int size, String sortBy, 
         String sortDir, Category category, LocalDate startDate, LocalDate endDate) {
         // Create pageable request with dynamic sorting
@@ -71,24 +113,16 @@ public class ExpenseService {
         }
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        // Apply conditional filtering based on provided parameters (user-specific)
-        Page<Expense> expensePage;
-        
-        if (category != null && startDate != null && endDate != null) {
-            // Filter by user, category and date range
-            expensePage = expenseRepository.findByUserIdAndCategoryAndDateBetween(userId, 
-                category, startDate, endDate, pageable);
-        } else if (category != null) {
-            // Filter by user and category only
-            expensePage = expenseRepository.findByUserIdAndCategory(userId, category, pageable);
-        } else if (startDate != null && endDate != null) {
-            // Filter by user and date range only
-            expensePage = expenseRepository.findByUserIdAndDateBetween(userId, startDate, endDate, 
-                pageable);
-        } else {
-            // No filters applied - return all user expenses
-            expensePage = expenseRepository.findByUserId(userId, pageable);
-        }
+        // Archived expenses are merged in only when the date range reaches archived months
+        boolean dateRange = startDate != null && endDate != null;
+        LocalDate archiveStart = dateRange ? startDate : null;
+        LocalDate archiveEnd = dateRange ? endDate : null;
+        long archived = expenseArchive.overlaps(userId, archiveStart, archiveEnd)
+            ? expenseArchive.count(userId, category, archiveStart, archiveEnd)
+            : 0;
+        Page<Expense> expensePage = archived == 0
+            ? findLive(userId, category, startDate, endDate, pageable)
+            : mergeArchived(userId, category, startDate, endDate, pageable, archived);
         
         // Convert entities to DTOs for API response
         List<ExpenseDTO> expenses = expensePage.getContent()
@@ -108,23 +142,189 @@ public class ExpenseService {
             .build();
     }
 
+    /**
+     * Reads a page of expenses from the expenses table.
+     * 
+     * @param userId ID of the user whose expenses to retrieve
+     * @param category Optional category filter (null for no filter)
+     * @param startDate Optional start date filter (null for no filter)
+     * @param endDate Optional end date filter (null for no filter)
+     * @param pageable The rows to read and their order
+     * @return the page of expenses
+     */
+    private Page<Expense> findLive(Long userId, Category category, LocalDate startDate, LocalDate endDate,
+        Pageable pageable) {
+        // Apply conditional filtering based on provided parameters (user-specific)
+        if (category != null && startDate != null && endDate != null) {
+            // Filter by user, category and date range
+            return expenseRepository.findByUserIdAndCategoryAndDateBetween(userId, 
+                category, startDate, endDate, pageable);
+        } else if (category != null) {
+            // Filter by user and category only
+            return expenseRepository.findByUserIdAndCategory(userId, category, pageable);
+        } else if (startDate != null && endDate != null) {
+            // Filter by user and date range only
+            return expenseRepository.findByUserIdAndDateBetween(userId, startDate, endDate, 
+                pageable);
+        } else {
+            // No filters applied - return all user expenses
+            return expenseRepository.findByUserId(userId, pageable);
+        }
+    }
+    
+    /**
+     * Reads a page of the merged archived and live expenses.
+     * 
+     * Both tiers are ordered by the page's sort, then by ID. Only the
+     * archived rows up to the end of the page, {@code offset + size} at
+     * most, are read, without holding the rest of the archive. A page can
+     * hold at most every one of those rows before it, so the live rows are
+     * read as one window of {@code archived + size} rows starting at the
+     * page offset minus the archived count; counting the archived rows
+     * before the window's first row places it in the merged order.
+     * 
+     * @param userId ID of the user whose expenses to retrieve
+     * @param category Optional category filter (null for no filter)
+     * @param startDate Optional start date filter (null for no filter)
+     * @param endDate Optional end date filter (null for no filter)
+     * @param pageable The requested page
+     * @param archived Number of the user's archived expenses matching the filters
+     * @return the page of merged expenses
+     */
+    private Page<Expense> mergeArchived(Long userId, Category category, LocalDate startDate, LocalDate endDate,
+        Pageable pageable, long archived) {
+        // Make the order total so both tiers agree on it
+        Sort order = pageable.getSort();
+        if (order.getOrderFor("id") == null) {
+            Sort.Order first = order.iterator().next();
+            order = order.and(Sort.by(first.getDirection(), "id"));
+        }
+        Comparator<Expense> comparator = ExpenseArchive.order(order);
+        
+        // Every archived row the page can show, or that can precede it
+        long offset = pageable.getOffset();
+        boolean dateRange = startDate != null && endDate != null;
+        int limit = (int) Math.min(archived, offset + pageable.getPageSize());
+        List<Expense> sorted = expenseArchive.first(userId, category, dateRange ? startDate : null,
+            dateRange ? endDate : null, order, limit);
+        
+        // Read the live rows that can fall on the page
+        long windowStart = Math.max(0, offset - sorted.size());
+        Page<Expense> live = findLive(userId, category, startDate, endDate,
+            new OffsetPageRequest(windowStart, sorted.size() + pageable.getPageSize(), order));
+        List<Expense> liveRows = live.getContent();
+        
+        // Position of the window's first row among the merged rows
+        int next = 0;
+        if (windowStart > 0) {
+            next = liveRows.isEmpty() ? sorted.size() : countBefore(sorted, liveRows.get(0), comparator);
+        }
+        long position = windowStart + next;
+        
+        // Merge the tiers, skipping the rows of earlier pages
+        List<Expense> content = new ArrayList<>(pageable.getPageSize());
+        int nextLive = 0;
+        while (content.size() < pageable.getPageSize() && (next < sorted.size() || nextLive < liveRows.size())) {
+            Expense expense;
+            if (next == sorted.size() || nextLive < liveRows.size()
+                    && comparator.compare(liveRows.get(nextLive), sorted.get(next)) <= 0) {
+                expense = liveRows.get(nextLive++);
+            } else {
+                expense = sorted.get(next++);
+            }
+            if (position++ >= offset) {
+                content.add(expense);
+            }
+        }
+        return new PageImpl<>(content, pageable, live.getTotalElements() + archived);
+    }
+    
+    /**
+     * Counts the sorted rows ordered before an expense.
+     */
+    private static int countBefore(List<Expense> sorted, Expense expense, Comparator<Expense> comparator) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(sorted.get(middle), expense) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
     /**
      * Retrieves a specific expense by its ID for a specific user.
      * 
+     * Expenses moved to the archive are read from it when the table has no
+     * such expense.
+     * 
      * @param id The unique identifier of the expense
      * @param userId The ID of the user who owns the expense
      * @return ExpenseDTO containing the expense data
      * @throws RuntimeException if no expense exists with the given ID for the user
      */
+    @Transactional(readOnly = true)
     public ExpenseDTO getExpenseById(Long id, Long userId) {
-        // Find expense by ID and user ID or throw exception if not found
+        // Find expense by ID and user ID, then in the archive, or throw exception if not found
         Expense expense = expenseRepository.findByIdAndUserId(id, userId)
+            .or(() -> expenseArchive.findById(userId, id))
             .orElseThrow(() -> new RuntimeException("Expense not found with id: " + id));
         
         // Convert entity to DTO
         return expenseMapper.toDTO(expense);
     }
 
+    /**
+     * Retrieves several expenses by ID for a specific user.
+     * 
+     * Duplicate IDs are resolved once and the remaining IDs are fetched in
+     * IN-list batches of at most {@link #LOOKUP_BATCH_SIZE}, so a lookup of a
+     * few hundred expenses costs a single query. Found expenses are returned in
+     * the order their IDs were first requested; IDs that do not exist or belong
+     * to another user are reported as missing. IDs not in the table are
+     * looked up in the archive.
+     * 
+     * @param ids The expense IDs in the caller's order
+     * @param userId The ID of the user who owns the expenses
+     * @return ExpenseLookupResponseDTO with found expenses and missing IDs
+     */
+    @Transactional(readOnly = true)
+    public ExpenseLookupResponseDTO getExpensesByIds(List<Long> ids, Long userId) {
+        // Resolve each ID once while keeping first-occurrence order
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        
+        // Fetch in bounded IN-list batches
+        Map<Long, Expense> found = new HashMap<>();
+        for (int from = 0; from < uniqueIds.size(); from += LOOKUP_BATCH_SIZE) {
+            List<Long> batch = uniqueIds.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, uniqueIds.size()));
+            for (Expense expense : expenseRepository.findByUserIdAndIdIn(userId, batch)) {
+                found.put(expense.getId(), expense);
+            }
+        }
+        
+        // Reassemble in request order, falling back to the archive, and collect missing IDs
+        List<ExpenseDTO> expenses = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            Expense expense = found.containsKey(id) ? found.get(id)
+                : expenseArchive.findById(userId, id).orElse(null);
+            if (expense != null) {
+                expenses.add(expenseMapper.toDTO(expense));
+            } else {
+                missingIds.add(id);
+            }
+        }
+        
+        return ExpenseLookupResponseDTO.builder()
+            .expenses(expenses)
+            .missingIds(missingIds)
+            .build();
+    }
+
     /**
      * Creates a new expense record for a specific user.
      * 
@@ -147,11 +347,23 @@ public class ExpenseService {
         // Associate expense with user
         expense.setUser(user);
         
+        // Flag unusual amounts against the user's in-memory statistics
+        expense.setAnomalous(expenseAnomalyService.isAnomalous(userId, expense.getCategory(), expense.getAmount()));
+        
         // Save entity to database (ID and timestamps auto-generated)
         Expense savedExpense = expenseRepository.save(expense);
         
-        // Return saved entity as DTO with generated ID
-        return expenseMapper.toDTO(savedExpense);
+        // Check budgets while the running totals still exclude this write
+        ExpenseSnapshot after = ExpenseSnapshot.of(savedExpense);
+        List<BudgetAlertDTO> budgetAlerts = budgetService.evaluate(userId, null, after);
+        
+        // Notify listeners maintaining derived data
+        eventPublisher.publishEvent(ExpenseChangedEvent.created(userId, after));
+        
+        // Return saved entity as DTO with generated ID and any crossed thresholds
+        ExpenseDTO createdDTO = expenseMapper.toDTO(savedExpense);
+        createdDTO.setBudgetAlerts(budgetAlerts);
+        return createdDTO;
     }
     
     /**
@@ -165,24 +377,39 @@ public class ExpenseService {
      * @param expenseDTO The updated expense data
      * @param userId The ID of the user who owns the expense
      * @return ExpenseDTO containing the updated expense
+     * @throws ArchivedExpenseException if the expense was moved to the archive
      * @throws RuntimeException if no expense exists with the given ID for the user
      */
     public ExpenseDTO updateExpenseById(Long id, ExpenseDTO expenseDTO, Long userId) {
         // Validate that expense exists and belongs to user before updating
         Expense existingExpense = expenseRepository.findByIdAndUserId(id, userId)
-            .orElseThrow(() -> new RuntimeException("Expense not found with id: " + id));
+            .orElseThrow(() -> notFound(id, userId));
+        
+        // Capture the previous values before they are overwritten
+        ExpenseSnapshot before = ExpenseSnapshot.of(existingExpense);
         
         // Update modifiable fields (preserve ID, createdAt, user)
         existingExpense.setDescription(expenseDTO.getDescription());
         existingExpense.setAmount(expenseDTO.getAmount());
         existingExpense.setDate(expenseDTO.getDate());
         existingExpense.setCategory(expenseDTO.getCategory());
+        existingExpense.setAnomalous(expenseAnomalyService.isAnomalous(userId, expenseDTO.getCategory(),
+            expenseDTO.getAmount()));
 
         // Save updated entity (updatedAt timestamp automatically set)
         Expense updatedExpense = expenseRepository.save(existingExpense);
         
-        // Return updated entity as DTO
-        return expenseMapper.toDTO(updatedExpense);
+        // Check budgets while the running totals still exclude this write
+        ExpenseSnapshot after = ExpenseSnapshot.of(updatedExpense);
+        List<BudgetAlertDTO> budgetAlerts = budgetService.evaluate(userId, before, after);
+        
+        // Notify listeners maintaining derived data
+        eventPublisher.publishEvent(ExpenseChangedEvent.updated(userId, before, after));
+        
+        // Return updated entity as DTO with any crossed thresholds
+        ExpenseDTO updatedDTO = expenseMapper.toDTO(updatedExpense);
+        updatedDTO.setBudgetAlerts(budgetAlerts);
+        return updatedDTO;
     }
 
     /**
@@ -193,12 +420,28 @@ public class ExpenseService {
      * 
      * @param id The ID of the expense to delete
      * @param userId The ID of the user who owns the expense
+     * @throws ArchivedExpenseException if the expense was moved to the archive
      * @throws RuntimeException if no expense exists with the given ID for the user
      */
     public void deleteExpenseById(Long id, Long userId) {
         Expense expense = expenseRepository.findByIdAndUserId(id, userId)
-            .orElseThrow(() -> new RuntimeException("Expense not found with id: " + id));
+            .orElseThrow(() -> notFound(id, userId));
         expenseRepository.delete(expense);
+        
+        // Notify listeners maintaining derived data
+        eventPublisher.publishEvent(ExpenseChangedEvent.deleted(userId, ExpenseSnapshot.of(expense)));
+    }
+
+    /**
+     * Explains why a write found no expense in the table.
+     * 
+     * @return an {@link ArchivedExpenseException} if the expense is archived, a not-found exception otherwise
+     */
+    private RuntimeException notFound(Long id, Long userId) {
+        if (expenseArchive.findById(userId, id).isPresent()) {
+            return new ArchivedExpenseException(id);
+        }
+        return new RuntimeException("Expense not found with id: " + id);
     }
 
-}
\ No newline at end of file
+}
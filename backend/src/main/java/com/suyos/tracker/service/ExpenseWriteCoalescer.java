@@ -0,0 +1,370 @@
+package com.suyos.tracker.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.sharding.ShardContext;
+import com.suyos.tracker.sharding.ShardMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Group commit for concurrent expense creations.
+ *
+ * When {@code tracker.expenses.coalesce.enabled} is true, creations are
+ * queued and a single flusher thread writes them in batches: it takes the
+ * oldest waiting creation, adds whatever else arrives until
+ * {@code tracker.expenses.coalesce.max-delay} after that creation was
+ * submitted or until {@code tracker.expenses.coalesce.max-batch} are
+ * collected, and runs the whole batch through
+ * {@link ExpenseService#createExpense} in one transaction. Concurrent
+ * writers then share one commit instead of paying one each; under load the
+ * next batch fills while the previous one commits, so the delay only
+ * matters when writes are sparse. This pays off when commits are synced to
+ * disk; otherwise the single flusher only adds latency, so coalescing is
+ * off by default and creations then run directly on the caller's thread.
+ *
+ * Callers are completed only after the batch has committed. If any creation
+ * in a batch fails, the batch is rolled back and each creation is retried
+ * in its own transaction, so one invalid request fails alone. A failure
+ * outside the creations, such as resolving the users' shards, fails the
+ * whole batch and the flusher carries on with the next one. Expense
+ * change listeners see a rolled-back batch as never having happened.
+ * Budget checks within one batch see the totals committed before it plus
+ * the batch's earlier creations of the same user, so a threshold crossed by
+ * their combined amount is reported. With sharding, a batch commits once
+ * per shard among its users.
+ *
+ * A blocking caller waits at most {@code tracker.expenses.coalesce.wait-timeout}
+ * for the flusher to take its creation and then creates it directly; a
+ * creation the flusher has already taken is always completed by it.
+ *
+ * Statements run on the flusher thread and are therefore not attributed to
+ * the HTTP request by {@link com.suyos.tracker.config.SqlStatementTracker}.
+ * Commits and batch sizes are published as the {@code tracker.expenses.commits}
+ * and {@code tracker.expenses.batch.size} metrics.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseWriteCoalescer {
+
+    /** Service performing each creation */
+    private final ExpenseService expenseService;
+
+    /** Transaction manager for batch transactions */
+    private final PlatformTransactionManager transactionManager;
+
+    /** Registry of the commit metrics */
+    private final MeterRegistry meterRegistry;
+
+    /** Directory of the users' shards */
+    private final ShardMap shardMap;
+
+    /** Whether creations are batched; if false they run directly on the caller's thread */
+    @Value("${tracker.expenses.coalesce.enabled:false}")
+    private boolean enabled;
+
+    /** Longest a creation waits for others to share its commit */
+    @Value("${tracker.expenses.coalesce.max-delay:PT0.002S}")
+    private Duration maxDelay = Duration.ofMillis(2);
+
+    /** Most creations committed together */
+    @Value("${tracker.expenses.coalesce.max-batch:64}")
+    private int maxBatch = 64;
+
+    /** Longest a blocking caller waits for the flusher before creating directly */
+    @Value("${tracker.expenses.coalesce.wait-timeout:PT10S}")
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    /** Creations waiting for the flusher */
+    private final BlockingQueue<PendingCreation> queue = new LinkedBlockingQueue<>();
+
+    /** Committed transactions */
+    private Counter commits;
+
+    /** Creations per committed transaction */
+    private DistributionSummary batchSizes;
+
+    /** Thread writing the batches */
+    private Thread flusher;
+
+    /** Whether the flusher accepts creations */
+    private volatile boolean running;
+
+    /**
+     * Registers the metrics and starts the flusher if coalescing is enabled.
+     */
+    @PostConstruct
+    public void start() {
+        commits = Counter.builder("tracker.expenses.commits")
+            .description("Transactions committed by expense creations")
+            .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("tracker.expenses.batch.size")
+            .description("Expense creations per committed transaction")
+            .register(meterRegistry);
+        if (enabled) {
+            running = true;
+            flusher = new Thread(this::flushLoop, "expense-write-coalescer");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Creates an expense, sharing the commit with concurrent creations.
+     *
+     * Blocks until the creation has committed or failed and rethrows the
+     * failure of {@link ExpenseService#createExpense} unchanged. If the
+     * flusher has not taken the creation within the wait timeout, it is
+     * created directly on the caller's thread instead.
+     *
+     * @param expenseDTO the expense data to create
+     * @param userId ID of the user who owns the expense
+     * @return the created expense with its generated ID
+     * @throws IllegalStateException if a batch holding the creation is still
+     *         running after another wait timeout, or the caller is interrupted
+     */
+    public ExpenseDTO createExpense(ExpenseDTO expenseDTO, Long userId) {
+        PendingCreation creation = enqueue(expenseDTO, userId);
+        try {
+            try {
+                return await(creation);
+            } catch (TimeoutException e) {
+                if (creation.claim()) {
+                    log.warn("Expense creation not taken by the flusher within {}, creating directly", waitTimeout);
+                    createAlone(creation);
+                }
+                return await(creation);
+            }
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Expense creation still running after " + waitTimeout.multipliedBy(2), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while creating an expense", e);
+        }
+    }
+
+    /**
+     * Queues an expense creation for the next batch.
+     *
+     * @param expenseDTO the expense data to create
+     * @param userId ID of the user who owns the expense
+     * @return future completed with the created expense once committed
+     */
+    public CompletableFuture<ExpenseDTO> submit(ExpenseDTO expenseDTO, Long userId) {
+        return enqueue(expenseDTO, userId).result;
+    }
+
+    private PendingCreation enqueue(ExpenseDTO expenseDTO, Long userId) {
+        PendingCreation creation = new PendingCreation(expenseDTO, userId, System.nanoTime());
+        if (running) {
+            queue.add(creation);
+            // Creations queued while stopping are run by whoever removes them
+            if (running || !queue.remove(creation)) {
+                return creation;
+            }
+        }
+        creation.claim();
+        createAlone(creation);
+        return creation;
+    }
+
+    /**
+     * Waits for a creation and rethrows its failure unwrapped.
+     */
+    private ExpenseDTO await(PendingCreation creation) throws TimeoutException, InterruptedException {
+        try {
+            return creation.result.get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Stops the flusher and writes the creations still queued.
+     *
+     * @throws InterruptedException if interrupted while waiting for the flusher
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        flusher.join();
+        List<PendingCreation> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.removeIf(creation -> !creation.claim());
+        if (!remaining.isEmpty()) {
+            flushSafely(remaining);
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingCreation> batch = new ArrayList<>(maxBatch);
+        try {
+            while (running) {
+                PendingCreation first = queue.take();
+                if (!first.claim()) {
+                    // Created directly by its caller after waiting too long
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.submittedAt + maxDelay.toNanos();
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingCreation next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next.claim()) {
+                        batch.add(next);
+                    }
+                }
+                flushSafely(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Stopping; the batch being collected is written before exiting
+            flushSafely(batch);
+        }
+    }
+
+    /**
+     * Writes a batch, failing whatever it leaves incomplete instead of
+     * letting the failure end the flusher.
+     */
+    private void flushSafely(List<PendingCreation> batch) {
+        try {
+            flush(batch);
+        } catch (Throwable e) {
+            log.error("Batch of {} expense creations failed", batch.size(), e);
+            batch.forEach(creation -> creation.result.completeExceptionally(e));
+        }
+    }
+
+    private void flush(List<PendingCreation> batch) {
+        // A transaction spans one database, so users on different shards commit separately
+        List<Long> userIds = batch.stream().map(creation -> creation.userId).toList();
+        try (ShardContext.Scope locks = shardMap.lockUsers(userIds)) {
+            Map<Integer, List<PendingCreation>> byShard = batch.stream()
+                .collect(Collectors.groupingBy(creation -> shardMap.shardOf(creation.userId), TreeMap::new,
+                    Collectors.toList()));
+            for (Map.Entry<Integer, List<PendingCreation>> shard : byShard.entrySet()) {
+                try (ShardContext.Scope scope = shardMap.bindShard(shard.getKey())) {
+                    commit(shard.getValue());
+                }
+            }
+        }
+    }
+
+    private void commit(List<PendingCreation> batch) {
+        if (batch.size() == 1) {
+            createAlone(batch.get(0));
+            return;
+        }
+        List<ExpenseDTO> created;
+        try {
+            created = new TransactionTemplate(transactionManager).execute(status -> {
+                List<ExpenseDTO> results = new ArrayList<>(batch.size());
+                for (PendingCreation creation : batch) {
+                    results.add(expenseService.createExpense(creation.expenseDTO, creation.userId));
+                }
+                return results;
+            });
+        } catch (RuntimeException e) {
+            log.debug("Batch of {} expense creations failed, retrying one by one", batch.size(), e);
+            batch.forEach(this::createAlone);
+            return;
+        }
+        commits.increment();
+        batchSizes.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(created.get(i));
+        }
+    }
+
+    private void createAlone(PendingCreation creation) {
+        try {
+            ExpenseDTO created = expenseService.createExpense(creation.expenseDTO, creation.userId);
+            commits.increment();
+            batchSizes.record(1);
+            creation.result.complete(created);
+        } catch (Throwable e) {
+            creation.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Expense creation waiting to be written.
+     */
+    private static final class PendingCreation {
+
+        /** The expense data to create */
+        private final ExpenseDTO expenseDTO;
+
+        /** ID of the user who owns the expense */
+        private final Long userId;
+
+        /** {@link System#nanoTime()} at submission */
+        private final long submittedAt;
+
+        /** Completed with the created expense once committed */
+        private final CompletableFuture<ExpenseDTO> result = new CompletableFuture<>();
+
+        /** Set by whoever writes the creation: the flusher or, after a timeout, its caller */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private PendingCreation(ExpenseDTO expenseDTO, Long userId, long submittedAt) {
+            this.expenseDTO = expenseDTO;
+            this.userId = userId;
+            this.submittedAt = submittedAt;
+        }
+
+        /**
+         * Takes the creation over for writing.
+         *
+         * @return false if someone else already took it
+         */
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+    }
+
+}
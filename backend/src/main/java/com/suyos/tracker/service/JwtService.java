@@ -1,6 +1,7 @@
 package com.suyos.tracker.service;
 
 //import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -30,6 +31,12 @@ import io.jsonwebtoken.Jwts;
 @Service
 public class JwtService {
     
+    /** Claim naming what a restricted token may be used for */
+    public static final String SCOPE_CLAIM = "scope";
+    
+    /** Scope of stream tickets, only accepted by the expense change stream */
+    public static final String STREAM_SCOPE = "expense-stream";
+    
     /** JWT secret key from application properties */
     @Value("${jwt.secret}")
     private String secretKey;
@@ -92,6 +99,38 @@ public class JwtService {
         return buildToken(extraClaims, userDetails, jwtExpiration);
     }
 
+    /**
+     * Generates a short-lived ticket for opening an expense change stream.
+     * 
+     * Browsers cannot send an Authorization header with an EventSource, so
+     * the ticket travels in the stream URL instead. It carries the
+     * {@link #STREAM_SCOPE} scope, which {@link #isTokenValid} rejects, so a
+     * ticket leaked through a URL cannot be used as an access token.
+     * 
+     * @param username the email of the authenticated user
+     * @param ttl how long the ticket remains valid
+     * @return the signed ticket
+     */
+    public String generateStreamTicket(String username, Duration ttl) {
+        return Jwts.builder()
+                .claims(Map.of(SCOPE_CLAIM, STREAM_SCOPE))
+                .subject(username)
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + ttl.toMillis()))
+                .signWith(getSignInKey())
+                .compact();
+    }
+
+    /**
+     * Checks whether a token is a stream ticket.
+     * 
+     * @param token the JWT token
+     * @return true if the token carries the stream scope, false otherwise
+     */
+    public boolean isStreamTicket(String token) {
+        return STREAM_SCOPE.equals(extractClaim(token, claims -> claims.get(SCOPE_CLAIM, String.class)));
+    }
+
     /**
      * Gets JWT token expiration time in seconds.
      * 
@@ -104,13 +143,15 @@ public class JwtService {
     /**
      * Validates JWT token against user details.
      * 
+     * Stream tickets are not valid access tokens.
+     * 
      * @param token the JWT token to validate
      * @param userDetails the user details to validate against
      * @return true if token is valid, false otherwise
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
         final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token) && !isStreamTicket(token);
     }
 
     /**
@@ -0,0 +1,39 @@
+package com.suyos.tracker.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scheduled job persisting the merchant sketches.
+ * 
+ * Changed sketches are written every {@code tracker.merchants.persist-interval}.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MerchantSketchJob {
+
+    /** Service holding the sketches */
+    private final MerchantSketchService merchantSketchService;
+
+    /**
+     * Persists the sketches changed since the previous run.
+     */
+    @Scheduled(initialDelayString = "${tracker.merchants.persist-interval:PT5M}",
+        fixedDelayString = "${tracker.merchants.persist-interval:PT5M}")
+    public void persist() {
+        try {
+            merchantSketchService.persistDirty();
+        } catch (RuntimeException e) {
+            log.error("Persisting merchant sketches failed; retrying on the next run", e);
+        }
+    }
+
+}
@@ -0,0 +1,316 @@
+package com.suyos.tracker.service;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.suyos.tracker.analytics.HeavyHitterSketch;
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.dto.MerchantTotalDTO;
+import com.suyos.tracker.dto.TopMerchantsDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.MerchantSketch;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.repository.ExpenseMerchantRow;
+import com.suyos.tracker.repository.ExpenseRollupRepository;
+import com.suyos.tracker.repository.MerchantSketchRepository;
+import com.suyos.tracker.repository.RollupTotals;
+import com.suyos.tracker.sharding.ShardContext;
+import com.suyos.tracker.sharding.ShardMap;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service maintaining each user's most frequent and most expensive merchants.
+ *
+ * Expense descriptions are normalized into merchant keys and counted in a
+ * per-user {@link HeavyHitterSketch}, so memory per user is fixed by the
+ * sketch dimensions rather than by the number of distinct descriptions.
+ * Committed expense changes update cached sketches in place; an updated
+ * expense is removed under its old description and added under the new one.
+ *
+ * Sketches of changed users are persisted periodically to the
+ * merchant_sketches table. A persisted sketch is only reused if its expense
+ * count and total still match the user's rollups, which catches changes
+ * lost between the last persist and a restart; otherwise the user's history
+ * is replayed. Changes that only edit a description are not detected by
+ * that check.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MerchantSketchService {
+
+    /** Longest merchant key kept; longer descriptions are truncated */
+    static final int MAX_KEY_LENGTH = 64;
+
+    /** Digits and separators typical of store numbers and payment references */
+    private static final Pattern NOISE = Pattern.compile("[\\p{N}\\p{P}\\p{S}]+");
+
+    /** Runs of whitespace */
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /** Expense history across the table and the archive */
+    private final ExpenseHistory expenseHistory;
+
+    /** Repository for rollups used to validate persisted sketches */
+    private final ExpenseRollupRepository expenseRollupRepository;
+
+    /** Repository for persisted sketches */
+    private final MerchantSketchRepository merchantSketchRepository;
+
+    /** Transaction manager for persistence */
+    private final PlatformTransactionManager transactionManager;
+
+    /** Directory of the users' shards, bound around persistence */
+    private final ShardMap shardMap;
+
+    /** Upper bound on the memory held by cached sketches */
+    @Value("${tracker.merchants.max-bytes:67108864}")
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /** Hash rows per sketch; estimates hold with probability 1 - e^-depth */
+    @Value("${tracker.merchants.depth:4}")
+    private int depth = 4;
+
+    /** Columns per row; estimates exceed true values by at most e/width of the total */
+    @Value("${tracker.merchants.width:256}")
+    private int width = 256;
+
+    /** Candidate merchants tracked per ranking */
+    @Value("${tracker.merchants.capacity:64}")
+    private int capacity = 64;
+
+    /** Cached sketches per user */
+    private final UserStateCache<UserMerchants> cache =
+        new UserStateCache<>("merchants", () -> maxBytes, this::load, UserMerchants::estimatedBytes);
+
+    /** Users whose cached sketch changed since it was last persisted */
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Retrieves a user's top merchants by number of expenses and by spending.
+     *
+     * @param userId ID of the user
+     * @param limit maximum number of merchants per ranking
+     * @return the rankings with their error bounds
+     */
+    public TopMerchantsDTO getTopMerchants(Long userId, int limit) {
+        return cache.get(userId).toDTO(limit);
+    }
+
+    /**
+     * Returns the most merchants a ranking can report reliably.
+     *
+     * @return the candidate capacity of the sketches
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Applies an expense change, once committed, to the user's cached sketch.
+     *
+     * @param event the expense change
+     */
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        Long userId = event.getUserId();
+        cache.update(userId, merchants -> {
+            merchants.apply(event);
+            dirty.add(userId);
+        });
+    }
+
+    /**
+     * Writes the sketches of users changed since the last call.
+     *
+     * @return number of users written
+     */
+    public int persistDirty() {
+        int written = 0;
+        for (Long userId : List.copyOf(dirty)) {
+            dirty.remove(userId);
+            UserMerchants merchants = cache.getIfPresent(userId);
+            if (merchants != null) {
+                try {
+                    write(merchants.encode(userId));
+                } catch (RuntimeException e) {
+                    dirty.add(userId);
+                    throw e;
+                }
+                written++;
+            }
+        }
+        if (written > 0) {
+            log.debug("Persisted merchant sketches of {} users", written);
+        }
+        return written;
+    }
+
+    /**
+     * Returns whether a user's sketch is currently cached.
+     *
+     * @param userId ID of the user
+     * @return true if cached
+     */
+    public boolean isCached(Long userId) {
+        return cache.contains(userId);
+    }
+
+    /**
+     * Persists changed sketches on shutdown.
+     */
+    @PreDestroy
+    public void close() {
+        persistDirty();
+    }
+
+    /**
+     * Normalizes an expense description into a merchant key.
+     *
+     * Folds compatibility characters and case, replaces digits, punctuation
+     * and symbols by spaces and collapses whitespace, so "STARBUCKS #1234"
+     * and "Starbucks 0042" count as the same merchant.
+     *
+     * @param description the description, may be null
+     * @return the key, or null if nothing remains
+     */
+    static String normalize(String description) {
+        if (description == null) {
+            return null;
+        }
+        String key = Normalizer.normalize(description, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        key = NOISE.matcher(key).replaceAll(" ");
+        key = WHITESPACE.matcher(key).replaceAll(" ").trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH).trim();
+        }
+        return key.isEmpty() ? null : key;
+    }
+
+    /**
+     * Loads a user's sketch from its persisted row if it matches their rollups,
+     * or replays their history otherwise.
+     *
+     * @param userId ID of the user
+     * @return the sketch
+     */
+    private UserMerchants load(Long userId) {
+        Optional<MerchantSketch> persisted = merchantSketchRepository.findByUserId(userId);
+        if (persisted.isPresent()) {
+            RollupTotals totals = expenseRollupRepository.sumByUserId(userId);
+            MerchantSketch row = persisted.get();
+            if (row.getExpenseCount().equals(totals.getExpenseCount())
+                    && row.getTotalCents().equals(totals.getTotalCents())) {
+                return new UserMerchants(HeavyHitterSketch.fromBytes(row.getSketch()));
+            }
+            log.debug("Merchant sketch of user {} is stale; replaying history", userId);
+        }
+        List<ExpenseMerchantRow> rows = expenseHistory.findMerchantRowsByUserId(userId);
+        HeavyHitterSketch sketch = new HeavyHitterSketch(depth, width, capacity);
+        for (ExpenseMerchantRow row : rows) {
+            sketch.update(normalize(row.getDescription()), 1, Money.toCents(row.getAmount()));
+        }
+        log.debug("Replayed {} expenses into merchant sketch of user {}", rows.size(), userId);
+        if (!rows.isEmpty() || persisted.isPresent()) {
+            dirty.add(userId);
+        }
+        return new UserMerchants(sketch);
+    }
+
+    /**
+     * Upserts the user's sketch row.
+     */
+    private void write(MerchantSketch encoded) {
+        try (ShardContext.Scope scope = shardMap.bindUser(encoded.getUserId())) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                MerchantSketch row = merchantSketchRepository.findByUserId(encoded.getUserId()).orElse(encoded);
+                row.setExpenseCount(encoded.getExpenseCount());
+                row.setTotalCents(encoded.getTotalCents());
+                row.setSketch(encoded.getSketch());
+                merchantSketchRepository.save(row);
+            });
+        }
+    }
+
+    /**
+     * Merchant sketch of one user.
+     */
+    static final class UserMerchants {
+
+        private final HeavyHitterSketch sketch;
+
+        UserMerchants(HeavyHitterSketch sketch) {
+            this.sketch = sketch;
+        }
+
+        synchronized void apply(ExpenseChangedEvent event) {
+            ExpenseSnapshot before = event.getBefore();
+            ExpenseSnapshot after = event.getAfter();
+            if (before != null) {
+                sketch.update(normalize(before.getDescription()), -1, -Money.toCents(before.getAmount()));
+            }
+            if (after != null) {
+                sketch.update(normalize(after.getDescription()), 1, Money.toCents(after.getAmount()));
+            }
+        }
+
+        synchronized TopMerchantsDTO toDTO(int limit) {
+            return TopMerchantsDTO.builder()
+                .byCount(toDTOs(sketch.topByCount(limit)))
+                .byTotal(toDTOs(sketch.topByWeight(limit)))
+                .expenseCount(sketch.getTotalCount())
+                .total(Money.toBigDecimal(sketch.getTotalWeight()))
+                .countError((long) Math.ceil(sketch.getRelativeError() * sketch.getTotalCount()))
+                .totalError(Money.toBigDecimal((long) Math.ceil(sketch.getRelativeError() * sketch.getTotalWeight())))
+                .confidence(sketch.getConfidence())
+                .build();
+        }
+
+        private static List<MerchantTotalDTO> toDTOs(List<HeavyHitterSketch.Estimate> estimates) {
+            return estimates.stream()
+                .map(estimate -> MerchantTotalDTO.builder()
+                    .merchant(estimate.getKey())
+                    .count(estimate.getCount())
+                    .total(Money.toBigDecimal(estimate.getWeight()))
+                    .build())
+                .toList();
+        }
+
+        /**
+         * Encodes the sketch into an unsaved row.
+         */
+        synchronized MerchantSketch encode(Long userId) {
+            return MerchantSketch.builder()
+                .userId(userId)
+                .expenseCount(sketch.getTotalCount())
+                .totalCents(sketch.getTotalWeight())
+                .sketch(sketch.toBytes())
+                .build();
+        }
+
+        synchronized long estimatedBytes() {
+            return 16 + sketch.estimatedBytes();
+        }
+
+    }
+
+}
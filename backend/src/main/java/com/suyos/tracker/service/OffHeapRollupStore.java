@@ -0,0 +1,424 @@
+package com.suyos.tracker.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.suyos.tracker.analytics.MonthlyTotalsRegion;
+import com.suyos.tracker.config.ReplicaRoutingDataSource;
+import com.suyos.tracker.dto.ExpenseSummaryDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.ExpenseRollup;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.repository.ExpenseRollupRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Off-heap copy of the per-user monthly/category rollups.
+ *
+ * Totals live in a {@link MonthlyTotalsRegion} with one fixed slot per user
+ * covering {@code tracker.offheap.months} months from
+ * {@code tracker.offheap.first-month}, so the rollups of every active user
+ * cost no heap objects and no garbage collection work. The region is backed
+ * by a memory-mapped file when {@code tracker.offheap.path} is set; a clean
+ * shutdown flushes it and the next start keeps the same totals. The file
+ * only sees this process's writes, so on start each restored user is
+ * checked against the rollup table, and users whose totals differ (e.g.
+ * written by another instance or restored from a backup meanwhile) are
+ * seeded again. After an unclean shutdown the file is reset.
+ *
+ * A user's slot is seeded from the rollup table on first read. Committed
+ * expense changes are applied with atomic adds. Writes register as pending
+ * while their transaction is open, and a seed is only published if no write
+ * of the user was pending or completed while it ran, so a slot never misses
+ * or double counts a commit. Users beyond the slot capacity and months
+ * outside the window are served from the rollup table.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OffHeapRollupStore {
+
+    /** Number of categories per month */
+    private static final int CATEGORY_COUNT = Category.values().length;
+
+    /** Categories in the order the rollup table sorts them (by stored name) */
+    private static final Category[] CATEGORIES_BY_NAME = Arrays.stream(Category.values())
+        .sorted(Comparator.comparing(Category::name))
+        .toArray(Category[]::new);
+
+    /** Number of pending write stripes users are hashed into */
+    private static final int PENDING_STRIPES = 64;
+
+    /** Repository for rollup data access operations */
+    private final ExpenseRollupRepository expenseRollupRepository;
+
+    /** File backing the region; empty keeps it in process memory only */
+    @Value("${tracker.offheap.path:}")
+    private String path = "";
+
+    /** Maximum number of users held off-heap */
+    @Value("${tracker.offheap.slots:4096}")
+    private int slots = 4096;
+
+    /** First month of the window, as yyyy-MM */
+    @Value("${tracker.offheap.first-month:2020-01}")
+    private String firstMonth = "2020-01";
+
+    /** Number of months in the window */
+    @Value("${tracker.offheap.months:120}")
+    private int months = 120;
+
+    /** Open write transactions per user stripe */
+    private final AtomicIntegerArray pendingWrites = new AtomicIntegerArray(PENDING_STRIPES);
+
+    private YearMonth origin;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private MonthlyTotalsRegion region;
+
+    /**
+     * Maps or allocates the region.
+     *
+     * @throws IOException if the backing file cannot be mapped
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        origin = YearMonth.parse(firstMonth);
+        long bytes = MonthlyTotalsRegion.requiredBytes(slots, months, CATEGORY_COUNT);
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap rollups need " + bytes
+                + " bytes; reduce tracker.offheap.slots or tracker.offheap.months below 2 GiB");
+        }
+
+        ByteBuffer buffer;
+        if (path.isBlank()) {
+            buffer = ByteBuffer.allocateDirect((int) bytes);
+        } else {
+            Path file = Path.of(path);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            buffer = mapped;
+        }
+        region = new MonthlyTotalsRegion(buffer, slots, months, CATEGORY_COUNT, toMonthIndex(origin));
+        if (mapped != null) {
+            mapped.force();
+        }
+        log.info("Off-heap rollups: {} slots x {} months from {} ({} MiB{}), {}", slots, months, origin,
+            bytes >> 20, path.isBlank() ? ", not persisted" : " mapped from " + path,
+            region.isRestored() ? "restored" : "reset");
+        if (region.isRestored()) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Discards the restored totals of users that differ from the rollup table.
+     */
+    private void reconcile() {
+        int checked = 0;
+        int stale = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            long userId = region.getUserId(slot);
+            if (userId == 0 || !region.isReady(slot)) {
+                continue;
+            }
+            checked++;
+            if (!matchesRollups(slot, userId)) {
+                region.invalidate(slot);
+                stale++;
+            }
+        }
+        log.info("Off-heap rollups checked against the rollup table: {} users, {} reseeded on next read",
+            checked, stale);
+    }
+
+    private boolean matchesRollups(int slot, long userId) {
+        long[] cents = new long[months * CATEGORY_COUNT];
+        long[] counts = new long[months * CATEGORY_COUNT];
+        for (ExpenseRollup rollup : loadRollups(userId)) {
+            int cell = toOffset(toYearMonth(rollup.getYearMonth())) * CATEGORY_COUNT
+                + rollup.getCategory().ordinal();
+            cents[cell] = rollup.getTotalCents();
+            counts[cell] = rollup.getExpenseCount();
+        }
+        for (int month = 0; month < months; month++) {
+            for (int category = 0; category < CATEGORY_COUNT; category++) {
+                int cell = month * CATEGORY_COUNT + category;
+                if (region.getCents(slot, month, category) != cents[cell]
+                    || region.getCount(slot, month, category) != counts[cell]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks the region consistent and flushes the backing file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (mapped != null) {
+            region.markClean(true);
+            mapped.force();
+            channel.close();
+        }
+    }
+
+    /**
+     * Retrieves a user's spending per month and category within a month range.
+     *
+     * @param userId ID of the user
+     * @param from first month (inclusive)
+     * @param to last month (inclusive)
+     * @return summaries ordered by month and category, or empty if the range
+     *         is outside the window or the user's totals cannot be held
+     */
+    public Optional<List<ExpenseSummaryDTO>> getMonthlySummary(Long userId, YearMonth from, YearMonth to) {
+        int fromOffset = toOffset(from);
+        int toOffset = toOffset(to);
+        if (fromOffset < 0 || toOffset >= months || fromOffset > toOffset) {
+            return Optional.empty();
+        }
+        int slot = readySlot(userId);
+        if (slot < 0) {
+            return Optional.empty();
+        }
+
+        List<ExpenseSummaryDTO> summaries = new ArrayList<>();
+        for (int month = fromOffset; month <= toOffset; month++) {
+            for (Category category : CATEGORIES_BY_NAME) {
+                long count = region.getCount(slot, month, category.ordinal());
+                if (count > 0) {
+                    summaries.add(ExpenseSummaryDTO.builder()
+                        .yearMonth(origin.plusMonths(month))
+                        .category(category)
+                        .total(Money.toBigDecimal(region.getCents(slot, month, category.ordinal())))
+                        .count(count)
+                        .build());
+                }
+            }
+        }
+        return Optional.of(summaries);
+    }
+
+    /**
+     * Retrieves a user's committed spending in one month and category.
+     *
+     * @param userId ID of the user
+     * @param month the month
+     * @param category the category
+     * @return the total in cents, or empty if the month is outside the window
+     *         or the user's totals cannot be held
+     */
+    public OptionalLong getMonthTotalCents(Long userId, YearMonth month, Category category) {
+        int offset = toOffset(month);
+        if (offset < 0 || offset >= months) {
+            return OptionalLong.empty();
+        }
+        int slot = readySlot(userId);
+        if (slot < 0) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(region.getCents(slot, offset, category.ordinal()));
+    }
+
+    /**
+     * Registers an expense change and applies it once its transaction commits.
+     *
+     * @param event the expense change
+     */
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        afterCompletion(event.getUserId(), () -> apply(event));
+    }
+
+    /**
+     * Discards a user's totals once the current transaction completes, so
+     * they are seeded again from the rollup table.
+     *
+     * @param userId ID of the user
+     */
+    public void invalidate(Long userId) {
+        afterCompletion(userId, () -> {
+            int slot = region.findSlot(userId);
+            if (slot >= 0) {
+                region.invalidate(slot);
+            }
+        });
+    }
+
+    /**
+     * Returns whether a user's totals are held off-heap and complete.
+     *
+     * @param userId ID of the user
+     * @return true if ready
+     */
+    public boolean isReady(Long userId) {
+        int slot = region.findSlot(userId);
+        return slot >= 0 && region.isReady(slot);
+    }
+
+    /**
+     * Runs an action after the current transaction commits, counting the
+     * user as pending until it completes either way.
+     *
+     * Runs the action immediately without a transaction. If the outcome is
+     * unknown the user's totals are discarded instead.
+     */
+    private void afterCompletion(Long userId, Runnable onCommit) {
+        int stripe = stripe(userId);
+        pendingWrites.incrementAndGet(stripe);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                onCommit.run();
+            } finally {
+                pendingWrites.decrementAndGet(stripe);
+            }
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        onCommit.run();
+                    } else if (status == STATUS_UNKNOWN) {
+                        int slot = region.findSlot(userId);
+                        if (slot >= 0) {
+                            region.invalidate(slot);
+                        }
+                    }
+                } finally {
+                    pendingWrites.decrementAndGet(stripe);
+                }
+            }
+        });
+    }
+
+    private void apply(ExpenseChangedEvent event) {
+        int slot = region.findSlot(event.getUserId());
+        if (slot < 0) {
+            return;
+        }
+        ExpenseSnapshot before = event.getBefore();
+        ExpenseSnapshot after = event.getAfter();
+        if (before != null) {
+            add(slot, before.getDate(), before.getCategory(), -Money.toCents(before.getAmount()), -1);
+        }
+        if (after != null) {
+            add(slot, after.getDate(), after.getCategory(), Money.toCents(after.getAmount()), 1);
+        }
+    }
+
+    private void add(int slot, LocalDate date, Category category, long centsDelta, long countDelta) {
+        int month = toOffset(YearMonth.from(date));
+        if (month >= 0 && month < months) {
+            region.add(slot, month, category.ordinal(), centsDelta, countDelta);
+        }
+    }
+
+    /**
+     * Returns a user's ready slot, seeding it from the rollup table if needed.
+     *
+     * @param userId ID of the user
+     * @return the slot, or -1 if the region is full or the seed could not be published
+     */
+    private int readySlot(Long userId) {
+        int slot = region.claimSlot(userId);
+        if (slot < 0) {
+            log.debug("No off-heap rollup slot left for user {}", userId);
+            return -1;
+        }
+        if (region.isReady(slot)) {
+            return slot;
+        }
+
+        long loading = region.beginLoad(slot);
+        if (loading < 0) {
+            return -1;
+        }
+        try {
+            for (ExpenseRollup rollup : loadRollups(userId)) {
+                region.put(slot, toOffset(toYearMonth(rollup.getYearMonth())), rollup.getCategory().ordinal(),
+                    rollup.getTotalCents(), rollup.getExpenseCount());
+            }
+        } catch (RuntimeException e) {
+            region.abortLoad(slot);
+            throw e;
+        }
+
+        if (pendingWrites.get(stripe(userId)) != 0) {
+            region.abortLoad(slot);
+            log.debug("Not publishing off-heap rollups of user {}: written during load", userId);
+            return -1;
+        }
+        return region.completeLoad(slot, loading) ? slot : -1;
+    }
+
+    /**
+     * Reads a user's rollups within the window from the primary, as a seed
+     * would keep whatever a lagging replica missed.
+     */
+    private List<ExpenseRollup> loadRollups(Long userId) {
+        try (ReplicaRoutingDataSource.Scope primary = ReplicaRoutingDataSource.forcePrimary()) {
+            return expenseRollupRepository.findByUserIdAndYearMonthBetweenOrderByYearMonthAscCategoryAsc(userId,
+                ExpenseRollupService.toYearMonthKey(origin),
+                ExpenseRollupService.toYearMonthKey(origin.plusMonths(months - 1)));
+        }
+    }
+
+    private static YearMonth toYearMonth(int yearMonthKey) {
+        return YearMonth.of(yearMonthKey / 100, yearMonthKey % 100);
+    }
+
+    private int toOffset(YearMonth month) {
+        return (int) (toMonthIndex(month) - toMonthIndex(origin));
+    }
+
+    private static long toMonthIndex(YearMonth month) {
+        return month.getYear() * 12L + month.getMonthValue() - 1;
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId & (PENDING_STRIPES - 1));
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.suyos.tracker.service;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Pageable reading a window at an arbitrary row offset.
+ *
+ * {@link org.springframework.data.domain.PageRequest} only starts at
+ * multiples of its size; merging archived expenses into a page needs the
+ * live rows from an offset that depends on how many archived rows sort
+ * before them.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@ToString
+@EqualsAndHashCode
+class OffsetPageRequest implements Pageable {
+
+    /** Index of the first row */
+    private final long offset;
+
+    /** Number of rows */
+    private final int limit;
+
+    /** Order of the rows */
+    private final Sort sort;
+
+    /**
+     * Creates a window of rows.
+     *
+     * @param offset index of the first row
+     * @param limit number of rows
+     * @param sort order of the rows
+     * @throws IllegalArgumentException if the offset is negative or the limit is not positive
+     */
+    OffsetPageRequest(long offset, int limit, Sort sort) {
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException("Invalid window: offset " + offset + ", limit " + limit);
+        }
+        this.offset = offset;
+        this.limit = limit;
+        this.sort = sort;
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / limit);
+    }
+
+    @Override
+    public int getPageSize() {
+        return limit;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return sort;
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(offset + limit, limit, sort);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetPageRequest(Math.max(0, offset - limit), limit, sort) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, limit, sort);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * limit, limit, sort);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+
+}
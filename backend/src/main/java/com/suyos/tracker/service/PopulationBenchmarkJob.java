@@ -0,0 +1,44 @@
+package com.suyos.tracker.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scheduled job refreshing the population benchmark snapshot.
+ * 
+ * Runs shortly after startup and then every {@code tracker.benchmarks.interval}
+ * after the previous run finished. Disabled with
+ * {@code tracker.benchmarks.enabled=false}, in which case the comparison
+ * endpoint reports the snapshot as unavailable.
+ * 
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "tracker.benchmarks.enabled", havingValue = "true", matchIfMissing = true)
+public class PopulationBenchmarkJob {
+
+    /** Service computing the snapshot */
+    private final PopulationBenchmarkService populationBenchmarkService;
+
+    /**
+     * Recomputes and publishes the snapshot, keeping the previous one on failure.
+     */
+    @Scheduled(initialDelayString = "${tracker.benchmarks.initial-delay:PT1M}",
+        fixedDelayString = "${tracker.benchmarks.interval:PT6H}")
+    public void run() {
+        try {
+            populationBenchmarkService.refresh();
+        } catch (RuntimeException e) {
+            log.error("Population benchmark refresh failed; keeping the previous snapshot", e);
+        }
+    }
+
+}
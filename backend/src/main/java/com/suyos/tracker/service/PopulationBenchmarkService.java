@@ -0,0 +1,267 @@
+package com.suyos.tracker.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.suyos.tracker.analytics.KllSketch;
+import com.suyos.tracker.analytics.PopulationSketchTask;
+import com.suyos.tracker.dto.CategoryBenchmarkDTO;
+import com.suyos.tracker.dto.PopulationBenchmarkDTO;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.repository.ExpenseRepository;
+import com.suyos.tracker.repository.UserAmountRow;
+import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.sharding.ShardContext;
+import com.suyos.tracker.sharding.ShardMap;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service computing and serving anonymized population-wide spending benchmarks.
+ *
+ * {@link #refresh()} splits the user ID space of each shard across a
+ * fork-join pool. Each partition streams its users' expenses over the
+ * trailing window in its own read-only transaction and sketches per-user
+ * monthly spending per category; the partial sketches of all partitions and
+ * shards are merged into an immutable snapshot that replaces the published
+ * one atomically. Comparisons read the published snapshot and the user's own
+ * totals from the {@link ExpenseRangeSumIndex}, so their cost does not
+ * depend on the number of users or expenses.
+ *
+ * Snapshots hold only sketches, and categories with fewer than
+ * {@code tracker.benchmarks.min-users} spending users are not reported.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PopulationBenchmarkService {
+
+    /** Population percentiles reported with each comparison */
+    private static final int[] PERCENTILES = {25, 50, 75, 90};
+
+    /** Repository for expense data access operations */
+    private final ExpenseRepository expenseRepository;
+
+    /** Repository for user data access operations */
+    private final UserRepository userRepository;
+
+    /** Transaction manager for the partition scans */
+    private final PlatformTransactionManager transactionManager;
+
+    /** Range-sum index answering the user's own totals */
+    private final ExpenseRangeSumIndex expenseRangeSumIndex;
+
+    /** Directory of the shards scanned one after another */
+    private final ShardMap shardMap;
+
+    /** Worker threads of the batch job; 0 uses one per available processor */
+    @Value("${tracker.benchmarks.parallelism:0}")
+    private int parallelism;
+
+    /** Widest user ID range scanned by one partition */
+    @Value("${tracker.benchmarks.partition-size:1000}")
+    private long partitionSize = 1000;
+
+    /** Number of full months before the current one in the window */
+    @Value("${tracker.benchmarks.window-months:12}")
+    private int windowMonths = 12;
+
+    /** Fewest spending users for a category to be reported */
+    @Value("${tracker.benchmarks.min-users:20}")
+    private long minUsers = 20;
+
+    /** Accuracy parameter of the population sketches */
+    @Value("${tracker.sketches.k:200}")
+    private int k = KllSketch.DEFAULT_K;
+
+    /** Latest published snapshot, or null before the first run */
+    private final AtomicReference<PopulationSnapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Recomputes the population snapshot and publishes it.
+     *
+     * @return the published snapshot
+     */
+    public PopulationSnapshot refresh() {
+        YearMonth currentMonth = YearMonth.now();
+        LocalDate windowStart = currentMonth.minusMonths(windowMonths).atDay(1);
+        LocalDate windowEnd = currentMonth.minusMonths(1).atEndOfMonth();
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        long started = System.nanoTime();
+
+        KllSketch[] sketches = null;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int shard = 0; shard < shardMap.getShardCount(); shard++) {
+                KllSketch[] partial = sketchShard(shard, pool, windowStart, windowEnd);
+                if (sketches == null) {
+                    sketches = partial;
+                } else {
+                    for (int c = 0; c < sketches.length; c++) {
+                        sketches[c].merge(partial[c]);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        PopulationSnapshot published = new PopulationSnapshot(LocalDateTime.now(), windowStart, windowEnd,
+            windowMonths, sketches);
+        snapshot.set(published);
+        log.info("Published population benchmarks for {} to {} with {} threads in {} ms",
+            windowStart, windowEnd, threads, (System.nanoTime() - started) / 1_000_000);
+        return published;
+    }
+
+    /**
+     * Sketches the users of one shard, partitioning their ID range across the pool.
+     */
+    private KllSketch[] sketchShard(int shard, ForkJoinPool pool, LocalDate windowStart, LocalDate windowEnd) {
+        Long minUserId;
+        Long maxUserId;
+        try (ShardContext.Scope scope = shardMap.bindShard(shard)) {
+            minUserId = userRepository.findMinId();
+            maxUserId = userRepository.findMaxId();
+        }
+        if (minUserId == null) {
+            return emptySketches();
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        PopulationSketchTask.PartitionScanner scanner = (fromUserId, toUserId, consumer) -> {
+            try (ShardContext.Scope scope = shardMap.bindShard(shard)) {
+                transaction.executeWithoutResult(status -> {
+                    try (Stream<UserAmountRow> rows = expenseRepository.streamAmountsByUserIdBetween(
+                            fromUserId, toUserId, windowStart, windowEnd)) {
+                        rows.forEach(row -> consumer.accept(row.getUserId(), row.getCategory().ordinal(),
+                            Money.toCents(row.getAmount())));
+                    }
+                });
+            }
+        };
+        return pool.invoke(new PopulationSketchTask(scanner, minUserId, maxUserId, partitionSize, windowMonths, k));
+    }
+
+    /**
+     * Compares a user's monthly spending per category with the published snapshot.
+     *
+     * @param userId ID of the user
+     * @return the comparison, or null if no snapshot has been published yet
+     */
+    public PopulationBenchmarkDTO getBenchmarks(Long userId) {
+        PopulationSnapshot current = snapshot.get();
+        if (current == null) {
+            return null;
+        }
+
+        List<CategoryBenchmarkDTO> categories = new ArrayList<>();
+        for (Category category : Category.values()) {
+            KllSketch sketch = current.getSketches()[category.ordinal()];
+            if (sketch.getCount() < minUsers) {
+                continue;
+            }
+            long userCents = expenseRangeSumIndex.sumCents(userId, current.getWindowStart(),
+                current.getWindowEnd(), category) / current.getMonths();
+            double rank = userCents > 0 ? sketch.getRank(userCents) * 100 : 0;
+
+            long[] quantiles = current.getQuantiles()[category.ordinal()];
+            Map<String, BigDecimal> percentiles = new LinkedHashMap<>();
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                percentiles.put("p" + PERCENTILES[i], Money.toBigDecimal(quantiles[i]));
+            }
+            categories.add(CategoryBenchmarkDTO.builder()
+                .category(category)
+                .monthlyAverage(Money.toBigDecimal(userCents))
+                .percentileRank(Math.round(rank * 10) / 10.0)
+                .populationUsers(sketch.getCount())
+                .populationPercentiles(percentiles)
+                .build());
+        }
+
+        return PopulationBenchmarkDTO.builder()
+            .generatedAt(current.getGeneratedAt())
+            .windowStart(current.getWindowStart())
+            .windowEnd(current.getWindowEnd())
+            .categories(categories)
+            .build();
+    }
+
+    private KllSketch[] emptySketches() {
+        KllSketch[] sketches = new KllSketch[Category.values().length];
+        for (int c = 0; c < sketches.length; c++) {
+            sketches[c] = new KllSketch(k);
+        }
+        return sketches;
+    }
+
+    /**
+     * Immutable population statistics of one batch run.
+     *
+     * The sketches are never modified after publication, so concurrent
+     * readers need no locking.
+     */
+    @Getter
+    public static final class PopulationSnapshot {
+
+        /** When the snapshot was computed */
+        private final LocalDateTime generatedAt;
+
+        /** First day of the window */
+        private final LocalDate windowStart;
+
+        /** Last day of the window */
+        private final LocalDate windowEnd;
+
+        /** Number of months in the window */
+        private final int months;
+
+        /** Sketches of per-user monthly spending in cents, by category ordinal */
+        private final KllSketch[] sketches;
+
+        /** Precomputed population percentiles in cents, by category ordinal */
+        private final long[][] quantiles;
+
+        PopulationSnapshot(LocalDateTime generatedAt, LocalDate windowStart, LocalDate windowEnd,
+                int months, KllSketch[] sketches) {
+            this.generatedAt = generatedAt;
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+            this.months = months;
+            this.sketches = sketches;
+
+            double[] fractions = new double[PERCENTILES.length];
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                fractions[i] = PERCENTILES[i] / 100.0;
+            }
+            this.quantiles = new long[sketches.length][];
+            for (int c = 0; c < sketches.length; c++) {
+                quantiles[c] = sketches[c].isEmpty() ? new long[PERCENTILES.length] : sketches[c].getQuantiles(fractions);
+            }
+        }
+
+    }
+
+}
@@ -9,6 +9,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.suyos.tracker.config.ReadYourWritesTracker;
 import com.suyos.tracker.dto.AuthenticationResponseDTO;
 import com.suyos.tracker.dto.UserLoginDTO;
 import com.suyos.tracker.dto.UserProfileDTO;
@@ -17,6 +18,8 @@ import com.suyos.tracker.dto.UserUpdateDTO;
 import com.suyos.tracker.mapper.UserMapper;
 import com.suyos.tracker.model.User;
 import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.sharding.ShardContext;
+import com.suyos.tracker.sharding.ShardMap;
 
 import lombok.RequiredArgsConstructor;
 
@@ -48,6 +51,12 @@ public class UserService {
     /** JWT service for token operations */
     private final JwtService jwtService;
     
+    /** Tracker pinning the reads of users who just registered or logged in to the primary */
+    private final ReadYourWritesTracker readYourWrites;
+    
+    /** Directory of the shards holding the accounts */
+    private final ShardMap shardMap;
+    
     /** Maximum allowed failed login attempts before account lock */
     private static final int MAX_FAILED_ATTEMPTS = 5;
     
@@ -65,26 +74,32 @@ public class UserService {
      * @throws RuntimeException if email already exists
      */
     public UserProfileDTO registerUser(UserRegistrationDTO userRegistrationDTO) {
-        // Check if email already exists
-        if (userRepository.existsByEmail(userRegistrationDTO.getEmail())) {
-            throw new RuntimeException("Email already registered");
-        }
+        // The account goes to the shard its email is registered on, or to the emptiest one
+        int shard = shardMap.shardForRegistration(userRegistrationDTO.getEmail());
+        try (ShardContext.Scope scope = shardMap.bindShard(shard)) {
+            // Check if email already exists
+            if (userRepository.existsByEmail(userRegistrationDTO.getEmail())) {
+                throw new RuntimeException("Email already registered");
+            }
         
-        // Convert DTO to entity
-        User user = userMapper.toEntity(userRegistrationDTO);
+            // Convert DTO to entity
+            User user = userMapper.toEntity(userRegistrationDTO);
         
-        // Set security fields
-        user.setPassword(passwordEncoder.encode(userRegistrationDTO.getPassword()));
-        user.setAccountEnabled(true);
-        user.setEmailVerified(false);
-        user.setFailedLoginAttempts(0);
-        user.setTermsAcceptedAt(LocalDateTime.now());
-        user.setPrivacyPolicyAcceptedAt(LocalDateTime.now());
+            // Set security fields
+            user.setPassword(passwordEncoder.encode(userRegistrationDTO.getPassword()));
+            user.setAccountEnabled(true);
+            user.setEmailVerified(false);
+            user.setFailedLoginAttempts(0);
+            user.setTermsAcceptedAt(LocalDateTime.now());
+            user.setPrivacyPolicyAcceptedAt(LocalDateTime.now());
         
-        // Save user
-        User savedUser = userRepository.save(user);
+            // Save user
+            User savedUser = userRepository.save(user);
+            shardMap.recordUser(savedUser.getId(), savedUser.getEmail(), shard);
+            readYourWrites.markWrite(savedUser.getEmail());
         
-        return userMapper.toProfileDTO(savedUser);
+            return userMapper.toProfileDTO(savedUser);
+        }
     }
 
     /**
@@ -98,52 +113,55 @@ public class UserService {
      * @throws RuntimeException if authentication fails
      */
     public AuthenticationResponseDTO authenticateUser(UserLoginDTO userLoginDTO) {
-        Optional<User> userOpt = userRepository.findActiveUserByEmail(userLoginDTO.getEmail());
+        try (ShardContext.Scope scope = shardMap.bindShard(shardMap.shardOfEmail(userLoginDTO.getEmail()))) {
+            Optional<User> userOpt = userRepository.findActiveUserByEmail(userLoginDTO.getEmail());
         
-        if (userOpt.isEmpty()) {
-            throw new RuntimeException("Invalid email or password");
-        }
+            if (userOpt.isEmpty()) {
+                throw new RuntimeException("Invalid email or password");
+            }
         
-        User user = userOpt.get();
+            User user = userOpt.get();
         
-        // Check if account is locked
-        if (user.getAccountLocked() && user.getLockedUntil() != null 
-            && user.getLockedUntil().isAfter(LocalDateTime.now())) {
-            throw new RuntimeException("Account is locked. Try again later.");
-        }
+            // Check if account is locked
+            if (user.getAccountLocked() && user.getLockedUntil() != null 
+                && user.getLockedUntil().isAfter(LocalDateTime.now())) {
+                throw new RuntimeException("Account is locked. Try again later.");
+            }
         
-        // Note: Email verification is not required for login (industry standard)
-        // Users can login immediately after registration
-        // Verification can be prompted for sensitive actions if needed
+            // Note: Email verification is not required for login (industry standard)
+            // Users can login immediately after registration
+            // Verification can be prompted for sensitive actions if needed
         
-        // Validate password
-        if (!passwordEncoder.matches(userLoginDTO.getPassword(), user.getPassword())) {
-            handleFailedLogin(user);
-            throw new RuntimeException("Invalid email or password");
-        }
+            // Validate password
+            if (!passwordEncoder.matches(userLoginDTO.getPassword(), user.getPassword())) {
+                handleFailedLogin(user);
+                throw new RuntimeException("Invalid email or password");
+            }
         
-        // Reset failed attempts and update last login
-        user.setFailedLoginAttempts(0);
-        user.setLastLoginAt(LocalDateTime.now());
-        user.setAccountLocked(false);
-        user.setLockedUntil(null);
+            // Reset failed attempts and update last login
+            user.setFailedLoginAttempts(0);
+            user.setLastLoginAt(LocalDateTime.now());
+            user.setAccountLocked(false);
+            user.setLockedUntil(null);
         
-        userRepository.save(user);
+            userRepository.save(user);
+            readYourWrites.markWrite(user.getEmail());
         
-        // Generate JWT token
-        var userDetails = org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .authorities(new java.util.ArrayList<>())
-                .build();
+            // Generate JWT token
+            var userDetails = org.springframework.security.core.userdetails.User.builder()
+                    .username(user.getEmail())
+                    .password(user.getPassword())
+                    .authorities(new java.util.ArrayList<>())
+                    .build();
         
-        String jwtToken = jwtService.generateToken(userDetails);
+            String jwtToken = jwtService.generateToken(userDetails);
         
-        return AuthenticationResponseDTO.builder()
-                .accessToken(jwtToken)
-                .expiresIn(jwtService.getExpirationTime())
-                .user(userMapper.toProfileDTO(user))
-                .build();
+            return AuthenticationResponseDTO.builder()
+                    .accessToken(jwtToken)
+                    .expiresIn(jwtService.getExpirationTime())
+                    .user(userMapper.toProfileDTO(user))
+                    .build();
+        }
     }
 
     /**
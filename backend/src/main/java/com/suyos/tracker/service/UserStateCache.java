@@ -0,0 +1,298 @@
+package com.suyos.tracker.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.suyos.tracker.config.ReplicaRoutingDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Memory-bounded cache of derived per-user state kept in sync with expense writes.
+ *
+ * State is loaded lazily on first access, updated in place for committed
+ * changes of cached users, and evicted least-recently-used once the
+ * estimated size of all cached states exceeds the byte budget. Users whose
+ * state is not cached are skipped on writes and load the committed state on
+ * next access.
+ *
+ * Loads race with writes: a write registers as pending for its user while
+ * its transaction is open, and applying it bumps a striped write epoch. A
+ * load that started or ended with a pending write, or observed an epoch
+ * change, is returned to its caller but not cached, so a cached state
+ * neither misses a committed write nor applies one it already read.
+ * Loads read from the primary, since a cached state would keep whatever a
+ * lagging replica missed.
+ *
+ * State objects are responsible for their own thread safety; the cache only
+ * serializes access to its map and byte accounting.
+ *
+ * @param <S> the per-user state type
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+public class UserStateCache<S> {
+
+    /** Number of write epoch stripes users are hashed into */
+    private static final int EPOCH_STRIPES = 64;
+
+    /** Name used in log messages */
+    private final String name;
+
+    /** Supplies the upper bound on the estimated bytes of cached states */
+    private final LongSupplier maxBytes;
+
+    /** Builds a user's state from the database */
+    private final Function<Long, S> loader;
+
+    /** Estimates the bytes held by a state */
+    private final ToLongFunction<S> sizer;
+
+    /** Cached entries per user in access order; guards {@link #usedBytes} */
+    private final LinkedHashMap<Long, Entry<S>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Estimated bytes of cached states */
+    private long usedBytes;
+
+    /** Write epochs per user stripe */
+    private final AtomicLongArray writeEpochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    /** Writes per user stripe whose transactions have not completed yet */
+    private final AtomicIntegerArray pendingWrites = new AtomicIntegerArray(EPOCH_STRIPES);
+
+    /**
+     * Creates a cache.
+     *
+     * @param name name used in log messages
+     * @param maxBytes supplies the upper bound on the estimated bytes of cached states
+     * @param loader builds a user's state from the database
+     * @param sizer estimates the bytes held by a state
+     */
+    public UserStateCache(String name, LongSupplier maxBytes, Function<Long, S> loader, ToLongFunction<S> sizer) {
+        this.name = name;
+        this.maxBytes = maxBytes;
+        this.loader = loader;
+        this.sizer = sizer;
+    }
+
+    /**
+     * Returns a user's state, loading it on a miss.
+     *
+     * @param userId ID of the user
+     * @return the user's state
+     */
+    public S get(Long userId) {
+        synchronized (entries) {
+            Entry<S> cached = entries.get(userId);
+            if (cached != null) {
+                return cached.state;
+            }
+        }
+
+        int stripe = stripe(userId);
+        long epoch = writeEpochs.get(stripe);
+        boolean quiet = pendingWrites.get(stripe) == 0;
+        S loaded;
+        try (ReplicaRoutingDataSource.Scope primary = ReplicaRoutingDataSource.forcePrimary()) {
+            loaded = loader.apply(userId);
+        }
+
+        synchronized (entries) {
+            Entry<S> cached = entries.get(userId);
+            if (cached != null) {
+                return cached.state;
+            }
+            if (quiet && pendingWrites.get(stripe) == 0 && writeEpochs.get(stripe) == epoch) {
+                Entry<S> entry = new Entry<>(loaded);
+                entries.put(userId, entry);
+                account(entry);
+            } else {
+                log.debug("Not caching {} state of user {}: written during load", name, userId);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns a user's state if it is cached, without loading it.
+     *
+     * @param userId ID of the user
+     * @return the cached state, or null
+     */
+    public S getIfPresent(Long userId) {
+        synchronized (entries) {
+            Entry<S> cached = entries.get(userId);
+            return cached != null ? cached.state : null;
+        }
+    }
+
+    /**
+     * Registers a change of a user's data made by the current transaction
+     * and applies it to the user's cached state once the transaction commits.
+     *
+     * The user counts as pending until the transaction completes. Without a
+     * transaction the change is applied immediately; if the outcome is
+     * unknown the user's state is dropped instead.
+     *
+     * @param userId ID of the user whose data changed
+     * @param mutator applies the change to the state; not called if the user is not cached
+     */
+    public void update(Long userId, Consumer<S> mutator) {
+        int stripe = stripe(userId);
+        pendingWrites.incrementAndGet(stripe);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                apply(userId, mutator);
+            } finally {
+                pendingWrites.decrementAndGet(stripe);
+            }
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        apply(userId, mutator);
+                    } else if (status == STATUS_UNKNOWN) {
+                        invalidate(userId);
+                    }
+                } finally {
+                    pendingWrites.decrementAndGet(stripe);
+                }
+            }
+        });
+    }
+
+    private void apply(Long userId, Consumer<S> mutator) {
+        writeEpochs.incrementAndGet(stripe(userId));
+
+        Entry<S> entry;
+        synchronized (entries) {
+            entry = entries.get(userId);
+        }
+        if (entry == null) {
+            return;
+        }
+
+        mutator.accept(entry.state);
+        synchronized (entries) {
+            if (entries.get(userId) == entry) {
+                account(entry);
+            }
+        }
+    }
+
+    /**
+     * Re-estimates the size of a user's cached state after it changed
+     * outside {@link #update}, such as a lazy refresh on read.
+     *
+     * @param userId ID of the user
+     */
+    public void reaccount(Long userId) {
+        synchronized (entries) {
+            Entry<S> entry = entries.get(userId);
+            if (entry != null) {
+                account(entry);
+            }
+        }
+    }
+
+    /**
+     * Drops a user's cached state so it is reloaded on next access.
+     *
+     * @param userId ID of the user
+     */
+    public void invalidate(Long userId) {
+        writeEpochs.incrementAndGet(stripe(userId));
+        synchronized (entries) {
+            Entry<S> removed = entries.remove(userId);
+            if (removed != null) {
+                usedBytes -= removed.accountedBytes;
+            }
+        }
+    }
+
+    /**
+     * Drops all cached states.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            usedBytes = 0;
+        }
+    }
+
+    /**
+     * Returns whether a user's state is cached.
+     *
+     * @param userId ID of the user
+     * @return true if cached
+     */
+    public boolean contains(Long userId) {
+        synchronized (entries) {
+            return entries.containsKey(userId);
+        }
+    }
+
+    /**
+     * Returns the estimated bytes of cached states.
+     *
+     * @return cached bytes
+     */
+    public long getUsedBytes() {
+        synchronized (entries) {
+            return usedBytes;
+        }
+    }
+
+    /**
+     * Re-estimates an entry's size and evicts least-recently-used entries
+     * past the budget. Must be called while holding the lock on {@link #entries}.
+     *
+     * @param entry the entry whose size may have changed
+     */
+    private void account(Entry<S> entry) {
+        long bytes = sizer.applyAsLong(entry.state);
+        usedBytes += bytes - entry.accountedBytes;
+        entry.accountedBytes = bytes;
+
+        Iterator<Map.Entry<Long, Entry<S>>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes.getAsLong() && eldest.hasNext()) {
+            usedBytes -= eldest.next().getValue().accountedBytes;
+            eldest.remove();
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId & (EPOCH_STRIPES - 1));
+    }
+
+    /**
+     * Cached state with the size it was last accounted at.
+     */
+    private static final class Entry<S> {
+
+        private final S state;
+        private long accountedBytes;
+
+        private Entry(S state) {
+            this.state = state;
+        }
+
+    }
+
+}
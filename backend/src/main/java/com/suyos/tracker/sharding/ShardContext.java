@@ -0,0 +1,80 @@
+package com.suyos.tracker.sharding;
+
+/**
+ * Shard explicitly bound to the current thread.
+ *
+ * {@link ShardRoutingDataSource} routes connections taken by a thread with
+ * a bound shard to that shard, whoever the authenticated user is. Bindings
+ * are made through {@link ShardMap} and nest: closing a scope restores the
+ * previous binding.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ShardContext {
+
+    /** Shard bound to each thread, or null */
+    private static final ThreadLocal<Integer> BOUND = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Returns the shard bound to the current thread.
+     *
+     * @return the shard, or null if none is bound
+     */
+    static Integer currentShard() {
+        return BOUND.get();
+    }
+
+    /**
+     * Binds a shard to the current thread until the returned scope is closed.
+     *
+     * @param shard the shard
+     * @return scope restoring the previous binding
+     */
+    static Scope bind(int shard) {
+        Integer previous = BOUND.get();
+        BOUND.set(shard);
+        return () -> {
+            if (previous == null) {
+                BOUND.remove();
+            } else {
+                BOUND.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Binding or lock released on close, for try-with-resources.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        /** Scope that holds nothing */
+        Scope NONE = () -> { };
+
+        @Override
+        void close();
+
+        /**
+         * Returns a scope closing this one and then another.
+         *
+         * @param inner scope opened after this one
+         * @return the combined scope
+         */
+        default Scope andThen(Scope inner) {
+            return () -> {
+                try {
+                    inner.close();
+                } finally {
+                    close();
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,572 @@
+package com.suyos.tracker.sharding;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Directory of the shard holding each user's data.
+ *
+ * With sharding enabled, every user-scoped row (the user, their expenses,
+ * budgets, rollups, baselines and sketches) lives on one shard, and the
+ * {@code user_shards} table in the home database (shard 0) records which.
+ * Users missing from the directory live on the home shard, so an existing
+ * single database becomes shard 0 unchanged. The directory only changes on
+ * registration and when {@link ShardRebalancer} moves a user.
+ *
+ * Work that is not done for the authenticated user binds a user or a shard
+ * to the thread through {@link #bindUser}, {@link #bindShard} or
+ * {@link #onEachShard}. Binding a user also holds a read lock on the user,
+ * which a move on this instance waits for. Moves are coordinated across
+ * instances through the directory row: a move marks it as moving and bumps
+ * its version. A unit of work on a user takes the user's locks with the
+ * cached shard while that was read from the directory within
+ * {@code tracker.sharding.directory-refresh}, and reads the row again
+ * otherwise, waiting while a move is in progress. A move waits for that
+ * interval after marking the row before it copies any rows, so by then
+ * every instance either started its work on the user before the copy or
+ * sees the move, and no instance keeps routing to a shard the user has
+ * left. Without sharding, there is one shard and bindings do nothing.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+public class ShardMap {
+
+    /** The home shard, holding the directory and unassigned users */
+    public static final int HOME = 0;
+
+    /** Number of lock stripes users are hashed to */
+    private static final int LOCK_STRIPES = 256;
+
+    /** Interval at which work waiting for a move polls the directory */
+    private static final long MOVE_POLL_MILLIS = 50;
+
+    /** Shard of each looked-up user, as of the user's latest directory read */
+    private final Map<Long, Placement> placements = new ConcurrentHashMap<>();
+
+    /** ID of each looked-up email */
+    private final Map<String, Long> userByEmail = new ConcurrentHashMap<>();
+
+    /** Read locks held by work on a user, write locks by moves */
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[LOCK_STRIPES];
+
+    /** Directory in the home database, or null without sharding */
+    private volatile JdbcTemplate directory;
+
+    /** Number of shards, including the home shard */
+    private volatile int shardCount = 1;
+
+    /** Users per shard, for placing new users */
+    private long[] userCounts = new long[1];
+
+    /** Longest a unit of work waits for a move of its user */
+    private volatile Duration moveWait = Duration.ofSeconds(10);
+
+    /** Age after which a move that never finished is considered abandoned */
+    private volatile Duration moveLease = Duration.ofMinutes(5);
+
+    /** How long a shard read from the directory is used without reading it again */
+    private volatile Duration refreshInterval = Duration.ZERO;
+
+    /**
+     * Creates a directory for a single database.
+     */
+    public ShardMap() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Switches to sharded mode with the directory in the home database.
+     *
+     * Creates the {@code user_shards} table if it is missing and adds the
+     * move columns to a table created without them.
+     *
+     * @param home template over the home shard
+     * @param shards number of shards, including the home shard
+     * @param moveWait longest a unit of work waits for a move of its user
+     * @param moveLease age after which an unfinished move is considered abandoned
+     * @param refreshInterval how long a shard read from the directory is used without reading it again;
+     *        must be the same on every instance
+     */
+    void attach(JdbcTemplate home, int shards, Duration moveWait, Duration moveLease, Duration refreshInterval) {
+        home.execute("CREATE TABLE IF NOT EXISTS user_shards ("
+            + "user_id BIGINT NOT NULL PRIMARY KEY, "
+            + "email VARCHAR(255) NOT NULL UNIQUE, "
+            + "shard_id INT NOT NULL, "
+            + "version BIGINT NOT NULL DEFAULT 0, "
+            + "moving_since TIMESTAMP NULL)");
+        if (!hasColumn(home, "version")) {
+            home.execute("ALTER TABLE user_shards ADD COLUMN version BIGINT NOT NULL DEFAULT 0");
+        }
+        if (!hasColumn(home, "moving_since")) {
+            home.execute("ALTER TABLE user_shards ADD COLUMN moving_since TIMESTAMP NULL");
+        }
+        this.directory = home;
+        this.shardCount = shards;
+        this.userCounts = new long[shards];
+        this.moveWait = moveWait;
+        this.moveLease = moveLease;
+        this.refreshInterval = refreshInterval;
+    }
+
+    private static boolean hasColumn(JdbcTemplate home, String column) {
+        return Boolean.TRUE.equals(home.execute((ConnectionCallback<Boolean>) connection -> {
+            for (String table : List.of("user_shards", "USER_SHARDS")) {
+                for (String name : List.of(column, column.toUpperCase())) {
+                    if (connection.getMetaData().getColumns(null, null, table, name).next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    /**
+     * Adds the users of the home database missing from the directory and counts users per shard.
+     *
+     * Run once the schema exists.
+     */
+    synchronized void load() {
+        int added = directory.update("INSERT INTO user_shards (user_id, email, shard_id) "
+            + "SELECT u.id, u.email, " + HOME + " FROM users u "
+            + "WHERE NOT EXISTS (SELECT 1 FROM user_shards s WHERE s.user_id = u.id)");
+        long[] counts = new long[shardCount];
+        directory.query("SELECT shard_id, COUNT(*) FROM user_shards GROUP BY shard_id", row -> {
+            int shard = row.getInt(1);
+            if (shard >= 0 && shard < counts.length) {
+                counts[shard] = row.getLong(2);
+            }
+        });
+        userCounts = counts;
+        log.info("Shard directory loaded: {} users added to the home shard, users per shard {}", added,
+            Arrays.toString(counts));
+    }
+
+    /**
+     * Returns whether users are spread over several databases.
+     *
+     * @return true with sharding enabled
+     */
+    public boolean isSharded() {
+        return directory != null;
+    }
+
+    /**
+     * Returns the number of shards, including the home shard.
+     *
+     * @return shard count
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Returns the shard holding a user's data.
+     *
+     * @param userId ID of the user
+     * @return the shard; the home shard for users not in the directory
+     */
+    public int shardOf(long userId) {
+        if (directory == null) {
+            return HOME;
+        }
+        Placement cached = placements.get(userId);
+        if (cached != null) {
+            return cached.shard();
+        }
+        List<Integer> shards = directory.queryForList("SELECT shard_id FROM user_shards WHERE user_id = ?",
+            Integer.class, userId);
+        if (shards.isEmpty()) {
+            return HOME;
+        }
+        placements.putIfAbsent(userId, Placement.unverified(shards.get(0)));
+        return shards.get(0);
+    }
+
+    /**
+     * Returns the ID of the user registered with an email.
+     *
+     * @param email the user's email
+     * @return the user's ID, or null if not in the directory
+     */
+    public Long userIdOf(String email) {
+        if (directory == null || email == null) {
+            return null;
+        }
+        Long cached = userByEmail.get(email);
+        if (cached != null) {
+            return cached;
+        }
+        List<Map<String, Object>> rows = directory.queryForList(
+            "SELECT user_id, shard_id FROM user_shards WHERE email = ?", email);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Long userId = ((Number) rows.get(0).get("user_id")).longValue();
+        placements.putIfAbsent(userId, Placement.unverified(((Number) rows.get(0).get("shard_id")).intValue()));
+        userByEmail.put(email, userId);
+        return userId;
+    }
+
+    /**
+     * Returns the shard holding the account registered with an email.
+     *
+     * @param email the user's email
+     * @return the shard; the home shard for unknown emails
+     */
+    public int shardOfEmail(String email) {
+        Long userId = userIdOf(email);
+        return userId == null ? HOME : shardOf(userId);
+    }
+
+    /**
+     * Returns the shard a registration with an email goes to.
+     *
+     * An email already in the directory keeps its shard, so that the
+     * duplicate check sees the existing account. New emails go to the shard
+     * with the fewest users.
+     *
+     * @param email the email being registered
+     * @return the shard
+     */
+    public synchronized int shardForRegistration(String email) {
+        Long userId = userIdOf(email);
+        if (userId != null) {
+            return shardOf(userId);
+        }
+        int emptiest = HOME;
+        for (int shard = 1; shard < userCounts.length; shard++) {
+            if (userCounts[shard] < userCounts[emptiest]) {
+                emptiest = shard;
+            }
+        }
+        return emptiest;
+    }
+
+    /**
+     * Records the shard of a newly registered user.
+     *
+     * Call within the transaction saving the user. The directory lives in
+     * the home database, so its row is inserted right away and removed again
+     * if that transaction rolls back. The directory's unique email decides
+     * between concurrent registrations of one email: the later one fails
+     * here, even if it was saved on another shard.
+     *
+     * @param userId ID of the user
+     * @param email the user's email
+     * @param shard the shard the user was saved on
+     * @throws RuntimeException if the email is already registered
+     */
+    public void recordUser(long userId, String email, int shard) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            directory.update("INSERT INTO user_shards (user_id, email, shard_id) VALUES (?, ?, ?)", userId, email,
+                shard);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("Email already registered");
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            registered(userId, email, shard);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    registered(userId, email, shard);
+                } else if (status == STATUS_ROLLED_BACK) {
+                    directory.update("DELETE FROM user_shards WHERE user_id = ?", userId);
+                }
+            }
+        });
+    }
+
+    private synchronized void registered(long userId, String email, int shard) {
+        placements.put(userId, verified(shard, 0));
+        userByEmail.put(email, userId);
+        userCounts[shard]++;
+    }
+
+    /**
+     * Marks a user as being moved, so that no instance starts work on the user until the move ends.
+     *
+     * Fails if another move of the user is in progress and younger than the
+     * move lease. Returns once the shards other instances verified before
+     * the mark are due to be read again.
+     *
+     * @param userId ID of the user
+     * @param source the shard the user is expected on
+     * @return the directory version claimed for the move
+     * @throws IllegalStateException if the user is not on the source shard or is being moved already
+     */
+    long beginMove(long userId, int source) {
+        Long version = directory.queryForObject(
+            "SELECT shard_id, version, moving_since FROM user_shards WHERE user_id = ?",
+            (row, i) -> row.getInt(1) == source && !isMoving(row.getTimestamp(3)) ? row.getLong(2) : null, userId);
+        if (version == null) {
+            throw new IllegalStateException("User " + userId + " is being moved by another instance");
+        }
+        int claimed = directory.update("UPDATE user_shards SET moving_since = ?, version = ? "
+            + "WHERE user_id = ? AND version = ?", Timestamp.from(Instant.now()), version + 1, userId, version);
+        if (claimed == 0) {
+            throw new IllegalStateException("User " + userId + " is being moved by another instance");
+        }
+        placements.remove(userId);
+        try {
+            Thread.sleep(refreshInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortMove(userId, version + 1);
+            throw new IllegalStateException("Interrupted while starting a move of user " + userId, e);
+        }
+        return version + 1;
+    }
+
+    /**
+     * Switches a user being moved to its new shard and ends the move.
+     *
+     * @param userId ID of the user
+     * @param version the version claimed by {@link #beginMove}
+     * @param shard the new shard
+     * @throws IllegalStateException if the move's claim was lost
+     */
+    synchronized void finishMove(long userId, long version, int shard) {
+        int previous = shardOf(userId);
+        int switched = directory.update("UPDATE user_shards SET shard_id = ?, moving_since = NULL, version = ? "
+            + "WHERE user_id = ? AND version = ?", shard, version + 1, userId, version);
+        if (switched == 0) {
+            throw new IllegalStateException("Move of user " + userId + " lost its claim");
+        }
+        placements.put(userId, verified(shard, version + 1));
+        userCounts[previous] = Math.max(0, userCounts[previous] - 1);
+        userCounts[shard]++;
+    }
+
+    /**
+     * Ends a move that failed, leaving the user on its shard.
+     *
+     * @param userId ID of the user
+     * @param version the version claimed by {@link #beginMove}
+     */
+    void abortMove(long userId, long version) {
+        directory.update("UPDATE user_shards SET moving_since = NULL WHERE user_id = ? AND version = ?", userId,
+            version);
+    }
+
+    /**
+     * Returns the number of users on each shard.
+     *
+     * @return users per shard, indexed by shard
+     */
+    public synchronized long[] getUserCounts() {
+        return userCounts.clone();
+    }
+
+    /**
+     * Returns users on a shard, lowest IDs first.
+     *
+     * @param shard the shard
+     * @param limit most users returned
+     * @return IDs of the users
+     */
+    List<Long> usersOn(int shard, int limit) {
+        return directory.queryForList("SELECT user_id FROM user_shards WHERE shard_id = ? ORDER BY user_id LIMIT ?",
+            Long.class, shard, limit);
+    }
+
+    /**
+     * Binds a user's shard to the current thread and holds the user's read lock until closed.
+     *
+     * @param userId ID of the user
+     * @return scope releasing the binding and the lock
+     */
+    public ShardContext.Scope bindUser(long userId) {
+        if (directory == null) {
+            return ShardContext.Scope.NONE;
+        }
+        ShardContext.Scope lock = lockUsers(List.of(userId));
+        try {
+            return lock.andThen(ShardContext.bind(shardOf(userId)));
+        } catch (RuntimeException e) {
+            lock.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Binds a shard to the current thread until closed.
+     *
+     * @param shard the shard
+     * @return scope releasing the binding
+     */
+    public ShardContext.Scope bindShard(int shard) {
+        return directory == null ? ShardContext.Scope.NONE : ShardContext.bind(shard);
+    }
+
+    /**
+     * Holds the read locks of users until closed, so that none of them is moved meanwhile.
+     *
+     * Starts a unit of work on the users: shards not read from the directory
+     * within the refresh interval are read again, waiting for moves in
+     * progress on any instance.
+     *
+     * @param userIds IDs of the users
+     * @return scope releasing the locks
+     * @throws IllegalStateException if a user is still being moved after the move wait
+     */
+    public ShardContext.Scope lockUsers(Collection<Long> userIds) {
+        if (directory == null || userIds.isEmpty()) {
+            return ShardContext.Scope.NONE;
+        }
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (Long userId : userIds) {
+            stripes.add(stripe(userId));
+        }
+        List<Lock> held = new ArrayList<>(stripes.size());
+        for (int stripe : stripes) {
+            Lock lock = locks[stripe].readLock();
+            lock.lock();
+            held.add(lock);
+        }
+        ShardContext.Scope scope = () -> {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        };
+        try {
+            for (Long userId : userIds) {
+                Placement cached = placements.get(userId);
+                if (cached == null || !cached.isVerified()) {
+                    refresh(userId);
+                }
+            }
+        } catch (RuntimeException e) {
+            scope.close();
+            throw e;
+        }
+        return scope;
+    }
+
+    /**
+     * Reads a user's shard from the directory, waiting while the user is being moved.
+     */
+    private void refresh(long userId) {
+        long deadline = System.nanoTime() + moveWait.toNanos();
+        while (true) {
+            // Shard and version of the user, or null while it is being moved
+            List<Placement> read = directory.query(
+                "SELECT shard_id, version, moving_since FROM user_shards WHERE user_id = ?",
+                (row, i) -> isMoving(row.getTimestamp(3)) ? null : verified(row.getInt(1), row.getLong(2)), userId);
+            if (read.isEmpty()) {
+                placements.remove(userId);
+                return;
+            }
+            if (read.get(0) != null) {
+                Placement previous = placements.put(userId, read.get(0));
+                if (previous != null && previous.version() >= 0 && previous.version() != read.get(0).version()) {
+                    log.debug("User {} changed to shard {} at directory version {}", userId, read.get(0).shard(),
+                        read.get(0).version());
+                }
+                return;
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new IllegalStateException("User " + userId + " is still being moved after " + moveWait);
+            }
+            try {
+                Thread.sleep(MOVE_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a move of user " + userId, e);
+            }
+        }
+    }
+
+    private boolean isMoving(Timestamp movingSince) {
+        return movingSince != null && movingSince.toInstant().plus(moveLease).isAfter(Instant.now());
+    }
+
+    private Placement verified(int shard, long version) {
+        return new Placement(shard, version, System.nanoTime() + refreshInterval.toNanos());
+    }
+
+    /**
+     * Runs work once per shard, with the shard bound to the thread.
+     *
+     * Without sharding, runs it once without binding.
+     *
+     * @param <T> result type
+     * @param work the work
+     * @return the result of each run, in shard order
+     */
+    public <T> List<T> onEachShard(Supplier<T> work) {
+        List<T> results = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            try (ShardContext.Scope scope = bindShard(shard)) {
+                results.add(work.get());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the lock a move of a user takes exclusively.
+     *
+     * @param userId ID of the user
+     * @return the user's write lock
+     */
+    Lock moveLock(long userId) {
+        return locks[stripe(userId)].writeLock();
+    }
+
+    private static int stripe(long userId) {
+        return Long.hashCode(userId * 0x9E3779B97F4A7C15L) & (LOCK_STRIPES - 1);
+    }
+
+    /**
+     * Shard of a user as read from the directory.
+     *
+     * @param shard the user's shard
+     * @param version the directory version it was read at, or -1 if not read with it
+     * @param verifiedUntil {@link System#nanoTime()} until which it is used without reading the directory
+     */
+    private record Placement(int shard, long version, long verifiedUntil) {
+
+        static Placement unverified(int shard) {
+            return new Placement(shard, -1, System.nanoTime());
+        }
+
+        boolean isVerified() {
+            return verifiedUntil - System.nanoTime() > 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.suyos.tracker.sharding;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scheduled job evening out the number of users per shard.
+ *
+ * Runs every {@code tracker.sharding.rebalance.interval} after the previous
+ * run finished, moving at most {@code tracker.sharding.rebalance.max-moves}
+ * users. Enabled with {@code tracker.sharding.rebalance.enabled=true}.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = {"tracker.sharding.enabled", "tracker.sharding.rebalance.enabled"},
+    havingValue = "true")
+public class ShardRebalanceJob {
+
+    /** Tool moving users between shards */
+    private final ShardRebalancer shardRebalancer;
+
+    /**
+     * Moves users from fuller to emptier shards, stopping at the first failed move.
+     */
+    @Scheduled(initialDelayString = "${tracker.sharding.rebalance.interval:PT1H}",
+        fixedDelayString = "${tracker.sharding.rebalance.interval:PT1H}")
+    public void run() {
+        try {
+            shardRebalancer.rebalance();
+        } catch (RuntimeException e) {
+            log.error("Shard rebalancing failed; retrying on the next run", e);
+        }
+    }
+
+}
@@ -0,0 +1,278 @@
+package com.suyos.tracker.sharding;
+
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves users between shards to even out the number of users per shard.
+ *
+ * A move takes the user's lock exclusively, so it waits for the user's open
+ * transactions on this instance, and marks the user as moving in the
+ * directory, so every instance holds new work on the user back until it is
+ * done. It then reads the user's rows from the source shard with locking
+ * reads, which wait for transactions other instances had already started
+ * and block their further writes to the user's rows, copies them to the
+ * target shard in one transaction, with their IDs, switches the directory
+ * and deletes the rows in the locking source transaction. A failed move
+ * leaves the user on the source shard, and rows partly copied to the target
+ * are replaced by the next attempt.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+public class ShardRebalancer {
+
+    /** Tables holding rows of a user, referencing {@code users} */
+    private static final List<String> USER_TABLES = List.of("expenses", "budgets", "expense_rollups",
+        "anomaly_baselines", "merchant_sketches", "expense_changes");
+
+    /** Rows inserted per batch while copying */
+    private static final int BATCH_SIZE = 500;
+
+    /** Data source of each shard, the home shard first */
+    private final List<DataSource> shards;
+
+    /** Directory of the users' shards */
+    private final ShardMap shardMap;
+
+    /** Most users moved by one {@link #rebalance()} run */
+    private final int maxMoves;
+
+    /** Longest wait for a user's open transactions */
+    private final Duration lockTimeout;
+
+    /** Users moved */
+    private final Counter moves;
+
+    /**
+     * Creates a rebalancer.
+     *
+     * @param shards data source of each shard, the home shard first
+     * @param shardMap directory of the users' shards
+     * @param meterRegistry registry the move counter and per-shard user gauges are published to
+     * @param maxMoves most users moved by one run
+     * @param lockTimeout longest wait for a user's open transactions
+     */
+    public ShardRebalancer(List<DataSource> shards, ShardMap shardMap, MeterRegistry meterRegistry, int maxMoves,
+            Duration lockTimeout) {
+        this.shards = List.copyOf(shards);
+        this.shardMap = shardMap;
+        this.maxMoves = maxMoves;
+        this.lockTimeout = lockTimeout;
+        this.moves = Counter.builder("tracker.sharding.moves")
+            .description("Users moved between shards")
+            .register(meterRegistry);
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int index = shard;
+            Gauge.builder("tracker.sharding.users", shardMap, map -> map.getUserCounts()[index])
+                .tag("shard", String.valueOf(shard))
+                .description("Users whose data lives on the shard")
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Returns the user-scoped tables, referenced tables first.
+     *
+     * @return table names
+     */
+    static List<String> tablesInCopyOrder() {
+        List<String> tables = new ArrayList<>();
+        tables.add("users");
+        tables.addAll(USER_TABLES);
+        return tables;
+    }
+
+    /**
+     * Moves users from the fullest to the emptiest shard until they differ by at most one user.
+     *
+     * @return number of users moved
+     */
+    public int rebalance() {
+        int moved = 0;
+        while (moved < maxMoves) {
+            long[] counts = shardMap.getUserCounts();
+            int fullest = 0;
+            int emptiest = 0;
+            for (int shard = 1; shard < counts.length; shard++) {
+                fullest = counts[shard] > counts[fullest] ? shard : fullest;
+                emptiest = counts[shard] < counts[emptiest] ? shard : emptiest;
+            }
+            if (counts[fullest] - counts[emptiest] <= 1) {
+                break;
+            }
+            List<Long> candidates = shardMap.usersOn(fullest, 1);
+            if (candidates.isEmpty() || !moveUser(candidates.get(0), emptiest)) {
+                break;
+            }
+            moved++;
+        }
+        if (moved > 0) {
+            log.info("Rebalanced shards: {} users moved", moved);
+        }
+        return moved;
+    }
+
+    /**
+     * Moves one user's rows to another shard.
+     *
+     * @param userId ID of the user
+     * @param target the shard to move to
+     * @return true if moved, false if the user already was on the target
+     * @throws IllegalStateException if the user's transactions do not finish in time or copying fails
+     */
+    public boolean moveUser(long userId, int target) {
+        if (target < 0 || target >= shards.size()) {
+            throw new IllegalArgumentException("No shard " + target);
+        }
+        Lock lock = shardMap.moveLock(userId);
+        try {
+            if (!lock.tryLock(lockTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("User " + userId + " stayed busy for " + lockTimeout + "; not moved");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to move user " + userId, e);
+        }
+        try {
+            int source = shardMap.shardOf(userId);
+            if (source == target) {
+                return false;
+            }
+            long version = shardMap.beginMove(userId, source);
+            long started = System.nanoTime();
+            int rows;
+            try {
+                rows = move(userId, version, source, target);
+            } catch (SQLException | RuntimeException e) {
+                shardMap.abortMove(userId, version);
+                throw e;
+            }
+            moves.increment();
+            log.info("Moved user {} from shard {} to shard {}: {} rows in {} ms", userId, source, target, rows,
+                (System.nanoTime() - started) / 1_000_000);
+            return true;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Moving user " + userId + " to shard " + target + " failed", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int move(long userId, long version, int source, int target) throws SQLException {
+        try (Connection from = shards.get(source).getConnection(); Connection to = shards.get(target).getConnection()) {
+            from.setAutoCommit(false);
+            to.setAutoCommit(false);
+            boolean switched = false;
+            int rows = 0;
+            try {
+                // Rows left behind by an earlier failed attempt
+                delete(userId, to);
+                for (String table : tablesInCopyOrder()) {
+                    rows += copyTable(table, userId, from, to);
+                }
+                to.commit();
+                shardMap.finishMove(userId, version, target);
+                switched = true;
+                delete(userId, from);
+                from.commit();
+                return rows;
+            } catch (SQLException | RuntimeException e) {
+                to.rollback();
+                from.rollback();
+                if (!switched) {
+                    throw e;
+                }
+                log.error("User {} moved to shard {}, but its rows on shard {} were not deleted", userId, target,
+                    source, e);
+                return rows;
+            } finally {
+                from.setAutoCommit(true);
+                to.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static int copyTable(String table, long userId, Connection from, Connection to) throws SQLException {
+        // Locking read: waits for the user's open writes and holds off new ones until the move commits
+        try (PreparedStatement select = from.prepareStatement(
+                "SELECT * FROM " + table + " WHERE " + userColumn(table) + " = ? FOR UPDATE")) {
+            select.setLong(1, userId);
+            try (ResultSet rows = select.executeQuery()) {
+                ResultSetMetaData meta = rows.getMetaData();
+                int columns = meta.getColumnCount();
+                // Quoted as reported, since some columns are named after keywords
+                String quote = to.getMetaData().getIdentifierQuoteString().trim();
+                StringBuilder names = new StringBuilder();
+                StringBuilder values = new StringBuilder();
+                for (int c = 1; c <= columns; c++) {
+                    names.append(c > 1 ? ", " : "").append(quote).append(meta.getColumnName(c)).append(quote);
+                    values.append(c > 1 ? ", ?" : "?");
+                }
+                int copied = 0;
+                try (PreparedStatement insert = to.prepareStatement(
+                        "INSERT INTO " + table + " (" + names + ") VALUES (" + values + ")")) {
+                    while (rows.next()) {
+                        for (int c = 1; c <= columns; c++) {
+                            insert.setObject(c, detached(rows.getObject(c)));
+                        }
+                        insert.addBatch();
+                        if (++copied % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    insert.executeBatch();
+                }
+                return copied;
+            }
+        }
+    }
+
+    private static void delete(long userId, Connection connection) throws SQLException {
+        List<String> tables = tablesInCopyOrder();
+        for (int i = tables.size() - 1; i >= 0; i--) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM " + tables.get(i) + " WHERE " + userColumn(tables.get(i)) + " = ?")) {
+                statement.setLong(1, userId);
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    private static String userColumn(String table) {
+        return "users".equals(table) ? "id" : "user_id";
+    }
+
+    /**
+     * Reads large objects into memory, since they belong to the source connection.
+     */
+    private static Object detached(Object value) throws SQLException {
+        if (value instanceof Blob blob) {
+            return blob.getBytes(1, (int) blob.length());
+        }
+        if (value instanceof Clob clob) {
+            return clob.getSubString(1, (int) clob.length());
+        }
+        return value;
+    }
+
+}
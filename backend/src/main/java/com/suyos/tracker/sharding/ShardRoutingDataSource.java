@@ -0,0 +1,166 @@
+package com.suyos.tracker.sharding;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Data source routing each connection to the shard of the user it is taken for.
+ *
+ * The shard is, in order of precedence, the one bound to the thread through
+ * {@link ShardMap}, the one holding the authenticated user, or the home
+ * shard. A connection taken for the authenticated user holds the user's
+ * read lock until it is closed, so the user cannot be moved to another
+ * shard while a transaction of theirs is open.
+ *
+ * Transaction managers take their connection when the transaction begins,
+ * before the service method binds a shard, so the routing is used behind a
+ * {@link LazyConnectionDataSourceProxy}; use {@link #lazy} to create both.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+public class ShardRoutingDataSource extends AbstractDataSource {
+
+    /** Data source of each shard, the home shard first */
+    private final List<DataSource> shards;
+
+    /** Directory of the users' shards */
+    private final ShardMap shardMap;
+
+    /**
+     * Creates a routing data source.
+     *
+     * @param shards data source of each shard, the home shard first
+     * @param shardMap directory of the users' shards
+     */
+    public ShardRoutingDataSource(List<DataSource> shards, ShardMap shardMap) {
+        this.shards = List.copyOf(shards);
+        this.shardMap = shardMap;
+    }
+
+    /**
+     * Creates a routing data source behind a lazy connection proxy.
+     *
+     * @param shards data source of each shard, the home shard first
+     * @param shardMap directory of the users' shards
+     * @return the proxy to hand to transaction managers
+     */
+    public static LazyConnectionDataSourceProxy lazy(List<DataSource> shards, ShardMap shardMap) {
+        return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shards, shardMap));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(shard -> shard.getConnection(username, password));
+    }
+
+    /**
+     * Unwraps to this data source or to the home shard's.
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return shards.get(ShardMap.HOME).unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || shards.get(ShardMap.HOME).isWrapperFor(iface);
+    }
+
+    /**
+     * Opens a connection on the shard the current thread is routed to.
+     */
+    private Connection route(ConnectionOpener opener) throws SQLException {
+        Integer bound = ShardContext.currentShard();
+        if (bound != null) {
+            return opener.open(shards.get(bound));
+        }
+        Long userId = shardMap.userIdOf(currentPrincipal());
+        if (userId == null) {
+            return opener.open(shards.get(ShardMap.HOME));
+        }
+        ShardContext.Scope lock = shardMap.lockUsers(List.of(userId));
+        try {
+            return unlocking(opener.open(shards.get(shardMap.shardOf(userId))), lock);
+        } catch (SQLException | RuntimeException e) {
+            lock.close();
+            throw e;
+        }
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    /**
+     * Wraps a connection so that closing it releases the user's lock exactly once.
+     */
+    private static Connection unlocking(Connection target, ShardContext.Scope lock) {
+        AtomicBoolean released = new AtomicBoolean();
+        InvocationHandler handler = (proxy, method, args) -> invoke(target, lock, released, proxy, method, args);
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+            new Class<?>[] {ConnectionProxy.class}, handler);
+    }
+
+    private static Object invoke(Connection target, ShardContext.Scope lock, AtomicBoolean released, Object proxy,
+            Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "getTargetConnection":
+                return target;
+            case "close":
+                try {
+                    target.close();
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        lock.close();
+                    }
+                }
+                return null;
+            default:
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+        }
+    }
+
+    /**
+     * Opens a connection on a shard's data source.
+     */
+    @FunctionalInterface
+    private interface ConnectionOpener {
+
+        Connection open(DataSource shard) throws SQLException;
+
+    }
+
+}
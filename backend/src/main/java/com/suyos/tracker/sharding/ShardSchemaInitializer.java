@@ -0,0 +1,95 @@
+package com.suyos.tracker.sharding;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prepares the shards once the persistence unit is up.
+ *
+ * With {@code tracker.sharding.initialize-schema}, a shard without the
+ * {@code expenses} table gets the mapped schema, and the identity columns
+ * of its user-scoped tables start at {@code shard * }{@link #SHARD_ID_SPAN},
+ * so rows keep globally unique IDs when {@link ShardRebalancer} moves them
+ * between shards. Shards created by migrations need the same ranges. Then
+ * the directory picks up the users already in the home database.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ShardSchemaInitializer {
+
+    /** Width of each shard's ID range */
+    public static final long SHARD_ID_SPAN = 1L << 40;
+
+    /** Persistence unit whose mapped schema is exported */
+    private final EntityManagerFactory entityManagerFactory;
+
+    /** Data source of each shard, the home shard first */
+    private final List<DataSource> shards;
+
+    /** Directory of the users' shards */
+    private final ShardMap shardMap;
+
+    /** Whether to create the schema on empty shards */
+    private final boolean initializeSchema;
+
+    /**
+     * Creates missing shard schemas and loads the directory.
+     *
+     * @throws SQLException if a shard cannot be inspected
+     */
+    @PostConstruct
+    public void initialize() throws SQLException {
+        if (initializeSchema) {
+            for (int shard = 1; shard < shards.size(); shard++) {
+                if (!hasSchema(shards.get(shard))) {
+                    try (ShardContext.Scope scope = ShardContext.bind(shard)) {
+                        entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager().exportMappedObjects(false);
+                    }
+                    startIdentities(shards.get(shard), shard * SHARD_ID_SPAN);
+                    log.info("Created the schema of shard {}", shard);
+                }
+            }
+        }
+        shardMap.load();
+    }
+
+    private static boolean hasSchema(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (String name : List.of("expenses", "EXPENSES")) {
+                if (connection.getMetaData().getTables(null, null, name, null).next()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static void startIdentities(DataSource dataSource, long start) throws SQLException {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        boolean mysql;
+        try (Connection connection = dataSource.getConnection()) {
+            mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+        }
+        for (String table : ShardRebalancer.tablesInCopyOrder()) {
+            jdbc.execute(mysql
+                ? "ALTER TABLE " + table + " AUTO_INCREMENT = " + start
+                : "ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + start);
+        }
+    }
+
+}
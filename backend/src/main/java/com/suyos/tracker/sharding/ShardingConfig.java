@@ -0,0 +1,162 @@
+package com.suyos.tracker.sharding;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Configuration of user-sharded storage.
+ *
+ * When {@code tracker.sharding.enabled} is true, the application data source
+ * becomes a {@link ShardRoutingDataSource} over one HikariCP pool per shard:
+ * the home shard, configured by {@code spring.datasource.*} as before, and
+ * one more per URL in {@code tracker.sharding.urls}. The shard pools take
+ * {@code tracker.sharding.hikari.*} settings and publish
+ * {@code hikaricp.connections.*} metrics under their pool names.
+ *
+ * Sharding cannot be combined with the read replica or the reactive API,
+ * which read a single database.
+ *
+ * @author Joel Salazar
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "tracker.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardingConfig {
+
+    /** Directory of the users' shards */
+    private final ShardMap shardMap;
+
+    /** JDBC URLs of the shards besides the home shard */
+    @Value("${tracker.sharding.urls}")
+    private List<String> shardUrls;
+
+    /** Database user of the shards; the home shard's if empty */
+    @Value("${tracker.sharding.username:}")
+    private String username;
+
+    /** Database password of the shards; the home shard's if the user is empty */
+    @Value("${tracker.sharding.password:}")
+    private String password;
+
+    /** Whether to create the schema on shards that have none */
+    @Value("${tracker.sharding.initialize-schema:false}")
+    private boolean initializeSchema;
+
+    /** Most users moved by one rebalancing run */
+    @Value("${tracker.sharding.rebalance.max-moves:100}")
+    private int maxMoves;
+
+    /** Longest wait for a user's open transactions before a move gives up */
+    @Value("${tracker.sharding.rebalance.lock-timeout:PT10S}")
+    private Duration lockTimeout;
+
+    /** Age after which a move that never finished no longer holds its user back */
+    @Value("${tracker.sharding.rebalance.move-lease:PT5M}")
+    private Duration moveLease;
+
+    /** How long a shard read from the directory routes a user's work without reading it again */
+    @Value("${tracker.sharding.directory-refresh:PT1S}")
+    private Duration directoryRefresh;
+
+    /** Pool of each shard, the home shard first */
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    /**
+     * Creates the routing data source used by JPA and JDBC.
+     *
+     * @param properties the home shard's {@code spring.datasource.*} properties
+     * @param environment environment holding the pools' HikariCP settings
+     * @param meterRegistry registry the pools' metrics are published to
+     * @return the routing data source behind a lazy connection proxy
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+            MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        for (String feature : List.of("tracker.datasource.replica.enabled", "tracker.reactive.enabled")) {
+            if (binder.bind(feature, Boolean.class).orElse(false)) {
+                throw new IllegalStateException("tracker.sharding.enabled cannot be combined with " + feature);
+            }
+        }
+
+        HikariDataSource home = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(home));
+        home.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        pools.add(home);
+        for (String url : shardUrls) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setJdbcUrl(url);
+            shard.setUsername(username.isEmpty() ? home.getUsername() : username);
+            shard.setPassword(username.isEmpty() ? home.getPassword() : password);
+            shard.setPoolName((home.getPoolName() != null ? home.getPoolName() : "home") + "-shard" + pools.size());
+            binder.bind("tracker.sharding.hikari", Bindable.ofInstance(shard));
+            shard.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.add(shard);
+        }
+
+        shardMap.attach(new JdbcTemplate(home), pools.size(), lockTimeout, moveLease, directoryRefresh);
+        return ShardRoutingDataSource.lazy(shards(), shardMap);
+    }
+
+    /**
+     * Creates the initializer preparing the shards once the persistence unit is up.
+     *
+     * @param entityManagerFactory the persistence unit
+     * @return the initializer
+     */
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(EntityManagerFactory entityManagerFactory) {
+        return new ShardSchemaInitializer(entityManagerFactory, shards(), shardMap, initializeSchema);
+    }
+
+    /**
+     * Creates the tool moving users between shards.
+     *
+     * @param meterRegistry registry the move metrics are published to
+     * @return the rebalancer
+     */
+    @Bean
+    public ShardRebalancer shardRebalancer(MeterRegistry meterRegistry) {
+        return new ShardRebalancer(shards(), shardMap, meterRegistry, maxMoves, lockTimeout);
+    }
+
+    /**
+     * Closes the pools once the data source is no longer used.
+     */
+    @PreDestroy
+    public void closePools() {
+        for (int i = pools.size() - 1; i >= 0; i--) {
+            pools.get(i).close();
+        }
+    }
+
+    private List<DataSource> shards() {
+        return List.copyOf(pools);
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.suyos.tracker.analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the aggregation kernels.
+ * 
+ * Checks the vectorized kernels against the scalar reference over sizes
+ * that exercise full blocks, partial vectors and scalar tails.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("AggregationKernels Unit Tests")
+class AggregationKernelsTest {
+
+    private static final int CATEGORIES = 9;
+
+    private final AggregationKernels scalar = new ScalarAggregationKernels();
+    private final AggregationKernels vector = new VectorAggregationKernels();
+
+    private static final class Columns {
+
+        private final long[] cents;
+        private final int[] epochDays;
+        private final byte[] categories;
+
+        private Columns(Random random, int capacity) {
+            cents = new long[capacity];
+            epochDays = new int[capacity];
+            categories = new byte[capacity];
+            for (int i = 0; i < capacity; i++) {
+                cents[i] = 1 + random.nextInt(999_999_999);
+                epochDays[i] = 19_000 + random.nextInt(1000);
+                categories[i] = (byte) random.nextInt(CATEGORIES);
+            }
+        }
+
+    }
+
+    @Test
+    @DisplayName("Should match the scalar kernels for windowed aggregates")
+    void aggregate_RandomColumns_MatchesScalar() {
+        Random random = new Random(17);
+        for (int size : new int[] {0, 1, 7, 63, 64, 65, 2047, 2048, 2049, 10_000}) {
+            // Given
+            Columns columns = new Columns(random, size + 5);
+            int from = 19_000 + random.nextInt(500);
+            int to = from + random.nextInt(500);
+
+            for (int category = AggregationKernels.ALL_CATEGORIES; category < CATEGORIES; category++) {
+                // When
+                Aggregate expected = scalar.aggregate(columns.cents, columns.epochDays, columns.categories,
+                        size, from, to, category);
+                Aggregate actual = vector.aggregate(columns.cents, columns.epochDays, columns.categories,
+                        size, from, to, category);
+
+                // Then
+                assertEquals(expected, actual, "size " + size + " category " + category);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should match the scalar kernels for per-category sums")
+    void sumByCategory_RandomColumns_MatchesScalar() {
+        Random random = new Random(19);
+        for (int size : new int[] {0, 1, 15, 2048, 4097, 50_000}) {
+            // Given
+            Columns columns = new Columns(random, size);
+            long[] expectedSums = new long[CATEGORIES];
+            long[] expectedCounts = new long[CATEGORIES];
+            long[] sums = new long[CATEGORIES];
+            long[] counts = new long[CATEGORIES];
+
+            // When
+            scalar.sumByCategory(columns.cents, columns.epochDays, columns.categories, size,
+                    19_100, 19_800, expectedSums, expectedCounts);
+            vector.sumByCategory(columns.cents, columns.epochDays, columns.categories, size,
+                    19_100, 19_800, sums, counts);
+
+            // Then
+            assertArrayEquals(expectedSums, sums, "size " + size);
+            assertArrayEquals(expectedCounts, counts, "size " + size);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report empty aggregates with sentinel bounds")
+    void aggregate_NoMatches_ReturnsSentinels() {
+        // Given
+        long[] cents = {100, 200};
+        int[] days = {5, 6};
+        byte[] categories = {0, 1};
+
+        // When
+        Aggregate result = vector.aggregate(cents, days, categories, 2, 10, 20, AggregationKernels.ALL_CATEGORIES);
+
+        // Then
+        assertEquals(new Aggregate(0, 0, Long.MAX_VALUE, Long.MIN_VALUE), result);
+        assertTrue(vector.isVectorized());
+        assertFalse(scalar.isVectorized());
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.suyos.tracker.analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for AmountDistribution.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("AmountDistribution Unit Tests")
+class AmountDistributionTest {
+
+    private static AmountDistribution of(long[] values) {
+        AmountDistribution distribution = new AmountDistribution();
+        for (long value : values) {
+            distribution.add(value);
+        }
+        return distribution;
+    }
+
+    private static double exactMedian(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(sorted.length - 1) / 2];
+    }
+
+    private static double exactMad(long[] values) {
+        double median = exactMedian(values);
+        long[] deviations = Arrays.stream(values).map(value -> Math.round(Math.abs(value - median))).toArray();
+        return exactMedian(deviations);
+    }
+
+    @Test
+    @DisplayName("Should map every value to a bucket whose midpoint is within 6.25%")
+    void bucketIndex_Values_MidpointWithinResolution() {
+        int previous = 0;
+        for (long value = 1; value < 1_000_000; value = value + 1 + value / 97) {
+            int index = AmountDistribution.bucketIndex(value);
+            double midpoint = AmountDistribution.midpoint(index);
+            assertTrue(Math.abs(midpoint - value) <= value * 0.0625, value + " -> " + midpoint);
+            assertTrue(index >= previous);
+            previous = index;
+        }
+        assertEquals(487, AmountDistribution.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Should match exact mean, standard deviation and approximate median and MAD")
+    void add_RandomAmounts_MatchesExactStatistics() {
+        // Given
+        Random random = new Random(11);
+        long[] values = new long[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 500 + Math.round(Math.abs(random.nextGaussian()) * 4000);
+        }
+
+        // When
+        AmountDistribution distribution = of(values);
+
+        // Then
+        double mean = Arrays.stream(values).average().orElseThrow();
+        double variance = Arrays.stream(values).mapToDouble(value -> (value - mean) * (value - mean)).sum()
+                / (values.length - 1);
+        assertEquals(mean, distribution.getMean(), 1e-6 * mean);
+        assertEquals(Math.sqrt(variance), distribution.getStandardDeviation(), 1e-6 * Math.sqrt(variance));
+        assertEquals(exactMedian(values), distribution.getMedian(), 0.0625 * exactMedian(values));
+        assertEquals(exactMad(values), distribution.getMedianAbsoluteDeviation(), 0.15 * exactMad(values));
+    }
+
+    @Test
+    @DisplayName("Should return to the same statistics after removing added values")
+    void remove_AddedValues_RestoresStatistics() {
+        // Given
+        AmountDistribution distribution = of(new long[] {1000, 1200, 900, 1100});
+
+        // When
+        distribution.add(250_000);
+        distribution.add(77);
+        boolean removed = distribution.remove(250_000) && distribution.remove(77);
+
+        // Then
+        assertTrue(removed);
+        assertFalse(distribution.remove(5_000_000));
+        assertEquals(4, distribution.getCount());
+        assertEquals(1050, distribution.getMean(), 1e-9);
+        assertEquals(of(new long[] {1000, 1200, 900, 1100}).getMedian(), distribution.getMedian());
+    }
+
+    @Test
+    @DisplayName("Should score a far larger amount above the threshold but not a typical one")
+    void score_OutlierAndTypicalAmount_SeparatesThem() {
+        // Given
+        AmountDistribution distribution = of(new long[] {4200, 3900, 5100, 4650, 3800, 6000, 4400, 4100, 5500, 4900});
+
+        // When
+        double typical = distribution.score(5200);
+        double outlier = distribution.score(45000);
+
+        // Then
+        assertTrue(typical < 3.5, "typical scored " + typical);
+        assertTrue(outlier > 3.5, "outlier scored " + outlier);
+        assertTrue(distribution.score(1000) < 0);
+    }
+
+    @Test
+    @DisplayName("Should score finitely when all amounts are identical")
+    void score_IdenticalAmounts_UsesResolutionFloor() {
+        // Given
+        AmountDistribution distribution = of(new long[] {150000, 150000, 150000, 150000});
+
+        // When & Then
+        assertEquals(0, distribution.getMedianAbsoluteDeviation());
+        assertTrue(distribution.score(151000) < 3.5);
+        assertTrue(distribution.score(300000) > 3.5);
+    }
+
+    @Test
+    @DisplayName("Should restore identical statistics from its encoding")
+    void fromBytes_Encoded_RestoresDistribution() {
+        // Given
+        AmountDistribution distribution = of(new long[] {125, 9_999, 40_000, 40_100, 1_000_000});
+
+        // When
+        AmountDistribution restored = AmountDistribution.fromBytes(distribution.toBytes());
+
+        // Then
+        assertEquals(distribution.getCount(), restored.getCount());
+        assertEquals(distribution.getMean(), restored.getMean());
+        assertEquals(distribution.getStandardDeviation(), restored.getStandardDeviation());
+        assertEquals(distribution.getMedian(), restored.getMedian());
+        assertEquals(distribution.getMedianAbsoluteDeviation(), restored.getMedianAbsoluteDeviation());
+        assertTrue(distribution.toBytes().length < 4096);
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.suyos.tracker.analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for DeltaVarintCodec.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("DeltaVarintCodec Unit Tests")
+class DeltaVarintCodecTest {
+
+    @Test
+    @DisplayName("Should decode exactly what was encoded, including extremes")
+    void decode_Encoded_RestoresValues() {
+        // Given
+        long[] values = {0, 5, -5, Long.MAX_VALUE, Long.MIN_VALUE, 0, 127, 128, -1, 1L << 40};
+
+        // When & Then
+        assertArrayEquals(values, DeltaVarintCodec.decode(DeltaVarintCodec.encode(values)));
+        assertArrayEquals(new long[0], DeltaVarintCodec.decode(DeltaVarintCodec.encode(new long[0])));
+    }
+
+    @Test
+    @DisplayName("Should pack a sparse year of daily totals into far fewer than 8 bytes per day")
+    void encode_SparseDailyTotals_IsCompact() {
+        // Given
+        Random random = new Random(1);
+        long[] days = new long[366];
+        for (int day = 0; day < days.length; day++) {
+            days[day] = random.nextInt(3) == 0 ? random.nextInt(25_000) : 0;
+        }
+
+        // When
+        byte[] packed = DeltaVarintCodec.encode(days);
+
+        // Then
+        assertTrue(packed.length < days.length * 3, packed.length + " bytes");
+        assertEquals(days.length, DeltaVarintCodec.encode(new long[366]).length);
+        assertArrayEquals(days, DeltaVarintCodec.decode(packed));
+    }
+
+    @Test
+    @DisplayName("Should reject a series that ends within a value")
+    void decode_Truncated_Throws() {
+        // Given
+        byte[] packed = DeltaVarintCodec.encode(new long[] {1_000_000});
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> DeltaVarintCodec.decode(Arrays.copyOf(packed, packed.length - 1)));
+    }
+
+}
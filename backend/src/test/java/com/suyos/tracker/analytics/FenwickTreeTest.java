@@ -0,0 +1,90 @@
+package com.suyos.tracker.analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for FenwickTree.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("FenwickTree Unit Tests")
+class FenwickTreeTest {
+
+    private static long bruteForceSum(long[] values, int from, int to) {
+        long sum = 0;
+        for (int i = Math.max(from, 0); i <= Math.min(to, values.length - 1); i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Test
+    @DisplayName("Should match brute-force range sums under random updates")
+    void rangeSum_RandomUpdates_MatchesBruteForce() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 50; trial++) {
+            // Given
+            int size = 1 + random.nextInt(300);
+            long[] values = new long[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(200_000) - 100_000;
+            }
+            FenwickTree tree = FenwickTree.of(values);
+
+            for (int step = 0; step < 200; step++) {
+                // When
+                int index = random.nextInt(size);
+                long delta = random.nextInt(20_000) - 10_000;
+                tree.add(index, delta);
+                values[index] += delta;
+
+                // Then
+                int from = random.nextInt(size + 4) - 2;
+                int to = random.nextInt(size + 4) - 2;
+                assertEquals(bruteForceSum(values, from, to), tree.rangeSum(from, to));
+            }
+            assertArrayEquals(values, tree.toValues());
+        }
+    }
+
+    @Test
+    @DisplayName("Should clamp prefix sums to the tree bounds")
+    void prefixSum_OutOfBounds_Clamps() {
+        // Given
+        FenwickTree tree = FenwickTree.of(new long[] {5, 7, 11});
+
+        // When & Then
+        assertEquals(0, tree.prefixSum(-1));
+        assertEquals(23, tree.prefixSum(2));
+        assertEquals(23, tree.prefixSum(Integer.MAX_VALUE));
+        assertEquals(0, tree.rangeSum(2, 1));
+    }
+
+    @Test
+    @DisplayName("Should reject updates outside the tree")
+    void add_OutOfBounds_Throws() {
+        // Given
+        FenwickTree tree = new FenwickTree(4);
+
+        // When & Then
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.add(4, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.add(-1, 1));
+    }
+
+    @Test
+    @DisplayName("Should throw instead of overflowing")
+    void add_Overflow_Throws() {
+        // Given
+        FenwickTree tree = FenwickTree.of(new long[] {Long.MAX_VALUE});
+
+        // When & Then
+        assertThrows(ArithmeticException.class, () -> tree.add(0, 1));
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.suyos.tracker.analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for HeavyHitterSketch.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("HeavyHitterSketch Unit Tests")
+class HeavyHitterSketchTest {
+
+    private static final int KEYS = 500;
+
+    /**
+     * Draws a key index from a Zipf distribution with exponent 1.
+     */
+    private static int zipf(Random random, double[] cumulative) {
+        double u = random.nextDouble() * cumulative[cumulative.length - 1];
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double[] zipfWeights() {
+        double[] cumulative = new double[KEYS];
+        double sum = 0;
+        for (int k = 0; k < KEYS; k++) {
+            sum += 1.0 / (k + 1);
+            cumulative[k] = sum;
+        }
+        return cumulative;
+    }
+
+    @Test
+    @DisplayName("Should never underestimate and stay within the error bound")
+    void update_ZipfStream_EstimatesWithinBound() {
+        // Given
+        Random random = new Random(5);
+        double[] cumulative = zipfWeights();
+        HeavyHitterSketch sketch = new HeavyHitterSketch(4, 256, 64);
+        Map<String, long[]> exact = new HashMap<>();
+
+        // When
+        for (int i = 0; i < 20_000; i++) {
+            String key = "merchant " + zipf(random, cumulative);
+            long cents = 100 + random.nextInt(10_000);
+            sketch.update(key, 1, cents);
+            long[] totals = exact.computeIfAbsent(key, k -> new long[2]);
+            totals[0]++;
+            totals[1] += cents;
+        }
+
+        // Then
+        long countError = (long) Math.ceil(sketch.getRelativeError() * sketch.getTotalCount());
+        long weightError = (long) Math.ceil(sketch.getRelativeError() * sketch.getTotalWeight());
+        int outsideBound = 0;
+        for (Map.Entry<String, long[]> entry : exact.entrySet()) {
+            long count = sketch.estimateCount(entry.getKey());
+            long weight = sketch.estimateWeight(entry.getKey());
+            assertTrue(count >= entry.getValue()[0]);
+            assertTrue(weight >= entry.getValue()[1]);
+            if (count > entry.getValue()[0] + countError || weight > entry.getValue()[1] + weightError) {
+                outsideBound++;
+            }
+        }
+        assertTrue(outsideBound <= exact.size() * (1 - sketch.getConfidence()), outsideBound + " outside bound");
+        assertEquals(20_000, sketch.getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Should rank the heaviest keys first")
+    void topByCount_ZipfStream_MatchesExactHead() {
+        // Given
+        Random random = new Random(9);
+        double[] cumulative = zipfWeights();
+        HeavyHitterSketch sketch = new HeavyHitterSketch(4, 256, 64);
+        for (int i = 0; i < 20_000; i++) {
+            sketch.update("merchant " + zipf(random, cumulative), 1, 500);
+        }
+
+        // When
+        List<HeavyHitterSketch.Estimate> top = sketch.topByCount(5);
+        List<HeavyHitterSketch.Estimate> topWeight = sketch.topByWeight(5);
+
+        // Then
+        for (int k = 0; k < 5; k++) {
+            assertEquals("merchant " + k, top.get(k).getKey());
+            assertEquals("merchant " + k, topWeight.get(k).getKey());
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a key from the rankings once its occurrences are removed")
+    void update_Removals_RestoresEstimates() {
+        // Given
+        HeavyHitterSketch sketch = new HeavyHitterSketch(4, 64, 4);
+        sketch.update("rent", 1, 150_000);
+        sketch.update("coffee", 1, 450);
+        sketch.update("coffee", 1, 500);
+
+        // When
+        sketch.update("rent", -1, -150_000);
+
+        // Then
+        assertEquals(0, sketch.estimateCount("rent"));
+        assertEquals(List.of("coffee"), sketch.topByWeight(3).stream().map(HeavyHitterSketch.Estimate::getKey).toList());
+        assertEquals(950, sketch.getTotalWeight());
+        assertEquals(2, sketch.getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Should count unkeyed occurrences only in the totals")
+    void update_NullKey_CountsTotalsOnly() {
+        // Given
+        HeavyHitterSketch sketch = new HeavyHitterSketch(2, 16, 4);
+
+        // When
+        sketch.update(null, 1, 700);
+
+        // Then
+        assertEquals(1, sketch.getTotalCount());
+        assertEquals(700, sketch.getTotalWeight());
+        assertTrue(sketch.topByCount(4).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should restore identical estimates and rankings from its encoding")
+    void fromBytes_Encoded_RestoresSketch() {
+        // Given
+        Random random = new Random(3);
+        double[] cumulative = zipfWeights();
+        HeavyHitterSketch sketch = new HeavyHitterSketch(4, 256, 64);
+        for (int i = 0; i < 2_000; i++) {
+            sketch.update("merchant " + zipf(random, cumulative), 1, 100 + random.nextInt(5_000));
+        }
+
+        // When
+        byte[] bytes = sketch.toBytes();
+        HeavyHitterSketch restored = HeavyHitterSketch.fromBytes(bytes);
+
+        // Then
+        assertEquals(sketch.getTotalCount(), restored.getTotalCount());
+        assertEquals(sketch.getTotalWeight(), restored.getTotalWeight());
+        for (int k = 0; k < KEYS; k += 7) {
+            assertEquals(sketch.estimateCount("merchant " + k), restored.estimateCount("merchant " + k));
+            assertEquals(sketch.estimateWeight("merchant " + k), restored.estimateWeight("merchant " + k));
+        }
+        assertEquals(keys(sketch.topByCount(20)), keys(restored.topByCount(20)));
+        assertEquals(keys(sketch.topByWeight(20)), keys(restored.topByWeight(20)));
+        assertTrue(bytes.length < sketch.estimatedBytes() / 2, bytes.length + " bytes");
+    }
+
+    private static List<String> keys(List<HeavyHitterSketch.Estimate> estimates) {
+        return estimates.stream().map(HeavyHitterSketch.Estimate::getKey).toList();
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.suyos.tracker.analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for KllSketch.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("KllSketch Unit Tests")
+class KllSketchTest {
+
+    private static final double[] FRACTIONS = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99};
+
+    /**
+     * Returns the largest distance between the requested rank and the
+     * range of exact ranks the returned quantile occupies.
+     */
+    private static double maxRankError(KllSketch sketch, long[] sorted) {
+        double worst = 0;
+        long[] quantiles = sketch.getQuantiles(FRACTIONS);
+        for (int i = 0; i < FRACTIONS.length; i++) {
+            double low = lowerBound(sorted, quantiles[i]) / (double) sorted.length;
+            double high = lowerBound(sorted, quantiles[i] + 1) / (double) sorted.length;
+            double fraction = FRACTIONS[i];
+            double error = fraction < low ? low - fraction : fraction > high ? fraction - high : 0;
+            worst = Math.max(worst, error);
+        }
+        return worst;
+    }
+
+    private static int lowerBound(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && sorted[index - 1] == value) {
+            index--;
+        }
+        return index;
+    }
+
+    private static long[] lognormalAmounts(Random random, int n) {
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = Math.round(Math.exp(7 + 1.2 * random.nextGaussian()));
+        }
+        return values;
+    }
+
+    @Test
+    @DisplayName("Should answer quantiles exactly while the stream fits in k items")
+    void getQuantiles_SmallStream_IsExact() {
+        // Given
+        KllSketch sketch = new KllSketch();
+        for (long value = 100; value >= 1; value--) {
+            sketch.update(value);
+        }
+
+        // When & Then
+        assertEquals(100, sketch.getRetainedItems());
+        assertEquals(1, sketch.getQuantile(0));
+        assertEquals(50, sketch.getQuantile(0.5));
+        assertEquals(90, sketch.getQuantile(0.9));
+        assertEquals(100, sketch.getQuantile(1));
+        assertEquals(5050, sketch.getSum());
+        assertEquals(0.5, sketch.getRank(50));
+    }
+
+    @Test
+    @DisplayName("Should keep quantile rank error within the documented bound")
+    void getQuantiles_LargeStream_WithinRankError() {
+        // Given
+        Random random = new Random(3);
+        long[] values = lognormalAmounts(random, 200_000);
+        KllSketch sketch = new KllSketch();
+        for (long value : values) {
+            sketch.update(value);
+        }
+        Arrays.sort(values);
+
+        // When
+        double error = maxRankError(sketch, values);
+
+        // Then
+        assertTrue(error <= sketch.getNormalizedRankError(), "rank error " + error);
+        assertTrue(sketch.getRetainedItems() < 1000, "retained " + sketch.getRetainedItems());
+        assertEquals(values.length, sketch.getCount());
+        assertEquals(values[0], sketch.getMin());
+        assertEquals(values[values.length - 1], sketch.getMax());
+    }
+
+    @Test
+    @DisplayName("Should keep rank error within the bound after merging many sketches")
+    void merge_ManySketches_WithinRankError() {
+        // Given
+        Random random = new Random(5);
+        long[] values = lognormalAmounts(random, 120_000);
+        KllSketch merged = new KllSketch();
+        for (int part = 0; part < 120; part++) {
+            KllSketch sketch = new KllSketch();
+            for (int i = part * 1000; i < (part + 1) * 1000; i++) {
+                sketch.update(values[i]);
+            }
+            merged.merge(sketch);
+        }
+        Arrays.sort(values);
+
+        // When
+        double error = maxRankError(merged, values);
+
+        // Then
+        assertTrue(error <= merged.getNormalizedRankError(), "rank error " + error);
+        assertEquals(values.length, merged.getCount());
+        assertEquals(Arrays.stream(values).sum(), merged.getSum());
+    }
+
+    @Test
+    @DisplayName("Should reject queries on an empty sketch")
+    void getQuantile_Empty_Throws() {
+        // Given
+        KllSketch sketch = new KllSketch();
+
+        // When & Then
+        assertTrue(sketch.isEmpty());
+        assertThrows(IllegalStateException.class, () -> sketch.getQuantile(0.5));
+        assertThrows(IllegalStateException.class, sketch::getMin);
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.suyos.tracker.analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for MonthlySeriesStatistics.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("MonthlySeriesStatistics Unit Tests")
+class MonthlySeriesStatisticsTest {
+
+    private static final double ALPHA = 0.3;
+
+    private static MonthlySeriesStatistics of(double[] totals) {
+        MonthlySeriesStatistics statistics = new MonthlySeriesStatistics(ALPHA);
+        for (int i = 0; i < totals.length; i++) {
+            statistics.append(totals[i], i % 12 + 1);
+        }
+        return statistics;
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, 1e-6 * Math.max(1, Math.abs(expected)));
+    }
+
+    @Test
+    @DisplayName("Should match batch moving average, mean and standard deviation")
+    void append_Series_MatchesBatchStatistics() {
+        // Given
+        double[] totals = {120, 80, 100, 140, 60};
+
+        // When
+        MonthlySeriesStatistics statistics = of(totals);
+
+        // Then
+        double ewma = totals[0];
+        for (int i = 1; i < totals.length; i++) {
+            ewma = ALPHA * totals[i] + (1 - ALPHA) * ewma;
+        }
+        assertClose(ewma, statistics.getEwma());
+        assertClose(100, statistics.getMean());
+        assertClose(Math.sqrt(4000.0 / 4), statistics.getStandardDeviation());
+        assertEquals(5, statistics.getCount());
+    }
+
+    @Test
+    @DisplayName("Should match a recomputation after correcting past totals")
+    void replace_RandomCorrections_MatchesRecomputation() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 100; trial++) {
+            // Given
+            double[] totals = new double[1 + random.nextInt(40)];
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] = random.nextInt(500_000);
+            }
+            MonthlySeriesStatistics statistics = of(totals);
+
+            // When
+            for (int step = 0; step < 10; step++) {
+                int index = random.nextInt(totals.length);
+                double corrected = Math.max(0, totals[index] + random.nextInt(200_000) - 100_000);
+                statistics.replace(index, totals[index], corrected, index % 12 + 1);
+                totals[index] = corrected;
+            }
+
+            // Then
+            MonthlySeriesStatistics expected = of(totals);
+            assertClose(expected.getEwma(), statistics.getEwma());
+            assertClose(expected.getMean(), statistics.getMean());
+            assertClose(expected.getStandardDeviation(), statistics.getStandardDeviation());
+            for (int month = 1; month <= 12; month++) {
+                assertClose(expected.getSeasonalIndex(month), statistics.getSeasonalIndex(month));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply seasonal indexes only after a full year")
+    void getSeasonalIndex_HistoryLength_AppliesAfterOneYear() {
+        // Given
+        double[] year = new double[12];
+        Arrays.fill(year, 100);
+        year[11] = 320;
+        double[] partial = Arrays.copyOf(year, 11);
+
+        // When
+        MonthlySeriesStatistics full = of(year);
+        MonthlySeriesStatistics young = of(partial);
+
+        // Then
+        assertClose(320 / (1420 / 12.0), full.getSeasonalIndex(12));
+        assertClose(100 / (1420 / 12.0), full.getSeasonalIndex(1));
+        assertEquals(1, young.getSeasonalIndex(12));
+        assertClose(full.getEwma() * full.getSeasonalIndex(12), full.getExpected(12));
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.suyos.tracker.analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for MonthlyTotalsRegion.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("MonthlyTotalsRegion Unit Tests")
+class MonthlyTotalsRegionTest {
+
+    private static final int SLOTS = 8;
+    private static final int MONTHS = 12;
+    private static final int CATEGORIES = 9;
+
+    private static MonthlyTotalsRegion newRegion() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) MonthlyTotalsRegion.requiredBytes(SLOTS, MONTHS, CATEGORIES));
+        return new MonthlyTotalsRegion(buffer, SLOTS, MONTHS, CATEGORIES, 0);
+    }
+
+    private static int readySlot(MonthlyTotalsRegion region, long userId) {
+        int slot = region.claimSlot(userId);
+        assertTrue(region.completeLoad(slot, region.beginLoad(slot)));
+        return slot;
+    }
+
+    @Test
+    @DisplayName("Should accept adds only once a slot is loaded")
+    void add_SlotLifecycle_AppliesOnlyWhenReady() {
+        // Given
+        MonthlyTotalsRegion region = newRegion();
+        int slot = region.claimSlot(42L);
+        assertEquals(-1, region.findSlot(7L));
+        assertEquals(slot, region.findSlot(42L));
+
+        // When
+        boolean beforeLoad = region.add(slot, 3, 0, 500, 1);
+        long loading = region.beginLoad(slot);
+        region.put(slot, 3, 0, 1000, 2);
+        boolean completed = region.completeLoad(slot, loading);
+        boolean afterLoad = region.add(slot, 3, 0, 250, 1);
+
+        // Then
+        assertFalse(beforeLoad);
+        assertTrue(completed);
+        assertTrue(afterLoad);
+        assertEquals(1250, region.getCents(slot, 3, 0));
+        assertEquals(3, region.getCount(slot, 3, 0));
+    }
+
+    @Test
+    @DisplayName("Should refuse to publish a load that raced with an add")
+    void completeLoad_AddDuringLoad_ReturnsToUnloaded() {
+        // Given
+        MonthlyTotalsRegion region = newRegion();
+        int slot = region.claimSlot(42L);
+        long loading = region.beginLoad(slot);
+
+        // When
+        assertEquals(-1, region.beginLoad(slot));
+        region.add(slot, 0, 0, 100, 1);
+        boolean completed = region.completeLoad(slot, loading);
+
+        // Then
+        assertFalse(completed);
+        assertFalse(region.isReady(slot));
+        assertTrue(region.beginLoad(slot) >= 0);
+    }
+
+    @Test
+    @DisplayName("Should discard totals on invalidation")
+    void invalidate_ReadySlot_RequiresReload() {
+        // Given
+        MonthlyTotalsRegion region = newRegion();
+        int slot = readySlot(region, 42L);
+        region.add(slot, 0, 0, 100, 1);
+
+        // When
+        region.invalidate(slot);
+
+        // Then
+        assertFalse(region.isReady(slot));
+        assertFalse(region.add(slot, 0, 0, 100, 1));
+        long loading = region.beginLoad(slot);
+        assertEquals(0, region.getCents(slot, 0, 0));
+        assertTrue(region.completeLoad(slot, loading));
+    }
+
+    @Test
+    @DisplayName("Should reject users once every slot is claimed")
+    void claimSlot_FullRegion_ReturnsMinusOne() {
+        // Given
+        MonthlyTotalsRegion region = newRegion();
+        for (long userId = 1; userId <= SLOTS; userId++) {
+            assertTrue(region.claimSlot(userId) >= 0);
+        }
+
+        // When / Then
+        assertEquals(-1, region.claimSlot(SLOTS + 1L));
+        assertEquals(-1, region.findSlot(SLOTS + 1L));
+        for (long userId = 1; userId <= SLOTS; userId++) {
+            assertTrue(region.findSlot(userId) >= 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not lose concurrent adds")
+    void add_ConcurrentWriters_SumsExactly() throws InterruptedException {
+        // Given
+        MonthlyTotalsRegion region = newRegion();
+        int slot = readySlot(region, 42L);
+        int threads = 4;
+        int addsPerThread = 100_000;
+
+        // When
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < addsPerThread; i++) {
+                    region.add(slot, i % MONTHS, i % CATEGORIES, 3, 1);
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // Then
+        long cents = 0;
+        long count = 0;
+        for (int month = 0; month < MONTHS; month++) {
+            for (int category = 0; category < CATEGORIES; category++) {
+                cents += region.getCents(slot, month, category);
+                count += region.getCount(slot, month, category);
+            }
+        }
+        assertEquals(3L * threads * addsPerThread, cents);
+        assertEquals((long) threads * addsPerThread, count);
+    }
+
+    @Test
+    @DisplayName("Should keep totals of a cleanly closed file and reset a dirty one")
+    void open_MappedFile_RestoresOnlyAfterCleanClose(@TempDir Path directory) throws Exception {
+        // Given
+        Path file = directory.resolve("rollups.bin");
+        long bytes = MonthlyTotalsRegion.requiredBytes(SLOTS, MONTHS, CATEGORIES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            MonthlyTotalsRegion region = new MonthlyTotalsRegion(mapped, SLOTS, MONTHS, CATEGORIES, 24_240);
+            int slot = readySlot(region, 42L);
+            region.add(slot, 5, 2, 1999, 1);
+            region.markClean(true);
+            mapped.force();
+        }
+
+        // When
+        MonthlyTotalsRegion restored;
+        MonthlyTotalsRegion reset;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            restored = new MonthlyTotalsRegion(mapped, SLOTS, MONTHS, CATEGORIES, 24_240);
+            int slot = restored.findSlot(42L);
+
+            // Then
+            assertTrue(restored.isRestored());
+            assertTrue(restored.isReady(slot));
+            assertEquals(1999, restored.getCents(slot, 5, 2));
+
+            reset = new MonthlyTotalsRegion(mapped, SLOTS, MONTHS, CATEGORIES, 24_240);
+            assertFalse(reset.isRestored());
+            assertEquals(-1, reset.findSlot(42L));
+        }
+    }
+
+}
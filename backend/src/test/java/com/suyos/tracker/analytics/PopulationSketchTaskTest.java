@@ -0,0 +1,119 @@
+package com.suyos.tracker.analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.suyos.tracker.model.Category;
+
+/**
+ * Unit tests for PopulationSketchTask.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("PopulationSketchTask Unit Tests")
+class PopulationSketchTaskTest {
+
+    private static final int USERS = 500;
+    private static final int MONTHS = 12;
+
+    /**
+     * Scanner over synthetic rows of users 1..USERS, recording the scanned ranges.
+     */
+    private static final class SyntheticScanner implements PopulationSketchTask.PartitionScanner {
+
+        private final long[][] rows;
+        private final List<long[]> ranges = Collections.synchronizedList(new ArrayList<>());
+
+        private SyntheticScanner(long[][] rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public void scan(long fromUserId, long toUserId, PopulationSketchTask.RowConsumer consumer) {
+            ranges.add(new long[] {fromUserId, toUserId});
+            for (long[] row : rows) {
+                if (row[0] >= fromUserId && row[0] <= toUserId) {
+                    consumer.accept(row[0], (int) row[1], row[2]);
+                }
+            }
+        }
+
+    }
+
+    private static long[][] syntheticRows(Random random) {
+        List<long[]> rows = new ArrayList<>();
+        for (long user = 1; user <= USERS; user++) {
+            int expenses = random.nextInt(20);
+            for (int i = 0; i < expenses; i++) {
+                rows.add(new long[] {user, random.nextInt(Category.values().length), 100 + random.nextInt(50_000)});
+            }
+        }
+        return rows.toArray(new long[0][]);
+    }
+
+    private static long[] expectedMonthlyAverages(long[][] rows, int category) {
+        long[] totals = new long[USERS + 1];
+        for (long[] row : rows) {
+            if (row[1] == category) {
+                totals[(int) row[0]] += row[2];
+            }
+        }
+        return Arrays.stream(totals).filter(total -> total > 0).map(total -> total / MONTHS).toArray();
+    }
+
+    @Test
+    @DisplayName("Should produce the same sketches in parallel as a single partition")
+    void compute_ParallelPartitions_MatchesSinglePartition() {
+        // Given
+        long[][] rows = syntheticRows(new Random(13));
+        SyntheticScanner scanner = new SyntheticScanner(rows);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // When
+        KllSketch[] parallel = pool.invoke(new PopulationSketchTask(scanner, 1, USERS, 7, MONTHS, 200));
+        KllSketch[] single = new PopulationSketchTask(scanner, 1, USERS, USERS, MONTHS, 200).compute();
+        pool.shutdown();
+
+        // Then
+        for (Category category : Category.values()) {
+            long[] expected = expectedMonthlyAverages(rows, category.ordinal());
+            KllSketch sketch = parallel[category.ordinal()];
+            assertEquals(expected.length, sketch.getCount());
+            assertEquals(Arrays.stream(expected).sum(), sketch.getSum());
+            assertEquals(single[category.ordinal()].getCount(), sketch.getCount());
+            assertEquals(single[category.ordinal()].getSum(), sketch.getSum());
+        }
+    }
+
+    @Test
+    @DisplayName("Should scan every user ID exactly once across partitions")
+    void compute_Partitions_CoverIdSpaceWithoutOverlap() {
+        // Given
+        SyntheticScanner scanner = new SyntheticScanner(new long[0][]);
+
+        // When
+        new ForkJoinPool(3).invoke(new PopulationSketchTask(scanner, 1, USERS, 10, MONTHS, 200));
+
+        // Then
+        List<long[]> ranges = new ArrayList<>(scanner.ranges);
+        ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+        long next = 1;
+        for (long[] range : ranges) {
+            assertEquals(next, range[0]);
+            assertTrue(range[1] - range[0] < 10);
+            next = range[1] + 1;
+        }
+        assertEquals(USERS + 1, next);
+    }
+
+}
@@ -0,0 +1,260 @@
+package com.suyos.tracker.archive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.dto.ExpenseLookupResponseDTO;
+import com.suyos.tracker.dto.ExpenseSummaryDTO;
+import com.suyos.tracker.dto.PagedResponse;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Expense;
+import com.suyos.tracker.model.User;
+import com.suyos.tracker.repository.DailyCategoryTotal;
+import com.suyos.tracker.repository.DailyTotal;
+import com.suyos.tracker.repository.ExpenseRepository;
+import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.service.ExpenseRollupService;
+import com.suyos.tracker.service.ExpenseService;
+
+/**
+ * Integration tests for archiving expenses and listing them with live ones.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:archive",
+    "tracker.archive.enabled=true",
+    "tracker.archive.age=P1Y",
+    "tracker.archive.batch-size=7"
+})
+@ActiveProfiles("test")
+@DisplayName("Expense Archive Integration Tests")
+class ExpenseArchiveIntegrationTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    @TempDir
+    static Path archiveDirectory;
+
+    @DynamicPropertySource
+    static void archivePath(DynamicPropertyRegistry registry) {
+        registry.add("tracker.archive.path", archiveDirectory::toString);
+    }
+
+    @Autowired
+    private ExpenseArchiveJob expenseArchiveJob;
+
+    @Autowired
+    private ExpenseArchive expenseArchive;
+
+    @Autowired
+    private ExpenseHistory expenseHistory;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.save(User.builder()
+                .username("archive" + System.nanoTime())
+                .firstName("Archive")
+                .lastName("Tester")
+                .email("archive" + System.nanoTime() + "@example.com")
+                .password("password")
+                .accountEnabled(true)
+                .build());
+        // 20 expenses from 2022-06 on, one every 3 weeks; those before 2023-06-01 are past the age
+        for (int i = 0; i < 20; i++) {
+            expenseRepository.save(Expense.builder()
+                    .description("Expense " + i)
+                    .amount(new BigDecimal(10 + i))
+                    .date(LocalDate.of(2022, 6, 1).plusWeeks(3L * i))
+                    .category(i % 2 == 0 ? Category.FOOD : Category.TRANSPORTATION)
+                    .user(testUser)
+                    .build());
+        }
+    }
+
+    private List<Long> listIds(int size, Category category, LocalDate start, LocalDate end) {
+        List<Long> ids = new ArrayList<>();
+        PagedResponse<ExpenseDTO> page;
+        int number = 0;
+        do {
+            page = expenseService.getAllExpensesPaginated(testUser.getId(), number++, size, "date", "asc",
+                category, start, end);
+            page.getContent().forEach(expense -> ids.add(expense.getId()));
+        } while (!page.isLast());
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Should keep archived expenses in the rollups when rebuilding them")
+    void rebuildForUser_ArchivedExpenses_KeepsTheirTotals() {
+        // Given
+        expenseArchiveJob.archive(TODAY);
+
+        // When
+        expenseRollupService.rebuildForUser(testUser.getId());
+
+        // Then
+        List<ExpenseSummaryDTO> summary = expenseRollupService.getMonthlySummary(testUser.getId(),
+            YearMonth.of(2022, 1), YearMonth.of(2024, 12));
+        assertEquals(20L, summary.stream().mapToLong(ExpenseSummaryDTO::getCount).sum());
+        assertEquals(0, new BigDecimal("390").compareTo(summary.stream()
+            .map(ExpenseSummaryDTO::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add)));
+        assertTrue(summary.stream().anyMatch(month -> month.getYearMonth().equals(YearMonth.of(2022, 6))));
+    }
+
+    @Test
+    @DisplayName("Should move old expenses to segments and keep listing them with live ones in order")
+    void archive_OldExpenses_ListedAcrossTiers() throws Exception {
+        // Given
+        List<Long> before = listIds(20, null, null, null);
+        List<Long> foodBefore = listIds(3, Category.FOOD, LocalDate.of(2022, 1, 1), LocalDate.of(2023, 12, 31));
+
+        // When
+        int archived = expenseArchiveJob.archive(TODAY);
+
+        // Then
+        LocalDate cutoff = LocalDate.of(2023, 6, 1);
+        assertEquals(18, archived);
+        assertTrue(expenseRepository.findByUserId(testUser.getId(), Pageable.unpaged()).stream()
+            .noneMatch(expense -> expense.getDate().isBefore(cutoff)));
+        try (Stream<Path> segments = Files.list(archiveDirectory.resolve(String.valueOf(testUser.getId())))) {
+            assertEquals(3, segments.filter(file -> file.toString().endsWith(ExpenseArchive.SEGMENT_SUFFIX)).count());
+        }
+        assertEquals(before, listIds(4, null, null, null));
+        assertEquals(foodBefore, listIds(3, Category.FOOD, LocalDate.of(2022, 1, 1), LocalDate.of(2023, 12, 31)));
+        assertEquals(before.subList(0, 3),
+            listIds(2, null, LocalDate.of(2022, 6, 1), LocalDate.of(2022, 7, 13)));
+    }
+
+    @Test
+    @DisplayName("Should publish a pending segment whose expenses are gone and discard one whose are not")
+    void archive_PendingSegments_RecoveredByRows() throws Exception {
+        // Given
+        List<Expense> expenses = expenseRepository.findByUserIdAndDateBefore(testUser.getId(),
+            LocalDate.of(2022, 8, 1), Pageable.unpaged());
+        Path kept = expenseArchive.prepare(testUser.getId(), expenses.subList(0, 1));
+        Path lost = expenseArchive.prepare(testUser.getId(), expenses.subList(1, 3));
+        expenseRepository.deleteAllById(List.of(expenses.get(1).getId(), expenses.get(2).getId()));
+
+        // When
+        expenseArchiveJob.archive(LocalDate.of(2000, 1, 1));
+
+        // Then
+        assertFalse(Files.exists(kept));
+        assertFalse(Files.exists(lost));
+        assertEquals(List.of(expenses.get(1).getId(), expenses.get(2).getId()),
+            expenseArchive.find(testUser.getId(), null, null, null).stream().map(Expense::getId).sorted().toList());
+        assertTrue(expenseRepository.existsById(expenses.get(0).getId()));
+    }
+
+    @Test
+    @DisplayName("Should read archived expenses by ID and refuse to change them")
+    void archive_ArchivedExpense_ReadOnlyById() {
+        // Given
+        Expense first = expenseRepository.findByUserIdAndDateBefore(testUser.getId(), LocalDate.of(2022, 6, 2),
+            Pageable.unpaged()).get(0);
+        Long userId = testUser.getId();
+        Long id = first.getId();
+        expenseArchiveJob.archive(TODAY);
+
+        // When
+        ExpenseDTO found = expenseService.getExpenseById(id, userId);
+        ExpenseLookupResponseDTO lookup = expenseService.getExpensesByIds(List.of(id, Long.MAX_VALUE), userId);
+
+        // Then
+        assertEquals("Expense 0", found.getDescription());
+        assertEquals(List.of(id), lookup.getExpenses().stream().map(ExpenseDTO::getId).toList());
+        assertEquals(List.of(Long.MAX_VALUE), lookup.getMissingIds());
+        assertThrows(ArchivedExpenseException.class, () -> expenseService.updateExpenseById(id, found, userId));
+        assertThrows(ArchivedExpenseException.class, () -> expenseService.deleteExpenseById(id, userId));
+        assertThrows(RuntimeException.class, () -> expenseService.deleteExpenseById(Long.MAX_VALUE, userId));
+    }
+
+    @Test
+    @DisplayName("Should load the analytics from live and archived expenses alike")
+    void archive_History_IncludesArchivedExpenses() {
+        // Given
+        Long userId = testUser.getId();
+        LocalDate start = LocalDate.of(2022, 1, 1);
+        LocalDate end = LocalDate.of(2023, 12, 31);
+        BigDecimal rangeBefore = total(expenseHistory.sumByDateBetween(userId, start, end));
+        long rowsBefore = expenseHistory.findAmountRowsByUserId(userId).size();
+
+        // When
+        expenseArchiveJob.archive(TODAY);
+
+        // Then
+        assertEquals(2, expenseRepository.findAmountRowsByUserId(userId).size());
+        assertEquals(rowsBefore, expenseHistory.findAmountRowsByUserId(userId).size());
+        assertEquals(0, rangeBefore.compareTo(total(expenseHistory.sumByDateBetween(userId, start, end))));
+        assertEquals(20, expenseHistory.sumByDateAndCategory(userId).stream()
+            .mapToLong(DailyCategoryTotal::getCount).sum());
+    }
+
+    @Test
+    @DisplayName("Should read a segment published by another instance sharing the archive path")
+    void archive_SegmentPublishedElsewhere_ReadAfterCaching() {
+        // Given
+        Long userId = testUser.getId();
+        assertTrue(expenseArchive.find(userId, null, null, null).isEmpty());
+        ExpenseArchive otherInstance = new ExpenseArchive();
+        ReflectionTestUtils.setField(otherInstance, "enabled", true);
+        ReflectionTestUtils.setField(otherInstance, "root", archiveDirectory);
+        Expense archived = Expense.builder()
+                .id(Long.MAX_VALUE)
+                .description("Archived elsewhere")
+                .amount(new BigDecimal("5.00"))
+                .date(LocalDate.of(2020, 1, 1))
+                .category(Category.FOOD)
+                .build();
+
+        // When
+        otherInstance.publish(userId, otherInstance.prepare(userId, List.of(archived)));
+
+        // Then
+        assertEquals(List.of(Long.MAX_VALUE),
+            expenseArchive.find(userId, null, null, null).stream().map(Expense::getId).toList());
+        assertTrue(expenseArchive.findById(userId, Long.MAX_VALUE).isPresent());
+    }
+
+    private static BigDecimal total(List<DailyTotal> rows) {
+        return rows.stream().map(DailyTotal::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.suyos.tracker.archive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.suyos.tracker.model.Expense;
+
+/**
+ * Unit tests for ExpenseArchive.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("ExpenseArchive Unit Tests")
+class ExpenseArchiveTest {
+
+    private static Expense expense(long id, String description) {
+        return Expense.builder().id(id).description(description).build();
+    }
+
+    @Test
+    @DisplayName("Should order descriptions ignoring case and break ties by ID, as MySQL does")
+    void order_Description_IgnoresCase() {
+        // Given
+        List<Expense> expenses = List.of(expense(1L, "banana"), expense(2L, "Apple"), expense(3L, "apple"),
+            expense(4L, "Cherry"), expense(5L, null));
+        Sort sort = Sort.by("description").and(Sort.by("id"));
+
+        // When
+        List<Long> ids = expenses.stream().sorted(ExpenseArchive.order(sort)).map(Expense::getId).toList();
+
+        // Then
+        assertEquals(List.of(5L, 2L, 3L, 1L, 4L), ids);
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.suyos.tracker.archive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Expense;
+
+/**
+ * Unit tests for ExpenseSegment.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("ExpenseSegment Unit Tests")
+class ExpenseSegmentTest {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    private Path directory;
+
+    /**
+     * Builds an expense per day from {@link #FIRST_DATE}, in shuffled order.
+     */
+    private static List<Expense> expenses(int count) {
+        List<Expense> expenses = new ArrayList<>();
+        Category[] categories = Category.values();
+        for (int i = 0; i < count; i++) {
+            expenses.add(Expense.builder()
+                    .id(1000L + i)
+                    .description(i % 7 == 0 ? null : "Expense ñ " + i)
+                    .amount(new BigDecimal(i + ".25"))
+                    .date(FIRST_DATE.plusDays(i))
+                    .category(categories[i % categories.length])
+                    .anomalous(i % 11 == 0)
+                    .createdAt(i % 5 == 0 ? null : LocalDateTime.of(2020, 1, 1, 8, 30, 15, 123_456_000).plusDays(i))
+                    .updatedAt(LocalDateTime.of(2021, 6, 1, 12, 0).plusMinutes(i))
+                    .build());
+        }
+        Collections.shuffle(expenses, new Random(42));
+        return expenses;
+    }
+
+    @Test
+    @DisplayName("Should read back every field of every expense in date order")
+    void writeAndOpen_RoundTripsAllFields() throws Exception {
+        // Given
+        List<Expense> expenses = expenses(3 * ExpenseSegment.BLOCK_ROWS + 5);
+        Path file = directory.resolve("segment.seg");
+
+        // When
+        ExpenseSegment.write(file, expenses);
+        ExpenseSegment segment = ExpenseSegment.open(file);
+
+        // Then
+        List<Expense> read = segment.find(null, null, null);
+        assertEquals(expenses.size(), segment.size());
+        assertEquals(FIRST_DATE, segment.firstDate());
+        assertEquals(FIRST_DATE.plusDays(expenses.size() - 1), segment.lastDate());
+        for (int i = 0; i < read.size(); i++) {
+            Expense actual = read.get(i);
+            Expense expected = expenses.stream().filter(e -> e.getId().equals(actual.getId())).findFirst()
+                .orElseThrow();
+            assertEquals(FIRST_DATE.plusDays(i), actual.getDate());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(0, expected.getAmount().compareTo(actual.getAmount()));
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.isAnomalous(), actual.isAnomalous());
+            assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+            assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+            assertNull(actual.getUser());
+        }
+    }
+
+    @Test
+    @DisplayName("Should return only the expenses in a date range and category")
+    void find_RangeAndCategory_FiltersRows() throws Exception {
+        // Given
+        List<Expense> expenses = expenses(2 * ExpenseSegment.BLOCK_ROWS);
+        Path file = directory.resolve("segment.seg");
+        ExpenseSegment.write(file, expenses);
+        ExpenseSegment segment = ExpenseSegment.open(file);
+        LocalDate start = FIRST_DATE.plusDays(100);
+        LocalDate end = FIRST_DATE.plusDays(160);
+
+        // When
+        List<Expense> inRange = segment.find(null, start, end);
+        List<Expense> food = segment.find(Category.FOOD, start, end);
+
+        // Then
+        assertEquals(61, inRange.size());
+        assertEquals(start, inRange.get(0).getDate());
+        assertEquals(end, inRange.get(inRange.size() - 1).getDate());
+        assertEquals(expenses.stream().filter(e -> e.getCategory() == Category.FOOD
+            && !e.getDate().isBefore(start) && !e.getDate().isAfter(end)).count(), food.size());
+        assertTrue(food.stream().allMatch(e -> e.getCategory() == Category.FOOD));
+        assertTrue(segment.find(null, FIRST_DATE.minusDays(10), FIRST_DATE.minusDays(1)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should compress expenses below their column size and list their IDs")
+    void write_ManyExpenses_CompressesAndListsIds() throws Exception {
+        // Given
+        List<Expense> expenses = expenses(5000);
+        Path file = directory.resolve("segment.seg");
+
+        // When
+        ExpenseSegment.write(file, expenses);
+
+        // Then
+        assertTrue(Files.size(file) < 5000 * 24L, "segment of " + Files.size(file) + " bytes");
+        assertEquals(expenses.stream().map(Expense::getId).sorted().toList(), ExpenseSegment.open(file).ids());
+    }
+
+    @Test
+    @DisplayName("Should count and fetch expenses without listing them")
+    void countAndFindById_MatchFind() throws Exception {
+        // Given
+        List<Expense> expenses = expenses(3 * ExpenseSegment.BLOCK_ROWS + 5);
+        Path file = directory.resolve("segment.seg");
+        ExpenseSegment.write(file, expenses);
+        ExpenseSegment segment = ExpenseSegment.open(file);
+        LocalDate start = FIRST_DATE.plusDays(100);
+        LocalDate end = FIRST_DATE.plusDays(300);
+
+        // When
+        long inRange = segment.count(null, start, end);
+        long food = segment.count(Category.FOOD, null, null);
+
+        // Then
+        assertEquals(segment.find(null, start, end).size(), inRange);
+        assertEquals(segment.find(Category.FOOD, null, null).size(), food);
+        assertEquals(expenses.size(), segment.count(null, null, null));
+        Expense expected = expenses.get(17);
+        assertEquals(expected.getDate(), segment.findById(expected.getId()).orElseThrow().getDate());
+        assertTrue(segment.findById(1L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject a file that is not a segment")
+    void open_NotASegment_Throws() throws Exception {
+        // Given
+        Path file = Files.write(directory.resolve("other.seg"), new byte[64]);
+
+        // When & Then
+        assertThrows(IOException.class, () -> ExpenseSegment.open(file));
+    }
+
+}
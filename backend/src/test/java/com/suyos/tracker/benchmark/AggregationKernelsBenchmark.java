@@ -0,0 +1,94 @@
+package com.suyos.tracker.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.suyos.tracker.analytics.Aggregate;
+import com.suyos.tracker.analytics.AggregationKernels;
+import com.suyos.tracker.analytics.ScalarAggregationKernels;
+import com.suyos.tracker.analytics.VectorAggregationKernels;
+
+/**
+ * Compares the scalar and vectorized aggregation kernels over columnar expenses.
+ * 
+ * Rows span about three years of days and the nine categories uniformly;
+ * the window covers one year, so roughly a third of the rows match. Run with
+ * {@code ./mvnw -Pbenchmark test -DskipTests
+ * -Dbenchmark=AggregationKernelsBenchmark}.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregationKernelsBenchmark {
+
+    private static final int FIRST_DAY = 19_000;
+    private static final int CATEGORIES = 9;
+
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    private long[] cents;
+    private int[] epochDays;
+    private byte[] categories;
+
+    private final AggregationKernels scalar = new ScalarAggregationKernels();
+    private final AggregationKernels vector = new VectorAggregationKernels();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        cents = new long[size];
+        epochDays = new int[size];
+        categories = new byte[size];
+        for (int i = 0; i < size; i++) {
+            cents[i] = 1 + random.nextInt(999_999_999);
+            epochDays[i] = FIRST_DAY + random.nextInt(3 * 365);
+            categories[i] = (byte) random.nextInt(CATEGORIES);
+        }
+    }
+
+    @Benchmark
+    public Aggregate aggregateScalar() {
+        return scalar.aggregate(cents, epochDays, categories, size, FIRST_DAY + 365, FIRST_DAY + 729, 0);
+    }
+
+    @Benchmark
+    public Aggregate aggregateVector() {
+        return vector.aggregate(cents, epochDays, categories, size, FIRST_DAY + 365, FIRST_DAY + 729, 0);
+    }
+
+    @Benchmark
+    public long[] sumByCategoryScalar() {
+        long[] sums = new long[CATEGORIES];
+        scalar.sumByCategory(cents, epochDays, categories, size, FIRST_DAY + 365, FIRST_DAY + 729,
+                sums, new long[CATEGORIES]);
+        return sums;
+    }
+
+    @Benchmark
+    public long[] sumByCategoryVector() {
+        long[] sums = new long[CATEGORIES];
+        vector.sumByCategory(cents, epochDays, categories, size, FIRST_DAY + 365, FIRST_DAY + 729,
+                sums, new long[CATEGORIES]);
+        return sums;
+    }
+
+}
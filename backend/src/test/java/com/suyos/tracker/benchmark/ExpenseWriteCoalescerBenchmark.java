@@ -0,0 +1,169 @@
+package com.suyos.tracker.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.suyos.tracker.TrackerApplication;
+import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.User;
+import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.service.ExpenseService;
+import com.suyos.tracker.service.ExpenseWriteCoalescer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Compares expense creation throughput with and without group commit.
+ *
+ * Starts the application without a web server and creates expenses from
+ * 1, 16 and 256 concurrent writers, each writing for its own user. Direct
+ * mode calls the expense service, one transaction per creation; coalesced
+ * mode goes through {@link ExpenseWriteCoalescer}. The commits and mean
+ * batch size of each iteration are printed after it. The in-memory test
+ * database does not sync commits to disk, which understates the gain; pass
+ * {@code -p profile=default} to run against the MySQL database configured
+ * in {@code application.properties}. Run with
+ * {@code ./mvnw -Pbenchmark test -DskipTests -Dbenchmark=ExpenseWriteCoalescerBenchmark}.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExpenseWriteCoalescerBenchmark {
+
+    @Param({"direct", "coalesced"})
+    private String mode;
+
+    @Param({"test"})
+    private String profile;
+
+    private ConfigurableApplicationContext context;
+
+    private ExpenseService expenseService;
+
+    private ExpenseWriteCoalescer expenseWriteCoalescer;
+
+    private UserRepository userRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private final AtomicInteger writers = new AtomicInteger();
+
+    private double commitsBefore;
+
+    private double creationsBefore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(TrackerApplication.class,
+            "--spring.profiles.active=" + profile,
+            "--spring.main.web-application-type=none",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--tracker.expenses.coalesce.enabled=" + "coalesced".equals(mode));
+        expenseService = context.getBean(ExpenseService.class);
+        expenseWriteCoalescer = context.getBean(ExpenseWriteCoalescer.class);
+        userRepository = context.getBean(UserRepository.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void markCounters() {
+        commitsBefore = meterRegistry.get("tracker.expenses.commits").counter().count();
+        creationsBefore = meterRegistry.get("tracker.expenses.batch.size").summary().totalAmount();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportBatches() {
+        double commits = meterRegistry.get("tracker.expenses.commits").counter().count() - commitsBefore;
+        double creations = meterRegistry.get("tracker.expenses.batch.size").summary().totalAmount() - creationsBefore;
+        if (commits > 0) {
+            System.out.printf("%n%s: %.0f commits, %.1f creations per commit%n", mode, commits, creations / commits);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * One concurrent writer with its own user.
+     */
+    @State(Scope.Thread)
+    public static class Writer {
+
+        private Long userId;
+
+        @Setup(Level.Trial)
+        public void setUp(ExpenseWriteCoalescerBenchmark benchmark) {
+            int writer = benchmark.writers.incrementAndGet();
+            String name = "coalesce" + writer + "x" + System.nanoTime();
+            userId = benchmark.userRepository.save(User.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .password("password")
+                .firstName("Load")
+                .lastName("Test")
+                .accountEnabled(true)
+                .build()).getId();
+        }
+
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ExpenseDTO writers1(Writer writer) {
+        return create(writer);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public ExpenseDTO writers16(Writer writer) {
+        return create(writer);
+    }
+
+    @Benchmark
+    @Threads(256)
+    public ExpenseDTO writers256(Writer writer) {
+        return create(writer);
+    }
+
+    private ExpenseDTO create(Writer writer) {
+        ExpenseDTO expense = ExpenseDTO.builder()
+            .description("Load test")
+            .amount(new BigDecimal("12.34"))
+            .date(LocalDate.of(2024, 5, 1))
+            .category(Category.FOOD)
+            .build();
+        return "coalesced".equals(mode)
+            ? expenseWriteCoalescer.createExpense(expense, writer.userId)
+            : expenseService.createExpense(expense, writer.userId);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.suyos.tracker.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.suyos.tracker.model.Money;
+
+/**
+ * Compares summing expense amounts as BigDecimal against fixed-point cents.
+ * 
+ * Amounts are random values within the validated range (0.01 to
+ * 9,999,999.99). Run with {@code ./mvnw -Pbenchmark test -DskipTests
+ * -Dbenchmark=MoneySumBenchmark}.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneySumBenchmark {
+
+    @Param({"1000000"})
+    private int size;
+
+    private BigDecimal[] amounts;
+    private long[] cents;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new BigDecimal[size];
+        cents = new long[size];
+        for (int i = 0; i < size; i++) {
+            long value = 1 + (long) (random.nextDouble() * 999_999_999L);
+            amounts[i] = BigDecimal.valueOf(value, 2);
+            cents[i] = Money.toCents(amounts[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : amounts) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal sumCents() {
+        return Money.toBigDecimal(Money.sumCents(cents, cents.length));
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.suyos.tracker.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.suyos.tracker.analytics.KllSketch;
+import com.suyos.tracker.analytics.PopulationSketchTask;
+import com.suyos.tracker.model.Category;
+
+/**
+ * Measures the speedup of the population sketch job with the number of fork-join workers.
+ * 
+ * Partitions generate their users' rows deterministically instead of
+ * reading a database, isolating the partitioning, per-user aggregation and
+ * sketch merging from I/O. Speedup from 1 to N workers approaches N while
+ * N stays within the physical cores. Run with {@code ./mvnw -Pbenchmark test
+ * -DskipTests -Dbenchmark=PopulationSketchBenchmark}.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PopulationSketchBenchmark {
+
+    private static final int EXPENSES_PER_USER = 40;
+
+    @Param({"100000"})
+    private int users;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    private final PopulationSketchTask.PartitionScanner scanner = (fromUserId, toUserId, consumer) -> {
+        int categories = Category.values().length;
+        for (long user = fromUserId; user <= toUserId; user++) {
+            SplittableRandom random = new SplittableRandom(user);
+            for (int i = 0; i < EXPENSES_PER_USER; i++) {
+                consumer.accept(user, random.nextInt(categories), 100 + random.nextInt(100_000));
+            }
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public KllSketch[] sketchPopulation() {
+        return pool.invoke(new PopulationSketchTask(scanner, 1, users, 1000, 12, KllSketch.DEFAULT_K));
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.suyos.tracker.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.suyos.tracker.analytics.KllSketch;
+
+/**
+ * Compares exact percentiles over a year of expense amounts against merging
+ * twelve monthly KLL sketches.
+ * 
+ * The exact variant copies and sorts every amount, as a query without
+ * sketches would; the sketch variant merges the month sketches and reads
+ * the same six percentiles. Amounts are log-normally distributed cents.
+ * Run with {@code ./mvnw -Pbenchmark test -DskipTests
+ * -Dbenchmark=QuantileSketchBenchmark}.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuantileSketchBenchmark {
+
+    private static final double[] FRACTIONS = {0.25, 0.5, 0.75, 0.9, 0.95, 0.99};
+
+    private static final int MONTHS = 12;
+
+    @Param({"10000", "1000000"})
+    private int size;
+
+    private long[] amounts;
+    private KllSketch[] monthSketches;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new long[size];
+        monthSketches = new KllSketch[MONTHS];
+        for (int m = 0; m < MONTHS; m++) {
+            monthSketches[m] = new KllSketch();
+        }
+        for (int i = 0; i < size; i++) {
+            amounts[i] = Math.round(Math.exp(7 + 1.2 * random.nextGaussian()));
+            monthSketches[i % MONTHS].update(amounts[i]);
+        }
+    }
+
+    @Benchmark
+    public long[] exactPercentiles() {
+        long[] sorted = amounts.clone();
+        Arrays.sort(sorted);
+        long[] quantiles = new long[FRACTIONS.length];
+        for (int i = 0; i < FRACTIONS.length; i++) {
+            quantiles[i] = sorted[(int) Math.min(sorted.length - 1, Math.ceil(FRACTIONS[i] * sorted.length) - 1)];
+        }
+        return quantiles;
+    }
+
+    @Benchmark
+    public long[] sketchPercentiles() {
+        KllSketch merged = new KllSketch();
+        for (KllSketch sketch : monthSketches) {
+            merged.merge(sketch);
+        }
+        return merged.getQuantiles(FRACTIONS);
+    }
+
+}
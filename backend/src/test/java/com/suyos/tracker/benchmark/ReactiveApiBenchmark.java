@@ -0,0 +1,176 @@
+package com.suyos.tracker.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suyos.tracker.TrackerApplication;
+import com.suyos.tracker.reactive.ReactiveApiServer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Compares the servlet and reactive expense APIs under many concurrent connections.
+ *
+ * Starts the application with both servers on random ports against the
+ * in-memory test database and, per invocation, opens {@code connections}
+ * concurrent connections that each request one page of expenses from the
+ * selected API. The score is the time to serve the whole burst; the
+ * requests per second and the peak heap and live thread counts of each
+ * iteration are printed after it. Client and server share the JVM, so the
+ * figures include the client's connections in both modes. Needs a file
+ * descriptor limit of about twice the connection count. Run with
+ * {@code ./mvnw -Pbenchmark test -DskipTests -Dbenchmark=ReactiveApiBenchmark}.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class ReactiveApiBenchmark {
+
+    private static final String EXPENSE = "{\"description\":\"Load test\",\"amount\":12.34,"
+        + "\"date\":\"2024-05-01\",\"category\":\"FOOD\"}";
+
+    @Param({"servlet", "reactive"})
+    private String api;
+
+    @Param({"10000"})
+    private int connections;
+
+    private ConfigurableApplicationContext context;
+
+    private ConnectionProvider connectionProvider;
+
+    private HttpClient client;
+
+    private String listUrl;
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private List<MemoryPoolMXBean> heapPools;
+
+    private long iterationStart;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = SpringApplication.run(TrackerApplication.class,
+            "--spring.profiles.active=test",
+            "--server.port=0",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--server.tomcat.max-connections=" + connections,
+            "--server.tomcat.accept-count=" + connections,
+            "--tracker.reactive.enabled=true",
+            "--tracker.reactive.port=0");
+        int servletPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+        int reactivePort = context.getBean(ReactiveApiServer.class).getPort();
+        connectionProvider = ConnectionProvider.builder("load")
+            .maxConnections(connections)
+            .pendingAcquireMaxCount(-1)
+            .pendingAcquireTimeout(Duration.ofMinutes(1))
+            .build();
+        HttpClient anonymous = HttpClient.create(connectionProvider).responseTimeout(Duration.ofMinutes(1));
+
+        String servletUrl = "http://localhost:" + servletPort;
+        post(anonymous, servletUrl + "/api/users/register", "{\"username\":\"reactiveload\",\"firstName\":\"Load\","
+            + "\"lastName\":\"Test\",\"email\":\"reactive-load@example.com\",\"password\":\"password123\","
+            + "\"termsAccepted\":true,\"privacyPolicyAccepted\":true}");
+        String login = post(anonymous, servletUrl + "/api/users/login",
+            "{\"email\":\"reactive-load@example.com\",\"password\":\"password123\"}");
+        String authorization = "Bearer " + new ObjectMapper().readTree(login).get("accessToken").asText();
+        client = anonymous.headers(headers -> headers.set("Authorization", authorization));
+        for (int i = 0; i < 200; i++) {
+            post(client, servletUrl + "/api/expenses", EXPENSE);
+        }
+
+        listUrl = ("reactive".equals(api) ? "http://localhost:" + reactivePort : servletUrl)
+            + "/api/expenses?page=0&size=20";
+        heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeaks() {
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+        iterationStart = System.nanoTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportPeaks() {
+        double seconds = (System.nanoTime() - iterationStart) / 1e9;
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        System.out.printf("%n%s: %.0f requests/s, peak heap %d MB, peak threads %d%n", api, connections / seconds,
+            peakHeap >> 20, ManagementFactory.getThreadMXBean().getPeakThreadCount());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (failures.get() > 0) {
+            System.out.println(failures.get() + " requests failed on the " + api + " API");
+        }
+        connectionProvider.dispose();
+        context.close();
+    }
+
+    @Benchmark
+    public long burst() {
+        return Flux.range(0, connections)
+            .flatMap(i -> client.get().uri(listUrl)
+                .responseSingle((response, body) -> {
+                    if (response.status().code() >= 400) {
+                        failures.incrementAndGet();
+                    }
+                    return body.asByteArray().map(bytes -> (long) bytes.length).defaultIfEmpty(0L);
+                })
+                .onErrorResume(e -> {
+                    failures.incrementAndGet();
+                    return Mono.just(0L);
+                }), connections)
+            .reduce(0L, Long::sum)
+            .block();
+    }
+
+    private String post(HttpClient httpClient, String url, String json) {
+        return httpClient.headers(headers -> headers.set("Content-Type", "application/json"))
+            .post()
+            .uri(url)
+            .send(ByteBufFlux.fromString(Mono.just(json)))
+            .responseSingle((response, body) -> body.asString())
+            .block();
+    }
+
+}
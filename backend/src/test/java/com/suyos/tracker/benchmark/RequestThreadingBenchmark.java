@@ -0,0 +1,142 @@
+package com.suyos.tracker.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suyos.tracker.TrackerApplication;
+
+/**
+ * Compares request throughput on platform and virtual request threads.
+ *
+ * Starts the application on a random port against the in-memory test
+ * database, with the JDBC throttle enabled in both modes, and drives the
+ * expense list and create endpoints from 64 concurrent clients. Platform
+ * mode serves them from a Tomcat pool of {@code platformThreads}; virtual
+ * mode starts a virtual thread per request and relies on the throttle to
+ * keep them from piling into the connection pool. Virtual mode requires
+ * Java 21; on older runtimes pass {@code -p mode=platform}. Run with
+ * {@code ./mvnw -Pbenchmark test -DskipTests -Dbenchmark=RequestThreadingBenchmark}.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class RequestThreadingBenchmark {
+
+    private static final String EXPENSE = "{\"description\":\"Load test\",\"amount\":12.34,"
+        + "\"date\":\"2024-05-01\",\"category\":\"FOOD\"}";
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"16"})
+    private int platformThreads;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    private String authorization;
+
+    private final AtomicLong failures = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        boolean virtual = "virtual".equals(mode);
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads require Java 21; run with -p mode=platform");
+        }
+        context = SpringApplication.run(TrackerApplication.class,
+            "--spring.profiles.active=test",
+            "--server.port=0",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--spring.threads.virtual.enabled=" + virtual,
+            "--tracker.jdbc.throttle.enabled=true",
+            "--server.tomcat.threads.max=" + platformThreads);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newHttpClient();
+
+        post("/api/users/register", "{\"username\":\"loadtest\",\"firstName\":\"Load\",\"lastName\":\"Test\","
+            + "\"email\":\"load@example.com\",\"password\":\"password123\","
+            + "\"termsAccepted\":true,\"privacyPolicyAccepted\":true}", null);
+        String login = post("/api/users/login", "{\"email\":\"load@example.com\",\"password\":\"password123\"}", null);
+        authorization = "Bearer " + new ObjectMapper().readTree(login).get("accessToken").asText();
+        for (int i = 0; i < 200; i++) {
+            post("/api/expenses", EXPENSE, authorization);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (failures.get() > 0) {
+            System.out.println(failures.get() + " requests failed in " + mode + " mode");
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public String listExpenses() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/expenses?page=0&size=20"))
+            .header("Authorization", authorization)
+            .GET()
+            .build());
+    }
+
+    @Benchmark
+    public String createExpense() throws IOException, InterruptedException {
+        return post("/api/expenses", EXPENSE, authorization);
+    }
+
+    private String post(String path, String json, String auth) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (auth != null) {
+            request.header("Authorization", auth);
+        }
+        return send(request.build());
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            failures.incrementAndGet();
+        }
+        return response.body();
+    }
+
+}
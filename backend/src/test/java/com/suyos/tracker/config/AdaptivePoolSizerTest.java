@@ -0,0 +1,185 @@
+package com.suyos.tracker.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Saturation tests for AdaptivePoolSizer against an in-memory database.
+ *
+ * Worker threads borrow a connection, run a query and hold the connection
+ * for a fixed time, so that a small pool makes them queue.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("AdaptivePoolSizer Tests")
+class AdaptivePoolSizerTest {
+
+    private static final int WORKERS = 12;
+    private static final Duration TARGET_ACQUIRE_TIME = Duration.ofMillis(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicBoolean running = new AtomicBoolean(true);
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final AtomicLong acquires = new AtomicLong();
+
+    private final AtomicLong acquireNanos = new AtomicLong();
+
+    private HikariDataSource dataSource;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        stopWorkers();
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("Should grow a saturated pool until acquire times are below target")
+    void adjust_SaturatedPool_KeepsAcquireTimeBelowTarget() throws InterruptedException {
+        // Given
+        AdaptivePoolSizer sizer = newSizer(2, 2, 16, Duration.ofSeconds(1));
+        startWorkers(Duration.ofMillis(10));
+        awaitTraffic();
+        meanAcquireMillisSinceLastCall();
+        Thread.sleep(300);
+        double saturatedAcquireMillis = meanAcquireMillisSinceLastCall();
+
+        // When
+        for (int step = 0; step < 20; step++) {
+            Thread.sleep(150);
+            sizer.adjust();
+        }
+        meanAcquireMillisSinceLastCall();
+        Thread.sleep(500);
+        double adjustedAcquireMillis = meanAcquireMillisSinceLastCall();
+
+        // Then
+        assertTrue(saturatedAcquireMillis > TARGET_ACQUIRE_TIME.toMillis(),
+            "saturated pool should queue, mean acquire " + saturatedAcquireMillis + " ms");
+        assertTrue(dataSource.getMaximumPoolSize() >= WORKERS, "pool size " + dataSource.getMaximumPoolSize());
+        assertTrue(dataSource.getMaximumPoolSize() <= 16);
+        assertTrue(adjustedAcquireMillis < TARGET_ACQUIRE_TIME.toMillis(),
+            "mean acquire " + adjustedAcquireMillis + " ms");
+        assertTrue(meterRegistry.get("tracker.jdbc.pool.resizes").tag("direction", "grow").counter().count() > 0);
+    }
+
+    @Test
+    @DisplayName("Should not grow the pool while the database is slow")
+    void adjust_SlowDatabase_ShrinksInsteadOfGrowing() throws InterruptedException {
+        // Given
+        AdaptivePoolSizer sizer = newSizer(8, 2, 16, Duration.ofMillis(5));
+        startWorkers(Duration.ofMillis(20));
+        awaitTraffic();
+
+        // When
+        int maxSeen = 0;
+        for (int step = 0; step < 5; step++) {
+            Thread.sleep(150);
+            maxSeen = Math.max(maxSeen, sizer.adjust());
+        }
+
+        // Then
+        assertTrue(maxSeen <= 8, "pool grew to " + maxSeen);
+        assertTrue(dataSource.getMaximumPoolSize() < 8);
+    }
+
+    @Test
+    @DisplayName("Should shrink an idle pool to its lower bound")
+    void adjust_IdlePool_ShrinksToMinimum() throws SQLException {
+        // Given
+        AdaptivePoolSizer sizer = newSizer(12, 3, 16, Duration.ofSeconds(1));
+        dataSource.getConnection().close();
+
+        // When
+        for (int step = 0; step < 4 * AdaptivePoolSizer.CALM_INTERVALS * 3; step++) {
+            sizer.adjust();
+        }
+
+        // Then
+        assertEquals(3, dataSource.getMaximumPoolSize());
+    }
+
+    @Test
+    @DisplayName("Should clamp the initial pool size into the bounds")
+    void constructor_SizeOutsideBounds_Clamps() {
+        // When
+        newSizer(30, 2, 16, Duration.ofSeconds(1));
+
+        // Then
+        assertEquals(16, dataSource.getMaximumPoolSize());
+    }
+
+    private AdaptivePoolSizer newSizer(int initialSize, int minSize, int maxSize, Duration maxUsageTime) {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:pool-sizer-" + System.nanoTime());
+        dataSource.setPoolName("sizer-test");
+        dataSource.setMaximumPoolSize(initialSize);
+        dataSource.setMinimumIdle(1);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new AdaptivePoolSizer(dataSource, meterRegistry, minSize, maxSize, TARGET_ACQUIRE_TIME, maxUsageTime);
+    }
+
+    private void startWorkers(Duration holdTime) {
+        for (int i = 0; i < WORKERS; i++) {
+            Thread worker = new Thread(() -> {
+                while (running.get()) {
+                    long started = System.nanoTime();
+                    try (Connection connection = dataSource.getConnection();
+                            Statement statement = connection.createStatement()) {
+                        acquireNanos.addAndGet(System.nanoTime() - started);
+                        acquires.incrementAndGet();
+                        statement.execute("SELECT 1");
+                        Thread.sleep(holdTime.toMillis());
+                    } catch (SQLException e) {
+                        // Pool timeout; borrow again
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    private void awaitTraffic() throws InterruptedException {
+        // The first pool start in a JVM can take a while
+        while (acquires.get() < WORKERS) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void stopWorkers() throws InterruptedException {
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private double meanAcquireMillisSinceLastCall() {
+        long count = acquires.getAndSet(0);
+        long nanos = acquireNanos.getAndSet(0);
+        return count == 0 ? Double.MAX_VALUE : nanos / 1e6 / count;
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.suyos.tracker.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+/**
+ * Unit tests for ConnectionThrottlingDataSource.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConnectionThrottlingDataSource Unit Tests")
+class ConnectionThrottlingDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @Test
+    @DisplayName("Should hold a permit per open connection and return it once on close")
+    void getConnection_OpenAndClose_TracksPermits() throws SQLException {
+        // Given
+        Connection target = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(target);
+        ConnectionThrottlingDataSource throttle = new ConnectionThrottlingDataSource(pool, 2, Duration.ofSeconds(1));
+
+        // When
+        Connection first = throttle.getConnection();
+        Connection second = throttle.getConnection();
+        int active = throttle.getActiveConnections();
+        first.close();
+        first.close();
+
+        // Then
+        assertEquals(2, active);
+        assertEquals(1, throttle.getActiveConnections());
+        assertSame(target, ((ConnectionProxy) second).getTargetConnection());
+        verify(target, times(2)).close();
+    }
+
+    @Test
+    @DisplayName("Should fail with a transient exception when no permit frees up in time")
+    void getConnection_Exhausted_TimesOut() throws SQLException {
+        // Given
+        when(pool.getConnection()).thenReturn(mock(Connection.class));
+        ConnectionThrottlingDataSource throttle = new ConnectionThrottlingDataSource(pool, 1, Duration.ofMillis(50));
+        throttle.getConnection();
+
+        // When & Then
+        assertThrows(SQLTransientConnectionException.class, throttle::getConnection);
+        verify(pool, times(1)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should admit a waiting thread when a connection is closed")
+    void getConnection_Waiting_AdmittedOnClose() throws Exception {
+        // Given
+        when(pool.getConnection()).thenReturn(mock(Connection.class));
+        ConnectionThrottlingDataSource throttle = new ConnectionThrottlingDataSource(pool, 1, Duration.ofSeconds(10));
+        Connection held = throttle.getConnection();
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return throttle.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (throttle.getWaitingThreads() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        held.close();
+
+        // Then
+        assertNotNull(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, throttle.getActiveConnections());
+    }
+
+    @Test
+    @DisplayName("Should return the permit when the pool fails to provide a connection")
+    void getConnection_PoolFails_ReleasesPermit() throws SQLException {
+        // Given
+        when(pool.getConnection()).thenThrow(new SQLException("pool down"));
+        ConnectionThrottlingDataSource throttle = new ConnectionThrottlingDataSource(pool, 1, Duration.ofMillis(50));
+
+        // When & Then
+        assertThrows(SQLException.class, throttle::getConnection);
+        assertEquals(0, throttle.getActiveConnections());
+    }
+
+}
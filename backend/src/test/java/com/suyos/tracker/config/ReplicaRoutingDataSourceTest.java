@@ -0,0 +1,222 @@
+package com.suyos.tracker.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.method.HandlerMethod;
+
+import com.suyos.tracker.service.UserStateCache;
+
+/**
+ * Routing tests for ReplicaRoutingDataSource against two in-memory databases.
+ *
+ * The primary and the replica each hold a one-row table naming the
+ * database, so every query shows where it was routed.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("ReplicaRoutingDataSource Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private static final String SELECT_NODE = "SELECT name FROM node";
+
+    private final ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        long id = System.nanoTime();
+        DataSource routing = ReplicaRoutingDataSource.lazy(
+            database("jdbc:h2:mem:primary-" + id, "primary"),
+            database("jdbc:h2:mem:replica-" + id, "replica"),
+            readYourWrites);
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should route read-only transactions to the replica")
+    void readOnlyTransaction_RoutesToReplica() {
+        // When
+        String node = readOnly.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+
+        // Then
+        assertEquals("replica", node);
+    }
+
+    @Test
+    @DisplayName("Should route read-write transactions and non-transactional work to the primary")
+    void readWriteTransaction_RoutesToPrimary() {
+        // When
+        String node = readWrite.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+
+        // Then
+        assertEquals("primary", node);
+        assertEquals("primary", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+    }
+
+    @Test
+    @DisplayName("Should keep read-only work joining a read-write transaction on the primary")
+    void readOnlyJoiningReadWrite_StaysOnPrimary() {
+        // When
+        String node = readWrite.execute(status ->
+            readOnly.execute(inner -> jdbcTemplate.queryForObject(SELECT_NODE, String.class)));
+
+        // Then
+        assertEquals("primary", node);
+    }
+
+    @Test
+    @DisplayName("Should pin a user who just wrote to the primary, but not other users")
+    void readOnlyTransaction_PinnedUser_RoutesToPrimary() {
+        // Given
+        readYourWrites.markWrite("writer@example.com");
+
+        // When
+        authenticate("writer@example.com");
+        String writerNode = readOnly.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+        authenticate("reader@example.com");
+        String readerNode = readOnly.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+
+        // Then
+        assertEquals("primary", writerNode);
+        assertEquals("replica", readerNode);
+    }
+
+    @Test
+    @DisplayName("Should route read-only transactions to the primary within a forced scope only")
+    void readOnlyTransaction_ForcedPrimary_RoutesToPrimary() {
+        // When
+        String forcedNode;
+        try (ReplicaRoutingDataSource.Scope primary = ReplicaRoutingDataSource.forcePrimary()) {
+            forcedNode = readOnly.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+        }
+        String node = readOnly.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+
+        // Then
+        assertEquals("primary", forcedNode);
+        assertEquals("replica", node);
+    }
+
+    @Test
+    @DisplayName("Should fill user state caches from the primary")
+    void userStateCache_Load_ReadsPrimary() {
+        // Given
+        UserStateCache<String> cache = new UserStateCache<>("nodes", () -> Long.MAX_VALUE,
+            userId -> readOnly.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class)),
+            state -> 1);
+
+        // When
+        String node = cache.get(1L);
+
+        // Then
+        assertEquals("primary", node);
+    }
+
+    @Test
+    @DisplayName("Should return a user to the replica once the pin window has passed")
+    void readOnlyTransaction_PinExpired_RoutesToReplica() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(readYourWrites, "pinWindow", Duration.ofMillis(50));
+        readYourWrites.markWrite("writer@example.com");
+        authenticate("writer@example.com");
+
+        // When
+        Thread.sleep(100);
+        String node = readOnly.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+
+        // Then
+        assertEquals("replica", node);
+        assertFalse(readYourWrites.isPinned("writer@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should mark the authenticated user on write requests only")
+    void interceptor_WriteRequest_MarksCurrentUser() throws Exception {
+        // Given
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(readYourWrites);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authenticate("reader@example.com");
+
+        // When
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/expenses"), response, new Object());
+        boolean pinnedAfterRead = readYourWrites.isPinned("reader@example.com");
+        interceptor.preHandle(new MockHttpServletRequest("POST", "/api/expenses"), response, new Object());
+
+        // Then
+        assertFalse(pinnedAfterRead);
+        assertTrue(readYourWrites.isPinned("reader@example.com"));
+        assertFalse(readYourWrites.isPinned("writer@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should not mark the user on read-only POST endpoints")
+    void interceptor_ReadOnlyPost_DoesNotMarkCurrentUser() throws Exception {
+        // Given
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(readYourWrites);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HandlerMethod lookup = new HandlerMethod(new Handlers(), Handlers.class.getDeclaredMethod("lookup"));
+        authenticate("reader@example.com");
+
+        // When
+        interceptor.preHandle(new MockHttpServletRequest("POST", "/api/expenses/lookup"), response, lookup);
+        interceptor.afterCompletion(new MockHttpServletRequest("POST", "/api/expenses/lookup"), response, lookup,
+            null);
+
+        // Then
+        assertFalse(readYourWrites.isPinned("reader@example.com"));
+    }
+
+    private static class Handlers {
+
+        @ReadOnlyEndpoint
+        void lookup() {
+        }
+
+    }
+
+    private static DataSource database(String url, String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.suyos.tracker.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test harness for asserting SQL statement budgets of endpoints.
+ * 
+ * Controller integration tests reset the tracker, call an endpoint and then
+ * assert against the statistics the {@link SqlStatementTracker} recorded for
+ * it, e.g. {@code assertMaxStatements(tracker, "GET /api/expenses", 4)}. The
+ * filter records a request after its response is written, so the assertions
+ * wait briefly for the record to appear.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+public final class SqlStatementAssertions {
+
+    /** How long to wait for a request to be recorded */
+    private static final long RECORD_TIMEOUT_MILLIS = 2000;
+
+    private SqlStatementAssertions() {
+    }
+
+    /**
+     * Asserts that the last call to an endpoint executed at most the given number of statements.
+     * 
+     * @param tracker the statement tracker bean
+     * @param endpoint the endpoint key, e.g. "GET /api/expenses/{id}"
+     * @param maxStatements the statement budget
+     */
+    public static void assertMaxStatements(SqlStatementTracker tracker, String endpoint, int maxStatements) {
+        SqlStatementTracker.RequestStatements statements = awaitLastCompleted(tracker, endpoint);
+        assertTrue(statements.getCount() <= maxStatements,
+                endpoint + " executed " + statements.getCount() + " statements, budget is "
+                        + maxStatements + ": " + statements.getShapes());
+    }
+
+    /**
+     * Asserts that the last call to an endpoint repeated no statement shape past the N+1 threshold.
+     * 
+     * @param tracker the statement tracker bean
+     * @param endpoint the endpoint key, e.g. "GET /api/expenses"
+     */
+    public static void assertNoNPlusOne(SqlStatementTracker tracker, String endpoint) {
+        SqlStatementTracker.RequestStatements statements = awaitLastCompleted(tracker, endpoint);
+        assertTrue(statements.getRepeatedShapes().isEmpty(),
+                endpoint + " repeated statements: " + statements.getRepeatedShapes());
+    }
+
+    private static SqlStatementTracker.RequestStatements awaitLastCompleted(SqlStatementTracker tracker,
+            String endpoint) {
+        long deadline = System.currentTimeMillis() + RECORD_TIMEOUT_MILLIS;
+        SqlStatementTracker.RequestStatements statements = tracker.getLastCompleted(endpoint);
+        while (statements == null && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            statements = tracker.getLastCompleted(endpoint);
+        }
+        assertNotNull(statements, "No request recorded for " + endpoint);
+        return statements;
+    }
+
+}
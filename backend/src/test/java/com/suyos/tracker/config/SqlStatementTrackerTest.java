@@ -0,0 +1,75 @@
+package com.suyos.tracker.config;
+
+import static com.suyos.tracker.config.SqlStatementAssertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for SqlStatementTracker.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("SqlStatementTracker Unit Tests")
+class SqlStatementTrackerTest {
+
+    private static final String FIND_USER =
+            "select u1_0.id,u1_0.email from users u1_0 where u1_0.email=?";
+
+    private SqlStatementTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new SqlStatementTracker();
+    }
+
+    @Test
+    @DisplayName("Should collapse IN-lists and literals into one shape")
+    void normalize_DifferentParameters_SameShape() {
+        String twoIds = SqlStatementTracker.normalize("select * from expenses where id in (?, ?) and user_id=42");
+        String fourIds = SqlStatementTracker.normalize("SELECT *  FROM expenses WHERE id IN (?,?,?,?) AND user_id=7");
+
+        assertEquals(twoIds, fourIds);
+        assertEquals("select * from expenses where id in (?) and user_id=?", twoIds);
+    }
+
+    @Test
+    @DisplayName("Should ignore statements outside of a tracked request")
+    void inspect_NoRequest_ReturnsSqlUnchanged() {
+        assertEquals(FIND_USER, tracker.inspect(FIND_USER));
+        assertNull(tracker.end("GET /api/expenses"));
+    }
+
+    @Test
+    @DisplayName("Should count statements and record them under the endpoint")
+    void end_TrackedRequest_RecordsStatistics() {
+        tracker.begin();
+        tracker.inspect(FIND_USER);
+        tracker.inspect("select e1_0.id from expenses e1_0 where e1_0.user_id=? limit ?");
+        tracker.end("GET /api/expenses");
+
+        assertEquals(2, tracker.getLastCompleted("GET /api/expenses").getCount());
+        assertMaxStatements(tracker, "GET /api/expenses", 2);
+        assertNoNPlusOne(tracker, "GET /api/expenses");
+    }
+
+    @Test
+    @DisplayName("Should flag a statement shape repeated past the threshold")
+    void getRepeatedShapes_RepeatedStatement_FlagsNPlusOne() {
+        tracker.begin();
+        for (int i = 0; i < 5; i++) {
+            tracker.inspect("select u1_0.id from users u1_0 where u1_0.id=" + i);
+        }
+        tracker.end("GET /api/expenses");
+
+        SqlStatementTracker.RequestStatements statements = tracker.getLastCompleted("GET /api/expenses");
+        assertEquals(1, statements.getRepeatedShapes().size());
+        assertEquals(5, statements.getRepeatedShapes().values().iterator().next());
+        assertThrows(AssertionError.class, () -> assertNoNPlusOne(tracker, "GET /api/expenses"));
+        assertThrows(AssertionError.class, () -> assertMaxStatements(tracker, "GET /api/expenses", 4));
+    }
+
+}
@@ -1,9 +1,11 @@
 package com.suyos.tracker.controller;
 
+import static com.suyos.tracker.config.SqlStatementAssertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -20,10 +22,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
-import org.springframework.transaction.annotation.Transactional;
-
 
+import com.suyos.tracker.config.SqlStatementTracker;
+import com.suyos.tracker.dto.AuthenticationResponseDTO;
 import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.dto.ExpenseLookupRequestDTO;
 import com.suyos.tracker.dto.UserLoginDTO;
 import com.suyos.tracker.dto.UserRegistrationDTO;
 import com.suyos.tracker.model.Category;
@@ -40,7 +43,6 @@ import com.suyos.tracker.repository.UserRepository;
  */
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
-@Transactional
 @DisplayName("ExpenseController Integration Tests")
 class ExpenseControllerIntegrationTest {
 
@@ -59,6 +61,10 @@ class ExpenseControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SqlStatementTracker sqlStatementTracker;
+
+    private String accessToken;
     private User testUser;
     private Expense testExpense;
     private ExpenseDTO expenseDTO;
@@ -90,8 +96,8 @@ class ExpenseControllerIntegrationTest {
                 .password("Password123!")
                 .build();
 
-        restTemplate.postForEntity(
-                "http://localhost:" + port + "/api/users/login", loginDTO, String.class);
+        accessToken = restTemplate.postForEntity("http://localhost:" + port + "/api/users/login", loginDTO,
+                AuthenticationResponseDTO.class).getBody().getAccessToken();
 
         // Get the actual user from database
         testUser = userRepository.findByEmail("test@example.com").orElseThrow();
@@ -117,7 +123,7 @@ class ExpenseControllerIntegrationTest {
     private HttpHeaders createAuthHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth("jwt-token");
+        headers.setBearerAuth(accessToken);
         return headers;
     }
 
@@ -142,6 +148,43 @@ class ExpenseControllerIntegrationTest {
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
     }
 
+    @Test
+    @DisplayName("Should list expenses within the endpoint's statement budget")
+    void getAllExpenses_AuthenticatedUser_StaysWithinStatementBudget() {
+        // Given
+        sqlStatementTracker.reset();
+
+        // When
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl, HttpMethod.GET, new HttpEntity<>(createAuthHeaders()), String.class);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertMaxStatements(sqlStatementTracker, "GET /api/expenses", 4);
+        assertNoNPlusOne(sqlStatementTracker, "GET /api/expenses");
+    }
+
+    @Test
+    @DisplayName("Should look up expenses by ID within the endpoint's statement budget")
+    void lookupExpenses_AuthenticatedUser_StaysWithinStatementBudget() {
+        // Given
+        ExpenseLookupRequestDTO lookupRequest = ExpenseLookupRequestDTO.builder()
+                .ids(List.of(testExpense.getId(), testExpense.getId() + 1000))
+                .build();
+        sqlStatementTracker.reset();
+
+        // When
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/lookup", HttpMethod.POST, new HttpEntity<>(lookupRequest, createAuthHeaders()),
+                String.class);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("Integration Test Expense"));
+        assertMaxStatements(sqlStatementTracker, "POST /api/expenses/lookup", 4);
+        assertNoNPlusOne(sqlStatementTracker, "POST /api/expenses/lookup");
+    }
+
     @Test
     @DisplayName("Repository: Should find expenses by category")
     void findByExpenseCategory_ExistingCategory_ReturnsExpenses() {
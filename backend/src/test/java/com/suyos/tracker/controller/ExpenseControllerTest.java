@@ -24,7 +24,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.suyos.tracker.dto.ExpenseDTO;
 import com.suyos.tracker.dto.PagedResponse;
 import com.suyos.tracker.model.Category;
+import com.suyos.tracker.service.ExpenseAnalyticsService;
+import com.suyos.tracker.service.ExpenseRollupService;
 import com.suyos.tracker.service.ExpenseService;
+import com.suyos.tracker.service.ExpenseWriteCoalescer;
 import com.suyos.tracker.service.UserService;
 
 /**
@@ -44,9 +47,18 @@ class ExpenseControllerTest {
     @MockitoBean
     private ExpenseService expenseService;
 
+    @MockitoBean
+    private ExpenseWriteCoalescer expenseWriteCoalescer;
+
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private ExpenseRollupService expenseRollupService;
+
+    @MockitoBean
+    private ExpenseAnalyticsService expenseAnalyticsService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -118,7 +130,7 @@ class ExpenseControllerTest {
                 .build();
 
         when(userService.getCurrentUserId()).thenReturn(1L);
-        when(expenseService.createExpense(any(ExpenseDTO.class), eq(1L))).thenReturn(createdExpenseDTO);
+        when(expenseWriteCoalescer.createExpense(any(ExpenseDTO.class), eq(1L))).thenReturn(createdExpenseDTO);
 
         // When & Then
         mockMvc.perform(post("/api/expenses")
@@ -130,7 +142,7 @@ class ExpenseControllerTest {
                 .andExpect(jsonPath("$.description").value("New Expense"));
 
         verify(userService).getCurrentUserId();
-        verify(expenseService).createExpense(any(ExpenseDTO.class), eq(1L));
+        verify(expenseWriteCoalescer).createExpense(any(ExpenseDTO.class), eq(1L));
     }
 
     @Test
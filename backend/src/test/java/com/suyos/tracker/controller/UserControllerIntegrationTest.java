@@ -1,5 +1,6 @@
 package com.suyos.tracker.controller;
 
+import static com.suyos.tracker.config.SqlStatementAssertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -13,10 +14,11 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
-import org.springframework.transaction.annotation.Transactional;
 
+import com.suyos.tracker.config.SqlStatementTracker;
 import com.suyos.tracker.dto.UserLoginDTO;
 import com.suyos.tracker.dto.UserRegistrationDTO;
+import com.suyos.tracker.repository.ExpenseRepository;
 import com.suyos.tracker.repository.UserRepository;
 
 /**
@@ -27,7 +29,6 @@ import com.suyos.tracker.repository.UserRepository;
  */
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
-@Transactional
 @DisplayName("UserController Integration Tests")
 class UserControllerIntegrationTest {
 
@@ -39,15 +40,22 @@ class UserControllerIntegrationTest {
 
     private String baseUrl;
 
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SqlStatementTracker sqlStatementTracker;
+
     private UserRegistrationDTO registrationDTO;
     private UserLoginDTO loginDTO;
 
     @BeforeEach
     void setUp() {
         baseUrl = "http://localhost:" + port + "/api/users";
+        expenseRepository.deleteAll();
         userRepository.deleteAll();
 
         registrationDTO = UserRegistrationDTO.builder()
@@ -83,6 +91,21 @@ class UserControllerIntegrationTest {
         assertTrue(responseBody.contains("accessToken"));
     }
 
+    @Test
+    @DisplayName("Should register within the endpoint's statement budget")
+    void registerUser_ValidData_StaysWithinStatementBudget() {
+        // Given
+        sqlStatementTracker.reset();
+
+        // When
+        ResponseEntity<String> registerResponse = restTemplate.postForEntity(
+                baseUrl + "/register", registrationDTO, String.class);
+
+        // Then
+        assertEquals(HttpStatus.CREATED.value(), registerResponse.getStatusCode().value());
+        assertMaxStatements(sqlStatementTracker, "POST /api/users/register", 2);
+    }
+
     @Test
     @DisplayName("Should prevent duplicate email registration")
     void registerUser_DuplicateEmail_ReturnsBadRequest() {
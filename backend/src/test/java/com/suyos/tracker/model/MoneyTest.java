@@ -0,0 +1,58 @@
+package com.suyos.tracker.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for Money.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("Money Unit Tests")
+class MoneyTest {
+
+    @Test
+    @DisplayName("Should round-trip BigDecimal amounts exactly")
+    void of_ValidAmounts_RoundTripsExactly() {
+        for (String amount : new String[] {"0.01", "25.50", "9999999.99", "1200.00"}) {
+            BigDecimal value = new BigDecimal(amount);
+            assertEquals(value, Money.of(value).toBigDecimal());
+        }
+        assertEquals(new BigDecimal("30.00"), Money.of(new BigDecimal("30")).toBigDecimal());
+        assertEquals(2550L, Money.toCents(new BigDecimal("25.5")));
+    }
+
+    @Test
+    @DisplayName("Should reject amounts with more than two decimals")
+    void of_ThreeDecimals_ThrowsException() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1.005")));
+    }
+
+    @Test
+    @DisplayName("Should detect overflow instead of wrapping around")
+    void plus_Overflow_ThrowsException() {
+        Money max = Money.ofCents(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.addCents(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.sumCents(new long[] {Long.MAX_VALUE, 1}, 2));
+    }
+
+    @Test
+    @DisplayName("Should add, subtract and multiply in cents")
+    void arithmetic_ValidAmounts_ComputesInCents() {
+        Money rent = Money.of(new BigDecimal("1200.00"));
+        Money food = Money.of(new BigDecimal("45.99"));
+
+        assertEquals(Money.ofCents(124599), rent.plus(food));
+        assertEquals(Money.ofCents(115401), rent.minus(food));
+        assertEquals(Money.ofCents(1440000), rent.times(12));
+        assertEquals("-45.99", food.negate().toString());
+        assertEquals(9198L, Money.sumCents(new long[] {4599, 4599, 1}, 2));
+    }
+
+}
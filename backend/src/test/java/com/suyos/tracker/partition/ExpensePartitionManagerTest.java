@@ -0,0 +1,44 @@
+package com.suyos.tracker.partition;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.suyos.tracker.sharding.ShardMap;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for ExpensePartitionManager.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("ExpensePartitionManager Unit Tests")
+class ExpensePartitionManagerTest {
+
+    private ExpensePartitionManager create(String ddlAuto) {
+        return new ExpensePartitionManager(mock(JdbcTemplate.class), mock(ShardMap.class),
+            new SimpleMeterRegistry(), ddlAuto);
+    }
+
+    @Test
+    @DisplayName("Should refuse to start while Hibernate updates the schema")
+    void constructor_DdlAutoUpdate_Throws() {
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> create("update"));
+    }
+
+    @Test
+    @DisplayName("Should start when Hibernate validates or leaves the schema alone")
+    void constructor_DdlAutoValidateOrNone_Starts() {
+        // When & Then
+        assertDoesNotThrow(() -> create("validate"));
+        assertDoesNotThrow(() -> create("none"));
+        assertDoesNotThrow(() -> create(""));
+    }
+
+}
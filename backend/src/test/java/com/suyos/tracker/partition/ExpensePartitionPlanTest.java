@@ -0,0 +1,115 @@
+package com.suyos.tracker.partition;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ExpensePartitionPlan.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DisplayName("ExpensePartitionPlan Unit Tests")
+class ExpensePartitionPlanTest {
+
+    private static final List<ExpensePartition> EARLY_2024 = List.of(
+        new ExpensePartition("p202401", LocalDate.of(2024, 2, 1)),
+        new ExpensePartition("p202402", LocalDate.of(2024, 3, 1)),
+        new ExpensePartition("p202403", LocalDate.of(2024, 4, 1)),
+        new ExpensePartition(ExpensePartition.OVERFLOW, null));
+
+    private static List<String> names(List<ExpensePartition> partitions) {
+        return partitions.stream().map(ExpensePartition::getName).toList();
+    }
+
+    @Test
+    @DisplayName("Should add the partitions of the coming periods after the newest one")
+    void of_CurrentPeriodNearNewest_AddsComingPeriods() {
+        // When
+        ExpensePartitionPlan plan = ExpensePartitionPlan.of(EARLY_2024, PartitionGranularity.MONTH,
+            LocalDate.of(2024, 3, 15), 2);
+
+        // Then
+        assertEquals(List.of("p202404", "p202405"), names(plan.getPartitionsToAdd()));
+        assertEquals(LocalDate.of(2024, 6, 1), plan.getPartitionsToAdd().get(1).getLessThan());
+    }
+
+    @Test
+    @DisplayName("Should plan nothing for an up-to-date layout")
+    void of_UpToDate_IsEmpty() {
+        // When
+        ExpensePartitionPlan plan = ExpensePartitionPlan.of(EARLY_2024, PartitionGranularity.MONTH,
+            LocalDate.of(2024, 1, 31), 2);
+
+        // Then
+        assertTrue(plan.isEmpty(), plan.toString());
+    }
+
+    @Test
+    @DisplayName("Should continue from a bound inside a period after the granularity changes")
+    void of_SwitchToYears_StartsAtNewestBound() {
+        // When
+        ExpensePartitionPlan plan = ExpensePartitionPlan.of(EARLY_2024, PartitionGranularity.YEAR,
+            LocalDate.of(2024, 3, 15), 1);
+
+        // Then
+        assertEquals(List.of(new ExpensePartition("p2024", LocalDate.of(2025, 1, 1)),
+            new ExpensePartition("p2025", LocalDate.of(2026, 1, 1))), plan.getPartitionsToAdd());
+    }
+
+    @Test
+    @DisplayName("Should lay out a partition per period from the oldest expense, then an overflow partition")
+    void initialLayout_ExistingExpenses_CoversOldestToHorizon() {
+        // When
+        List<ExpensePartition> layout = ExpensePartitionPlan.initialLayout(LocalDate.of(2023, 11, 20),
+            PartitionGranularity.MONTH, LocalDate.of(2024, 1, 5), 1);
+
+        // Then
+        assertEquals(List.of("p202311", "p202312", "p202401", "p202402", ExpensePartition.OVERFLOW), names(layout));
+        assertEquals(LocalDate.of(2023, 12, 1), layout.get(0).getLessThan());
+        assertFalse(layout.get(layout.size() - 1).isBounded());
+    }
+
+    @Test
+    @DisplayName("Should start an empty table at the current period")
+    void initialLayout_NoExpenses_StartsAtCurrentPeriod() {
+        // When
+        List<ExpensePartition> layout = ExpensePartitionPlan.initialLayout(null, PartitionGranularity.YEAR,
+            LocalDate.of(2024, 7, 1), 0);
+
+        // Then
+        assertEquals(List.of("p2024", ExpensePartition.OVERFLOW), names(layout));
+    }
+
+    @Test
+    @DisplayName("Should cap the number of initial partitions for very old expenses")
+    void initialLayout_AncientExpense_CapsPartitions() {
+        // When
+        List<ExpensePartition> layout = ExpensePartitionPlan.initialLayout(LocalDate.of(1900, 1, 1),
+            PartitionGranularity.MONTH, LocalDate.of(2024, 1, 5), 3);
+
+        // Then
+        assertEquals(ExpensePartitionPlan.MAX_INITIAL_PARTITIONS + 1, layout.size());
+        assertEquals(LocalDate.of(2024, 5, 1), layout.get(layout.size() - 2).getLessThan());
+    }
+
+    @Test
+    @DisplayName("Should render partition definitions and parse reported bounds")
+    void toDefinition_AndParseBound_RoundTrip() {
+        // Given
+        ExpensePartition bounded = new ExpensePartition("p202403", LocalDate.of(2024, 4, 1));
+        ExpensePartition overflow = new ExpensePartition(ExpensePartition.OVERFLOW, null);
+
+        // Then
+        assertEquals("PARTITION p202403 VALUES LESS THAN ('2024-04-01')", bounded.toDefinition());
+        assertEquals("PARTITION pmax VALUES LESS THAN (MAXVALUE)", overflow.toDefinition());
+        assertEquals(LocalDate.of(2024, 4, 1), ExpensePartitionManager.parseBound("'2024-04-01'"));
+        assertNull(ExpensePartitionManager.parseBound("MAXVALUE"));
+    }
+
+}
@@ -0,0 +1,212 @@
+package com.suyos.tracker.partition;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.suyos.tracker.config.SqlStatementTracker;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Expense;
+import com.suyos.tracker.model.User;
+import com.suyos.tracker.repository.ExpenseRepository;
+import com.suyos.tracker.repository.UserRepository;
+
+/**
+ * Partition pruning tests for the date-range expense queries on MySQL.
+ *
+ * Captures the SQL the repository runs and checks with EXPLAIN which
+ * partitions MySQL reads for it. H2 has no partitioning, so the tests run
+ * against a MySQL container and are skipped when Docker is not available.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver",
+    "tracker.partitioning.enabled=true",
+    "tracker.partitioning.granularity=MONTH",
+    "tracker.partitioning.periods-ahead=3"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Expense Partition Pruning Tests")
+class ExpensePartitionPruningTest {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.4");
+
+    @Autowired
+    private ExpensePartitionManager partitionManager;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SqlStatementTracker sqlStatementTracker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final PartitionGranularity granularity = PartitionGranularity.MONTH;
+
+    private final LocalDate thisMonth = granularity.periodStart(LocalDate.now());
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        expenseRepository.deleteAll();
+        userRepository.deleteAll();
+        testUser = userRepository.save(User.builder()
+                .username("partitions")
+                .firstName("Partition")
+                .lastName("Tester")
+                .email("partitions@example.com")
+                .password("password")
+                .accountEnabled(true)
+                .build());
+        for (int month = 0; month < 3; month++) {
+            for (int day = 1; day <= 5; day++) {
+                expenseRepository.save(Expense.builder()
+                        .description("Expense " + month + "-" + day)
+                        .amount(new BigDecimal("10.00"))
+                        .date(thisMonth.plusMonths(month).withDayOfMonth(day))
+                        .category(day % 2 == 0 ? Category.FOOD : Category.TRANSPORTATION)
+                        .user(testUser)
+                        .build());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should partition the table by month on startup")
+    void startup_PartitionsByMonth() {
+        // When
+        List<ExpensePartition> partitions = partitionManager.readPartitions();
+
+        // Then
+        List<String> names = partitions.stream().map(ExpensePartition::getName).toList();
+        for (int month = 0; month <= 3; month++) {
+            assertTrue(names.contains(granularity.partitionName(thisMonth.plusMonths(month))), names.toString());
+        }
+        assertFalse(partitions.get(partitions.size() - 1).isBounded());
+    }
+
+    @Test
+    @DisplayName("Should read one partition for a date range within one month")
+    void findByUserIdAndDateBetween_OneMonth_PrunesToItsPartition() {
+        // Given
+        LocalDate start = thisMonth.plusMonths(1);
+        LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
+
+        // When
+        String sql = capture(() -> assertEquals(5, expenseRepository
+            .findByUserIdAndDateBetween(testUser.getId(), start, end, PageRequest.of(0, 10)).getContent().size()));
+
+        // Then
+        assertEquals(List.of(granularity.partitionName(start)),
+            explainPartitions(sql, testUser.getId(), start, end));
+    }
+
+    @Test
+    @DisplayName("Should read one partition for a category and date range within one month")
+    void findByUserIdAndCategoryAndDateBetween_OneMonth_PrunesToItsPartition() {
+        // Given
+        LocalDate start = thisMonth.plusMonths(2);
+        LocalDate end = start.plusDays(9);
+
+        // When
+        String sql = capture(() -> assertEquals(2, expenseRepository.findByUserIdAndCategoryAndDateBetween(
+            testUser.getId(), Category.FOOD, start, end, PageRequest.of(0, 10)).getContent().size()));
+
+        // Then
+        assertEquals(List.of(granularity.partitionName(start)),
+            explainPartitions(sql, testUser.getId(), Category.FOOD.name(), start, end));
+    }
+
+    @Test
+    @DisplayName("Should read only the overlapped partitions for a range spanning months")
+    void findAmountRowsByUserIdAndDateBetween_TwoMonths_PrunesToBoth() {
+        // Given
+        LocalDate start = thisMonth.plusDays(2);
+        LocalDate end = thisMonth.plusMonths(1).plusDays(2);
+
+        // When
+        String sql = capture(() -> assertEquals(6,
+            expenseRepository.findAmountRowsByUserIdAndDateBetween(testUser.getId(), start, end).size()));
+
+        // Then
+        assertEquals(List.of(granularity.partitionName(start), granularity.partitionName(end)),
+            explainPartitions(sql, testUser.getId(), start, end));
+    }
+
+    @Test
+    @DirtiesContext
+    @DisplayName("Should roll partitions forward and keep the older ones")
+    void maintain_LaterDate_AddsPartitions() {
+        // Given
+        LocalDate later = thisMonth.plusYears(1).plusMonths(1);
+
+        // When
+        int changes = partitionManager.maintain(later);
+
+        // Then
+        List<String> names = partitionManager.readPartitions().stream().map(ExpensePartition::getName).toList();
+        assertTrue(changes > 0);
+        assertTrue(names.contains(granularity.partitionName(thisMonth)), names.toString());
+        assertTrue(names.contains(granularity.partitionName(later.plusMonths(3))), names.toString());
+        assertEquals(15, expenseRepository.count());
+    }
+
+    private String capture(Runnable query) {
+        sqlStatementTracker.begin();
+        try {
+            query.run();
+        } finally {
+            sqlStatementTracker.end("partition-pruning");
+        }
+        return sqlStatementTracker.getLastCompleted("partition-pruning").getShapes().keySet().stream()
+            .filter(shape -> shape.startsWith("select") && !shape.contains("count("))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    /**
+     * Returns the partitions EXPLAIN reports for the expenses table.
+     *
+     * Binds the filter values in order and any remaining parameters (the
+     * page limit) to 10.
+     */
+    private List<String> explainPartitions(String sql, Object... filters) {
+        List<Object> parameters = new ArrayList<>(List.of(filters));
+        while (parameters.size() < sql.chars().filter(c -> c == '?').count()) {
+            parameters.add(10);
+        }
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, parameters.toArray());
+        assertEquals(1, plan.size(), plan.toString());
+        return List.of(((String) plan.get(0).get("partitions")).split(","));
+    }
+
+}
@@ -0,0 +1,325 @@
+package com.suyos.tracker.reactive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suyos.tracker.dto.ExpenseChangeDTO;
+import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.dto.PagedResponse;
+import com.suyos.tracker.dto.StreamTicketDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent.ChangeType;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Expense;
+import com.suyos.tracker.model.User;
+import com.suyos.tracker.repository.ExpenseRepository;
+import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.service.CustomUserDetailsService;
+import com.suyos.tracker.service.ExpenseChangeRelay;
+import com.suyos.tracker.service.ExpenseService;
+import com.suyos.tracker.service.JwtService;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Integration tests for the reactive expense API on the in-memory database.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@SpringBootTest(properties = {
+    "tracker.reactive.enabled=true",
+    "tracker.reactive.port=0",
+    "tracker.reactive.stream.poll-interval=PT0.1S",
+    "tracker.reactive.stream.heartbeat=PT0.2S"
+})
+@ActiveProfiles("test")
+@DisplayName("Reactive Expense API Integration Tests")
+class ReactiveExpenseApiTest {
+
+    private static final ParameterizedTypeReference<PagedResponse<ExpenseDTO>> PAGE =
+            new ParameterizedTypeReference<>() {};
+
+    private static final ParameterizedTypeReference<ServerSentEvent<ExpenseChangeDTO>> EVENT =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private ReactiveApiServer server;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseChangeRelay expenseChangeRelay;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private WebTestClient client;
+
+    private User testUser;
+
+    private String authorization;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + server.getPort() + "/api/expenses")
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        expenseRepository.deleteAll();
+        userRepository.deleteAll();
+        testUser = saveUser("reactive@example.com");
+        authorization = "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername(testUser.getEmail()));
+    }
+
+    private User saveUser(String email) {
+        return userRepository.save(User.builder()
+                .username(email.substring(0, email.indexOf('@')))
+                .email(email)
+                .password("password")
+                .firstName("Reactive")
+                .lastName("User")
+                .accountEnabled(true)
+                .build());
+    }
+
+    private Expense saveExpense(User user, String description, String amount, LocalDate date, Category category) {
+        return expenseRepository.save(Expense.builder()
+                .description(description)
+                .amount(new BigDecimal(amount))
+                .date(date)
+                .category(category)
+                .user(user)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should reject requests without a valid token")
+    void getAllExpenses_NoToken_ReturnsUnauthorized() {
+        // When & Then
+        client.get().exchange().expectStatus().isUnauthorized();
+        client.get().header("Authorization", "Bearer not-a-token").exchange().expectStatus().isUnauthorized();
+    }
+
+    @Test
+    @DisplayName("Should return the same pages as the JPA repository")
+    void getAllExpenses_Filters_MatchJpaRepository() {
+        // Given
+        User otherUser = saveUser("other@example.com");
+        saveExpense(otherUser, "Not mine", "9.99", LocalDate.of(2024, 3, 5), Category.FOOD);
+        for (int i = 0; i < 25; i++) {
+            saveExpense(testUser, "Expense " + i, (i + 1) + ".50", LocalDate.of(2024, 1 + i % 6, 1 + i),
+                    i % 3 == 0 ? Category.FOOD : Category.UTILITIES);
+        }
+
+        // When
+        PagedResponse<ExpenseDTO> all = client.get().uri("?page=1&size=10").header("Authorization", authorization)
+                .exchange().expectStatus().isOk().expectBody(PAGE).returnResult().getResponseBody();
+        PagedResponse<ExpenseDTO> filtered = client.get()
+                .uri("?size=5&sortBy=amount&sortDir=asc&category=FOOD&startDate=2024-01-01&endDate=2024-04-30")
+                .header("Authorization", authorization)
+                .exchange().expectStatus().isOk().expectBody(PAGE).returnResult().getResponseBody();
+
+        // Then
+        List<Long> expectedAll = expenseRepository.findByUserId(testUser.getId(),
+                PageRequest.of(1, 10, Sort.by("date").descending())).map(Expense::getId).getContent();
+        assertEquals(expectedAll, all.getContent().stream().map(ExpenseDTO::getId).toList());
+        assertEquals(25, all.getTotalElements());
+        assertEquals(3, all.getTotalPages());
+        assertFalse(all.isFirst());
+
+        var expectedFiltered = expenseRepository.findByUserIdAndCategoryAndDateBetween(testUser.getId(), Category.FOOD,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 4, 30), PageRequest.of(0, 5, Sort.by("amount")));
+        assertEquals(expectedFiltered.map(Expense::getId).getContent(),
+                filtered.getContent().stream().map(ExpenseDTO::getId).toList());
+        assertEquals(expectedFiltered.getTotalElements(), filtered.getTotalElements());
+        assertEquals(Category.FOOD, filtered.getContent().get(0).getCategory());
+    }
+
+    @Test
+    @DisplayName("Should only return expenses owned by the authenticated user")
+    void getExpense_OtherUsersExpense_ReturnsNotFound() {
+        // Given
+        Expense mine = saveExpense(testUser, "Groceries", "42.10", LocalDate.of(2024, 2, 3), Category.FOOD);
+        Expense theirs = saveExpense(saveUser("other@example.com"), "Rent", "900.00", LocalDate.of(2024, 2, 1),
+                Category.UTILITIES);
+
+        // When
+        ExpenseDTO found = client.get().uri("/{id}", mine.getId()).header("Authorization", authorization)
+                .exchange().expectStatus().isOk().expectBody(ExpenseDTO.class).returnResult().getResponseBody();
+
+        // Then
+        assertEquals("Groceries", found.getDescription());
+        assertEquals(0, new BigDecimal("42.10").compareTo(found.getAmount()));
+        assertEquals(LocalDate.of(2024, 2, 3), found.getDate());
+        client.get().uri("/{id}", theirs.getId()).header("Authorization", authorization)
+                .exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Should create, update and delete through the expense service")
+    void createUpdateDelete_ValidExpense_Persisted() {
+        // Given
+        ExpenseDTO expense = ExpenseDTO.builder()
+                .description("Train ticket")
+                .amount(new BigDecimal("18.40"))
+                .date(LocalDate.of(2024, 6, 1))
+                .category(Category.TRANSPORTATION)
+                .build();
+
+        // When
+        ExpenseDTO created = client.post().header("Authorization", authorization)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(expense)
+                .exchange().expectStatus().isCreated().expectBody(ExpenseDTO.class).returnResult().getResponseBody();
+        expense.setAmount(new BigDecimal("20.00"));
+        client.put().uri("/{id}", created.getId()).header("Authorization", authorization)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(expense)
+                .exchange().expectStatus().isOk();
+        BigDecimal updatedAmount = expenseRepository.findById(created.getId()).orElseThrow().getAmount();
+        client.delete().uri("/{id}", created.getId()).header("Authorization", authorization)
+                .exchange().expectStatus().isNoContent();
+
+        // Then
+        assertEquals(0, new BigDecimal("20.00").compareTo(updatedAmount));
+        assertTrue(expenseRepository.findById(created.getId()).isEmpty());
+        client.delete().uri("/{id}", created.getId()).header("Authorization", authorization)
+                .exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Should reject invalid expenses and parameters")
+    void createExpense_InvalidInput_ReturnsBadRequest() {
+        // Given
+        ExpenseDTO missingAmount = ExpenseDTO.builder()
+                .description("No amount")
+                .date(LocalDate.of(2024, 6, 1))
+                .category(Category.FOOD)
+                .build();
+        ExpenseDTO tooOld = ExpenseDTO.builder()
+                .description("Before the earliest date")
+                .amount(new BigDecimal("5.00"))
+                .date(LocalDate.of(1, 1, 1))
+                .category(Category.FOOD)
+                .build();
+
+        // When & Then
+        client.post().header("Authorization", authorization)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(missingAmount)
+                .exchange().expectStatus().isBadRequest();
+        client.post().header("Authorization", authorization)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(tooOld)
+                .exchange().expectStatus().isBadRequest();
+        client.get().uri("?category=NOT_A_CATEGORY").header("Authorization", authorization)
+                .exchange().expectStatus().isEqualTo(HttpStatus.BAD_REQUEST);
+        assertEquals(0, expenseRepository.count());
+    }
+
+    private Flux<ServerSentEvent<ExpenseChangeDTO>> stream(String lastEventId) {
+        return client.get().uri("/stream").header("Authorization", authorization)
+                .headers(headers -> {
+                    if (lastEventId != null) {
+                        headers.set("Last-Event-ID", lastEventId);
+                    }
+                })
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange().expectStatus().isOk().returnResult(EVENT).getResponseBody();
+    }
+
+    @Test
+    @DisplayName("Should push changes to open streams and replay missed ones on resume")
+    void stream_ExpenseChanges_PushedAndResumed() {
+        // Given
+        ExpenseDTO expense = ExpenseDTO.builder()
+                .description("Coffee")
+                .amount(new BigDecimal("3.20"))
+                .date(LocalDate.of(2024, 6, 1))
+                .category(Category.FOOD)
+                .build();
+        Flux<ServerSentEvent<ExpenseChangeDTO>> live = stream(null);
+
+        // When
+        ExpenseDTO created = expenseService.createExpense(expense, testUser.getId());
+        expenseChangeRelay.relay();
+        ServerSentEvent<ExpenseChangeDTO> pushed = live.filter(event -> event.data() != null)
+                .blockFirst(Duration.ofSeconds(10));
+        expenseService.deleteExpenseById(created.getId(), testUser.getId());
+        expenseChangeRelay.relay();
+        ServerSentEvent<ExpenseChangeDTO> heartbeat = stream(null).filter(event -> event.data() == null)
+                .blockFirst(Duration.ofSeconds(10));
+        ServerSentEvent<ExpenseChangeDTO> resumed = stream(pushed.id()).filter(event -> event.data() != null)
+                .blockFirst(Duration.ofSeconds(10));
+
+        // Then
+        assertEquals("heartbeat", heartbeat.comment());
+        assertEquals(ChangeType.CREATED, pushed.data().getType());
+        assertEquals(created.getId(), pushed.data().getExpenseId());
+        assertEquals(String.valueOf(pushed.data().getPosition()), pushed.id());
+        assertEquals(ChangeType.DELETED, resumed.data().getType());
+        assertTrue(Long.parseLong(resumed.id()) > Long.parseLong(pushed.id()));
+        client.get().uri("/stream").header("Authorization", authorization).header("Last-Event-ID", "latest")
+                .exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should open the stream with a ticket and accept tickets nowhere else")
+    void stream_Ticket_OpensStreamOnly() {
+        // Given
+        StreamTicketDTO ticket = client.post().uri("/stream/ticket").header("Authorization", authorization)
+                .exchange().expectStatus().isOk().expectBody(StreamTicketDTO.class).returnResult().getResponseBody();
+        Flux<ServerSentEvent<ExpenseChangeDTO>> live = client.get()
+                .uri(uri -> uri.path("/stream").queryParam("ticket", ticket.getTicket()).build())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange().expectStatus().isOk().returnResult(EVENT).getResponseBody();
+
+        // When
+        ServerSentEvent<ExpenseChangeDTO> heartbeat = live.blockFirst(Duration.ofSeconds(10));
+
+        // Then
+        assertEquals("heartbeat", heartbeat.comment());
+        assertEquals(60, ticket.getExpiresIn());
+        client.get().header("Authorization", "Bearer " + ticket.getTicket())
+                .exchange().expectStatus().isUnauthorized();
+        client.get().uri(uri -> uri.queryParam("ticket", ticket.getTicket()).build())
+                .exchange().expectStatus().isUnauthorized();
+        client.get().uri(uri -> uri.path("/stream").queryParam("ticket", authorization.substring(7)).build())
+                .exchange().expectStatus().isUnauthorized();
+        client.post().uri("/stream/ticket").exchange().expectStatus().isUnauthorized();
+    }
+
+}
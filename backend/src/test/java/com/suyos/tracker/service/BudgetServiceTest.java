@@ -0,0 +1,217 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.suyos.tracker.dto.BudgetAlertDTO;
+import com.suyos.tracker.dto.BudgetDTO;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Budget;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.ExpenseRollup;
+import com.suyos.tracker.repository.BudgetRepository;
+import com.suyos.tracker.repository.ExpenseRollupRepository;
+
+/**
+ * Unit tests for BudgetService.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BudgetService Unit Tests")
+class BudgetServiceTest {
+
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private ExpenseRollupRepository expenseRollupRepository;
+
+    @Mock
+    private OffHeapRollupStore offHeapRollupStore;
+
+    @InjectMocks
+    private BudgetService budgetService;
+
+    private static ExpenseSnapshot snapshot(String amount, LocalDate date, Category category) {
+        return ExpenseSnapshot.builder()
+                .id(1L).amount(new BigDecimal(amount)).date(date).category(category).build();
+    }
+
+    private static Budget budget(Category category, String limit) {
+        return Budget.builder().id(1L).userId(1L).category(category).monthlyLimit(new BigDecimal(limit)).build();
+    }
+
+    @Test
+    @DisplayName("Should report the threshold a create crosses")
+    void evaluate_CreateCrossingThreshold_ReturnsAlert() {
+        // Given
+        when(budgetRepository.findByUserIdOrderByCategoryAsc(1L)).thenReturn(List.of(budget(Category.FOOD, "100.00")));
+        when(offHeapRollupStore.getMonthTotalCents(1L, MARCH, Category.FOOD)).thenReturn(OptionalLong.of(7500));
+
+        // When
+        List<BudgetAlertDTO> alerts = budgetService.evaluate(1L, null,
+                snapshot("10.00", LocalDate.of(2024, 3, 15), Category.FOOD));
+
+        // Then
+        assertEquals(1, alerts.size());
+        BudgetAlertDTO alert = alerts.get(0);
+        assertEquals(Category.FOOD, alert.getCategory());
+        assertEquals(MARCH, alert.getMonth());
+        assertEquals(80, alert.getThreshold());
+        assertEquals(new BigDecimal("85.00"), alert.getSpent());
+        assertEquals(new BigDecimal("100.00"), alert.getMonthlyLimit());
+        assertEquals(85.0, alert.getPercentUsed());
+    }
+
+    @Test
+    @DisplayName("Should report only the highest of several crossed thresholds")
+    void evaluate_CreateCrossingSeveralThresholds_ReturnsHighest() {
+        // Given
+        when(budgetRepository.findByUserIdOrderByCategoryAsc(1L)).thenReturn(List.of(budget(Category.FOOD, "100.00")));
+        when(offHeapRollupStore.getMonthTotalCents(1L, MARCH, Category.FOOD)).thenReturn(OptionalLong.of(4000));
+
+        // When
+        List<BudgetAlertDTO> alerts = budgetService.evaluate(1L, null,
+                snapshot("70.00", LocalDate.of(2024, 3, 15), Category.FOOD));
+
+        // Then
+        assertEquals(1, alerts.size());
+        assertEquals(100, alerts.get(0).getThreshold());
+        assertEquals(110.0, alerts.get(0).getPercentUsed());
+    }
+
+    @Test
+    @DisplayName("Should net out the previous amount of an update in the same month and category")
+    void evaluate_UpdateWithinSameMonth_UsesDelta() {
+        // Given
+        when(budgetRepository.findByUserIdOrderByCategoryAsc(1L)).thenReturn(List.of(budget(Category.FOOD, "100.00")));
+        when(offHeapRollupStore.getMonthTotalCents(1L, MARCH, Category.FOOD)).thenReturn(OptionalLong.of(7500));
+
+        // When
+        List<BudgetAlertDTO> alerts = budgetService.evaluate(1L,
+                snapshot("30.00", LocalDate.of(2024, 3, 1), Category.FOOD),
+                snapshot("34.00", LocalDate.of(2024, 3, 2), Category.FOOD));
+
+        // Then
+        assertTrue(alerts.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should skip categories without a budget without reading totals")
+    void evaluate_NoBudget_ReturnsNothing() {
+        // Given
+        when(budgetRepository.findByUserIdOrderByCategoryAsc(1L)).thenReturn(List.of(budget(Category.FOOD, "100.00")));
+
+        // When
+        List<BudgetAlertDTO> alerts = budgetService.evaluate(1L, null,
+                snapshot("500.00", LocalDate.of(2024, 3, 15), Category.HOUSING));
+
+        // Then
+        assertTrue(alerts.isEmpty());
+        verifyNoInteractions(offHeapRollupStore, expenseRollupRepository);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the rollup row when the month is not held off-heap")
+    void evaluate_MonthOutsideOffHeapWindow_ReadsRollup() {
+        // Given
+        when(budgetRepository.findByUserIdOrderByCategoryAsc(1L)).thenReturn(List.of(budget(Category.FOOD, "100.00")));
+        when(offHeapRollupStore.getMonthTotalCents(1L, MARCH, Category.FOOD)).thenReturn(OptionalLong.empty());
+        when(expenseRollupRepository.findByUserIdAndYearMonthAndCategory(1L, 202403, Category.FOOD))
+                .thenReturn(Optional.of(ExpenseRollup.builder().totalCents(4900L).expenseCount(3L).build()));
+
+        // When
+        List<BudgetAlertDTO> alerts = budgetService.evaluate(1L, null,
+                snapshot("1.00", LocalDate.of(2024, 3, 15), Category.FOOD));
+
+        // Then
+        assertEquals(50, alerts.get(0).getThreshold());
+    }
+
+    @Test
+    @DisplayName("Should add earlier writes of the same transaction to the committed total")
+    void evaluate_SeveralCreatesInOneTransaction_ReportsCombinedCrossing() {
+        // Given
+        when(budgetRepository.findByUserIdOrderByCategoryAsc(1L)).thenReturn(List.of(budget(Category.FOOD, "100.00")));
+        when(offHeapRollupStore.getMonthTotalCents(1L, MARCH, Category.FOOD)).thenReturn(OptionalLong.of(4000));
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        List<BudgetAlertDTO> first;
+        List<BudgetAlertDTO> second;
+        try {
+            first = budgetService.evaluate(1L, null, snapshot("5.00", LocalDate.of(2024, 3, 15), Category.FOOD));
+            second = budgetService.evaluate(1L, null, snapshot("6.00", LocalDate.of(2024, 3, 16), Category.FOOD));
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(0));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertTrue(first.isEmpty());
+        assertEquals(50, second.get(0).getThreshold());
+        assertEquals(new BigDecimal("51.00"), second.get(0).getSpent());
+        assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should load limits once and reload them after a budget change")
+    void setBudget_CachedLimits_ReloadsLimits() {
+        // Given
+        when(budgetRepository.findByUserIdOrderByCategoryAsc(1L)).thenReturn(List.of());
+        budgetService.evaluate(1L, null, snapshot("10.00", LocalDate.of(2024, 3, 15), Category.FOOD));
+        budgetService.evaluate(1L, null, snapshot("10.00", LocalDate.of(2024, 3, 16), Category.FOOD));
+        when(budgetRepository.findByUserIdAndCategory(1L, Category.FOOD)).thenReturn(Optional.empty());
+        when(budgetRepository.save(any(Budget.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(offHeapRollupStore.getMonthTotalCents(eq(1L), any(), eq(Category.FOOD))).thenReturn(OptionalLong.of(0));
+
+        // When
+        BudgetDTO saved = budgetService.setBudget(1L, Category.FOOD,
+                BudgetDTO.builder().monthlyLimit(new BigDecimal("20.00")).build());
+        when(budgetRepository.findByUserIdOrderByCategoryAsc(1L)).thenReturn(List.of(budget(Category.FOOD, "20.00")));
+        List<BudgetAlertDTO> alerts = budgetService.evaluate(1L, null,
+                snapshot("10.00", LocalDate.of(2024, 3, 17), Category.FOOD));
+
+        // Then
+        assertEquals(Category.FOOD, saved.getCategory());
+        assertEquals(new BigDecimal("20.00"), saved.getMonthlyLimit());
+        assertEquals(50, alerts.get(0).getThreshold());
+        verify(budgetRepository, times(2)).findByUserIdOrderByCategoryAsc(1L);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when deleting a missing budget")
+    void deleteBudget_MissingBudget_ThrowsException() {
+        // Given
+        when(budgetRepository.findByUserIdAndCategory(1L, Category.FOOD)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> budgetService.deleteBudget(1L, Category.FOOD));
+
+        assertEquals("Budget not found for category: FOOD", exception.getMessage());
+        verify(budgetRepository, never()).delete(any());
+    }
+
+}
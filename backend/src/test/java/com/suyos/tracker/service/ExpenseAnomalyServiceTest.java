@@ -0,0 +1,198 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.suyos.tracker.analytics.AmountDistribution;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.AnomalyBaseline;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.repository.AnomalyBaselineRepository;
+import com.suyos.tracker.repository.ExpenseAmountRow;
+import com.suyos.tracker.repository.ExpenseRepository;
+import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.sharding.ShardMap;
+
+/**
+ * Unit tests for ExpenseAnomalyService.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseAnomalyService Unit Tests")
+class ExpenseAnomalyServiceTest {
+
+    /** Typical grocery amounts of the test user */
+    private static final String[] FOOD_AMOUNTS =
+        {"42.00", "39.00", "51.00", "46.50", "38.00", "60.00", "44.00", "41.00", "55.00", "49.00"};
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private AnomalyBaselineRepository anomalyBaselineRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ShardMap shardMap = new ShardMap();
+
+    @InjectMocks
+    private ExpenseAnomalyService expenseAnomalyService;
+
+    @BeforeEach
+    void setUp() {
+        // Load baselines on the calling thread
+        ReflectionTestUtils.setField(expenseAnomalyService, "loader", (Executor) Runnable::run);
+    }
+
+    private static ExpenseAmountRow row(long id, String amount, Category category) {
+        return new ExpenseAmountRow() {
+            public Long getId() { return id; }
+            public BigDecimal getAmount() { return new BigDecimal(amount); }
+            public LocalDate getDate() { return LocalDate.of(2024, 3, 1); }
+            public Category getCategory() { return category; }
+        };
+    }
+
+    private static List<ExpenseAmountRow> foodRows() {
+        List<ExpenseAmountRow> rows = new ArrayList<>();
+        for (int i = 0; i < FOOD_AMOUNTS.length; i++) {
+            rows.add(row(i + 1, FOOD_AMOUNTS[i], Category.FOOD));
+        }
+        return rows;
+    }
+
+    private static ExpenseSnapshot snapshot(String amount, Category category) {
+        return ExpenseSnapshot.builder()
+                .id(99L).amount(new BigDecimal(amount)).date(LocalDate.of(2024, 3, 20)).category(category).build();
+    }
+
+    @Test
+    @DisplayName("Should not flag or query on a miss and load the baseline for the next write")
+    void isAnomalous_UncachedUser_LoadsInBackground() {
+        // Given
+        when(anomalyBaselineRepository.findByUserId(1L)).thenReturn(List.of());
+        when(expenseRepository.findAmountRowsByUserId(1L)).thenReturn(foodRows());
+
+        // When
+        boolean first = expenseAnomalyService.isAnomalous(1L, Category.FOOD, new BigDecimal("450.00"));
+        boolean second = expenseAnomalyService.isAnomalous(1L, Category.FOOD, new BigDecimal("450.00"));
+
+        // Then
+        assertFalse(first);
+        assertTrue(second);
+        assertTrue(expenseAnomalyService.isCached(1L));
+        verify(expenseRepository, times(1)).findAmountRowsByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Should flag only amounts far above the category norm")
+    void isAnomalous_CachedBaseline_FlagsOutliersOnly() {
+        // Given
+        when(anomalyBaselineRepository.findByUserId(1L)).thenReturn(List.of());
+        when(expenseRepository.findAmountRowsByUserId(1L)).thenReturn(foodRows());
+        expenseAnomalyService.isAnomalous(1L, Category.FOOD, BigDecimal.ONE);
+
+        // When & Then
+        assertTrue(expenseAnomalyService.isAnomalous(1L, Category.FOOD, new BigDecimal("450.00")));
+        assertFalse(expenseAnomalyService.isAnomalous(1L, Category.FOOD, new BigDecimal("58.00")));
+        assertFalse(expenseAnomalyService.isAnomalous(1L, Category.FOOD, new BigDecimal("3.00")));
+        assertFalse(expenseAnomalyService.isAnomalous(1L, Category.HOUSING, new BigDecimal("4500.00")));
+    }
+
+    @Test
+    @DisplayName("Should load persisted baselines instead of replaying history")
+    void isAnomalous_PersistedBaseline_SkipsReplay() {
+        // Given
+        AmountDistribution distribution = new AmountDistribution();
+        for (String amount : FOOD_AMOUNTS) {
+            distribution.add(new BigDecimal(amount).movePointRight(2).longValueExact());
+        }
+        when(anomalyBaselineRepository.findByUserId(1L)).thenReturn(List.of(AnomalyBaseline.builder()
+                .userId(1L).category(Category.FOOD).expenseCount(10L).distribution(distribution.toBytes()).build()));
+        expenseAnomalyService.isAnomalous(1L, Category.FOOD, BigDecimal.ONE);
+
+        // When
+        boolean flagged = expenseAnomalyService.isAnomalous(1L, Category.FOOD, new BigDecimal("450.00"));
+
+        // Then
+        assertTrue(flagged);
+        verify(expenseRepository, never()).findAmountRowsByUserId(any());
+    }
+
+    @Test
+    @DisplayName("Should apply committed changes and persist the changed baseline")
+    void persistDirty_AfterChange_WritesBaseline() {
+        // Given
+        when(anomalyBaselineRepository.findByUserId(1L)).thenReturn(List.of());
+        when(expenseRepository.findAmountRowsByUserId(1L)).thenReturn(foodRows());
+        expenseAnomalyService.isAnomalous(1L, Category.FOOD, BigDecimal.ONE);
+        expenseAnomalyService.persistDirty();
+        clearInvocations(anomalyBaselineRepository);
+
+        // When
+        expenseAnomalyService.onExpenseChanged(ExpenseChangedEvent.created(1L, snapshot("80.00", Category.TRANSPORTATION)));
+        int written = expenseAnomalyService.persistDirty();
+
+        // Then
+        assertEquals(1, written);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AnomalyBaseline>> saved = ArgumentCaptor.forClass(List.class);
+        verify(anomalyBaselineRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        AnomalyBaseline transportation = saved.getValue().stream()
+                .filter(baseline -> baseline.getCategory() == Category.TRANSPORTATION).findFirst().orElseThrow();
+        assertEquals(1L, transportation.getExpenseCount());
+        assertEquals(0, expenseAnomalyService.persistDirty());
+    }
+
+    @Test
+    @DisplayName("Should rescore history against the other expenses and rewrite the flags")
+    void rescore_HistoryWithOutlier_FlagsOutlier() {
+        // Given
+        List<ExpenseAmountRow> rows = new ArrayList<>(foodRows());
+        rows.add(row(42L, "480.00", Category.FOOD));
+        rows.add(row(43L, "900.00", Category.HOUSING));
+        when(expenseRepository.findAmountRowsByUserId(1L)).thenReturn(rows);
+
+        // When
+        long flagged = expenseAnomalyService.rescore(1L);
+
+        // Then
+        assertEquals(1, flagged);
+        verify(expenseRepository).clearAnomalousByUserId(1L);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(expenseRepository).markAnomalousByUserIdAndIdIn(eq(1L), ids.capture());
+        assertEquals(List.of(42L), List.copyOf(ids.getValue()));
+        verify(anomalyBaselineRepository).saveAll(anyList());
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.analytics.DeltaVarintCodec;
+import com.suyos.tracker.dto.DailyTotalsDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.repository.DailyTotal;
+
+/**
+ * Unit tests for ExpenseCalendarService.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseCalendarService Unit Tests")
+class ExpenseCalendarServiceTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+    private static final LocalDate DEC_31 = LocalDate.of(2024, 12, 31);
+
+    @Mock
+    private ExpenseHistory expenseHistory;
+
+    @InjectMocks
+    private ExpenseCalendarService expenseCalendarService;
+
+    private static DailyTotal total(LocalDate date, String amount) {
+        return new DailyTotal() {
+            public LocalDate getDate() { return date; }
+            public BigDecimal getTotal() { return new BigDecimal(amount); }
+        };
+    }
+
+    private static ExpenseChangedEvent created(LocalDate date) {
+        return ExpenseChangedEvent.created(1L, ExpenseSnapshot.builder()
+                .id(7L).amount(new BigDecimal("3.00")).date(date).category(Category.FOOD).build());
+    }
+
+    @Test
+    @DisplayName("Should index totals by day of year in a leap year")
+    void getDailyTotals_LeapYear_IndexesByDayOfYear() {
+        // Given
+        when(expenseHistory.sumByDateBetween(1L, JAN_1, DEC_31)).thenReturn(List.of(
+                total(JAN_1, "12.50"), total(LocalDate.of(2024, 2, 29), "3.25"), total(DEC_31, "100.00")));
+
+        // When
+        DailyTotalsDTO daily = expenseCalendarService.getDailyTotals(1L, 2024, false);
+
+        // Then
+        assertEquals(366, daily.getDays());
+        assertEquals(366, daily.getCents().length);
+        assertEquals(1250, daily.getCents()[0]);
+        assertEquals(325, daily.getCents()[59]);
+        assertEquals(10000, daily.getCents()[365]);
+        assertEquals(new BigDecimal("115.75"), daily.getTotal());
+        assertNull(daily.getPacked());
+    }
+
+    @Test
+    @DisplayName("Should return packed totals that decode to the array")
+    void getDailyTotals_Packed_DecodesToArray() {
+        // Given
+        when(expenseHistory.sumByDateBetween(1L, JAN_1, DEC_31)).thenReturn(List.of(
+                total(LocalDate.of(2024, 3, 10), "42.00")));
+
+        // When
+        DailyTotalsDTO packed = expenseCalendarService.getDailyTotals(1L, 2024, true);
+        DailyTotalsDTO plain = expenseCalendarService.getDailyTotals(1L, 2024, false);
+
+        // Then
+        assertNull(packed.getCents());
+        assertArrayEquals(plain.getCents(), DeltaVarintCodec.decode(packed.getPacked()));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads from cache until a write touches the year")
+    void getDailyCents_WriteInYear_Invalidates() {
+        // Given
+        when(expenseHistory.sumByDateBetween(1L, JAN_1, DEC_31)).thenReturn(List.of());
+        when(expenseHistory.sumByDateBetween(1L, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31)))
+                .thenReturn(List.of());
+        expenseCalendarService.getDailyCents(1L, 2024);
+        expenseCalendarService.getDailyCents(1L, 2023);
+
+        // When
+        expenseCalendarService.getDailyCents(1L, 2024);
+        expenseCalendarService.onExpenseChanged(created(LocalDate.of(2023, 6, 1)));
+
+        // Then
+        assertTrue(expenseCalendarService.isCached(1L, 2024));
+        assertFalse(expenseCalendarService.isCached(1L, 2023));
+        verify(expenseHistory, times(1)).sumByDateBetween(1L, JAN_1, DEC_31);
+    }
+
+    @Test
+    @DisplayName("Should not cache a year whose query raced with a committed write")
+    void getDailyCents_WriteDuringQuery_NotCached() {
+        // Given
+        when(expenseHistory.sumByDateBetween(1L, JAN_1, DEC_31)).thenAnswer(invocation -> {
+            expenseCalendarService.onExpenseChanged(created(LocalDate.of(2024, 5, 5)));
+            return List.of();
+        });
+
+        // When
+        expenseCalendarService.getDailyCents(1L, 2024);
+
+        // Then
+        assertFalse(expenseCalendarService.isCached(1L, 2024));
+    }
+
+}
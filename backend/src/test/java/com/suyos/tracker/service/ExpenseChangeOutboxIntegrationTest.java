@@ -0,0 +1,186 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import com.suyos.tracker.dto.ChangeFeedDTO;
+import com.suyos.tracker.dto.ExpenseChangeDTO;
+import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent.ChangeType;
+import com.suyos.tracker.event.ExpenseChangesRelayedEvent;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.ExpenseChange;
+import com.suyos.tracker.model.User;
+import com.suyos.tracker.repository.ExpenseChangeRepository;
+import com.suyos.tracker.repository.UserRepository;
+
+/**
+ * Integration tests for the expense change outbox, relay and feed.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:outbox",
+    "tracker.outbox.relay-interval=PT1H",
+    "tracker.outbox.batch-size=2"
+})
+@ActiveProfiles("test")
+@RecordApplicationEvents
+@DisplayName("Expense Change Outbox Integration Tests")
+class ExpenseChangeOutboxIntegrationTest {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseChangeOutbox expenseChangeOutbox;
+
+    @Autowired
+    private ExpenseChangeRelay expenseChangeRelay;
+
+    @Autowired
+    private ExpenseChangeRepository expenseChangeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        expenseChangeRelay.relay();
+        testUser = userRepository.save(User.builder()
+                .username("outbox" + System.nanoTime())
+                .firstName("Outbox")
+                .lastName("Tester")
+                .email("outbox" + System.nanoTime() + "@example.com")
+                .password("password")
+                .accountEnabled(true)
+                .build());
+    }
+
+    private ExpenseDTO expense(String description, String amount, Category category) {
+        return ExpenseDTO.builder()
+                .description(description)
+                .amount(new BigDecimal(amount))
+                .date(LocalDate.of(2024, 3, 10))
+                .category(category)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should record writes in their transaction and serve them in order once relayed")
+    void relay_CreateUpdateDelete_FeedReturnsChangesInOrder() {
+        // Given
+        ExpenseDTO created = expenseService.createExpense(expense("Lunch", "12.50", Category.FOOD), testUser.getId());
+        expenseService.updateExpenseById(created.getId(), expense("Taxi", "30.00", Category.TRANSPORTATION),
+            testUser.getId());
+        expenseService.deleteExpenseById(created.getId(), testUser.getId());
+        assertTrue(expenseChangeOutbox.getChanges(testUser.getId(), 0, 10).getChanges().isEmpty());
+
+        // When
+        int relayed = expenseChangeRelay.relay();
+
+        // Then
+        assertEquals(3, relayed);
+        assertEquals(2, events.stream(ExpenseChangesRelayedEvent.class).count());
+        ChangeFeedDTO first = expenseChangeOutbox.getChanges(testUser.getId(), 0, 2);
+        ChangeFeedDTO rest = expenseChangeOutbox.getChanges(testUser.getId(), first.getNext(), 2);
+        List<ExpenseChangeDTO> changes = List.of(first.getChanges().get(0), first.getChanges().get(1),
+            rest.getChanges().get(0));
+        assertTrue(first.isHasMore());
+        assertFalse(rest.isHasMore());
+        assertEquals(1, rest.getChanges().size());
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.DELETED),
+            changes.stream().map(ExpenseChangeDTO::getType).toList());
+        assertTrue(changes.get(0).getPosition() < changes.get(1).getPosition()
+            && changes.get(1).getPosition() < changes.get(2).getPosition());
+        assertTrue(changes.stream().allMatch(change -> change.getExpenseId().equals(created.getId())));
+        assertEquals(0, new BigDecimal("30.00").compareTo(changes.get(1).getAmount()));
+        assertEquals(0, new BigDecimal("12.50").compareTo(changes.get(1).getPreviousAmount()));
+        assertEquals(Category.FOOD, changes.get(1).getPreviousCategory());
+        assertNull(changes.get(2).getPreviousAmount());
+        assertEquals(rest.getNext(), changes.get(2).getPosition());
+    }
+
+    @Test
+    @DisplayName("Should keep positions increasing after relayed changes are purged")
+    void relay_AfterPurge_PositionsKeepIncreasing() {
+        // Given
+        expenseService.createExpense(expense("Coffee", "3.20", Category.FOOD), testUser.getId());
+        expenseChangeRelay.relay();
+        long last = expenseChangeOutbox.getChanges(testUser.getId(), 0, 10).getNext();
+        expenseChangeRepository.deleteAll();
+
+        // When
+        expenseService.createExpense(expense("Bus", "2.00", Category.TRANSPORTATION), testUser.getId());
+        expenseChangeRelay.relay();
+
+        // Then
+        ChangeFeedDTO feed = expenseChangeOutbox.getChanges(testUser.getId(), last, 10);
+        assertEquals(1, feed.getChanges().size());
+        assertEquals("Bus", feed.getChanges().get(0).getDescription());
+    }
+
+    @Test
+    @DisplayName("Should give concurrent relays distinct positions in insertion order")
+    void relay_Concurrent_AssignsDistinctPositionsInOrder() throws Exception {
+        // Given
+        for (int i = 0; i < 12; i++) {
+            expenseService.createExpense(expense("Snack " + i, "1.50", Category.FOOD), testUser.getId());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<Future<Integer>> relays = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            relays.add(executor.submit(() -> {
+                start.await();
+                return expenseChangeRelay.relay();
+            }));
+        }
+        start.countDown();
+        int relayed = 0;
+        for (Future<Integer> relay : relays) {
+            relayed += relay.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(12, relayed);
+        List<Long> positions = expenseChangeRepository.findAll().stream()
+            .filter(change -> change.getUserId().equals(testUser.getId()))
+            .sorted(Comparator.comparing(ExpenseChange::getId))
+            .map(ExpenseChange::getPosition)
+            .toList();
+        assertEquals(12, positions.size());
+        for (int i = 1; i < positions.size(); i++) {
+            assertTrue(positions.get(i - 1) < positions.get(i), "positions " + positions);
+        }
+    }
+
+}
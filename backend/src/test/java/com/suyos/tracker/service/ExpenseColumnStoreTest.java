@@ -0,0 +1,149 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.repository.ExpenseAmountRow;
+
+/**
+ * Unit tests for ExpenseColumnStore.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseColumnStore Unit Tests")
+class ExpenseColumnStoreTest {
+
+    @Mock
+    private ExpenseHistory expenseHistory;
+
+    @InjectMocks
+    private ExpenseColumnStore expenseColumnStore;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(expenseColumnStore, "maxBytes", 1024L * 1024);
+    }
+
+    private static ExpenseAmountRow row(long id, String amount, LocalDate date, Category category) {
+        ExpenseAmountRow row = mock(ExpenseAmountRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getAmount()).thenReturn(new BigDecimal(amount));
+        when(row.getDate()).thenReturn(date);
+        when(row.getCategory()).thenReturn(category);
+        return row;
+    }
+
+    private static ExpenseSnapshot snapshot(long id, String amount, LocalDate date, Category category) {
+        return ExpenseSnapshot.builder()
+                .id(id).amount(new BigDecimal(amount)).date(date).category(category).build();
+    }
+
+    private long totalCents(Long userId) {
+        return expenseColumnStore.query(userId, (ids, cents, epochDays, categories, size) -> {
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                total += cents[i];
+            }
+            return total;
+        });
+    }
+
+    @Test
+    @DisplayName("Should load columns lazily once and serve later queries from memory")
+    void query_FirstAccess_LoadsOnce() {
+        // Given
+        List<ExpenseAmountRow> rows = List.of(
+                row(1L, "25.50", LocalDate.of(2024, 1, 15), Category.FOOD),
+                row(2L, "1200.00", LocalDate.of(2024, 1, 1), Category.HOUSING));
+        when(expenseHistory.findAmountRowsByUserId(1L)).thenReturn(rows);
+
+        // When
+        long first = totalCents(1L);
+        long second = totalCents(1L);
+
+        // Then
+        assertEquals(122550L, first);
+        assertEquals(first, second);
+        assertTrue(expenseColumnStore.isCached(1L));
+        verify(expenseHistory, times(1)).findAmountRowsByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Should keep cached columns in sync with committed changes")
+    void onExpenseChanged_CachedUser_AppliesChanges() {
+        // Given
+        List<ExpenseAmountRow> rows = List.of(row(1L, "25.50", LocalDate.of(2024, 1, 15), Category.FOOD));
+        when(expenseHistory.findAmountRowsByUserId(1L)).thenReturn(rows);
+        totalCents(1L);
+
+        // When
+        expenseColumnStore.onExpenseChanged(ExpenseChangedEvent.created(1L,
+                snapshot(2L, "10.00", LocalDate.of(2024, 1, 16), Category.TRANSPORTATION)));
+        expenseColumnStore.onExpenseChanged(ExpenseChangedEvent.updated(1L,
+                snapshot(1L, "25.50", LocalDate.of(2024, 1, 15), Category.FOOD),
+                snapshot(1L, "30.00", LocalDate.of(2024, 1, 15), Category.FOOD)));
+        expenseColumnStore.onExpenseChanged(ExpenseChangedEvent.deleted(1L,
+                snapshot(2L, "10.00", LocalDate.of(2024, 1, 16), Category.TRANSPORTATION)));
+
+        // Then
+        assertEquals(3000L, totalCents(1L));
+        verify(expenseHistory, times(1)).findAmountRowsByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Should not cache columns loaded while a write for the user committed")
+    void query_ConcurrentWrite_DoesNotCacheStaleColumns() {
+        // Given
+        when(expenseHistory.findAmountRowsByUserId(1L)).thenAnswer(invocation -> {
+            expenseColumnStore.onExpenseChanged(ExpenseChangedEvent.created(1L,
+                    snapshot(9L, "5.00", LocalDate.of(2024, 1, 1), Category.FOOD)));
+            return List.of();
+        });
+
+        // When
+        totalCents(1L);
+
+        // Then
+        assertFalse(expenseColumnStore.isCached(1L));
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used users past the memory budget")
+    void query_OverBudget_EvictsLeastRecentlyUsed() {
+        // Given
+        ReflectionTestUtils.setField(expenseColumnStore, "maxBytes", 2L * 8 * ExpenseColumnStore.BYTES_PER_ROW);
+        when(expenseHistory.findAmountRowsByUserId(anyLong())).thenReturn(List.of());
+
+        // When
+        totalCents(1L);
+        totalCents(2L);
+        totalCents(1L);
+        totalCents(3L);
+
+        // Then
+        assertTrue(expenseColumnStore.isCached(1L));
+        assertFalse(expenseColumnStore.isCached(2L));
+        assertTrue(expenseColumnStore.isCached(3L));
+        assertEquals(2L * 8 * ExpenseColumnStore.BYTES_PER_ROW, expenseColumnStore.getUsedBytes());
+    }
+
+}
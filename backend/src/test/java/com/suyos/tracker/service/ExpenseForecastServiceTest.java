@@ -0,0 +1,161 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.dto.CategoryForecastDTO;
+import com.suyos.tracker.dto.SpendingForecastDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.repository.MonthlyCategoryTotal;
+
+/**
+ * Unit tests for ExpenseForecastService.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseForecastService Unit Tests")
+class ExpenseForecastServiceTest {
+
+    private static final double ALPHA = 0.3;
+
+    @Mock
+    private ExpenseHistory expenseHistory;
+
+    @InjectMocks
+    private ExpenseForecastService expenseForecastService;
+
+    private static MonthlyCategoryTotal total(int year, int month, Category category, String amount) {
+        return new MonthlyCategoryTotal() {
+            public Integer getYear() { return year; }
+            public Integer getMonth() { return month; }
+            public Category getCategory() { return category; }
+            public BigDecimal getTotal() { return new BigDecimal(amount); }
+            public Long getCount() { return 1L; }
+        };
+    }
+
+    private static ExpenseSnapshot snapshot(String amount, LocalDate date, Category category) {
+        return ExpenseSnapshot.builder()
+                .id(1L).amount(new BigDecimal(amount)).date(date).category(category).build();
+    }
+
+    private static long month(int year, int month) {
+        return ExpenseForecastService.monthIndex(LocalDate.of(year, month, 1));
+    }
+
+    @Test
+    @DisplayName("Should project the month end from spending so far and the moving average")
+    void forecast_ReplayedHistory_ProjectsMonthEnd() {
+        // Given
+        List<MonthlyCategoryTotal> rows = List.of(
+                total(2024, 1, Category.FOOD, "300.00"),
+                total(2024, 2, Category.FOOD, "400.00"),
+                total(2024, 4, Category.FOOD, "150.00"));
+        ExpenseForecastService.UserForecast forecast =
+                ExpenseForecastService.UserForecast.replay(ALPHA, month(2024, 4), rows);
+
+        // When
+        SpendingForecastDTO result = forecast.forecast(LocalDate.of(2024, 4, 10));
+
+        // Then
+        CategoryForecastDTO food = result.getCategories().get(0);
+        double ewma = 0.3 * 0 + 0.7 * (0.3 * 40000 + 0.7 * 30000);
+        assertEquals(Category.FOOD, food.getCategory());
+        assertEquals(3, food.getMonthsOfHistory());
+        assertEquals(new BigDecimal("150.00"), food.getCurrentTotal());
+        assertEquals(BigDecimal.valueOf(Math.round(ewma), 2), food.getMovingAverage());
+        assertEquals(BigDecimal.valueOf(15000 + Math.round(ewma * 20 / 30), 2), food.getProjectedTotal());
+        assertEquals(new BigDecimal("0.00"), food.getPreviousMonthTotal());
+        assertEquals(-100.0, food.getMonthOverMonthChange());
+        assertEquals(new BigDecimal("233.33"), food.getThreeMonthAverage());
+        assertEquals(10, result.getDaysElapsed());
+        assertEquals(food.getProjectedTotal(), result.getProjectedTotal());
+    }
+
+    @Test
+    @DisplayName("Should extrapolate the run rate for a category without history")
+    void forecast_NoHistory_UsesRunRate() {
+        // Given
+        List<MonthlyCategoryTotal> rows = List.of(total(2024, 6, Category.HOUSING, "100.00"));
+        ExpenseForecastService.UserForecast forecast =
+                ExpenseForecastService.UserForecast.replay(ALPHA, month(2024, 6), rows);
+
+        // When
+        SpendingForecastDTO result = forecast.forecast(LocalDate.of(2024, 6, 10));
+
+        // Then
+        assertEquals(new BigDecimal("300.00"), result.getCategories().get(0).getProjectedTotal());
+        assertNull(result.getCategories().get(0).getMonthOverMonthChange());
+    }
+
+    @Test
+    @DisplayName("Should match a full replay after incremental changes to past and current months")
+    void apply_Changes_MatchesReplay() {
+        // Given
+        List<MonthlyCategoryTotal> rows = new ArrayList<>(List.of(
+                total(2023, 3, Category.FOOD, "120.00"),
+                total(2023, 9, Category.FOOD, "80.00"),
+                total(2024, 2, Category.UTILITIES, "60.00"),
+                total(2024, 5, Category.FOOD, "45.00")));
+        long current = month(2024, 5);
+        ExpenseForecastService.UserForecast incremental =
+                ExpenseForecastService.UserForecast.replay(ALPHA, current, rows);
+
+        // When
+        incremental.apply(ExpenseChangedEvent.created(1L,
+                snapshot("25.00", LocalDate.of(2023, 9, 2), Category.FOOD)), current);
+        incremental.apply(ExpenseChangedEvent.updated(1L,
+                snapshot("60.00", LocalDate.of(2024, 2, 1), Category.UTILITIES),
+                snapshot("70.00", LocalDate.of(2024, 5, 3), Category.UTILITIES)), current);
+        incremental.apply(ExpenseChangedEvent.created(1L,
+                snapshot("90.00", LocalDate.of(2022, 11, 20), Category.HEALTHCARE)), current);
+
+        // Then
+        rows.set(1, total(2023, 9, Category.FOOD, "105.00"));
+        rows.set(2, total(2024, 5, Category.UTILITIES, "70.00"));
+        rows.add(total(2022, 11, Category.HEALTHCARE, "90.00"));
+        ExpenseForecastService.UserForecast replayed =
+                ExpenseForecastService.UserForecast.replay(ALPHA, current, rows);
+        LocalDate today = LocalDate.of(2024, 5, 15);
+        assertEquals(replayed.forecast(today), incremental.forecast(today));
+    }
+
+    @Test
+    @DisplayName("Should replay history once and apply later changes in memory")
+    void getForecast_CachedUser_AppliesChangesWithoutReload() {
+        // Given
+        LocalDate today = LocalDate.now();
+        List<MonthlyCategoryTotal> rows = List.of(
+                total(today.getYear(), today.getMonthValue(), Category.FOOD, "10.00"));
+        when(expenseHistory.sumByMonthAndCategory(1L)).thenReturn(rows);
+        expenseForecastService.getForecast(1L);
+
+        // When
+        expenseForecastService.onExpenseChanged(ExpenseChangedEvent.created(1L,
+                snapshot("5.50", today, Category.FOOD)));
+        SpendingForecastDTO result = expenseForecastService.getForecast(1L);
+
+        // Then
+        verify(expenseHistory, times(1)).sumByMonthAndCategory(1L);
+        assertEquals(new BigDecimal("15.50"), result.getCurrentTotal());
+        assertTrue(expenseForecastService.isCached(1L));
+    }
+
+}
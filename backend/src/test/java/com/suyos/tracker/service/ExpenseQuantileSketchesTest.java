@@ -0,0 +1,152 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.analytics.KllSketch;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.repository.ExpenseAmountRow;
+
+/**
+ * Unit tests for ExpenseQuantileSketches.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseQuantileSketches Unit Tests")
+class ExpenseQuantileSketchesTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2024, 1);
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+
+    @Mock
+    private ExpenseHistory expenseHistory;
+
+    @InjectMocks
+    private ExpenseQuantileSketches expenseQuantileSketches;
+
+    private static ExpenseAmountRow row(long id, String amount, LocalDate date, Category category) {
+        ExpenseAmountRow row = mock(ExpenseAmountRow.class);
+        when(row.getAmount()).thenReturn(new BigDecimal(amount));
+        when(row.getDate()).thenReturn(date);
+        when(row.getCategory()).thenReturn(category);
+        return row;
+    }
+
+    private static ExpenseSnapshot snapshot(long id, String amount, LocalDate date, Category category) {
+        return ExpenseSnapshot.builder()
+                .id(id).amount(new BigDecimal(amount)).date(date).category(category).build();
+    }
+
+    @Test
+    @DisplayName("Should merge month sketches over the requested range")
+    void merge_MonthRange_MergesCoveredMonths() {
+        // Given
+        List<ExpenseAmountRow> rows = List.of(
+                row(1L, "10.00", LocalDate.of(2024, 1, 5), Category.FOOD),
+                row(2L, "30.00", LocalDate.of(2024, 2, 5), Category.FOOD),
+                row(3L, "20.00", LocalDate.of(2024, 3, 5), Category.FOOD),
+                row(4L, "99.00", LocalDate.of(2024, 4, 5), Category.FOOD),
+                row(5L, "5.00", LocalDate.of(2024, 2, 9), Category.TRANSPORTATION));
+        when(expenseHistory.findAmountRowsByUserId(1L)).thenReturn(rows);
+
+        // When
+        Map<Category, KllSketch> result = expenseQuantileSketches.merge(1L, JANUARY, MARCH, null);
+
+        // Then
+        assertEquals(2, result.size());
+        KllSketch food = result.get(Category.FOOD);
+        assertEquals(3, food.getCount());
+        assertEquals(2000, food.getQuantile(0.5));
+        assertEquals(3000, food.getMax());
+        assertEquals(1, result.get(Category.TRANSPORTATION).getCount());
+    }
+
+    @Test
+    @DisplayName("Should add created expenses without querying the database")
+    void onExpenseChanged_Created_AddsInPlace() {
+        // Given
+        List<ExpenseAmountRow> rows = List.of(row(1L, "10.00", LocalDate.of(2024, 1, 5), Category.FOOD));
+        when(expenseHistory.findAmountRowsByUserId(1L)).thenReturn(rows);
+        expenseQuantileSketches.merge(1L, JANUARY, MARCH, Category.FOOD);
+
+        // When
+        expenseQuantileSketches.onExpenseChanged(ExpenseChangedEvent.created(1L,
+                snapshot(2L, "40.00", LocalDate.of(2024, 2, 1), Category.FOOD)));
+        KllSketch food = expenseQuantileSketches.merge(1L, JANUARY, MARCH, Category.FOOD).get(Category.FOOD);
+
+        // Then
+        assertEquals(2, food.getCount());
+        assertEquals(5000, food.getSum());
+        verify(expenseHistory, times(1)).findAmountRowsByUserId(1L);
+        verify(expenseHistory, never()).findAmountRowsByUserIdAndDateBetween(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should rebuild only the month a deleted expense belonged to")
+    void onExpenseChanged_Deleted_RebuildsAffectedMonth() {
+        // Given
+        List<ExpenseAmountRow> rows = List.of(
+                row(1L, "10.00", LocalDate.of(2024, 1, 5), Category.FOOD),
+                row(2L, "30.00", LocalDate.of(2024, 2, 5), Category.FOOD),
+                row(3L, "50.00", LocalDate.of(2024, 2, 6), Category.FOOD));
+        when(expenseHistory.findAmountRowsByUserId(1L)).thenReturn(rows);
+        expenseQuantileSketches.merge(1L, JANUARY, MARCH, null);
+        List<ExpenseAmountRow> february = List.of(row(3L, "50.00", LocalDate.of(2024, 2, 6), Category.FOOD));
+        when(expenseHistory.findAmountRowsByUserIdAndDateBetween(1L,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29))).thenReturn(february);
+
+        // When
+        expenseQuantileSketches.onExpenseChanged(ExpenseChangedEvent.deleted(1L,
+                snapshot(2L, "30.00", LocalDate.of(2024, 2, 5), Category.FOOD)));
+        KllSketch first = expenseQuantileSketches.merge(1L, JANUARY, MARCH, null).get(Category.FOOD);
+        KllSketch second = expenseQuantileSketches.merge(1L, JANUARY, MARCH, null).get(Category.FOOD);
+
+        // Then
+        assertEquals(2, first.getCount());
+        assertEquals(6000, first.getSum());
+        assertEquals(6000, second.getSum());
+        verify(expenseHistory, times(1)).findAmountRowsByUserIdAndDateBetween(1L,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29));
+    }
+
+    @Test
+    @DisplayName("Should move an updated expense between months")
+    void onExpenseChanged_UpdatedMonth_MovesAmount() {
+        // Given
+        List<ExpenseAmountRow> rows = List.of(row(1L, "10.00", LocalDate.of(2024, 1, 5), Category.FOOD));
+        when(expenseHistory.findAmountRowsByUserId(1L)).thenReturn(rows);
+        expenseQuantileSketches.merge(1L, JANUARY, MARCH, null);
+        when(expenseHistory.findAmountRowsByUserIdAndDateBetween(1L,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31))).thenReturn(List.of());
+
+        // When
+        expenseQuantileSketches.onExpenseChanged(ExpenseChangedEvent.updated(1L,
+                snapshot(1L, "10.00", LocalDate.of(2024, 1, 5), Category.FOOD),
+                snapshot(1L, "12.00", LocalDate.of(2024, 3, 5), Category.FOOD)));
+
+        // Then
+        assertTrue(expenseQuantileSketches.merge(1L, JANUARY, JANUARY, null).isEmpty());
+        KllSketch march = expenseQuantileSketches.merge(1L, MARCH, MARCH, null).get(Category.FOOD);
+        assertEquals(1, march.getCount());
+        assertEquals(1200, march.getMin());
+    }
+
+}
@@ -0,0 +1,224 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+import com.suyos.tracker.archive.ExpenseArchive;
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Expense;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.model.User;
+import com.suyos.tracker.repository.ExpenseRepository;
+import com.suyos.tracker.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Property tests for ExpenseRangeSumIndex against SQL aggregation.
+ * 
+ * Applies random sequences of creates, updates and deletes and checks that
+ * random range totals match {@code SUM(amount)} computed by the database.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("ExpenseRangeSumIndex Property Tests")
+class ExpenseRangeSumIndexTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2015, 1, 1);
+    private static final int DAYS = 3650;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ExpenseRangeSumIndex expenseRangeSumIndex;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        expenseRangeSumIndex = new ExpenseRangeSumIndex(new ExpenseHistory(expenseRepository, new ExpenseArchive()));
+        testUser = userRepository.save(User.builder()
+                .username("ranges")
+                .email("ranges@example.com")
+                .password("password")
+                .firstName("Range")
+                .lastName("Sums")
+                .build());
+    }
+
+    private Expense randomExpense(Random random) {
+        return Expense.builder()
+                .description("Expense")
+                .amount(BigDecimal.valueOf(1 + random.nextInt(500_000), Money.SCALE))
+                .date(FIRST_DAY.plusDays(random.nextInt(DAYS)))
+                .category(Category.values()[random.nextInt(Category.values().length)])
+                .user(testUser)
+                .build();
+    }
+
+    private long sqlSumCents(LocalDate startDate, LocalDate endDate, Category category) {
+        String jpql = "SELECT SUM(e.amount) FROM Expense e WHERE e.user.id = :userId "
+                + "AND e.date BETWEEN :startDate AND :endDate"
+                + (category != null ? " AND e.category = :category" : "");
+        TypedQuery<BigDecimal> query = entityManager.createQuery(jpql, BigDecimal.class)
+                .setParameter("userId", testUser.getId())
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate);
+        if (category != null) {
+            query.setParameter("category", category);
+        }
+        BigDecimal sum = query.getSingleResult();
+        return sum != null ? Money.toCents(sum) : 0;
+    }
+
+    private void assertRandomRangesMatch(Random random, int ranges) {
+        for (int i = 0; i < ranges; i++) {
+            // Ranges extend past the data on both sides
+            LocalDate start = FIRST_DAY.plusDays(random.nextInt(DAYS + 200) - 100);
+            LocalDate end = start.plusDays(random.nextInt(DAYS));
+            Category category = random.nextInt(4) == 0 ? null
+                    : Category.values()[random.nextInt(Category.values().length)];
+
+            assertEquals(sqlSumCents(start, end, category),
+                    expenseRangeSumIndex.sumCents(testUser.getId(), start, end, category),
+                    () -> "range " + start + ".." + end + " category " + category);
+        }
+    }
+
+    @Test
+    @DisplayName("Should match SQL SUM for random ranges after loading")
+    void sumCents_AfterLoad_MatchesSqlSum() {
+        // Given
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            expenseRepository.save(randomExpense(random));
+        }
+
+        // When & Then
+        assertRandomRangesMatch(random, 300);
+        assertEquals(sqlSumCents(LocalDate.of(1900, 1, 1), LocalDate.of(2100, 1, 1), null),
+                expenseRangeSumIndex.sumCents(testUser.getId(), null, null, null));
+    }
+
+    @Test
+    @DisplayName("Should match SQL SUM for random ranges under random writes")
+    void sumCents_RandomWrites_MatchesSqlSum() {
+        // Given
+        Random random = new Random(11);
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expenses.add(expenseRepository.save(randomExpense(random)));
+        }
+        assertRandomRangesMatch(random, 20);
+        assertTrue(expenseRangeSumIndex.isCached(testUser.getId()));
+
+        for (int step = 0; step < 300; step++) {
+            // When
+            int operation = random.nextInt(3);
+            ExpenseChangedEvent event;
+            if (operation == 0 || expenses.isEmpty()) {
+                Expense created = expenseRepository.save(randomExpense(random));
+                expenses.add(created);
+                event = ExpenseChangedEvent.created(testUser.getId(), ExpenseSnapshot.of(created));
+            } else if (operation == 1) {
+                Expense expense = expenses.get(random.nextInt(expenses.size()));
+                ExpenseSnapshot before = ExpenseSnapshot.of(expense);
+                Expense changes = randomExpense(random);
+                expense.setAmount(changes.getAmount());
+                expense.setDate(changes.getDate());
+                expense.setCategory(changes.getCategory());
+                event = ExpenseChangedEvent.updated(testUser.getId(), before,
+                        ExpenseSnapshot.of(expenseRepository.save(expense)));
+            } else {
+                Expense expense = expenses.remove(random.nextInt(expenses.size()));
+                expenseRepository.delete(expense);
+                event = ExpenseChangedEvent.deleted(testUser.getId(), ExpenseSnapshot.of(expense));
+            }
+            ExpenseChangedEvent committed = event;
+            TransactionCallbacks.runCommitted(() -> expenseRangeSumIndex.onExpenseChanged(committed));
+
+            // Then
+            if (step % 10 == 0) {
+                assertRandomRangesMatch(random, 10);
+            }
+        }
+        assertRandomRangesMatch(random, 100);
+    }
+
+    @Test
+    @DisplayName("Should grow the covered range for expenses before the earliest day")
+    void onExpenseChanged_OlderExpense_ExtendsRange() {
+        // Given
+        expenseRepository.save(Expense.builder()
+                .description("Recent").amount(new BigDecimal("10.00")).date(LocalDate.of(2024, 6, 1))
+                .category(Category.FOOD).user(testUser).build());
+        assertEquals(1000, expenseRangeSumIndex.sumCents(testUser.getId(), null, null, null));
+
+        // When
+        Expense older = expenseRepository.save(Expense.builder()
+                .description("Older").amount(new BigDecimal("2.50")).date(LocalDate.of(2001, 3, 4))
+                .category(Category.HOUSING).user(testUser).build());
+        TransactionCallbacks.runCommitted(() -> expenseRangeSumIndex.onExpenseChanged(
+                ExpenseChangedEvent.created(testUser.getId(), ExpenseSnapshot.of(older))));
+
+        // Then
+        assertEquals(1250, expenseRangeSumIndex.sumCents(testUser.getId(), null, null, null));
+        assertEquals(250, expenseRangeSumIndex.sumCents(testUser.getId(),
+                LocalDate.of(2001, 3, 4), LocalDate.of(2001, 3, 4), Category.HOUSING));
+        assertEquals(0, expenseRangeSumIndex.sumCents(testUser.getId(),
+                LocalDate.of(2001, 3, 4), LocalDate.of(2024, 6, 1), Category.TRANSPORTATION));
+    }
+
+    @Test
+    @DisplayName("Should not cache trees loaded while a write is uncommitted")
+    void sumCents_LoadDuringOpenTransaction_AppliesCommitOnce() {
+        // Given
+        expenseRepository.save(Expense.builder()
+                .description("Committed").amount(new BigDecimal("10.00")).date(LocalDate.of(2024, 6, 1))
+                .category(Category.FOOD).user(testUser).build());
+        Expense pending = expenseRepository.save(Expense.builder()
+                .description("Pending").amount(new BigDecimal("5.00")).date(LocalDate.of(2024, 6, 2))
+                .category(Category.FOOD).user(testUser).build());
+        List<TransactionSynchronization> transaction = TransactionCallbacks.capture(() ->
+                expenseRangeSumIndex.onExpenseChanged(
+                        ExpenseChangedEvent.created(testUser.getId(), ExpenseSnapshot.of(pending))));
+
+        // When
+        long duringTransaction = expenseRangeSumIndex.sumCents(testUser.getId(), null, null, null);
+        boolean cachedDuringTransaction = expenseRangeSumIndex.isCached(testUser.getId());
+        TransactionCallbacks.complete(transaction, TransactionSynchronization.STATUS_COMMITTED);
+
+        // Then
+        assertEquals(1500, duringTransaction);
+        assertFalse(cachedDuringTransaction);
+        assertEquals(1500, expenseRangeSumIndex.sumCents(testUser.getId(), null, null, null));
+        assertTrue(expenseRangeSumIndex.isCached(testUser.getId()));
+    }
+
+}
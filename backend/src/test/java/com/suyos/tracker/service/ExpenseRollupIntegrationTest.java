@@ -0,0 +1,55 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.suyos.tracker.dto.ExpenseSummaryDTO;
+import com.suyos.tracker.model.Category;
+
+/**
+ * Integration tests for rollup maintenance on the in-memory database.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:rollups")
+@ActiveProfiles("test")
+@DisplayName("Expense Rollup Integration Tests")
+class ExpenseRollupIntegrationTest {
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Test
+    @DisplayName("Should create a rollup on first write and add to it afterwards")
+    void add_FirstAndLaterWrites_UpsertsRollup() {
+        // Given
+        long userId = System.nanoTime();
+
+        // When
+        expenseRollupService.add(userId, LocalDate.of(2024, 1, 15), Category.FOOD, new BigDecimal("25.50"));
+        expenseRollupService.add(userId, LocalDate.of(2024, 1, 20), Category.FOOD, new BigDecimal("4.50"));
+        expenseRollupService.subtract(userId, LocalDate.of(2024, 1, 15), Category.FOOD, new BigDecimal("25.50"));
+        expenseRollupService.add(userId, LocalDate.of(2024, 1, 3), Category.TRANSPORTATION, new BigDecimal("2.00"));
+
+        // Then
+        List<ExpenseSummaryDTO> summary = expenseRollupService.getMonthlySummary(userId, YearMonth.of(2024, 1),
+            YearMonth.of(2024, 1));
+        assertEquals(2, summary.size());
+        assertEquals(Category.FOOD, summary.get(0).getCategory());
+        assertEquals(0, new BigDecimal("4.50").compareTo(summary.get(0).getTotal()));
+        assertEquals(1L, summary.get(0).getCount());
+        assertEquals(0, new BigDecimal("2.00").compareTo(summary.get(1).getTotal()));
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.dto.ExpenseSummaryDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.ExpenseRollup;
+import com.suyos.tracker.repository.ExpenseRollupRepository;
+import com.suyos.tracker.repository.MonthlyCategoryTotal;
+
+/**
+ * Unit tests for ExpenseRollupService.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseRollupService Unit Tests")
+class ExpenseRollupServiceTest {
+
+    @Mock
+    private ExpenseRollupRepository expenseRollupRepository;
+
+    @Mock
+    private ExpenseHistory expenseHistory;
+
+    @Mock
+    private OffHeapRollupStore offHeapRollupStore;
+
+    @InjectMocks
+    private ExpenseRollupService expenseRollupService;
+
+    @Test
+    @DisplayName("Should upsert the rollup of the expense's month and category")
+    void add_Expense_UpsertsRollup() {
+        // When
+        expenseRollupService.add(1L, LocalDate.of(2024, 1, 15), Category.FOOD, new BigDecimal("25.50"));
+
+        // Then
+        verify(expenseRollupRepository).upsertDelta(1L, 202401, Category.FOOD, 2550L, 1L);
+        verify(expenseRollupRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should subtract amount and count when an expense is removed")
+    void subtract_ExistingRollup_AppliesNegativeDelta() {
+        // When
+        expenseRollupService.subtract(1L, LocalDate.of(2023, 12, 1), Category.HOUSING, new BigDecimal("1200.00"));
+
+        // Then
+        verify(expenseRollupRepository).upsertDelta(1L, 202312, Category.HOUSING, -120000L, -1L);
+    }
+
+    @Test
+    @DisplayName("Should move an updated expense from its old rollup to its new one")
+    void onExpenseChanged_Update_SubtractsOldAndAddsNew() {
+        // Given
+        ExpenseSnapshot before = ExpenseSnapshot.builder()
+                .id(1L).amount(new BigDecimal("25.50")).date(LocalDate.of(2024, 1, 15)).category(Category.FOOD).build();
+        ExpenseSnapshot after = ExpenseSnapshot.builder()
+                .id(1L).amount(new BigDecimal("30.00")).date(LocalDate.of(2024, 2, 1)).category(Category.FOOD).build();
+
+        // When
+        expenseRollupService.onExpenseChanged(ExpenseChangedEvent.updated(1L, before, after));
+
+        // Then
+        verify(expenseRollupRepository).upsertDelta(1L, 202401, Category.FOOD, -2550L, -1L);
+        verify(expenseRollupRepository).upsertDelta(1L, 202402, Category.FOOD, 3000L, 1L);
+    }
+
+    @Test
+    @DisplayName("Should rebuild a user's rollups from grouped expense totals")
+    @SuppressWarnings("unchecked")
+    void rebuildForUser_GroupedTotals_ReplacesRollups() {
+        // Given
+        MonthlyCategoryTotal total = mock(MonthlyCategoryTotal.class);
+        when(total.getYear()).thenReturn(2024);
+        when(total.getMonth()).thenReturn(3);
+        when(total.getCategory()).thenReturn(Category.UTILITIES);
+        when(total.getTotal()).thenReturn(new BigDecimal("180.45"));
+        when(total.getCount()).thenReturn(3L);
+        when(expenseHistory.sumByMonthAndCategory(1L)).thenReturn(List.of(total));
+
+        // When
+        int rows = expenseRollupService.rebuildForUser(1L);
+
+        // Then
+        assertEquals(1, rows);
+        verify(expenseRollupRepository).deleteByUserId(1L);
+        ArgumentCaptor<List<ExpenseRollup>> captor = ArgumentCaptor.forClass(List.class);
+        verify(expenseRollupRepository).saveAll(captor.capture());
+        ExpenseRollup rollup = captor.getValue().get(0);
+        assertEquals(202403, rollup.getYearMonth());
+        assertEquals(18045L, rollup.getTotalCents());
+        assertEquals(3L, rollup.getExpenseCount());
+    }
+
+    @Test
+    @DisplayName("Should map rollups to summaries and skip emptied rows")
+    void getMonthlySummary_Rollups_ReturnsSummaries() {
+        // Given
+        ExpenseRollup food = ExpenseRollup.builder()
+                .userId(1L).yearMonth(202401).category(Category.FOOD).totalCents(4599L).expenseCount(2L).build();
+        ExpenseRollup emptied = ExpenseRollup.builder()
+                .userId(1L).yearMonth(202402).category(Category.FOOD).totalCents(0L).expenseCount(0L).build();
+        when(expenseRollupRepository.findByUserIdAndYearMonthBetweenOrderByYearMonthAscCategoryAsc(1L, 202401, 202412))
+                .thenReturn(List.of(food, emptied));
+
+        // When
+        List<ExpenseSummaryDTO> result = expenseRollupService.getMonthlySummary(1L,
+                YearMonth.of(2024, 1), YearMonth.of(2024, 12));
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(YearMonth.of(2024, 1), result.get(0).getYearMonth());
+        assertEquals(new BigDecimal("45.99"), result.get(0).getTotal());
+        assertEquals(2L, result.get(0).getCount());
+    }
+
+}
@@ -6,24 +6,33 @@ import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import com.suyos.tracker.archive.ExpenseArchive;
+import com.suyos.tracker.dto.BudgetAlertDTO;
 import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.dto.ExpenseLookupResponseDTO;
 import com.suyos.tracker.dto.PagedResponse;
+import com.suyos.tracker.event.ExpenseChangedEvent;
 import com.suyos.tracker.mapper.ExpenseMapper;
 import com.suyos.tracker.model.Category;
 import com.suyos.tracker.model.Expense;
@@ -50,6 +59,18 @@ class ExpenseServiceTest {
     @Mock
     private ExpenseMapper expenseMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BudgetService budgetService;
+
+    @Mock
+    private ExpenseAnomalyService expenseAnomalyService;
+
+    @Mock
+    private ExpenseArchive expenseArchive;
+
     @InjectMocks
     private ExpenseService expenseService;
 
@@ -85,10 +106,9 @@ class ExpenseServiceTest {
     @DisplayName("Should get paginated expenses with no filters")
     void getExpensesPaginated_NoFilters_ReturnsPagedResponse() {
         // Given
-        Pageable pageable = PageRequest.of(0, 10, Sort.by("expenseDate").descending());
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("date").descending());
         Page<Expense> expensePage = new PageImpl<>(List.of(testExpense), pageable, 1);
         
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(expenseRepository.findByUserId(testUser.getId(), pageable)).thenReturn(expensePage);
         when(expenseMapper.toDTO(testExpense)).thenReturn(testExpenseDTO);
 
@@ -106,16 +126,15 @@ class ExpenseServiceTest {
         assertTrue(result.isFirst());
         assertTrue(result.isLast());
 
-        verify(userRepository).findById(1L);
         verify(expenseRepository).findByUserId(testUser.getId(), pageable);
         verify(expenseMapper).toDTO(testExpense);
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     @DisplayName("Should get expense by ID successfully")
     void getExpenseById_ExistingId_ReturnsExpenseDTO() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(expenseRepository.findByIdAndUserId(1L, testUser.getId())).thenReturn(Optional.of(testExpense));
         when(expenseMapper.toDTO(testExpense)).thenReturn(testExpenseDTO);
 
@@ -125,16 +144,15 @@ class ExpenseServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(testExpenseDTO, result);
-        verify(userRepository).findById(1L);
         verify(expenseRepository).findByIdAndUserId(1L, testUser.getId());
         verify(expenseMapper).toDTO(testExpense);
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     @DisplayName("Should throw exception when expense not found by ID")
     void getExpenseById_NonExistingId_ThrowsException() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(expenseRepository.findByIdAndUserId(999L, testUser.getId())).thenReturn(Optional.empty());
 
         // When & Then
@@ -142,9 +160,8 @@ class ExpenseServiceTest {
                 () -> expenseService.getExpenseById(999L, 1L));
         
         assertEquals("Expense not found with id: 999", exception.getMessage());
-        verify(userRepository).findById(1L);
         verify(expenseRepository).findByIdAndUserId(999L, testUser.getId());
-        verifyNoInteractions(expenseMapper);
+        verifyNoInteractions(expenseMapper, userRepository);
     }
 
     @Test
@@ -185,6 +202,9 @@ class ExpenseServiceTest {
         when(expenseMapper.toEntity(newExpenseDTO)).thenReturn(newExpense);
         when(expenseRepository.save(newExpense)).thenReturn(savedExpense);
         when(expenseMapper.toDTO(savedExpense)).thenReturn(savedExpenseDTO);
+        BudgetAlertDTO alert = BudgetAlertDTO.builder().category(Category.TRANSPORTATION).threshold(80).build();
+        when(budgetService.evaluate(eq(1L), isNull(), any())).thenReturn(List.of(alert));
+        when(expenseAnomalyService.isAnomalous(1L, Category.TRANSPORTATION, new BigDecimal("30.00"))).thenReturn(true);
 
         // When
         ExpenseDTO result = expenseService.createExpense(newExpenseDTO, 1L);
@@ -197,29 +217,39 @@ class ExpenseServiceTest {
         verify(expenseMapper).toEntity(newExpenseDTO);
         verify(expenseRepository).save(newExpense);
         verify(expenseMapper).toDTO(savedExpense);
+        ArgumentCaptor<ExpenseChangedEvent> event = ArgumentCaptor.forClass(ExpenseChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ExpenseChangedEvent.ChangeType.CREATED, event.getValue().getType());
+        assertEquals(2L, event.getValue().getExpenseId());
+        assertNull(event.getValue().getBefore());
+        assertEquals(List.of(alert), result.getBudgetAlerts());
+        assertTrue(newExpense.isAnomalous());
     }
 
     @Test
     @DisplayName("Should delete expense successfully")
     void deleteExpense_ExistingId_DeletesExpense() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(expenseRepository.findByIdAndUserId(1L, testUser.getId())).thenReturn(Optional.of(testExpense));
 
         // When
         expenseService.deleteExpenseById(1L, 1L);
 
         // Then
-        verify(userRepository).findById(1L);
         verify(expenseRepository).findByIdAndUserId(1L, testUser.getId());
         verify(expenseRepository).delete(testExpense);
+        ArgumentCaptor<ExpenseChangedEvent> event = ArgumentCaptor.forClass(ExpenseChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ExpenseChangedEvent.ChangeType.DELETED, event.getValue().getType());
+        assertEquals(new BigDecimal("25.50"), event.getValue().getBefore().getAmount());
+        assertNull(event.getValue().getAfter());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     @DisplayName("Should throw exception when deleting non-existing expense")
     void deleteExpense_NonExistingId_ThrowsException() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(expenseRepository.findByIdAndUserId(999L, testUser.getId())).thenReturn(Optional.empty());
 
         // When & Then
@@ -227,9 +257,115 @@ class ExpenseServiceTest {
                 () -> expenseService.deleteExpenseById(999L, 1L));
 
         assertEquals("Expense not found with id: 999", exception.getMessage());
-        verify(userRepository).findById(1L);
         verify(expenseRepository).findByIdAndUserId(999L, testUser.getId());
         verify(expenseRepository, never()).delete(any());
+        verifyNoInteractions(eventPublisher, userRepository);
+    }
+
+    @Test
+    @DisplayName("Should look up expenses by IDs in request order and report missing IDs")
+    void getExpensesByIds_MixedIds_PreservesOrderAndReportsMissing() {
+        // Given
+        Expense otherExpense = Expense.builder()
+                .id(3L)
+                .description("Other Expense")
+                .amount(new BigDecimal("10.00"))
+                .date(LocalDate.of(2024, 1, 16))
+                .category(Category.UTILITIES)
+                .build();
+        ExpenseDTO otherExpenseDTO = ExpenseDTO.builder()
+                .id(3L)
+                .description("Other Expense")
+                .amount(new BigDecimal("10.00"))
+                .date(LocalDate.of(2024, 1, 16))
+                .category(Category.UTILITIES)
+                .build();
+
+        when(expenseRepository.findByUserIdAndIdIn(1L, List.of(3L, 999L, 1L)))
+                .thenReturn(List.of(testExpense, otherExpense));
+        when(expenseMapper.toDTO(testExpense)).thenReturn(testExpenseDTO);
+        when(expenseMapper.toDTO(otherExpense)).thenReturn(otherExpenseDTO);
+
+        // When
+        ExpenseLookupResponseDTO result = expenseService.getExpensesByIds(List.of(3L, 999L, 1L, 3L), 1L);
+
+        // Then
+        assertEquals(List.of(otherExpenseDTO, testExpenseDTO), result.getExpenses());
+        assertEquals(List.of(999L), result.getMissingIds());
+        verify(expenseRepository).findByUserIdAndIdIn(1L, List.of(3L, 999L, 1L));
+    }
+
+    @Test
+    @DisplayName("Should split large lookups into bounded IN-list batches")
+    void getExpensesByIds_ManyIds_QueriesInBatches() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, ExpenseService.LOOKUP_BATCH_SIZE + 1)
+                .boxed()
+                .toList();
+        when(expenseRepository.findByUserIdAndIdIn(eq(1L), anyCollection())).thenReturn(List.of());
+
+        // When
+        ExpenseLookupResponseDTO result = expenseService.getExpensesByIds(ids, 1L);
+
+        // Then
+        assertEquals(ids, result.getMissingIds());
+        verify(expenseRepository, times(2)).findByUserIdAndIdIn(eq(1L), anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should merge archived expenses into the pages after the live ones")
+    void getExpensesPaginated_ArchivedExpenses_MergesTiers() {
+        // Given
+        List<Expense> live = LongStream.rangeClosed(11, 15)
+                .mapToObj(id -> expense(id, LocalDate.of(2024, 1, (int) id)))
+                .sorted(Comparator.comparing(Expense::getDate).reversed())
+                .toList();
+        List<Expense> archived = LongStream.rangeClosed(1, 5)
+                .mapToObj(id -> expense(id, LocalDate.of(2020, 1, (int) id)))
+                .toList();
+        when(expenseArchive.overlaps(1L, null, null)).thenReturn(true);
+        when(expenseArchive.count(1L, null, null, null)).thenReturn((long) archived.size());
+        when(expenseArchive.first(eq(1L), isNull(), isNull(), isNull(), any(Sort.class), anyInt()))
+                .thenAnswer(invocation -> archived.stream()
+                        .sorted(ExpenseArchive.order(invocation.getArgument(4)))
+                        .limit(invocation.<Integer>getArgument(5))
+                        .toList());
+        when(expenseRepository.findByUserId(eq(1L), any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable window = invocation.getArgument(1);
+            int from = (int) Math.min(window.getOffset(), live.size());
+            int to = Math.min(from + window.getPageSize(), live.size());
+            return new PageImpl<>(live.subList(from, to), window, live.size());
+        });
+        when(expenseMapper.toDTO(any(Expense.class)))
+                .thenAnswer(invocation -> ExpenseDTO.builder().id(invocation.<Expense>getArgument(0).getId()).build());
+
+        // When
+        List<List<Long>> pages = new ArrayList<>();
+        PagedResponse<ExpenseDTO> last = null;
+        for (int page = 0; page < 4; page++) {
+            last = expenseService.getAllExpensesPaginated(1L, page, 3, "date", "desc", null, null, null);
+            pages.add(last.getContent().stream().map(ExpenseDTO::getId).toList());
+        }
+
+        // Then
+        assertEquals(List.of(List.of(15L, 14L, 13L), List.of(12L, 11L, 5L), List.of(4L, 3L, 2L), List.of(1L)), pages);
+        assertEquals(10, last.getTotalElements());
+        assertEquals(4, last.getTotalPages());
+        assertTrue(last.isLast());
+        // Each page reads the archived rows up to its end, never more
+        verify(expenseArchive).first(eq(1L), isNull(), isNull(), isNull(), any(Sort.class), eq(3));
+        verify(expenseArchive, times(3)).first(eq(1L), isNull(), isNull(), isNull(), any(Sort.class), eq(5));
+        verify(expenseArchive, never()).find(any(), any(), any(), any());
+    }
+
+    private static Expense expense(long id, LocalDate date) {
+        return Expense.builder()
+                .id(id)
+                .description("Expense " + id)
+                .amount(new BigDecimal("10.00"))
+                .date(date)
+                .category(Category.FOOD)
+                .build();
     }
     
-}
\ No newline at end of file
+}
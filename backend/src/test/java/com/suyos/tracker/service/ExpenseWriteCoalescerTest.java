@@ -0,0 +1,202 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.sharding.ShardMap;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for ExpenseWriteCoalescer.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseWriteCoalescer Tests")
+class ExpenseWriteCoalescerTest {
+
+    @Mock
+    private ExpenseService expenseService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ExpenseWriteCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new ExpenseWriteCoalescer(expenseService, transactionManager, meterRegistry, new ShardMap());
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        // Long enough for every submission of a test to join the first batch
+        ReflectionTestUtils.setField(coalescer, "maxDelay", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(coalescer, "maxBatch", 8);
+        lenient().when(expenseService.createExpense(any(ExpenseDTO.class), eq(1L))).thenAnswer(invocation -> {
+            ExpenseDTO dto = invocation.getArgument(0);
+            if ("Invalid".equals(dto.getDescription())) {
+                throw new IllegalArgumentException("Invalid expense");
+            }
+            if ("Broken".equals(dto.getDescription())) {
+                throw new LinkageError("Broken expense");
+            }
+            if ("Slow".equals(dto.getDescription())) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return ExpenseDTO.builder().id(ids.incrementAndGet()).description(dto.getDescription()).build();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        coalescer.stop();
+    }
+
+    @Test
+    @DisplayName("Should commit concurrent creations together")
+    void submit_ConcurrentCreations_ShareOneCommit() {
+        // Given
+        coalescer.start();
+
+        // When
+        List<CompletableFuture<ExpenseDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(coalescer.submit(expense("Lunch " + i), 1L));
+        }
+
+        // Then
+        Set<Long> createdIds = new HashSet<>();
+        for (int i = 0; i < futures.size(); i++) {
+            ExpenseDTO created = futures.get(i).join();
+            assertEquals("Lunch " + i, created.getDescription());
+            createdIds.add(created.getId());
+        }
+        assertEquals(8, createdIds.size());
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(1.0, meterRegistry.get("tracker.expenses.commits").counter().count());
+        assertEquals(8.0, meterRegistry.get("tracker.expenses.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("Should fail only the invalid creation of a batch")
+    void submit_InvalidCreationInBatch_FailsAlone() {
+        // Given
+        coalescer.start();
+
+        // When
+        CompletableFuture<ExpenseDTO> first = coalescer.submit(expense("Coffee"), 1L);
+        CompletableFuture<ExpenseDTO> invalid = coalescer.submit(expense("Invalid"), 1L);
+        CompletableFuture<ExpenseDTO> last = coalescer.submit(expense("Taxi"), 1L);
+
+        // Then
+        assertEquals("Coffee", first.join().getDescription());
+        assertEquals("Taxi", last.join().getDescription());
+        CompletionException failure = assertThrows(CompletionException.class, invalid::join);
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+        verify(transactionManager).rollback(any());
+        assertEquals(2.0, meterRegistry.get("tracker.expenses.commits").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should rethrow the failure of a blocking creation")
+    void createExpense_InvalidCreation_RethrowsCause() {
+        // Given
+        coalescer.start();
+
+        // When & Then
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class,
+            () -> coalescer.createExpense(expense("Invalid"), 1L));
+        assertEquals("Invalid expense", failure.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should fail a batch that throws an error and keep flushing")
+    void submit_BatchThrowsError_FailsBatchAndKeepsFlusher() {
+        // Given
+        coalescer.start();
+
+        // When
+        CompletableFuture<ExpenseDTO> broken = coalescer.submit(expense("Broken"), 1L);
+        CompletableFuture<ExpenseDTO> sibling = coalescer.submit(expense("Coffee"), 1L);
+
+        // Then
+        CompletionException failure = assertThrows(CompletionException.class, broken::join);
+        assertInstanceOf(LinkageError.class, failure.getCause());
+        ExecutionException siblingFailure = assertThrows(ExecutionException.class,
+            () -> sibling.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(LinkageError.class, siblingFailure.getCause());
+        assertEquals("Lunch", coalescer.submit(expense("Lunch"), 1L).join().getDescription());
+    }
+
+    @Test
+    @DisplayName("Should create directly when the flusher does not take the creation in time")
+    void createExpense_FlusherBusy_CreatesOnCallerThread() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(coalescer, "maxBatch", 1);
+        ReflectionTestUtils.setField(coalescer, "waitTimeout", Duration.ofMillis(100));
+        coalescer.start();
+        CompletableFuture<ExpenseDTO> slow = coalescer.submit(expense("Slow"), 1L);
+
+        // When
+        ExpenseDTO created = coalescer.createExpense(expense("Dinner"), 1L);
+        release.countDown();
+
+        // Then
+        assertEquals("Dinner", created.getDescription());
+        assertEquals("Slow", slow.join().getDescription());
+        coalescer.stop();
+        verify(expenseService, times(1)).createExpense(argThat(dto -> "Dinner".equals(dto.getDescription())), eq(1L));
+    }
+
+    @Test
+    @DisplayName("Should create directly when coalescing is disabled")
+    void createExpense_Disabled_CreatesOnCallerThread() {
+        // Given
+        ReflectionTestUtils.setField(coalescer, "enabled", false);
+        coalescer.start();
+
+        // When
+        ExpenseDTO created = coalescer.createExpense(expense("Dinner"), 1L);
+
+        // Then
+        assertEquals("Dinner", created.getDescription());
+        verifyNoInteractions(transactionManager);
+        assertEquals(1.0, meterRegistry.get("tracker.expenses.commits").counter().count());
+    }
+
+    private static ExpenseDTO expense(String description) {
+        return ExpenseDTO.builder().description(description).build();
+    }
+
+}
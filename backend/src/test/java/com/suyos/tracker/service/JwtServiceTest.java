@@ -2,6 +2,7 @@ package com.suyos.tracker.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Duration;
 import java.util.ArrayList;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -75,6 +76,22 @@ class JwtServiceTest {
         assertTrue(isValid);
     }
 
+    @Test
+    @DisplayName("Should not accept a stream ticket as an access token")
+    void isTokenValid_StreamTicket_ReturnsFalse() {
+        // Given
+        String ticket = jwtService.generateStreamTicket("test@example.com", Duration.ofMinutes(1));
+
+        // When
+        boolean isValid = jwtService.isTokenValid(ticket, userDetails);
+
+        // Then
+        assertFalse(isValid);
+        assertTrue(jwtService.isStreamTicket(ticket));
+        assertEquals("test@example.com", jwtService.extractUsername(ticket));
+        assertFalse(jwtService.isStreamTicket(jwtService.generateToken(userDetails)));
+    }
+
     @Test
     @DisplayName("Should invalidate token for different user")
     void isTokenValid_DifferentUser_ReturnsFalse() {
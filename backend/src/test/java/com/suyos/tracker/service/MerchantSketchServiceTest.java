@@ -0,0 +1,270 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.suyos.tracker.archive.ExpenseArchive;
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.dto.MerchantTotalDTO;
+import com.suyos.tracker.dto.TopMerchantsDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Expense;
+import com.suyos.tracker.model.ExpenseRollup;
+import com.suyos.tracker.model.Money;
+import com.suyos.tracker.model.User;
+import com.suyos.tracker.repository.ExpenseRepository;
+import com.suyos.tracker.repository.ExpenseRollupRepository;
+import com.suyos.tracker.repository.MerchantSketchRepository;
+import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.sharding.ShardMap;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Property tests for MerchantSketchService against SQL aggregation.
+ *
+ * Generates Zipf-distributed merchants and checks the reported rankings
+ * against an exact {@code GROUP BY description} computed by the database.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("MerchantSketchService Property Tests")
+class MerchantSketchServiceTest {
+
+    private static final int MERCHANTS = 400;
+    private static final int TOP = 10;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseRollupRepository expenseRollupRepository;
+
+    @Autowired
+    private MerchantSketchRepository merchantSketchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private MerchantSketchService merchantSketchService;
+
+    private User testUser;
+
+    private double[] cumulative;
+
+    @BeforeEach
+    void setUp() {
+        merchantSketchService = newService();
+        testUser = userRepository.save(User.builder()
+                .username("merchants")
+                .email("merchants@example.com")
+                .password("password")
+                .firstName("Heavy")
+                .lastName("Hitters")
+                .build());
+        cumulative = new double[MERCHANTS];
+        double sum = 0;
+        for (int k = 0; k < MERCHANTS; k++) {
+            sum += 1.0 / (k + 1);
+            cumulative[k] = sum;
+        }
+    }
+
+    private MerchantSketchService newService() {
+        return new MerchantSketchService(new ExpenseHistory(expenseRepository, new ExpenseArchive()), expenseRollupRepository, merchantSketchRepository,
+                transactionManager, new ShardMap());
+    }
+
+    private Expense randomExpense(Random random) {
+        double u = random.nextDouble() * cumulative[MERCHANTS - 1];
+        int merchant = 0;
+        while (cumulative[merchant] < u) {
+            merchant++;
+        }
+        return Expense.builder()
+                .description("store " + (char) ('a' + merchant % 26) + " " + (char) ('a' + merchant / 26))
+                .amount(BigDecimal.valueOf(100 + random.nextInt(20_000), Money.SCALE))
+                .date(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)))
+                .category(Category.FOOD)
+                .user(testUser)
+                .build();
+    }
+
+    /**
+     * Computes the exact count and total in cents per description.
+     */
+    private Map<String, long[]> sqlGroupBy() {
+        Map<String, long[]> exact = new HashMap<>();
+        List<Object[]> rows = entityManager.createQuery("SELECT e.description, COUNT(e), SUM(e.amount) "
+                + "FROM Expense e WHERE e.user.id = :userId GROUP BY e.description", Object[].class)
+                .setParameter("userId", testUser.getId())
+                .getResultList();
+        for (Object[] row : rows) {
+            exact.put((String) row[0], new long[] {(Long) row[1], Money.toCents((BigDecimal) row[2])});
+        }
+        return exact;
+    }
+
+    /**
+     * Checks both rankings against the exact aggregation.
+     *
+     * Every reported figure lies between the true value and the true value
+     * plus the stated error, and no merchant missing from a ranking has a
+     * true value above the lowest reported estimate.
+     */
+    private void assertMatchesGroupBy(TopMerchantsDTO top) {
+        Map<String, long[]> exact = sqlGroupBy();
+        assertEquals(exact.values().stream().mapToLong(totals -> totals[0]).sum(), top.getExpenseCount());
+        assertEquals(exact.values().stream().mapToLong(totals -> totals[1]).sum(), Money.toCents(top.getTotal()));
+        assertEquals(TOP, top.getByCount().size());
+        assertEquals(TOP, top.getByTotal().size());
+        long totalError = Money.toCents(top.getTotalError());
+
+        for (MerchantTotalDTO merchant : top.getByCount()) {
+            long[] totals = exact.get(merchant.getMerchant());
+            assertTrue(merchant.getCount() >= totals[0] && merchant.getCount() <= totals[0] + top.getCountError(),
+                    () -> merchant + " vs " + totals[0]);
+        }
+        for (MerchantTotalDTO merchant : top.getByTotal()) {
+            long[] totals = exact.get(merchant.getMerchant());
+            long cents = Money.toCents(merchant.getTotal());
+            assertTrue(cents >= totals[1] && cents <= totals[1] + totalError, () -> merchant + " vs " + totals[1]);
+        }
+
+        long lowestCount = top.getByCount().get(TOP - 1).getCount();
+        long lowestTotal = Money.toCents(top.getByTotal().get(TOP - 1).getTotal());
+        List<String> byCount = top.getByCount().stream().map(MerchantTotalDTO::getMerchant).toList();
+        List<String> byTotal = top.getByTotal().stream().map(MerchantTotalDTO::getMerchant).toList();
+        exact.forEach((merchant, totals) -> {
+            assertTrue(totals[0] <= lowestCount || byCount.contains(merchant), () -> merchant + " missing by count");
+            assertTrue(totals[1] <= lowestTotal || byTotal.contains(merchant), () -> merchant + " missing by total");
+        });
+    }
+
+    @Test
+    @DisplayName("Should match GROUP BY rankings after replaying history")
+    void getTopMerchants_AfterLoad_MatchesGroupBy() {
+        // Given
+        Random random = new Random(21);
+        for (int i = 0; i < 3000; i++) {
+            expenseRepository.save(randomExpense(random));
+        }
+
+        // When
+        TopMerchantsDTO top = merchantSketchService.getTopMerchants(testUser.getId(), TOP);
+
+        // Then
+        assertMatchesGroupBy(top);
+        assertEquals("store a a", top.getByCount().get(0).getMerchant());
+        assertTrue(top.getConfidence() > 0.98);
+    }
+
+    @Test
+    @DisplayName("Should match GROUP BY rankings under random writes")
+    void getTopMerchants_RandomWrites_MatchesGroupBy() {
+        // Given
+        Random random = new Random(23);
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            expenses.add(expenseRepository.save(randomExpense(random)));
+        }
+        merchantSketchService.getTopMerchants(testUser.getId(), TOP);
+        assertTrue(merchantSketchService.isCached(testUser.getId()));
+
+        for (int step = 0; step < 1500; step++) {
+            // When
+            int operation = random.nextInt(3);
+            ExpenseChangedEvent event;
+            if (operation == 0) {
+                Expense created = expenseRepository.save(randomExpense(random));
+                expenses.add(created);
+                event = ExpenseChangedEvent.created(testUser.getId(), ExpenseSnapshot.of(created));
+            } else if (operation == 1) {
+                Expense expense = expenses.get(random.nextInt(expenses.size()));
+                ExpenseSnapshot before = ExpenseSnapshot.of(expense);
+                Expense changes = randomExpense(random);
+                expense.setDescription(changes.getDescription());
+                expense.setAmount(changes.getAmount());
+                event = ExpenseChangedEvent.updated(testUser.getId(), before,
+                        ExpenseSnapshot.of(expenseRepository.save(expense)));
+            } else {
+                Expense expense = expenses.remove(random.nextInt(expenses.size()));
+                expenseRepository.delete(expense);
+                event = ExpenseChangedEvent.deleted(testUser.getId(), ExpenseSnapshot.of(expense));
+            }
+            ExpenseChangedEvent committed = event;
+            TransactionCallbacks.runCommitted(() -> merchantSketchService.onExpenseChanged(committed));
+        }
+        expenseRepository.flush();
+
+        // Then
+        assertMatchesGroupBy(merchantSketchService.getTopMerchants(testUser.getId(), TOP));
+    }
+
+    @Test
+    @DisplayName("Should reuse a persisted sketch only while it matches the rollups")
+    void getTopMerchants_PersistedSketch_ValidatedAgainstRollups() {
+        // Given
+        expenseRepository.save(Expense.builder().description("Corner Cafe #12").amount(new BigDecimal("4.50"))
+                .date(LocalDate.of(2024, 5, 2)).category(Category.FOOD).user(testUser).build());
+        merchantSketchService.getTopMerchants(testUser.getId(), TOP);
+        assertEquals(1, merchantSketchService.persistDirty());
+        ExpenseRollup rollup = expenseRollupRepository.save(ExpenseRollup.builder().userId(testUser.getId())
+                .yearMonth(202405).category(Category.FOOD).expenseCount(1L).totalCents(450L).build());
+
+        // An expense the persisted sketch never saw
+        expenseRepository.save(Expense.builder().description("corner cafe 0007").amount(new BigDecimal("5.50"))
+                .date(LocalDate.of(2024, 5, 3)).category(Category.FOOD).user(testUser).build());
+
+        // When
+        TopMerchantsDTO reused = newService().getTopMerchants(testUser.getId(), TOP);
+        rollup.setExpenseCount(2L);
+        rollup.setTotalCents(1000L);
+        expenseRollupRepository.save(rollup);
+        TopMerchantsDTO replayed = newService().getTopMerchants(testUser.getId(), TOP);
+
+        // Then
+        assertEquals(1, reused.getExpenseCount());
+        assertEquals(2, replayed.getExpenseCount());
+        assertEquals(List.of(new MerchantTotalDTO("corner cafe", 2, new BigDecimal("10.00"))), replayed.getByCount());
+    }
+
+    @Test
+    @DisplayName("Should strip store numbers, punctuation and case from descriptions")
+    void normalize_Descriptions_GroupsSameMerchant() {
+        // When & Then
+        assertEquals("starbucks", MerchantSketchService.normalize("STARBUCKS #1234"));
+        assertEquals("starbucks", MerchantSketchService.normalize("  Starbucks 0042 "));
+        assertEquals("uber trip", MerchantSketchService.normalize("Uber *Trip 82"));
+        assertNull(MerchantSketchService.normalize("#123 - 456"));
+        assertNull(MerchantSketchService.normalize(null));
+        assertEquals(MerchantSketchService.MAX_KEY_LENGTH, MerchantSketchService.normalize("x".repeat(100)).length());
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.suyos.tracker.dto.ExpenseSummaryDTO;
+import com.suyos.tracker.event.ExpenseChangedEvent;
+import com.suyos.tracker.event.ExpenseSnapshot;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.ExpenseRollup;
+import com.suyos.tracker.repository.ExpenseRollupRepository;
+
+/**
+ * Unit tests for OffHeapRollupStore.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OffHeapRollupStore Unit Tests")
+class OffHeapRollupStoreTest {
+
+    @Mock
+    private ExpenseRollupRepository expenseRollupRepository;
+
+    private OffHeapRollupStore offHeapRollupStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        offHeapRollupStore = newStore("");
+    }
+
+    private OffHeapRollupStore newStore(String path) throws Exception {
+        OffHeapRollupStore store = new OffHeapRollupStore(expenseRollupRepository);
+        ReflectionTestUtils.setField(store, "path", path);
+        ReflectionTestUtils.setField(store, "slots", 16);
+        ReflectionTestUtils.setField(store, "months", 60);
+        store.open();
+        return store;
+    }
+
+    private static ExpenseSnapshot snapshot(String amount, LocalDate date, Category category) {
+        return ExpenseSnapshot.builder()
+                .id(1L).amount(new BigDecimal(amount)).date(date).category(category).build();
+    }
+
+    private void seed(Long userId) {
+        List<ExpenseRollup> rollups = List.of(ExpenseRollup.builder()
+                .userId(userId).yearMonth(202401).category(Category.FOOD).totalCents(4599L).expenseCount(2L).build());
+        when(expenseRollupRepository.findByUserIdAndYearMonthBetweenOrderByYearMonthAscCategoryAsc(
+                userId, 202001, 202412)).thenReturn(rollups);
+    }
+
+    @Test
+    @DisplayName("Should seed from rollups once and apply later changes in place")
+    void getMonthlySummary_SeededUser_AppliesChanges() {
+        // Given
+        seed(1L);
+        offHeapRollupStore.getMonthlySummary(1L, YearMonth.of(2024, 1), YearMonth.of(2024, 12));
+
+        // When
+        offHeapRollupStore.onExpenseChanged(ExpenseChangedEvent.updated(1L,
+                snapshot("20.00", LocalDate.of(2024, 1, 5), Category.FOOD),
+                snapshot("30.00", LocalDate.of(2024, 2, 5), Category.HOUSING)));
+        List<ExpenseSummaryDTO> result = offHeapRollupStore.getMonthlySummary(1L,
+                YearMonth.of(2024, 1), YearMonth.of(2024, 12)).orElseThrow();
+
+        // Then
+        verify(expenseRollupRepository, times(1))
+                .findByUserIdAndYearMonthBetweenOrderByYearMonthAscCategoryAsc(anyLong(), anyInt(), anyInt());
+        assertEquals(2, result.size());
+        assertEquals(YearMonth.of(2024, 1), result.get(0).getYearMonth());
+        assertEquals(new BigDecimal("25.99"), result.get(0).getTotal());
+        assertEquals(1L, result.get(0).getCount());
+        assertEquals(Category.HOUSING, result.get(1).getCategory());
+        assertEquals(new BigDecimal("30.00"), result.get(1).getTotal());
+    }
+
+    @Test
+    @DisplayName("Should decline ranges outside the window")
+    void getMonthlySummary_OutsideWindow_ReturnsEmpty() {
+        // When / Then
+        assertTrue(offHeapRollupStore.getMonthlySummary(1L, YearMonth.of(2019, 12), YearMonth.of(2020, 6)).isEmpty());
+        assertTrue(offHeapRollupStore.getMonthlySummary(1L, YearMonth.of(2024, 6), YearMonth.of(2025, 1)).isEmpty());
+        verifyNoInteractions(expenseRollupRepository);
+    }
+
+    @Test
+    @DisplayName("Should reseed a user after invalidation")
+    void invalidate_SeededUser_ReloadsOnNextRead() {
+        // Given
+        seed(1L);
+        offHeapRollupStore.getMonthlySummary(1L, YearMonth.of(2024, 1), YearMonth.of(2024, 1));
+
+        // When
+        offHeapRollupStore.invalidate(1L);
+        offHeapRollupStore.getMonthlySummary(1L, YearMonth.of(2024, 1), YearMonth.of(2024, 1));
+
+        // Then
+        verify(expenseRollupRepository, times(2))
+                .findByUserIdAndYearMonthBetweenOrderByYearMonthAscCategoryAsc(anyLong(), anyInt(), anyInt());
+        assertTrue(offHeapRollupStore.isReady(1L));
+    }
+
+    @Test
+    @DisplayName("Should keep persisted totals matching the rollup table after a restart")
+    void open_AfterCleanClose_KeepsMatchingTotals(@TempDir Path directory) throws Exception {
+        // Given
+        String path = directory.resolve("rollups.bin").toString();
+        OffHeapRollupStore first = newStore(path);
+        seed(1L);
+        first.getMonthlySummary(1L, YearMonth.of(2024, 1), YearMonth.of(2024, 1));
+        first.close();
+
+        // When
+        OffHeapRollupStore second = newStore(path);
+        boolean ready = second.isReady(1L);
+        List<ExpenseSummaryDTO> result = second.getMonthlySummary(1L, YearMonth.of(2024, 1), YearMonth.of(2024, 1))
+                .orElseThrow();
+        second.close();
+
+        // Then
+        assertTrue(ready);
+        verify(expenseRollupRepository, times(2))
+                .findByUserIdAndYearMonthBetweenOrderByYearMonthAscCategoryAsc(anyLong(), anyInt(), anyInt());
+        assertEquals(new BigDecimal("45.99"), result.get(0).getTotal());
+    }
+
+    @Test
+    @DisplayName("Should reseed persisted totals that no longer match the rollup table")
+    void open_RollupsChangedWhileStopped_ReseedsUser(@TempDir Path directory) throws Exception {
+        // Given
+        String path = directory.resolve("rollups.bin").toString();
+        OffHeapRollupStore first = newStore(path);
+        seed(1L);
+        first.getMonthlySummary(1L, YearMonth.of(2024, 1), YearMonth.of(2024, 1));
+        first.close();
+        when(expenseRollupRepository.findByUserIdAndYearMonthBetweenOrderByYearMonthAscCategoryAsc(1L, 202001, 202412))
+                .thenReturn(List.of(ExpenseRollup.builder().userId(1L).yearMonth(202401).category(Category.FOOD)
+                        .totalCents(6099L).expenseCount(3L).build()));
+
+        // When
+        OffHeapRollupStore second = newStore(path);
+        boolean ready = second.isReady(1L);
+        List<ExpenseSummaryDTO> result = second.getMonthlySummary(1L, YearMonth.of(2024, 1), YearMonth.of(2024, 1))
+                .orElseThrow();
+        second.close();
+
+        // Then
+        assertFalse(ready);
+        assertEquals(new BigDecimal("60.99"), result.get(0).getTotal());
+        assertEquals(3L, result.get(0).getCount());
+    }
+
+}
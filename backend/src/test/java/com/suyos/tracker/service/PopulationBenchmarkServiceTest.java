@@ -0,0 +1,132 @@
+package com.suyos.tracker.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.suyos.tracker.archive.ExpenseArchive;
+import com.suyos.tracker.archive.ExpenseHistory;
+import com.suyos.tracker.dto.CategoryBenchmarkDTO;
+import com.suyos.tracker.dto.PopulationBenchmarkDTO;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.model.Expense;
+import com.suyos.tracker.model.User;
+import com.suyos.tracker.repository.ExpenseRepository;
+import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.sharding.ShardMap;
+
+/**
+ * Tests for PopulationBenchmarkService against an in-memory database.
+ * 
+ * Runs without a test transaction because the batch job reads committed
+ * data from its own worker transactions.
+ * 
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("PopulationBenchmarkService Tests")
+class PopulationBenchmarkServiceTest {
+
+    private static final int USERS = 25;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private PopulationBenchmarkService populationBenchmarkService;
+
+    private Long lastUserId;
+
+    @BeforeEach
+    void setUp() {
+        populationBenchmarkService = new PopulationBenchmarkService(expenseRepository, userRepository,
+                transactionManager, new ExpenseRangeSumIndex(new ExpenseHistory(expenseRepository, new ExpenseArchive())), new ShardMap());
+        ReflectionTestUtils.setField(populationBenchmarkService, "parallelism", 4);
+        ReflectionTestUtils.setField(populationBenchmarkService, "partitionSize", 3L);
+
+        // User i spends i * 12.00 on food last month, so averages 1.00 * i per month
+        for (int i = 1; i <= USERS; i++) {
+            User user = userRepository.save(User.builder()
+                    .username("user" + i)
+                    .email("user" + i + "@example.com")
+                    .password("password")
+                    .firstName("User")
+                    .lastName(String.valueOf(i))
+                    .build());
+            expenseRepository.save(Expense.builder()
+                    .description("Groceries")
+                    .amount(new BigDecimal(i * 12 + ".00"))
+                    .date(YearMonth.now().minusMonths(1).atDay(10))
+                    .category(Category.FOOD)
+                    .user(user)
+                    .build());
+            lastUserId = user.getId();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        expenseRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should report unavailable benchmarks before the first refresh")
+    void getBenchmarks_NoSnapshot_ReturnsNull() {
+        // When & Then
+        assertNull(populationBenchmarkService.getBenchmarks(lastUserId));
+    }
+
+    @Test
+    @DisplayName("Should compare a user with the population from partitioned streaming scans")
+    void refresh_PartitionedScan_PublishesComparableSnapshot() {
+        // When
+        PopulationBenchmarkService.PopulationSnapshot snapshot = populationBenchmarkService.refresh();
+        PopulationBenchmarkDTO benchmarks = populationBenchmarkService.getBenchmarks(lastUserId);
+
+        // Then
+        assertEquals(USERS, snapshot.getSketches()[Category.FOOD.ordinal()].getCount());
+        assertEquals(1, benchmarks.getCategories().size());
+        CategoryBenchmarkDTO food = benchmarks.getCategories().get(0);
+        assertEquals(Category.FOOD, food.getCategory());
+        assertEquals(new BigDecimal("25.00"), food.getMonthlyAverage());
+        assertEquals(100.0, food.getPercentileRank());
+        assertEquals(USERS, food.getPopulationUsers());
+        assertEquals(new BigDecimal("13.00"), food.getPopulationPercentiles().get("p50"));
+    }
+
+    @Test
+    @DisplayName("Should omit categories with too few spending users")
+    void getBenchmarks_SmallPopulation_OmitsCategory() {
+        // Given
+        ReflectionTestUtils.setField(populationBenchmarkService, "minUsers", USERS + 1L);
+
+        // When
+        populationBenchmarkService.refresh();
+
+        // Then
+        assertTrue(populationBenchmarkService.getBenchmarks(lastUserId).getCategories().isEmpty());
+    }
+
+}
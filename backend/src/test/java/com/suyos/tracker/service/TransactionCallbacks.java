@@ -0,0 +1,68 @@
+package com.suyos.tracker.service;
+
+import java.util.List;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Test harness for listeners that apply changes once their transaction completes.
+ *
+ * Tests running inside a test-managed transaction call a listener through
+ * {@link #capture(Runnable)} to collect the callbacks it registers without
+ * attaching them to the test transaction, and then complete them with the
+ * outcome under test, e.g. {@code runCommitted(() -> index.onExpenseChanged(event))}.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Runs an action in its own synchronization scope.
+     *
+     * @param action the action, typically a listener call
+     * @return the synchronizations the action registered
+     */
+    static List<TransactionSynchronization> capture(Runnable action) {
+        boolean active = TransactionSynchronizationManager.isSynchronizationActive();
+        List<TransactionSynchronization> outer = active ? TransactionSynchronizationManager.getSynchronizations() : List.of();
+        if (active) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            if (active) {
+                TransactionSynchronizationManager.initSynchronization();
+                outer.forEach(TransactionSynchronizationManager::registerSynchronization);
+            }
+        }
+    }
+
+    /**
+     * Completes captured synchronizations.
+     *
+     * @param synchronizations the synchronizations
+     * @param status the completion status, e.g. {@link TransactionSynchronization#STATUS_COMMITTED}
+     */
+    static void complete(List<TransactionSynchronization> synchronizations, int status) {
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    /**
+     * Runs an action as a committed transaction of its own.
+     *
+     * @param action the action, typically a listener call
+     */
+    static void runCommitted(Runnable action) {
+        complete(capture(action), TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+}
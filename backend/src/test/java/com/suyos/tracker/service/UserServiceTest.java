@@ -12,12 +12,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import com.suyos.tracker.config.ReadYourWritesTracker;
 import com.suyos.tracker.dto.AuthenticationResponseDTO;
 import com.suyos.tracker.dto.UserLoginDTO;
 import com.suyos.tracker.dto.UserProfileDTO;
@@ -25,6 +27,7 @@ import com.suyos.tracker.dto.UserRegistrationDTO;
 import com.suyos.tracker.mapper.UserMapper;
 import com.suyos.tracker.model.User;
 import com.suyos.tracker.repository.UserRepository;
+import com.suyos.tracker.sharding.ShardMap;
 
 /**
  * Unit tests for UserService.
@@ -48,6 +51,12 @@ class UserServiceTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private ReadYourWritesTracker readYourWrites;
+
+    @Spy
+    private ShardMap shardMap = new ShardMap();
+
     @Mock
     private SecurityContext securityContext;
 
@@ -119,6 +128,7 @@ class UserServiceTest {
         assertEquals(profileDTO.getEmail(), result.getEmail());
         verify(userRepository).existsByEmail(registrationDTO.getEmail());
         verify(userRepository).save(any(User.class));
+        verify(readYourWrites).markWrite(testUser.getEmail());
     }
 
     @Test
@@ -0,0 +1,352 @@
+package com.suyos.tracker.sharding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.suyos.tracker.dto.ExpenseDTO;
+import com.suyos.tracker.dto.PagedResponse;
+import com.suyos.tracker.dto.UserProfileDTO;
+import com.suyos.tracker.dto.UserRegistrationDTO;
+import com.suyos.tracker.model.Category;
+import com.suyos.tracker.service.CustomUserDetailsService;
+import com.suyos.tracker.service.ExpenseService;
+import com.suyos.tracker.service.UserService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Integration tests for user-sharded storage over three in-memory databases.
+ *
+ * The shards are inspected through their own connections, so every
+ * assertion shows which database a row was written to.
+ *
+ * @author Joel Salazar
+ * @since 1.0
+ */
+@SpringBootTest(properties = {
+    "tracker.sharding.enabled=true",
+    "spring.datasource.url=" + ShardingIntegrationTest.HOME_URL,
+    "tracker.sharding.urls=" + ShardingIntegrationTest.SHARD1_URL + "," + ShardingIntegrationTest.SHARD2_URL,
+    "tracker.sharding.initialize-schema=true",
+    "tracker.sharding.rebalance.lock-timeout=PT1S",
+    "tracker.sharding.directory-refresh=" + ShardingIntegrationTest.DIRECTORY_REFRESH
+})
+@ActiveProfiles("test")
+@DisplayName("Sharding Integration Tests")
+class ShardingIntegrationTest {
+
+    static final String HOME_URL = "jdbc:h2:mem:shard-home";
+    static final String SHARD1_URL = "jdbc:h2:mem:shard-1";
+    static final String SHARD2_URL = "jdbc:h2:mem:shard-2";
+    static final String DIRECTORY_REFRESH = "PT0.2S";
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ShardMap shardMap;
+
+    @Autowired
+    private ShardRebalancer rebalancer;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<JdbcTemplate> shards;
+
+    @BeforeEach
+    void setUp() {
+        shards = Stream.of(HOME_URL, SHARD1_URL, SHARD2_URL)
+                .map(url -> new JdbcTemplate(new DriverManagerDataSource(url, username, password)))
+                .toList();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        rebalancer.rebalance();
+    }
+
+    @Test
+    @DisplayName("Should spread registrations over the shards and find accounts on them")
+    void registerUser_SpreadsUsersOverShards() {
+        // When
+        List<UserProfileDTO> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            users.add(register("spread" + i));
+        }
+
+        // Then
+        long[] counts = shardMap.getUserCounts();
+        assertEquals(3, counts.length);
+        assertTrue(max(counts) - min(counts) <= 1, "users per shard " + Arrays.toString(counts));
+        for (UserProfileDTO user : users) {
+            int shard = shardMap.shardOf(user.getId());
+            assertEquals(1, countRows(shard, "users", "id", user.getId()));
+            assertEquals(user.getEmail(), userDetailsService.loadUserByUsername(user.getEmail()).getUsername());
+            assertTrue(user.getId() >= shard * ShardSchemaInitializer.SHARD_ID_SPAN
+                && user.getId() < (shard + 1) * ShardSchemaInitializer.SHARD_ID_SPAN, "ID " + user.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Should write and read an authenticated user's expenses on the user's shard only")
+    void createExpense_AuthenticatedUser_WritesToOwnShard() {
+        // Given
+        UserProfileDTO user = firstUserOffHome("writer");
+        int shard = shardMap.shardOf(user.getId());
+        authenticate(user);
+
+        // When
+        ExpenseDTO created = expenseService.createExpense(expense("Groceries"), user.getId());
+        PagedResponse<ExpenseDTO> page = expenseService.getAllExpensesPaginated(user.getId(), 0, 10, "date", "desc",
+            null, null, null);
+
+        // Then
+        for (int other = 0; other < shards.size(); other++) {
+            assertEquals(other == shard ? 1 : 0, countRows(other, "expenses", "user_id", user.getId()),
+                "expenses on shard " + other);
+        }
+        assertEquals(shard, created.getId() / ShardSchemaInitializer.SHARD_ID_SPAN);
+        assertEquals(List.of(created.getId()), page.getContent().stream().map(ExpenseDTO::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should move a user's rows to another shard with their IDs")
+    void moveUser_CopiesRowsAndSwitchesShard() {
+        // Given
+        UserProfileDTO user = firstUserOffHome("mover");
+        int source = shardMap.shardOf(user.getId());
+        int target = source == 1 ? 2 : 1;
+        authenticate(user);
+        ExpenseDTO created = expenseService.createExpense(expense("Rent"), user.getId());
+
+        // When
+        boolean moved = rebalancer.moveUser(user.getId(), target);
+
+        // Then
+        assertTrue(moved);
+        assertEquals(target, shardMap.shardOf(user.getId()));
+        assertEquals(0, countRows(source, "users", "id", user.getId()));
+        assertEquals(0, countRows(source, "expenses", "user_id", user.getId()));
+        assertEquals(1, countRows(target, "expenses", "id", created.getId()));
+        assertEquals(created.getId(), expenseService.getExpenseById(created.getId(), user.getId()).getId());
+        assertFalse(rebalancer.moveUser(user.getId(), target));
+    }
+
+    @Test
+    @DisplayName("Should even out the shards after users pile up on one")
+    void rebalance_UnevenShards_MovesUsersToEmptiest() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            UserProfileDTO user = register("pile" + i);
+            if (shardMap.shardOf(user.getId()) != 2) {
+                rebalancer.moveUser(user.getId(), 2);
+            }
+        }
+        long[] before = shardMap.getUserCounts();
+
+        // When
+        int moved = rebalancer.rebalance();
+
+        // Then
+        long[] after = shardMap.getUserCounts();
+        assertTrue(max(before) - min(before) > 1, "users per shard " + Arrays.toString(before));
+        assertTrue(moved > 0);
+        assertTrue(max(after) - min(after) <= 1, "users per shard " + Arrays.toString(after));
+        for (int shard = 0; shard < shards.size(); shard++) {
+            Long users = shards.get(shard).queryForObject("SELECT COUNT(*) FROM users", Long.class);
+            assertEquals(after[shard], users, "users on shard " + shard);
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail a duplicate registration instead of replacing the directory entry")
+    void recordUser_EmailAlreadyInDirectory_FailsDuplicate() {
+        // Given
+        UserProfileDTO user = register("first");
+        int otherShard = (shardMap.shardOf(user.getId()) + 1) % shards.size();
+
+        // When
+        RuntimeException failure = assertThrows(RuntimeException.class,
+            () -> shardMap.recordUser(user.getId() + 1_000_000, user.getEmail(), otherShard));
+
+        // Then
+        assertEquals("Email already registered", failure.getMessage());
+        assertEquals(user.getId(), shards.get(ShardMap.HOME).queryForObject(
+            "SELECT user_id FROM user_shards WHERE email = ?", Long.class, user.getEmail()));
+    }
+
+    @Test
+    @DisplayName("Should remove the directory entry of a registration that rolls back")
+    void recordUser_TransactionRollsBack_RemovesEntry() {
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            shardMap.recordUser(999_999L, "rolledback@example.com", ShardMap.HOME);
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertEquals(0, countRows(ShardMap.HOME, "user_shards", "user_id", 999_999L));
+        assertNull(shardMap.userIdOf("rolledback@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should route to the new shard after another instance moves the user")
+    void moveUser_ByAnotherInstance_ReroutesRequests() {
+        // Given
+        UserProfileDTO user = firstUserOffHome("elsewhere");
+        int source = shardMap.shardOf(user.getId());
+        int target = source == 1 ? 2 : 1;
+        authenticate(user);
+        ExpenseDTO created = expenseService.createExpense(expense("Books"), user.getId());
+        List<DataSource> dataSources = Stream.of(HOME_URL, SHARD1_URL, SHARD2_URL)
+                .<DataSource>map(url -> new DriverManagerDataSource(url, username, password))
+                .toList();
+        ShardMap otherMap = new ShardMap();
+        otherMap.attach(new JdbcTemplate(dataSources.get(ShardMap.HOME)), dataSources.size(), Duration.ofSeconds(1),
+            Duration.ofMinutes(5), Duration.parse(DIRECTORY_REFRESH));
+        ShardRebalancer otherRebalancer = new ShardRebalancer(dataSources, otherMap, new SimpleMeterRegistry(), 1,
+            Duration.ofSeconds(1));
+
+        // When
+        assertTrue(otherRebalancer.moveUser(user.getId(), target));
+        PagedResponse<ExpenseDTO> page = expenseService.getAllExpensesPaginated(user.getId(), 0, 10, "date", "desc",
+            null, null, null);
+
+        // Then
+        assertEquals(List.of(created.getId()), page.getContent().stream().map(ExpenseDTO::getId).toList());
+        assertEquals(target, shardMap.shardOf(user.getId()));
+        rebalancer.moveUser(user.getId(), source);
+    }
+
+    @Test
+    @DisplayName("Should hold work on a user back while another instance moves it")
+    void bindUser_UserBeingMoved_WaitsForMove() throws InterruptedException {
+        // Given
+        UserProfileDTO user = register("held");
+        shards.get(ShardMap.HOME).update("UPDATE user_shards SET moving_since = ? WHERE user_id = ?",
+            Timestamp.from(Instant.now()), user.getId());
+        // A move waits this long after marking the user before copying
+        Thread.sleep(Duration.parse(DIRECTORY_REFRESH).toMillis());
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> shardMap.bindUser(user.getId()));
+        assertThrows(IllegalStateException.class, () -> rebalancer.moveUser(user.getId(),
+            (shardMap.shardOf(user.getId()) + 1) % shards.size()));
+        shards.get(ShardMap.HOME).update("UPDATE user_shards SET moving_since = NULL WHERE user_id = ?",
+            user.getId());
+        try (ShardContext.Scope scope = shardMap.bindUser(user.getId())) {
+            assertEquals(user.getEmail(), userDetailsService.loadUserByUsername(user.getEmail()).getUsername());
+        }
+    }
+
+    @Test
+    @DisplayName("Should route from the verified shard without the directory until the refresh interval passes")
+    void bindUser_RecentlyVerified_SkipsDirectoryUntilRefresh() throws InterruptedException {
+        // Given
+        UserProfileDTO user = register("cached");
+        try (ShardContext.Scope scope = shardMap.bindUser(user.getId())) {
+            assertEquals(user.getEmail(), userDetailsService.loadUserByUsername(user.getEmail()).getUsername());
+        }
+        shards.get(ShardMap.HOME).update("UPDATE user_shards SET moving_since = ? WHERE user_id = ?",
+            Timestamp.from(Instant.now()), user.getId());
+
+        // When & Then
+        try (ShardContext.Scope scope = shardMap.bindUser(user.getId())) {
+            assertEquals(user.getEmail(), userDetailsService.loadUserByUsername(user.getEmail()).getUsername());
+        }
+        Thread.sleep(Duration.parse(DIRECTORY_REFRESH).toMillis());
+        assertThrows(IllegalStateException.class, () -> shardMap.bindUser(user.getId()));
+        shards.get(ShardMap.HOME).update("UPDATE user_shards SET moving_since = NULL WHERE user_id = ?",
+            user.getId());
+    }
+
+    private UserProfileDTO register(String name) {
+        return userService.registerUser(UserRegistrationDTO.builder()
+                .username(name + System.nanoTime() % 100_000)
+                .firstName("Shard")
+                .lastName("Tester")
+                .email(name + System.nanoTime() + "@example.com")
+                .password("Password123!")
+                .termsAccepted(true)
+                .privacyPolicyAccepted(true)
+                .build());
+    }
+
+    private UserProfileDTO firstUserOffHome(String name) {
+        for (int i = 0; i < shards.size(); i++) {
+            UserProfileDTO user = register(name + i);
+            if (shardMap.shardOf(user.getId()) != ShardMap.HOME) {
+                return user;
+            }
+        }
+        throw new AssertionError("No registration left the home shard");
+    }
+
+    private static void authenticate(UserProfileDTO user) {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+    }
+
+    private static ExpenseDTO expense(String description) {
+        return ExpenseDTO.builder()
+                .description(description)
+                .amount(new BigDecimal("42.00"))
+                .date(LocalDate.of(2024, 3, 1))
+                .category(Category.FOOD)
+                .build();
+    }
+
+    private long countRows(int shard, String table, String column, long id) {
+        return shards.get(shard).queryForObject(
+            "SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?", Long.class, id);
+    }
+
+    private static long max(long[] values) {
+        return Arrays.stream(values).max().orElseThrow();
+    }
+
+    private static long min(long[] values) {
+        return Arrays.stream(values).min().orElseThrow();
+    }
+
+}
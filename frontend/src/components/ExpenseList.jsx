@@ -1,16 +1,31 @@
-import { useEffect, useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import DatePicker from 'react-datepicker';
 import 'react-datepicker/dist/react-datepicker.css';
 import './ExpenseList.css';
-import { expenseAPI } from '../services/api';
+import { expenseAPI, changeStreamAPI } from '../services/api';
 import { getCategoryIcon, CATEGORIES } from '../constants/categories';
 
+/**
+ * Delay before reopening the change stream after it was refused or unreachable.
+ * 
+ * @constant {number}
+ */
+const STREAM_RETRY_MS = 30000;
+
+/**
+ * Consecutive failures to open the change stream after which it is given up until the page is reloaded.
+ * 
+ * @constant {number}
+ */
+const STREAM_MAX_FAILURES = 5;
+
 /**
  * Expense list component displaying paginated expense data in a table.
  * 
  * This component fetches and displays expenses with server-side pagination,
  * sorting by date (newest first). It includes controls for page size selection
- * and provides edit/delete actions for each expense.
+ * and provides edit/delete actions for each expense. Changes made elsewhere,
+ * e.g. in another tab, arrive through the change stream and update the page.
  * 
  * @component
  * @param {Object} props - Component props
@@ -54,13 +69,26 @@ function ExpenseList({ onAddExpense, onEditExpense }) {
     const [showConfirmModal, setShowConfirmModal] = useState(false);
     const [expenseToDelete, setExpenseToDelete] = useState(null);
 
+    /** Incremented to reload the current page after a streamed change */
+    const [reloadCount, setReloadCount] = useState(0);
+
+    /** Whether the next fetch reloads in the background, keeping the table on screen */
+    const backgroundReload = useRef(false);
+
+    /** Expenses on the current page, as seen by the change stream handler */
+    const dataRef = useRef(data);
+
     /**
      * Effect hook to fetch expense data when pagination or filters change.
      * Automatically refetches data when currentPage, itemsPerPage, or any filter changes.
      */
     useEffect(() => {
         const fetchData = async () => {
-            setLoading(true); // Show loading state
+            const background = backgroundReload.current;
+            backgroundReload.current = false;
+            if (!background) {
+                setLoading(true); // Show loading state
+            }
             try {
                 // Fetch paginated data from API with filters
                 const response = await expenseAPI.getPaginated(
@@ -84,7 +112,91 @@ function ExpenseList({ onAddExpense, onEditExpense }) {
             }
         };
         fetchData();
-    }, [currentPage, itemsPerPage, filterCategory, filterStartDate, filterEndDate]); // Re-run when pagination or filters change
+    }, [currentPage, itemsPerPage, filterCategory, filterStartDate, filterEndDate, reloadCount]); // Re-run when pagination or filters change
+
+    useEffect(() => {
+        dataRef.current = data;
+    }, [data]);
+
+    /**
+     * Effect hook applying streamed expense changes to the current page.
+     * 
+     * Updates that keep an expense's date and category are applied in place.
+     * Any other change can move expenses across pages, so the page is reloaded
+     * in the background. The stream is opened with a short-lived ticket; when
+     * the ticket has expired the stream is reopened with a new one, resuming
+     * after the last change received. The stream is only used when the
+     * reactive API is enabled, and is given up after repeated failures.
+     */
+    useEffect(() => {
+        if (!changeStreamAPI.enabled) {
+            return;
+        }
+        let source = null;
+        let retryTimer = null;
+        let lastEventId = null;
+        let failures = 0;
+        let closed = false;
+
+        const applyChange = (change) => {
+            const shown = dataRef.current.find(expense => expense.id === change.expenseId);
+            if (shown && change.type === 'UPDATED'
+                && change.date === shown.date && change.category === shown.category) {
+                setData(prev => prev.map(expense => expense.id === change.expenseId
+                    ? { ...expense, description: change.description, amount: change.amount }
+                    : expense));
+            } else {
+                backgroundReload.current = true;
+                setReloadCount(prev => prev + 1);
+            }
+        };
+
+        const scheduleReconnect = () => {
+            if (closed) {
+                return;
+            }
+            failures += 1;
+            if (failures >= STREAM_MAX_FAILURES) {
+                console.warn(`Expense change stream given up after ${failures} failed attempts`);
+                return;
+            }
+            retryTimer = setTimeout(connect, STREAM_RETRY_MS);
+        };
+
+        const connect = async () => {
+            try {
+                const { ticket } = await changeStreamAPI.getTicket();
+                if (closed) {
+                    return;
+                }
+                source = changeStreamAPI.open(ticket, lastEventId);
+                source.onopen = () => {
+                    failures = 0;
+                };
+                source.onmessage = (event) => {
+                    lastEventId = event.lastEventId;
+                    applyChange(JSON.parse(event.data));
+                };
+                source.onerror = () => {
+                    // The browser reconnects by itself unless the stream was refused, e.g. for an expired ticket
+                    if (source.readyState === EventSource.CLOSED) {
+                        source = null;
+                        scheduleReconnect();
+                    }
+                };
+            } catch (err) {
+                console.warn('Expense change stream unavailable:', err.message);
+                scheduleReconnect();
+            }
+        };
+
+        connect();
+        return () => {
+            closed = true;
+            clearTimeout(retryTimer);
+            source?.close();
+        };
+    }, []);
 
     if (loading) {
         return <div className="loading">Loading...</div>;
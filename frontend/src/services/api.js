@@ -10,6 +10,15 @@ import axios from 'axios';
  */
 const API_BASE_URL = 'http://localhost:8080/api';
 
+/**
+ * Base URL of the reactive API, which serves the expense change stream.
+ * Set with VITE_REACTIVE_API_URL when the reactive server is not on its default port.
+ * 
+ * @constant {string}
+ * @since 1.0
+ */
+const REACTIVE_BASE_URL = import.meta.env.VITE_REACTIVE_API_URL || 'http://localhost:8081/api';
+
 // Create axios instance with base configuration
 const apiClient = axios.create({
     baseURL: API_BASE_URL,
@@ -135,6 +144,55 @@ export const expenseAPI = {
     }
 };
 
+/**
+ * Change stream service pushing the user's expense changes as Server-Sent Events.
+ * 
+ * A browser EventSource cannot send the Authorization header, so the stream
+ * is opened with a short-lived ticket issued for the current JWT token.
+ * 
+ * @namespace changeStreamAPI
+ * @since 1.0
+ */
+export const changeStreamAPI = {
+    /**
+     * Whether the backend serves the reactive API (tracker.reactive.enabled).
+     * Off unless the frontend is built with VITE_REACTIVE_API_ENABLED=true.
+     * 
+     * @type {boolean}
+     * @since 1.0
+     */
+    enabled: import.meta.env.VITE_REACTIVE_API_ENABLED === 'true',
+
+    /**
+     * Requests a ticket for opening the change stream.
+     * 
+     * @function getTicket
+     * @returns {Promise<Object>} Promise resolving to the ticket and its lifetime in seconds
+     * @since 1.0
+     */
+    getTicket: async () => {
+        const response = await apiClient.post('/expenses/stream/ticket', null, {
+            baseURL: REACTIVE_BASE_URL
+        });
+        return response.data;
+    },
+
+    /**
+     * Opens the change stream.
+     * 
+     * @function open
+     * @param {string} ticket - Ticket from {@link changeStreamAPI.getTicket}
+     * @param {string} [lastEventId=null] - ID of the last change received, to replay the ones missed since
+     * @returns {EventSource} Event source emitting one message per change
+     * @since 1.0
+     */
+    open: (ticket, lastEventId = null) => {
+        const params = new URLSearchParams({ ticket });
+        if (lastEventId) params.set('lastEventId', lastEventId);
+        return new EventSource(`${REACTIVE_BASE_URL}/expenses/stream?${params}`);
+    }
+};
+
 /**
  * Authentication API service for user login, registration, and JWT management.
  * 